@@ -15,8 +15,13 @@ import com.smartspend.auth.dtos.RegisterRequestDto;
 import com.smartspend.user.User;
 import com.smartspend.user.UserRepository;
 
+import io.micrometer.core.annotation.Counted;
+import io.micrometer.core.annotation.Timed;
+
 
 @Service
+@Timed(value = "smartspend.service", histogram = true)
+@Counted("smartspend.service.calls")
 public class AuthService {
     
     @Autowired
@@ -8,6 +8,11 @@ import javax.crypto.SecretKey;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
+import com.smartspend.security.SmartSpendPrincipal;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.SignatureAlgorithm;
 import io.jsonwebtoken.io.Decoders;
@@ -16,10 +21,15 @@ import io.jsonwebtoken.security.Keys;
 @Service
 public class JwtService {
     private final SecretKey secretKey;
+    // El parser es inmutable y thread-safe: se construye una vez y se reutiliza en cada petición
+    private final JwtParser jwtParser;
     private final long jwtExpirationMs = 900000 ; // 15 minutes
 
     public JwtService(@Value("${jwt.secret}") String secret) {
         this.secretKey = Keys.hmacShaKeyFor(Decoders.BASE64.decode(secret));
+        this.jwtParser = Jwts.parserBuilder()
+                .setSigningKey(secretKey)
+                .build();
     }
 
     public String generateToken(Long userId, String email) {
@@ -34,12 +44,26 @@ public class JwtService {
     }
 
     public String extractEmail(String token) {
-        return Jwts.parserBuilder()
-                .setSigningKey(secretKey)
-                .build()
-                .parseClaimsJws(token)
-                .getBody()
-                .getSubject();
+        return parseClaims(token).getSubject();
+    }
+
+    /**
+     * Verifica la firma y la expiración del token y devuelve sus claims
+     */
+    public Claims parseClaims(String token) {
+        return jwtParser.parseClaimsJws(token).getBody();
+    }
+
+    /**
+     * Usuario que contiene un token ya verificado (claims subject y userId). Es la única
+     * traducción de claims a principal: la usa VerifiedTokenCache con los claims de parseClaims
+     */
+    public SmartSpendPrincipal toPrincipal(Claims claims) {
+        Number userId = claims.get("userId", Number.class);
+        if (userId == null) {
+            throw new JwtException("Token without userId claim");
+        }
+        return new SmartSpendPrincipal(userId.longValue(), claims.getSubject());
     }
 
-}
\ No newline at end of file
+}
@@ -1,6 +1,6 @@
 package com.smartspend.bankAccount;
 
-import org.springframework.security.core.Authentication;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
 
 import java.util.List;
 
@@ -16,6 +16,7 @@ import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 
 import com.smartspend.bankAccount.dtos.CreateBankAccountDTO;
+import com.smartspend.security.SmartSpendPrincipal;
 
 
 @RestController
@@ -26,20 +27,20 @@ public class BankAccountController {
     BankAccountService bankAccountService;
 
     @GetMapping
-    public ResponseEntity<List<BankAccount>> getBankAccounts(Authentication authentication) {
+    public ResponseEntity<List<BankAccount>> getBankAccounts(@AuthenticationPrincipal SmartSpendPrincipal principal) {
 
-        String email = authentication.getName();
+        Long userId = principal.userId();
 
-        List<BankAccount> accounts = bankAccountService.getUserBankAccountsByEmail(email);
+        List<BankAccount> accounts = bankAccountService.getUserBankAccounts(userId);
         return ResponseEntity.ok(accounts);
     }
 
     @GetMapping("/{accountId}")
-    public ResponseEntity<BankAccount> getBankAccountById(@PathVariable Long accountId, Authentication authentication) {
+    public ResponseEntity<BankAccount> getBankAccountById(@PathVariable Long accountId, @AuthenticationPrincipal SmartSpendPrincipal principal) {
 
-        String email = authentication.getName();
+        Long userId = principal.userId();
 
-        BankAccount accountDetails = bankAccountService.getBankAccountByIdAndEmail(accountId, email);
+        BankAccount accountDetails = bankAccountService.getBankAccountByIdAndUser(accountId, userId);
         
 
         return ResponseEntity.ok(accountDetails);
@@ -48,11 +49,11 @@ public class BankAccountController {
 
 
     @PostMapping
-    public ResponseEntity<BankAccount> createBankAccount(@RequestBody CreateBankAccountDTO bankAccountDto, Authentication authentication) {
+    public ResponseEntity<BankAccount> createBankAccount(@RequestBody CreateBankAccountDTO bankAccountDto, @AuthenticationPrincipal SmartSpendPrincipal principal) {
 
-        String email = authentication.getName();
+        Long userId = principal.userId();
 
-        BankAccount newAccount = bankAccountService.createBankAccount(bankAccountDto, email);
+        BankAccount newAccount = bankAccountService.createBankAccount(bankAccountDto, userId);
 
         return ResponseEntity.status(HttpStatus.CREATED).body(newAccount);
         // return ResponseEntity.ok(newAccount); 
@@ -60,11 +61,11 @@ public class BankAccountController {
 
 
     @DeleteMapping("/{accountId}")
-    public ResponseEntity<Void> deleteBankAccount(@PathVariable Long accountId, Authentication authentication)
+    public ResponseEntity<Void> deleteBankAccount(@PathVariable Long accountId, @AuthenticationPrincipal SmartSpendPrincipal principal)
     {
-        String email = authentication.getName();
+        Long userId = principal.userId();
 
-        BankAccount accountToDelete = bankAccountService.getBankAccountByIdAndEmail(accountId, email);
+        BankAccount accountToDelete = bankAccountService.getBankAccountByIdAndUser(accountId, userId);
 
         bankAccountService.deleteBankAccount(accountToDelete);
 
@@ -1,12 +1,48 @@
 package com.smartspend.bankAccount;
 
+import java.math.BigDecimal;
 import java.util.List;
 import java.util.Optional;
 
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import com.smartspend.report.dtos.ReportAccountDto;
+
+import jakarta.persistence.LockModeType;
 
 public interface BankAccountRepository extends JpaRepository<BankAccount, Long>{
+    // El usuario es EAGER: sin el entity graph llegaría en un segundo SELECT
+    @EntityGraph(attributePaths = "user")
     List<BankAccount> findByUser_UserId(Long userId);
+
+    @EntityGraph(attributePaths = "user")
     Optional<BankAccount> findByIdAndUser_UserId(Long id, Long userId);
+
     long countByUser(com.smartspend.user.User user);
+
+    // Cabecera del informe comprobando a la vez que la cuenta es del usuario
+    @Query("SELECT new com.smartspend.report.dtos.ReportAccountDto(a.id, a.accountName, a.currentBalance) " +
+           "FROM BankAccount a WHERE a.id = :id AND a.user.userId = :userId")
+    Optional<ReportAccountDto> findReportAccount(@Param("id") Long id, @Param("userId") Long userId);
+
+    // Bloquea la fila de la cuenta antes de leer una transacción suya para editarla o borrarla:
+    // es el mismo bloqueo que toma addToBalance, así que todas las escrituras de la cuenta se
+    // serializan en el mismo orden (cuenta y después transacción) sin interbloqueos
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT a FROM BankAccount a WHERE a.id = :id")
+    Optional<BankAccount> findByIdForUpdate(@Param("id") Long id);
+
+    // Suma atómica sobre el saldo en la propia base de datos, sin leer antes la entidad
+    @Modifying
+    @Query("UPDATE BankAccount a SET a.currentBalance = a.currentBalance + :delta WHERE a.id = :id")
+    int addToBalance(@Param("id") Long id, @Param("delta") BigDecimal delta);
+
+    // Lee el saldo de la fila, no de la entidad en caché (que no ve los addToBalance)
+    @Query("SELECT a.currentBalance FROM BankAccount a WHERE a.id = :id")
+    BigDecimal findCurrentBalance(@Param("id") Long id);
 }
@@ -4,14 +4,26 @@ import java.math.BigDecimal;
 import java.util.List;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import com.smartspend.bankAccount.dtos.CreateBankAccountDTO;
+import com.smartspend.image.ImageCleanupService;
+import com.smartspend.ledger.LedgerService;
+import com.smartspend.transaction.TransactionChangedEvent;
+import com.smartspend.transaction.TransactionRepository;
+import com.smartspend.transaction.search.TransactionSearchIndex;
 
 import com.smartspend.user.User;
 import com.smartspend.user.UserRepository;
 
+import io.micrometer.core.annotation.Counted;
+import io.micrometer.core.annotation.Timed;
+
 @Service
+@Timed(value = "smartspend.service", histogram = true)
+@Counted("smartspend.service.calls")
 public class BankAccountService {
     
     @Autowired 
@@ -20,10 +32,25 @@ public class BankAccountService {
     @Autowired 
     UserRepository userRepository;
 
+    @Autowired
+    LedgerService ledgerService;
+
+    @Autowired
+    ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    TransactionSearchIndex searchIndex;
+
+    @Autowired
+    TransactionRepository transactionRepository;
 
-    public BankAccount createBankAccount(CreateBankAccountDTO bankAccountDto, String email) {
+    @Autowired
+    ImageCleanupService imageCleanupService;
+
+
+    public BankAccount createBankAccount(CreateBankAccountDTO bankAccountDto, Long userId) {
         
-        User user = userRepository.findByUserEmail(email).orElseThrow(() -> new RuntimeException("User not found"));
+        User user = userRepository.findById(userId).orElseThrow(() -> new RuntimeException("User not found"));
 
         BigDecimal initialBalance = bankAccountDto.initialBalance() != null ? bankAccountDto.initialBalance() : BigDecimal.ZERO;
 
@@ -33,22 +60,26 @@ public class BankAccountService {
     }
 
 
-    public List<BankAccount> getUserBankAccountsByEmail(String email){
-        User user = userRepository.findByUserEmail(email).orElseThrow(() -> new RuntimeException("User not found"));
-
-        return bankAccountRepository.findByUser_UserId(user.getUserId());
+    public List<BankAccount> getUserBankAccounts(Long userId){
+        return bankAccountRepository.findByUser_UserId(userId);
 
     }
 
-    public BankAccount getBankAccountByIdAndEmail(Long accountId, String email) {
-        User user = userRepository.findByUserEmail(email).orElseThrow(() -> new RuntimeException("User not found"));
-
-        return bankAccountRepository.findByIdAndUser_UserId(accountId, user.getUserId())
+    public BankAccount getBankAccountByIdAndUser(Long accountId, Long userId) {
+        return bankAccountRepository.findByIdAndUser_UserId(accountId, userId)
             .orElseThrow(() -> new RuntimeException("Bank account not found"));
     }
 
 
+    @Transactional
     public void deleteBankAccount(BankAccount account) {
+        // Las transacciones se borran en cascada: sus imágenes se liberan aquí, con los blobs
+        // bloqueados antes que la cuenta como en cualquier otro borrado
+        List<String> lockedImages = imageCleanupService.lock(transactionRepository.findImageHashesByAccountId(account.getId()));
+        ledgerService.deleteAccount(account.getId());
+        searchIndex.deleteAccount(account.getId());
         bankAccountRepository.delete(account);
+        lockedImages.forEach(imageCleanupService::releaseIfUnused);
+        eventPublisher.publishEvent(TransactionChangedEvent.allDates(account.getId()));
     }    
 }
@@ -0,0 +1,90 @@
+package com.smartspend.cache;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.List;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.support.NoOpCacheManager;
+import org.springframework.cache.support.SimpleCacheManager;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+
+/**
+ * Cachés de los gráficos y del informe mensual. Un periodo ya cerrado solo cambia si alguien
+ * edita movimientos antiguos, y eso lo invalida {@link ChartCacheInvalidator}, así que se guarda
+ * mucho tiempo; el periodo en curso caduca pronto porque sus resultados dependen también de la
+ * fecha de hoy (la evolución se corta en hoy).
+ * Con segundo nivel hay varias réplicas y cada una solo invalida su Caffeine al escribir, así
+ * que ahí el periodo cerrado se guarda en el primer nivel como mucho l1-ttl-with-l2: pasado ese
+ * tiempo se vuelve a leer del segundo nivel, que sí se invalida para todas.
+ */
+@Configuration
+@EnableCaching
+public class ChartCacheConfig {
+
+    public static final String CHARTS = "charts";
+    public static final String REPORTS = "reports";
+
+    // false: @Cacheable siempre ejecuta el método (benchmarks comparables con los de antes de la caché)
+    @Value("${smartspend.cache.charts.enabled:true}")
+    private boolean enabled;
+
+    @Value("${smartspend.cache.charts.max-size:10000}")
+    private long maxSize;
+
+    @Value("${smartspend.cache.charts.closed-period-ttl:PT24H}")
+    private Duration closedPeriodTtl;
+
+    @Value("${smartspend.cache.charts.open-period-ttl:PT5M}")
+    private Duration openPeriodTtl;
+
+    @Value("${smartspend.cache.charts.l1-ttl-with-l2:PT5M}")
+    private Duration l1TtlWithSecondLevel;
+
+    @Bean
+    public CacheManager cacheManager(MeterRegistry meterRegistry, ObjectProvider<SecondLevelCache> secondLevelCache) {
+        if (!enabled) {
+            System.out.println("Caché de gráficos: desactivada");
+            return new NoOpCacheManager();
+        }
+        SecondLevelCache secondLevel = secondLevelCache.getIfAvailable();
+        SimpleCacheManager cacheManager = new SimpleCacheManager();
+        cacheManager.setCaches(List.of(
+            twoLevelCache(CHARTS, secondLevel, meterRegistry),
+            twoLevelCache(REPORTS, secondLevel, meterRegistry)));
+        System.out.println("Caché de gráficos: Caffeine" + (secondLevel != null ? " + " + secondLevel.getClass().getSimpleName() : ""));
+        return cacheManager;
+    }
+
+    private TwoLevelCache twoLevelCache(String name, SecondLevelCache secondLevel, MeterRegistry meterRegistry) {
+        Duration closedTtl = secondLevel == null || closedPeriodTtl.compareTo(l1TtlWithSecondLevel) <= 0
+            ? closedPeriodTtl
+            : l1TtlWithSecondLevel;
+        Cache<Object, Object> cache = Caffeine.newBuilder()
+            .maximumSize(maxSize)
+            .expireAfter(Expiry.creating((Object key, Object value) -> ttlFor(key, LocalDate.now(), closedTtl)))
+            .recordStats()
+            .build();
+        // cache_gets{cache=charts|reports, result=hit|miss}: el ratio de aciertos sale de aquí
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, name);
+        return new TwoLevelCache(name, cache, secondLevel, meterRegistry);
+    }
+
+    Duration ttlFor(Object key, LocalDate today, Duration closedTtl) {
+        if (key instanceof ChartCacheKey chartKey && chartKey.periodEnd().isBefore(today)) {
+            return closedTtl;
+        }
+        return openPeriodTtl;
+    }
+}
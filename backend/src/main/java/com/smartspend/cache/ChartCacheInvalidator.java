@@ -0,0 +1,32 @@
+package com.smartspend.cache;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import com.smartspend.transaction.TransactionChangedEvent;
+
+/**
+ * Invalida los gráficos e informes afectados por un cambio de movimientos. Se ejecuta tras el
+ * commit: invalidar antes dejaría que una lectura concurrente volviera a cachear los datos viejos.
+ * Si el evento se publica fuera de una transacción se procesa en el momento.
+ */
+@Component
+public class ChartCacheInvalidator {
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onTransactionChanged(TransactionChangedEvent event) {
+        for (String name : cacheManager.getCacheNames()) {
+            Cache cache = cacheManager.getCache(name);
+            if (cache instanceof TwoLevelCache twoLevelCache) {
+                twoLevelCache.evictAffected(event);
+            }
+        }
+    }
+}
@@ -0,0 +1,57 @@
+package com.smartspend.cache;
+
+import java.time.LocalDate;
+
+import com.smartspend.transaction.TransactionChangedEvent;
+
+/**
+ * Clave de los gráficos e informes cacheados. El userId forma parte de la clave: una entrada
+ * solo se crea tras comprobar que la cuenta es del usuario, así que un acierto nunca entrega
+ * datos de otro. month = 0 para los resultados anuales.
+ *
+ * @param scope qué escrituras dejan obsoleta la entrada (ver {@link Scope})
+ */
+public record ChartCacheKey(Long userId, Long accountId, String view, int year, int month, Scope scope) {
+
+    public enum Scope {
+        /** Solo depende de los movimientos de su propio periodo (tartas, barras) */
+        PERIOD,
+        /** Parte del saldo acumulado: cualquier movimiento anterior al fin del periodo la cambia (evolución) */
+        RUNNING_BALANCE,
+        /** Incluye el saldo actual de la cuenta: cualquier movimiento la cambia (informe) */
+        ACCOUNT
+    }
+
+    public static ChartCacheKey period(Long userId, Long accountId, String view, int year, int month) {
+        return new ChartCacheKey(userId, accountId, view, year, month, Scope.PERIOD);
+    }
+
+    public static ChartCacheKey runningBalance(Long userId, Long accountId, String view, int year, int month) {
+        return new ChartCacheKey(userId, accountId, view, year, month, Scope.RUNNING_BALANCE);
+    }
+
+    public static ChartCacheKey account(Long userId, Long accountId, String view, int year, int month) {
+        return new ChartCacheKey(userId, accountId, view, year, month, Scope.ACCOUNT);
+    }
+
+    public LocalDate periodStart() {
+        return LocalDate.of(year, month == 0 ? 1 : month, 1);
+    }
+
+    public LocalDate periodEnd() {
+        return month == 0 ? LocalDate.of(year, 12, 31) : periodStart().withDayOfMonth(periodStart().lengthOfMonth());
+    }
+
+    boolean isAffectedBy(TransactionChangedEvent event) {
+        return accountId.equals(event.accountId())
+            && (event.affectsAllDates() || event.dates().stream().anyMatch(this::isAffectedBy));
+    }
+
+    boolean isAffectedBy(LocalDate date) {
+        return switch (scope) {
+            case PERIOD -> !date.isBefore(periodStart()) && !date.isAfter(periodEnd());
+            case RUNNING_BALANCE -> !date.isAfter(periodEnd());
+            case ACCOUNT -> true;
+        };
+    }
+}
@@ -0,0 +1,38 @@
+package com.smartspend.cache;
+
+import java.util.function.BiConsumer;
+
+/**
+ * Segundo nivel opcional (Redis, Hazelcast...) compartido entre réplicas. Basta con declarar un
+ * bean que implemente esta interfaz para que los gráficos se consulten en él tras un fallo en
+ * Caffeine. Los valores son records de DTOs; la serialización corre a cargo de la implementación.
+ * Sin bean, la caché es solo local.
+ */
+public interface SecondLevelCache {
+
+    /**
+     * @return el valor, o null si no está
+     */
+    Object get(String cacheName, ChartCacheKey key);
+
+    void put(String cacheName, ChartCacheKey key, Object value);
+
+    void evict(String cacheName, ChartCacheKey key);
+
+    /**
+     * Invalida todas las entradas de la cuenta. El segundo nivel no se recorre clave a clave,
+     * así que ante una escritura se descarta la cuenta completa.
+     */
+    void evictAccount(String cacheName, Long accountId);
+
+    void clear(String cacheName);
+
+    /**
+     * Suscripción a las invalidaciones de cuenta hechas por otras réplicas (pub/sub de Redis,
+     * topic de Hazelcast...): la implementación llama al listener con (cacheName, accountId)
+     * para que cada réplica vacíe esa cuenta de su Caffeine. Sin ella, lo que tarda una réplica
+     * en ver el cambio lo acota smartspend.cache.charts.l1-ttl-with-l2.
+     */
+    default void onAccountEvicted(BiConsumer<String, Long> listener) {
+    }
+}
@@ -0,0 +1,198 @@
+package com.smartspend.cache;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.springframework.cache.support.AbstractValueAdaptingCache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.smartspend.transaction.TransactionChangedEvent;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Caché de Spring sobre Caffeine con un segundo nivel opcional. Las lecturas van primero a
+ * Caffeine; un fallo se consulta en el segundo nivel y, si está allí, se copia al primero.
+ * Las escrituras y las invalidaciones se aplican en los dos niveles.
+ * Cada cuenta lleva un número de generación que sube con cada invalidación: un valor calculado
+ * tras un fallo no se guarda si la cuenta se invalidó entretanto, porque pudo leer datos
+ * anteriores al commit que provocó la invalidación.
+ * No extiende CaffeineCache a propósito: Spring Boot registraría otra vez sus métricas con
+ * etiquetas distintas a las de {@link ChartCacheConfig}, y Prometheus rechaza la mezcla.
+ */
+public class TwoLevelCache extends AbstractValueAdaptingCache {
+
+    private final String name;
+    private final Cache<Object, Object> cache;
+    private final SecondLevelCache secondLevel;
+    private final Counter secondLevelHits;
+    private final Counter secondLevelMisses;
+    private final Counter stalePuts;
+
+    private final ConcurrentMap<Long, Long> generations = new ConcurrentHashMap<>();
+
+    // Generación de la cuenta vista en el último fallo de este hilo: @Cacheable consulta y,
+    // tras ejecutar el método, guarda desde el mismo hilo
+    private final ThreadLocal<Miss> lastMiss = new ThreadLocal<>();
+
+    private record Miss(ChartCacheKey key, long generation) {}
+
+    /**
+     * @param secondLevel null si solo hay caché local
+     */
+    public TwoLevelCache(String name, Cache<Object, Object> cache, SecondLevelCache secondLevel, MeterRegistry meterRegistry) {
+        super(false);
+        this.name = name;
+        this.cache = cache;
+        this.secondLevel = secondLevel;
+        this.secondLevelHits = Counter.builder("smartspend.cache.l2.gets")
+            .tag("cache", name).tag("result", "hit").register(meterRegistry);
+        this.secondLevelMisses = Counter.builder("smartspend.cache.l2.gets")
+            .tag("cache", name).tag("result", "miss").register(meterRegistry);
+        this.stalePuts = Counter.builder("smartspend.cache.stale.puts")
+            .tag("cache", name).register(meterRegistry);
+        if (secondLevel != null) {
+            secondLevel.onAccountEvicted(this::onRemoteEviction);
+        }
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public Cache<Object, Object> getNativeCache() {
+        return cache;
+    }
+
+    @Override
+    protected Object lookup(Object key) {
+        Object value = cache.getIfPresent(key);
+        if (value != null || !(key instanceof ChartCacheKey chartKey)) {
+            return value;
+        }
+        long generation = generation(chartKey.accountId());
+        if (secondLevel != null) {
+            value = secondLevel.get(name, chartKey);
+            if (value != null) {
+                secondLevelHits.increment();
+                putIfCurrent(chartKey, value, generation, false);
+                return value;
+            }
+            secondLevelMisses.increment();
+        }
+        lastMiss.set(new Miss(chartKey, generation));
+        return null;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object key, Callable<T> valueLoader) {
+        ValueWrapper cached = get(key);
+        if (cached != null) {
+            return (T) cached.get();
+        }
+        T value;
+        try {
+            value = valueLoader.call();
+        } catch (Exception e) {
+            throw new ValueRetrievalException(key, valueLoader, e);
+        }
+        put(key, value);
+        return value;
+    }
+
+    @Override
+    public void put(Object key, Object value) {
+        Miss miss = lastMiss.get();
+        lastMiss.remove();
+        if (miss != null && miss.key().equals(key)) {
+            if (!putIfCurrent(miss.key(), value, miss.generation(), true)) {
+                stalePuts.increment();
+            }
+            return;
+        }
+        cache.put(key, toStoreValue(value));
+        if (secondLevel != null && key instanceof ChartCacheKey chartKey) {
+            secondLevel.put(name, chartKey, value);
+        }
+    }
+
+    private boolean putIfCurrent(ChartCacheKey key, Object value, long generation, boolean writeSecondLevel) {
+        boolean[] stored = {false};
+        // compute sobre la generación: una invalidación concurrente de la cuenta espera a que
+        // termine el put (y lo borra) o lo ve después y lo descarta
+        generations.compute(key.accountId(), (accountId, current) -> {
+            long now = current == null ? 0 : current;
+            if (now == generation) {
+                cache.put(key, toStoreValue(value));
+                if (writeSecondLevel && secondLevel != null) {
+                    secondLevel.put(name, key, value);
+                }
+                stored[0] = true;
+            }
+            return current;
+        });
+        return stored[0];
+    }
+
+    private long generation(Long accountId) {
+        return generations.getOrDefault(accountId, 0L);
+    }
+
+    private void nextGeneration(Long accountId) {
+        generations.merge(accountId, 1L, Long::sum);
+    }
+
+    @Override
+    public void evict(Object key) {
+        cache.invalidate(key);
+        if (secondLevel != null && key instanceof ChartCacheKey chartKey) {
+            secondLevel.evict(name, chartKey);
+        }
+    }
+
+    @Override
+    public void clear() {
+        cache.invalidateAll();
+        if (secondLevel != null) {
+            secondLevel.clear(name);
+        }
+    }
+
+    /**
+     * Elimina solo las entradas de la cuenta cuyo periodo depende de los días modificados
+     *
+     * @return número de entradas eliminadas del primer nivel
+     */
+    public int evictAffected(TransactionChangedEvent event) {
+        nextGeneration(event.accountId());
+        int[] removed = {0};
+        cache.asMap().keySet().removeIf(key -> {
+            boolean affected = key instanceof ChartCacheKey chartKey && chartKey.isAffectedBy(event);
+            if (affected) {
+                removed[0]++;
+            }
+            return affected;
+        });
+        if (secondLevel != null) {
+            secondLevel.evictAccount(name, event.accountId());
+        }
+        return removed[0];
+    }
+
+    /**
+     * Invalidación publicada por otra réplica a través del segundo nivel. No trae las fechas,
+     * así que se descarta la cuenta completa del primer nivel.
+     */
+    void onRemoteEviction(String cacheName, Long accountId) {
+        if (!name.equals(cacheName)) {
+            return;
+        }
+        nextGeneration(accountId);
+        cache.asMap().keySet().removeIf(key -> key instanceof ChartCacheKey chartKey && chartKey.accountId().equals(accountId));
+    }
+}
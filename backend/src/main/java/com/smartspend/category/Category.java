@@ -13,6 +13,7 @@ import lombok.Setter;
 
 @Entity
 @Table(name = "categories")
+@EntityListeners(CategoryChangeListener.class)
 @Getter @Setter
 public class Category {
     
@@ -0,0 +1,145 @@
+package com.smartspend.category;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.smartspend.category.dtos.CategoryDto;
+import com.smartspend.transaction.TransactionType;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+
+/**
+ * Catálogo en memoria de las categorías que ve cada usuario. Las categorías por defecto son
+ * las mismas para todos y casi nunca cambian: se guardan en una instantánea inmutable que se
+ * carga al arrancar (tras DataLoader). Las personalizadas se cachean por usuario. Ambas se
+ * invalidan tras el commit de cualquier cambio en una categoría; el TTL de las de usuario
+ * acota lo que tarda en verse un cambio hecho desde otra instancia.
+ */
+@Component
+public class CategoryCatalog {
+
+    public static final String CACHE_NAME = "categories.user";
+
+    private record Defaults(Map<Long, CategoryDto> byId, Map<TransactionType, List<CategoryDto>> byType) {}
+
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    private final Cache<Long, List<CategoryDto>> userCategories;
+
+    // null hasta la primera carga o tras un cambio en una categoría por defecto
+    private volatile Defaults defaults;
+
+    public CategoryCatalog(@Value("${smartspend.cache.categories.users-max-size:10000}") long maxSize,
+                           @Value("${smartspend.cache.categories.user-ttl:PT10M}") Duration userTtl,
+                           MeterRegistry meterRegistry) {
+        this.userCategories = Caffeine.newBuilder()
+            .maximumSize(maxSize)
+            .expireAfterWrite(userTtl)
+            .recordStats()
+            .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, userCategories, CACHE_NAME);
+    }
+
+    /**
+     * Las del sistema primero y después las del usuario, solo del tipo pedido
+     */
+    public List<CategoryDto> forDropdown(Long userId, TransactionType type) {
+        List<CategoryDto> categories = new ArrayList<>(defaults().byType().getOrDefault(type, List.of()));
+        ownedBy(userId).stream()
+            .filter(category -> category.type() == type)
+            .forEach(categories::add);
+        return categories;
+    }
+
+    /**
+     * La categoría si existe y el usuario puede usarla (es suya o del sistema)
+     */
+    public Optional<CategoryDto> find(Long categoryId, Long userId) {
+        if (categoryId == null) {
+            return Optional.empty();
+        }
+        CategoryDto category = defaults().byId().get(categoryId);
+        if (category != null) {
+            return Optional.of(category);
+        }
+        return ownedBy(userId).stream()
+            .filter(owned -> owned.id().equals(categoryId))
+            .findFirst();
+    }
+
+    /**
+     * Todas las que ve el usuario: primero las suyas y después las del sistema
+     */
+    public List<CategoryDto> visibleTo(Long userId) {
+        return Stream.concat(ownedBy(userId).stream(), defaults().byId().values().stream()).toList();
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadDefaults() {
+        System.out.println("Catálogo de categorías: " + defaults().byId().size() + " categorías por defecto");
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onCategoryChanged(CategoryChangedEvent event) {
+        if (event.userId() == null) {
+            invalidateDefaults();
+        } else {
+            userCategories.invalidate(event.userId());
+        }
+    }
+
+    private List<CategoryDto> ownedBy(Long userId) {
+        if (userId == null) {
+            return List.of();
+        }
+        return userCategories.get(userId, id -> categoryRepository.findByUserUserId(id).stream()
+            .map(CategoryDto::from)
+            .toList());
+    }
+
+    private Defaults defaults() {
+        Defaults current = defaults;
+        return current != null ? current : loadDefaultsSnapshot();
+    }
+
+    // Carga e invalidación comparten el monitor: una carga en curso no puede dejar publicada
+    // una instantánea anterior a un cambio ya invalidado
+    private synchronized Defaults loadDefaultsSnapshot() {
+        if (defaults == null) {
+            Map<Long, CategoryDto> byId = new LinkedHashMap<>();
+            Map<TransactionType, List<CategoryDto>> byType = new EnumMap<>(TransactionType.class);
+            for (TransactionType type : TransactionType.values()) {
+                List<CategoryDto> categories = categoryRepository.findByIsDefaultTrueAndType(type).stream()
+                    .map(CategoryDto::from)
+                    .toList();
+                byType.put(type, categories);
+                categories.forEach(category -> byId.put(category.id(), category));
+            }
+            defaults = new Defaults(Collections.unmodifiableMap(byId), Collections.unmodifiableMap(byType));
+        }
+        return defaults;
+    }
+
+    private synchronized void invalidateDefaults() {
+        defaults = null;
+    }
+}
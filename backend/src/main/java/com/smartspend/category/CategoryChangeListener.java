@@ -0,0 +1,28 @@
+package com.smartspend.category;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+
+/**
+ * Listener JPA de Category: cualquier escritura, venga de donde venga, avisa a las cachés de
+ * categorías. Hibernate obtiene la instancia del contexto de Spring.
+ */
+@Component
+public class CategoryChangeListener {
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @PostPersist
+    @PostUpdate
+    @PostRemove
+    void onChange(Category category) {
+        Long userId = category.getUser() != null ? category.getUser().getUserId() : null;
+        eventPublisher.publishEvent(new CategoryChangedEvent(category.getId(), userId));
+    }
+}
@@ -0,0 +1,8 @@
+package com.smartspend.category;
+
+/**
+ * Se publica al crear, modificar o borrar una categoría (ver CategoryChangeListener)
+ *
+ * @param userId propietario; null para las categorías por defecto
+ */
+public record CategoryChangedEvent(Long categoryId, Long userId) {}
@@ -3,12 +3,14 @@ package com.smartspend.category;
 import java.util.List;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
-import org.springframework.security.core.Authentication;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
+import com.smartspend.category.dtos.CategoryDto;
+import com.smartspend.security.SmartSpendPrincipal;
 import com.smartspend.transaction.TransactionType;
 
 @RestController
@@ -18,10 +20,10 @@ public class CategoryController {
     private CategoryService categoryService;
 
     @GetMapping
-    public ResponseEntity<List<Category>> getCategories(@RequestParam TransactionType type, Authentication authentication) {
+    public ResponseEntity<List<CategoryDto>> getCategories(@RequestParam TransactionType type, @AuthenticationPrincipal SmartSpendPrincipal principal) {
         
-        String userEmail = authentication.getName();
-        List<Category> categories = categoryService.getCategoriesForDropdown(userEmail, type);
+        Long userId = principal.userId();
+        List<CategoryDto> categories = categoryService.getCategoriesForDropdown(userId, type);
         return ResponseEntity.ok(categories);
     }
 }
@@ -0,0 +1,68 @@
+package com.smartspend.category;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.smartspend.category.dtos.CategoryDto;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+
+/**
+ * Categorías por id para pintar listados de transacciones. Hay pocas y casi no cambian, así que
+ * los listados no las cargan con cada página: solo leen el category_id y las toman de aquí.
+ * Las que faltan se piden todas en una única consulta.
+ */
+@Component
+public class CategoryReferenceCache {
+
+    public static final String CACHE_NAME = "categories.ref";
+
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    private final Cache<Long, CategoryDto> cache;
+
+    public CategoryReferenceCache(@Value("${smartspend.cache.categories.max-size:10000}") long maxSize, MeterRegistry meterRegistry) {
+        this.cache = Caffeine.newBuilder()
+            .maximumSize(maxSize)
+            .recordStats()
+            .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, CACHE_NAME);
+    }
+
+    public CategoryDto get(Long categoryId) {
+        return getAll(List.of(categoryId)).get(categoryId);
+    }
+
+    /**
+     * Las categorías de esos ids; los que no existen no aparecen en el resultado
+     */
+    public Map<Long, CategoryDto> getAll(Collection<Long> categoryIds) {
+        return cache.getAll(categoryIds, missing -> categoryRepository.findAllById(List.copyOf(missing)).stream()
+            .collect(Collectors.toMap(Category::getId, CategoryDto::from)));
+    }
+
+    public void evict(Long categoryId) {
+        cache.invalidate(categoryId);
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onCategoryChanged(CategoryChangedEvent event) {
+        evict(event.categoryId());
+    }
+
+    public void clear() {
+        cache.invalidateAll();
+    }
+}
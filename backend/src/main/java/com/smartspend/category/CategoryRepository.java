@@ -2,6 +2,7 @@ package com.smartspend.category;
 
 import java.util.List;
 
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 
 import com.smartspend.transaction.TransactionType;
@@ -19,4 +20,9 @@ public interface CategoryRepository extends JpaRepository<Category, Long> {
     long countByIsDefaultTrue();
 
     List<Category> findByUserUserId(Long userId);
+
+    // Carga de CategoryReferenceCache: el usuario (EAGER) en el mismo SELECT
+    @Override
+    @EntityGraph(attributePaths = "user")
+    List<Category> findAllById(Iterable<Long> ids);
 } 
\ No newline at end of file
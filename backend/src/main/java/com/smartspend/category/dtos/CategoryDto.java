@@ -0,0 +1,23 @@
+package com.smartspend.category.dtos;
+
+import com.smartspend.category.Category;
+import com.smartspend.transaction.TransactionType;
+
+/**
+ * Categoría tal como la consume el frontend (desplegables y dentro de cada transacción):
+ * sin el usuario propietario ni la lista de transacciones
+ */
+public record CategoryDto(
+    Long id,
+    String name,
+    String color,
+    String icon,
+    TransactionType type,
+    Boolean isDefault
+) {
+
+    public static CategoryDto from(Category category) {
+        return new CategoryDto(category.getId(), category.getName(), category.getColor(),
+            category.getIcon(), category.getType(), category.getIsDefault());
+    }
+}
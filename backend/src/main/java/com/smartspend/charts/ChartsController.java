@@ -2,12 +2,14 @@ package com.smartspend.charts;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
-import org.springframework.security.core.Authentication;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
 
 import com.smartspend.charts.dtos.BarLineChartDto;
+import com.smartspend.charts.dtos.DashboardDto;
 import com.smartspend.charts.dtos.LineChartDto;
 import com.smartspend.charts.dtos.PieChartDto;
+import com.smartspend.security.SmartSpendPrincipal;
 import com.smartspend.transaction.TransactionType;
 
 @RestController 
@@ -23,7 +25,7 @@ public class ChartsController {
      * @param year Año (ejemplo: 2025)
      * @param month Mes (1-12)
      * @param type Tipo de transacción (INCOME o EXPENSE)
-     * @param authentication Usuario autenticado
+     * @param principal Usuario autenticado
      * @return Datos para el gráfico de pastel
      */
     @GetMapping("/pie/monthly")
@@ -32,13 +34,13 @@ public class ChartsController {
             @RequestParam int year,
             @RequestParam int month,
             @RequestParam TransactionType type,
-            Authentication authentication) {
+            @AuthenticationPrincipal SmartSpendPrincipal principal) {
         
         System.out.println("Received request for monthly pie chart with accountId: " + accountId + ", year: " + year + ", month: " + month + ", type: " + type);
         try {
-            String userEmail = authentication.getName();
+            Long userId = principal.userId();
             PieChartDto pieChartData = chartsService.getCategoryStadsByMonth(
-                userEmail, 
+                userId, 
                 accountId, 
                 year, 
                 month, 
@@ -55,7 +57,7 @@ public class ChartsController {
      * @param accountId ID de la cuenta bancaria
      * @param year Año (ejemplo: 2025)
      * @param type Tipo de transacción (INCOME o EXPENSE)
-     * @param authentication Usuario autenticado
+     * @param principal Usuario autenticado
      * @return Datos para el gráfico de pastel
      */
     @GetMapping("/pie/yearly")
@@ -63,13 +65,13 @@ public class ChartsController {
             @RequestParam Long accountId,
             @RequestParam int year,
             @RequestParam TransactionType type,
-            Authentication authentication) {
+            @AuthenticationPrincipal SmartSpendPrincipal principal) {
         
         System.out.println("Received request for yearly pie chart with accountId: " + accountId + ", year: " + year + ", type: " + type);
         try {
-            String userEmail = authentication.getName();
+            Long userId = principal.userId();
             PieChartDto pieChartData = chartsService.getCategoryStadsByYear(
-                userEmail, 
+                userId, 
                 accountId, 
                 year, 
                 type
@@ -85,12 +87,12 @@ public class ChartsController {
         @RequestParam Long accountId,
         @RequestParam int year,
         @RequestParam int month,
-        Authentication authentication
+        @AuthenticationPrincipal SmartSpendPrincipal principal
     ){
         try {
-            String userEmail = authentication.getName();
+            Long userId = principal.userId();
             BarLineChartDto barLineChartDto = chartsService.getBarLineChartByMonth(
-                userEmail, accountId, year, month
+                userId, accountId, year, month
             );
             return ResponseEntity.ok(barLineChartDto);
         } catch (RuntimeException e) {
@@ -102,12 +104,12 @@ public class ChartsController {
     public ResponseEntity<BarLineChartDto> getBarLineChartYearly(
         @RequestParam Long accountId,
         @RequestParam int year,
-        Authentication authentication
+        @AuthenticationPrincipal SmartSpendPrincipal principal
     ){
         try {
-            String userEmail = authentication.getName();
+            Long userId = principal.userId();
             BarLineChartDto barLineChartDto = chartsService.getBarLineChartByYear(
-                userEmail, accountId, year
+                userId, accountId, year
             );
             return ResponseEntity.ok(barLineChartDto);
         } catch (RuntimeException e) {
@@ -120,12 +122,12 @@ public class ChartsController {
         @RequestParam Long accountId,
         @RequestParam int year,
         @RequestParam int month,
-        Authentication authentication
+        @AuthenticationPrincipal SmartSpendPrincipal principal
     ){
         try {
-            String userEmail = authentication.getName();
+            Long userId = principal.userId();
             LineChartDto lineChartDto = chartsService.getTimeLineChartByMonth(
-                userEmail, accountId, year, month
+                userId, accountId, year, month
             );
             return ResponseEntity.ok(lineChartDto);
         } catch (RuntimeException e) {
@@ -137,12 +139,12 @@ public class ChartsController {
     public ResponseEntity<LineChartDto> getTimelineChartYearly(
         @RequestParam Long accountId,
         @RequestParam int year,
-        Authentication authentication
+        @AuthenticationPrincipal SmartSpendPrincipal principal
     ){
         try {
-            String userEmail = authentication.getName();
+            Long userId = principal.userId();
             LineChartDto lineChartDto = chartsService.getTimeLineChartByYear(
-                userEmail, accountId, year
+                userId, accountId, year
             );
             return ResponseEntity.ok(lineChartDto);
         } catch (RuntimeException e) {
@@ -150,5 +152,31 @@ public class ChartsController {
         }
     }
 
+    /**
+     * Obtiene de una sola vez todos los gráficos mensuales del panel
+     * (tartas de ingresos y gastos, barras y evolución del balance)
+     * @param accountId ID de la cuenta bancaria
+     * @param year Año (ejemplo: 2025)
+     * @param month Mes (1-12)
+     * @param principal Usuario autenticado
+     * @return Datos de los cuatro gráficos calculados sobre el mismo conjunto de datos
+     */
+    @GetMapping("/dashboard")
+    public ResponseEntity<DashboardDto> getDashboardMonthly(
+        @RequestParam Long accountId,
+        @RequestParam int year,
+        @RequestParam int month,
+        @AuthenticationPrincipal SmartSpendPrincipal principal
+    ){
+        try {
+            Long userId = principal.userId();
+            DashboardDto dashboardDto = chartsService.getDashboardByMonth(
+                userId, accountId, year, month
+            );
+            return ResponseEntity.ok(dashboardDto);
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
 
 }
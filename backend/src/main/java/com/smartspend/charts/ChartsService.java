@@ -10,40 +10,46 @@ import java.util.stream.Collectors;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.autoconfigure.rsocket.RSocketProperties.Server.Spec;
+import org.springframework.cache.annotation.Cacheable;
 import org.springframework.cglib.core.Local;
 import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
 
 import com.smartspend.bankAccount.BankAccount;
 import com.smartspend.bankAccount.BankAccountRepository;
+import com.smartspend.cache.ChartCacheConfig;
 import com.smartspend.charts.dtos.BarLineChartDto;
+import com.smartspend.charts.dtos.DashboardDto;
 import com.smartspend.charts.dtos.LineChartDto;
 import com.smartspend.charts.dtos.PieChartDto;
+import com.smartspend.ledger.LedgerRepository;
 import com.smartspend.transaction.Transaction;
-import com.smartspend.transaction.TransactionRepository;
 import com.smartspend.transaction.TransactionSpecification;
 import com.smartspend.transaction.TransactionType;
-import com.smartspend.user.User;
-import com.smartspend.user.UserRepository;
 
+import io.micrometer.core.annotation.Counted;
+import io.micrometer.core.annotation.Timed;
 
+
+/**
+ * Los resultados se cachean por usuario, cuenta, periodo y gráfico (ver ChartCacheKey) y se
+ * invalidan al publicarse un TransactionChangedEvent de la cuenta
+ */
 @Service
+@Timed(value = "smartspend.service", histogram = true)
+@Counted("smartspend.service.calls")
 public class ChartsService {
     
-    @Autowired
-    UserRepository userRepository;
-
     @Autowired 
     BankAccountRepository bankAccountRepository;
 
     @Autowired
-    TransactionRepository transactionRepository;
+    LedgerRepository ledgerRepository;
     
-    public PieChartDto   getCategoryStadsByMonth(String userEmail, Long accountId, int year, int month, TransactionType transactionType){
-
-        User user = userRepository.findByUserEmail(userEmail).orElseThrow(() -> new RuntimeException("User not found"));
+    @Cacheable(cacheNames = ChartCacheConfig.CHARTS, key = "T(com.smartspend.cache.ChartCacheKey).period(#userId, #accountId, 'pie-' + #transactionType, #year, #month)")
+    public PieChartDto   getCategoryStadsByMonth(Long userId, Long accountId, int year, int month, TransactionType transactionType){
 
-        BankAccount account = bankAccountRepository.findByIdAndUser_UserId(accountId, user.getUserId())
+        BankAccount account = bankAccountRepository.findByIdAndUser_UserId(accountId, userId)
             .orElseThrow(() -> new RuntimeException("Bank account not found"));
     
 
@@ -51,8 +57,8 @@ public class ChartsService {
         LocalDate dateFrom = LocalDate.of(year, month, 1);
         LocalDate dateTo = dateFrom.withDayOfMonth(dateFrom.lengthOfMonth());
 
-        // ✅ USAR QUERY OPTIMIZADA DIRECTA
-        List<Object[]> categoryTotalsResult = transactionRepository.findCategoryTotalsByAccountAndDateRangeAndType(
+        // ✅ Totales por categoría leídos del ledger diario
+        List<Object[]> categoryTotalsResult = ledgerRepository.findCategoryTotalsByAccountAndDateRangeAndType(
             account.getId(), dateFrom, dateTo, transactionType);
         
         // Construir el mapa de resultados
@@ -72,11 +78,10 @@ public class ChartsService {
     }
 
 
-    public PieChartDto getCategoryStadsByYear(String userEmail, Long accountId, int year, TransactionType transactionType){
+    @Cacheable(cacheNames = ChartCacheConfig.CHARTS, key = "T(com.smartspend.cache.ChartCacheKey).period(#userId, #accountId, 'pie-' + #transactionType, #year, 0)")
+    public PieChartDto getCategoryStadsByYear(Long userId, Long accountId, int year, TransactionType transactionType){
 
-        User user = userRepository.findByUserEmail(userEmail).orElseThrow(() -> new RuntimeException("User not found"));
-
-        BankAccount account = bankAccountRepository.findByIdAndUser_UserId(accountId, user.getUserId())
+        BankAccount account = bankAccountRepository.findByIdAndUser_UserId(accountId, userId)
             .orElseThrow(() -> new RuntimeException("Bank account not found"));
     
 
@@ -91,7 +96,7 @@ public class ChartsService {
         }
 
         
-        List<Object[]> categoryTotalsResult = transactionRepository.findCategoryTotalsByAccountAndDateRangeAndType(
+        List<Object[]> categoryTotalsResult = ledgerRepository.findCategoryTotalsByAccountAndDateRangeAndType(
             account.getId(), dateFrom, dateTo, transactionType);
         
         // Construir el mapa de resultados
@@ -124,12 +129,10 @@ public class ChartsService {
     }
 
 
-    public BarLineChartDto getBarLineChartByMonth(String userEmail, Long accountId, int year, int month){
-
-        User user = userRepository.findByUserEmail(userEmail)
-            .orElseThrow(() -> new RuntimeException("User not found"));
+    @Cacheable(cacheNames = ChartCacheConfig.CHARTS, key = "T(com.smartspend.cache.ChartCacheKey).period(#userId, #accountId, 'bar', #year, #month)")
+    public BarLineChartDto getBarLineChartByMonth(Long userId, Long accountId, int year, int month){
 
-        BankAccount account = bankAccountRepository.findByIdAndUser_UserId(accountId, user.getUserId())
+        BankAccount account = bankAccountRepository.findByIdAndUser_UserId(accountId, userId)
             .orElseThrow(() -> new RuntimeException("Bank account not found"));
 
 
@@ -137,9 +140,9 @@ public class ChartsService {
         LocalDate dateTo = dateFrom.withDayOfMonth(dateFrom.lengthOfMonth());
 
         
-        BigDecimal incomesTotal = transactionRepository.findTotalByAccountAndDateRangeAndType(
+        BigDecimal incomesTotal = ledgerRepository.findTotalByAccountAndDateRangeAndType(
             accountId, dateFrom, dateTo, TransactionType.INCOME);
-        BigDecimal expensesTotal = transactionRepository.findTotalByAccountAndDateRangeAndType(
+        BigDecimal expensesTotal = ledgerRepository.findTotalByAccountAndDateRangeAndType(
             accountId, dateFrom, dateTo, TransactionType.EXPENSE);
         
         // Manejar valores null
@@ -155,12 +158,10 @@ public class ChartsService {
 
     }
 
-    public BarLineChartDto getBarLineChartByYear(String userEmail, Long accountId, int year){
+    @Cacheable(cacheNames = ChartCacheConfig.CHARTS, key = "T(com.smartspend.cache.ChartCacheKey).period(#userId, #accountId, 'bar', #year, 0)")
+    public BarLineChartDto getBarLineChartByYear(Long userId, Long accountId, int year){
 
-        User user = userRepository.findByUserEmail(userEmail)
-            .orElseThrow(() -> new RuntimeException("User not found"));
-
-        BankAccount account = bankAccountRepository.findByIdAndUser_UserId(accountId, user.getUserId())
+        BankAccount account = bankAccountRepository.findByIdAndUser_UserId(accountId, userId)
             .orElseThrow(() -> new RuntimeException("Bank account not found"));
 
 
@@ -174,9 +175,9 @@ public class ChartsService {
         }
 
         
-        BigDecimal incomesTotal = transactionRepository.findTotalByAccountAndDateRangeAndType(
+        BigDecimal incomesTotal = ledgerRepository.findTotalByAccountAndDateRangeAndType(
             accountId, dateFrom, dateTo, TransactionType.INCOME);
-        BigDecimal expensesTotal = transactionRepository.findTotalByAccountAndDateRangeAndType(
+        BigDecimal expensesTotal = ledgerRepository.findTotalByAccountAndDateRangeAndType(
             accountId, dateFrom, dateTo, TransactionType.EXPENSE);
         
         
@@ -193,124 +194,97 @@ public class ChartsService {
     }
 
 
-    public LineChartDto getTimeLineChartByMonth(String userEmail, Long accountId, int year, int month){
-
-        User user = userRepository.findByUserEmail(userEmail)
-            .orElseThrow(() -> new RuntimeException("User not found"));
+    @Cacheable(cacheNames = ChartCacheConfig.CHARTS, key = "T(com.smartspend.cache.ChartCacheKey).runningBalance(#userId, #accountId, 'timeline', #year, #month)")
+    public LineChartDto getTimeLineChartByMonth(Long userId, Long accountId, int year, int month){
 
-        BankAccount account = bankAccountRepository.findByIdAndUser_UserId(accountId, user.getUserId())
+        BankAccount account = bankAccountRepository.findByIdAndUser_UserId(accountId, userId)
             .orElseThrow(() -> new RuntimeException("Bank account not found"));
     
         LocalDate dateFrom = LocalDate.of(year, month, 1);
         LocalDate dateTo = dateFrom.withDayOfMonth(dateFrom.lengthOfMonth());
         LocalDate today = LocalDate.now();
 
-        List<String> labels = new ArrayList<>();
-        List<Float> balanceData = new ArrayList<>();
-        List<Float> incomesData = new ArrayList<>();
-        List<Float> expensesData = new ArrayList<>();
-
-        LocalDate dayBeforeMonth = dateFrom.minusDays(1);
-        BigDecimal initialBalance = transactionRepository.findBalanceUpToDate(accountId, dayBeforeMonth);   
-        if (initialBalance == null) initialBalance = BigDecimal.ZERO;
-        BigDecimal runningBalance = initialBalance;
-        BigDecimal incomesRunningAccumulated = BigDecimal.ZERO;
-        BigDecimal expensesRunningAccumulated = BigDecimal.ZERO;
-
-
         dateTo =  dateTo.isAfter(today) ? today : dateTo;
 
-        for (LocalDate date = dateFrom; !date.isAfter(dateTo); date = date.plusDays(1)) {
-            labels.add(String.valueOf(date.getDayOfMonth()));
-
-            BigDecimal dayIncomes = transactionRepository.findTotalByAccountAndDateRangeAndType(accountId, date, date, TransactionType.INCOME);
-            BigDecimal dayExpenses = transactionRepository.findTotalByAccountAndDateRangeAndType(accountId, date, date, TransactionType.EXPENSE);
-            if (dayIncomes == null) dayIncomes = BigDecimal.ZERO;
-            if (dayExpenses == null) dayExpenses = BigDecimal.ZERO;
-            
-            runningBalance = runningBalance.add(dayIncomes).subtract(dayExpenses);
-            balanceData.add(runningBalance.floatValue());
+        // Balance justo antes del mes + totales diarios del mes en una única consulta agrupada
+        BigDecimal initialBalance = ledgerRepository.findBalanceUpToDate(accountId, dateFrom.minusDays(1));
+        List<Object[]> dailyTotals = ledgerRepository.findDailyTotalsByAccountAndDateRange(accountId, dateFrom, dateTo);
 
-            incomesRunningAccumulated = incomesRunningAccumulated.add(dayIncomes);
-            incomesData.add(incomesRunningAccumulated.floatValue());
-
-            expensesRunningAccumulated = expensesRunningAccumulated.add(dayExpenses);
-            expensesData.add(expensesRunningAccumulated.floatValue());
-        }
-
-        
-        return new LineChartDto(labels, balanceData, incomesData, expensesData);
+        return TimelineEngine.fromDailyTotals(initialBalance, dailyTotals).buildDaily(dateFrom, dateTo);
 
     }   
 
-    public LineChartDto getTimeLineChartByYear(String userEmail, Long accountId, int year) {
-        User user = userRepository.findByUserEmail(userEmail)
-            .orElseThrow(() -> new RuntimeException("User not found"));
+    @Cacheable(cacheNames = ChartCacheConfig.CHARTS, key = "T(com.smartspend.cache.ChartCacheKey).runningBalance(#userId, #accountId, 'timeline', #year, 0)")
+    public LineChartDto getTimeLineChartByYear(Long userId, Long accountId, int year) {
 
-        BankAccount account = bankAccountRepository.findByIdAndUser_UserId(accountId, user.getUserId())
+        BankAccount account = bankAccountRepository.findByIdAndUser_UserId(accountId, userId)
             .orElseThrow(() -> new RuntimeException("Bank account not found"));
-            
-        String[] monthNames = {
-            "Enero", "Febrero", "Marzo", "Abril", "Mayo", "Junio",
-            "Julio", "Agosto", "Septiembre", "Octubre", "Noviembre", "Diciembre"
-        };
         
         LocalDate yearStart = LocalDate.of(year, 1, 1);
+        LocalDate yearEnd = LocalDate.of(year, 12, 31);
         LocalDate today = LocalDate.now();
+        LocalDate lastDay = yearEnd.isAfter(today) ? today : yearEnd;
 
-        List<String> labels = new ArrayList<>();
-        List<Float> balanceData = new ArrayList<>();
-        List<Float> incomeData = new ArrayList<>();
-        List<Float> expenseData = new ArrayList<>();
+        // Balance justo antes del año + totales diarios del año, agregados por mes en memoria
+        BigDecimal initialBalance = ledgerRepository.findBalanceUpToDate(accountId, yearStart.minusDays(1));
+        List<Object[]> dailyTotals = ledgerRepository.findDailyTotalsByAccountAndDateRange(accountId, yearStart, lastDay);
 
-        // 1. Obtener el balance de la cuenta justo antes del inicio del año
-        LocalDate dayBeforeYear = yearStart.minusDays(1);
-        BigDecimal initialBalance = transactionRepository.findBalanceUpToDate(accountId, dayBeforeYear);
-        if (initialBalance == null) initialBalance = BigDecimal.ZERO; // Asegurar que no sea null
-        
-        // Inicializar los acumuladores
-        BigDecimal runningBalance = initialBalance;
-        BigDecimal runningIncomesAccumulated = BigDecimal.ZERO; // Acumulado de ingresos para el año actual
-        BigDecimal runningExpensesAccumulated = BigDecimal.ZERO; // Acumulado de gastos para el año actual
-        
-        // 2. Iterar mes a mes del año
-        for (int month = 1; month <= 12; month++) {
-            LocalDate monthStart = LocalDate.of(year, month, 1);
-            LocalDate monthEnd = monthStart.withDayOfMonth(monthStart.lengthOfMonth());
-            
-            // Si el mes es futuro, paramos
-            if (monthStart.isAfter(today)) {
-                break;
+        return TimelineEngine.fromDailyTotals(initialBalance, dailyTotals).buildMonthly(year, lastDay);
+    }
+
+    /**
+     * Todos los gráficos mensuales del panel a partir de un único recorrido del ledger del mes:
+     * una comprobación de la cuenta, el balance previo y una consulta agrupada por día, tipo y categoría
+     */
+    @Cacheable(cacheNames = ChartCacheConfig.CHARTS, key = "T(com.smartspend.cache.ChartCacheKey).runningBalance(#userId, #accountId, 'dashboard', #year, #month)")
+    public DashboardDto getDashboardByMonth(Long userId, Long accountId, int year, int month){
+
+        BankAccount account = bankAccountRepository.findByIdAndUser_UserId(accountId, userId)
+            .orElseThrow(() -> new RuntimeException("Bank account not found"));
+
+        LocalDate dateFrom = LocalDate.of(year, month, 1);
+        LocalDate dateTo = dateFrom.withDayOfMonth(dateFrom.lengthOfMonth());
+        LocalDate today = LocalDate.now();
+        // Tartas y barras cubren el mes completo; la evolución se corta en hoy como en getTimeLineChartByMonth
+        LocalDate timelineTo = dateTo.isAfter(today) ? today : dateTo;
+
+        BigDecimal initialBalance = ledgerRepository.findBalanceUpToDate(account.getId(), dateFrom.minusDays(1));
+        List<Object[]> rows = ledgerRepository.findDailyCategoryTotalsByAccountAndDateRange(
+            account.getId(), dateFrom, dateTo);
+
+        Map<String, BigDecimal> incomeByCategory = new LinkedHashMap<>();
+        Map<String, BigDecimal> expenseByCategory = new LinkedHashMap<>();
+        BigDecimal incomesTotal = BigDecimal.ZERO;
+        BigDecimal expensesTotal = BigDecimal.ZERO;
+        TimelineEngine timeline = new TimelineEngine(initialBalance);
+
+        for (Object[] row : rows) {
+            LocalDate date = (LocalDate) row[0];
+            TransactionType type = (TransactionType) row[1];
+            String categoryName = (String) row[2];
+            BigDecimal amount = (BigDecimal) row[3];
+
+            if (type == TransactionType.INCOME) {
+                incomeByCategory.merge(categoryName, amount, BigDecimal::add);
+                incomesTotal = incomesTotal.add(amount);
+            } else {
+                expenseByCategory.merge(categoryName, amount, BigDecimal::add);
+                expensesTotal = expensesTotal.add(amount);
             }
-            
-            // Ajustar la fecha fin del mes si es el mes actual para no ir al futuro
-            LocalDate currentMonthEndDate = monthEnd.isAfter(today) ? today : monthEnd;
-
-            labels.add(monthNames[month - 1]);
-            
-            // Obtener transacciones para *ese mes específico*
-            BigDecimal monthIncomes = transactionRepository.findTotalByAccountAndDateRangeAndType(
-                accountId, monthStart, currentMonthEndDate, TransactionType.INCOME);
-            BigDecimal monthExpenses = transactionRepository.findTotalByAccountAndDateRangeAndType(
-                accountId, monthStart, currentMonthEndDate, TransactionType.EXPENSE);
-                
-            if (monthIncomes == null) monthIncomes = BigDecimal.ZERO;
-            if (monthExpenses == null) monthExpenses = BigDecimal.ZERO;
-            
-            // Actualizar el running balance
-            runningBalance = runningBalance.add(monthIncomes).subtract(monthExpenses);
-            balanceData.add(runningBalance.floatValue());
-
-            // Actualizar ingresos y gastos acumulados *para el período del gráfico* (año)
-            runningIncomesAccumulated = runningIncomesAccumulated.add(monthIncomes);
-            runningExpensesAccumulated = runningExpensesAccumulated.add(monthExpenses);
-            incomeData.add(runningIncomesAccumulated.floatValue());
-            expenseData.add(runningExpensesAccumulated.floatValue());
+            timeline.add(date, type, amount);
         }
-        
-        return new LineChartDto(labels, balanceData, incomeData, expenseData);
+
+        BarLineChartDto barLineChart = new BarLineChartDto(
+            List.of("Incomes", "Expenses"),
+            List.of(incomesTotal.floatValue(), expensesTotal.floatValue()));
+
+        return new DashboardDto(
+            buildPieChartDto(incomeByCategory, incomesTotal),
+            buildPieChartDto(expenseByCategory, expensesTotal),
+            barLineChart,
+            timeline.buildDaily(dateFrom, timelineTo));
     }
-        
+
 
 
 
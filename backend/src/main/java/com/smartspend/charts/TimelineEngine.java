@@ -0,0 +1,129 @@
+package com.smartspend.charts;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.smartspend.charts.dtos.LineChartDto;
+import com.smartspend.transaction.TransactionType;
+
+/**
+ * Construye las series del gráfico de evolución (balance, ingresos y gastos acumulados)
+ * en memoria a partir de los totales diarios obtenidos con una única consulta agrupada.
+ */
+public class TimelineEngine {
+
+    private static final String[] MONTH_NAMES = {
+        "Enero", "Febrero", "Marzo", "Abril", "Mayo", "Junio",
+        "Julio", "Agosto", "Septiembre", "Octubre", "Noviembre", "Diciembre"
+    };
+
+    private final Map<LocalDate, BigDecimal> incomesByDay = new HashMap<>();
+    private final Map<LocalDate, BigDecimal> expensesByDay = new HashMap<>();
+    private final BigDecimal initialBalance;
+
+    public TimelineEngine(BigDecimal initialBalance) {
+        this.initialBalance = initialBalance != null ? initialBalance : BigDecimal.ZERO;
+    }
+
+    /**
+     * Crea el motor a partir de filas [fecha, tipo, total] como las que devuelve
+     * LedgerRepository.findDailyTotalsByAccountAndDateRange
+     */
+    public static TimelineEngine fromDailyTotals(BigDecimal initialBalance, List<Object[]> dailyTotals) {
+        TimelineEngine engine = new TimelineEngine(initialBalance);
+        for (Object[] row : dailyTotals) {
+            engine.add((LocalDate) row[0], (TransactionType) row[1], (BigDecimal) row[2]);
+        }
+        return engine;
+    }
+
+    public void add(LocalDate date, TransactionType type, BigDecimal amount) {
+        if (amount == null) return;
+        Map<LocalDate, BigDecimal> target = type == TransactionType.INCOME ? incomesByDay : expensesByDay;
+        target.merge(date, amount, BigDecimal::add);
+    }
+
+    /**
+     * Serie diaria entre dateFrom y dateTo (ambos incluidos), etiquetada por día del mes
+     */
+    public LineChartDto buildDaily(LocalDate dateFrom, LocalDate dateTo) {
+        List<String> labels = new ArrayList<>();
+        List<Float> balanceData = new ArrayList<>();
+        List<Float> incomesData = new ArrayList<>();
+        List<Float> expensesData = new ArrayList<>();
+
+        BigDecimal runningBalance = initialBalance;
+        BigDecimal incomesAccumulated = BigDecimal.ZERO;
+        BigDecimal expensesAccumulated = BigDecimal.ZERO;
+
+        for (LocalDate date = dateFrom; !date.isAfter(dateTo); date = date.plusDays(1)) {
+            BigDecimal dayIncomes = incomesByDay.getOrDefault(date, BigDecimal.ZERO);
+            BigDecimal dayExpenses = expensesByDay.getOrDefault(date, BigDecimal.ZERO);
+
+            runningBalance = runningBalance.add(dayIncomes).subtract(dayExpenses);
+            incomesAccumulated = incomesAccumulated.add(dayIncomes);
+            expensesAccumulated = expensesAccumulated.add(dayExpenses);
+
+            labels.add(String.valueOf(date.getDayOfMonth()));
+            balanceData.add(runningBalance.floatValue());
+            incomesData.add(incomesAccumulated.floatValue());
+            expensesData.add(expensesAccumulated.floatValue());
+        }
+
+        return new LineChartDto(labels, balanceData, incomesData, expensesData);
+    }
+
+    /**
+     * Serie mensual del año hasta lastDay (incluido), etiquetada por nombre de mes
+     */
+    public LineChartDto buildMonthly(int year, LocalDate lastDay) {
+        List<String> labels = new ArrayList<>();
+        List<Float> balanceData = new ArrayList<>();
+        List<Float> incomesData = new ArrayList<>();
+        List<Float> expensesData = new ArrayList<>();
+
+        BigDecimal runningBalance = initialBalance;
+        BigDecimal incomesAccumulated = BigDecimal.ZERO;
+        BigDecimal expensesAccumulated = BigDecimal.ZERO;
+
+        for (int month = 1; month <= 12; month++) {
+            LocalDate monthStart = LocalDate.of(year, month, 1);
+            if (monthStart.isAfter(lastDay)) {
+                break;
+            }
+            LocalDate monthEnd = monthStart.withDayOfMonth(monthStart.lengthOfMonth());
+            if (monthEnd.isAfter(lastDay)) {
+                monthEnd = lastDay;
+            }
+
+            BigDecimal monthIncomes = sumRange(incomesByDay, monthStart, monthEnd);
+            BigDecimal monthExpenses = sumRange(expensesByDay, monthStart, monthEnd);
+
+            runningBalance = runningBalance.add(monthIncomes).subtract(monthExpenses);
+            incomesAccumulated = incomesAccumulated.add(monthIncomes);
+            expensesAccumulated = expensesAccumulated.add(monthExpenses);
+
+            labels.add(MONTH_NAMES[month - 1]);
+            balanceData.add(runningBalance.floatValue());
+            incomesData.add(incomesAccumulated.floatValue());
+            expensesData.add(expensesAccumulated.floatValue());
+        }
+
+        return new LineChartDto(labels, balanceData, incomesData, expensesData);
+    }
+
+    private BigDecimal sumRange(Map<LocalDate, BigDecimal> byDay, LocalDate from, LocalDate to) {
+        BigDecimal total = BigDecimal.ZERO;
+        for (Map.Entry<LocalDate, BigDecimal> entry : byDay.entrySet()) {
+            LocalDate date = entry.getKey();
+            if (!date.isBefore(from) && !date.isAfter(to)) {
+                total = total.add(entry.getValue());
+            }
+        }
+        return total;
+    }
+}
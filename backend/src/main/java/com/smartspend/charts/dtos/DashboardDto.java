@@ -0,0 +1,9 @@
+package com.smartspend.charts.dtos;
+
+public record DashboardDto(
+    PieChartDto incomePieChart,
+    PieChartDto expensePieChart,
+    BarLineChartDto barLineChart,
+    LineChartDto lineChart
+) {
+}
@@ -10,8 +10,10 @@ import com.smartspend.bankAccount.BankAccount;
 import com.smartspend.bankAccount.BankAccountRepository;
 import com.smartspend.category.Category;
 import com.smartspend.category.CategoryRepository;
+import com.smartspend.ledger.LedgerService;
 import com.smartspend.transaction.TransactionRepository;
 import com.smartspend.transaction.TransactionType;
+import com.smartspend.transaction.search.TransactionSearchIndex;
 import com.smartspend.user.User;
 import com.smartspend.transaction.Transaction;
 import com.smartspend.user.UserRepository;
@@ -29,14 +31,21 @@ public class DataLoader implements CommandLineRunner {
 
     private final BankAccountRepository bankAccountRepository;
 
+    private final LedgerService ledgerService;
+
+    private final TransactionSearchIndex searchIndex;
+
     public DataLoader(CategoryRepository categoryRepository, UserRepository userRepository, 
                      PasswordEncoder passwordEncoder, TransactionRepository transactionRepository, 
-                     BankAccountRepository bankAccountRepository) {
+                     BankAccountRepository bankAccountRepository, LedgerService ledgerService,
+                     TransactionSearchIndex searchIndex) {
         this.categoryRepository = categoryRepository;
         this.userRepository = userRepository;
         this.passwordEncoder = passwordEncoder;
         this.transactionRepository = transactionRepository;
         this.bankAccountRepository = bankAccountRepository;
+        this.ledgerService = ledgerService;
+        this.searchIndex = searchIndex;
     }
 
     
@@ -481,6 +490,13 @@ public class DataLoader implements CommandLineRunner {
                 .build());
             System.out.println("✅ Guardada: Regalos Navidad - 180.65€");
 
+            // Las transacciones de prueba se guardan directamente en el repositorio: regenerar el ledger
+            // y el índice de búsqueda
+            int ledgerRows = ledgerService.rebuild();
+            System.out.println("📒 Ledger regenerado: " + ledgerRows + " filas");
+            int searchTerms = searchIndex.rebuild();
+            System.out.println("🔎 Índice de búsqueda regenerado: " + searchTerms + " términos");
+
             System.out.println("🎯 RESUMEN FINAL:");
             System.out.println("📊 Total categorías: " + categoryRepository.count());
             System.out.println("💳 Total transacciones: " + transactionRepository.count());
@@ -1,9 +1,5 @@
 package com.smartspend.config;
 
-import java.io.IOException;
-import java.util.Arrays;
-import java.util.List;
-
 import org.springframework.stereotype.Component;
 import org.springframework.web.multipart.MultipartFile;
 
@@ -11,32 +7,20 @@ import org.springframework.web.multipart.MultipartFile;
 public class ImageUtils {
     private static final long MAX_IMAGE_SIZE_BYTES = 5 * 1024 * 1024; // 5 MB   
 
-    private static final List<String> ALLOWED_IMAGE_TYPES = Arrays.asList(
-        "image/jpeg", "image/jpg", "image/png", "image/webp"
-    );
-
     public boolean isImageSizeValid(long imageSize) {
         return imageSize <= MAX_IMAGE_SIZE_BYTES;
     }
 
-    public boolean isImageTypeValid(String imageType) {
-        return ALLOWED_IMAGE_TYPES.contains(imageType.toLowerCase());
-    }
-
+    /**
+     * Comprobación previa de tamaño. El tipo no se toma del Content-Type declarado: lo
+     * detecta ImageStore por los magic bytes al guardar la imagen
+     */
     public boolean isValidImage(MultipartFile imageFile) {
 
-        if (imageFile.getContentType() == null) {
+        if (imageFile == null || imageFile.isEmpty()) {
             return false;
         }
 
-        return isImageTypeValid(imageFile.getContentType()) && isImageSizeValid(imageFile.getSize());
-    }
-
-
-    public byte[] processImage(MultipartFile imageFile) throws IOException {
-        if (!isValidImage(imageFile)) {
-            return null;
-        }
-        return imageFile.getBytes();
+        return isImageSizeValid(imageFile.getSize());
     }
 }
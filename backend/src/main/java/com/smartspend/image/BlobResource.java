@@ -0,0 +1,126 @@
+package com.smartspend.image;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+import org.springframework.core.io.AbstractResource;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+/**
+ * Imagen de image_blobs servida sin cargarla en memoria. El tipo y el tamaño salen de la fila;
+ * los bytes se leen por bloques con SUBSTRING, una consulta corta por bloque, así que no se
+ * retiene una conexión mientras el cliente descarga. skip() solo avanza la posición: una
+ * petición Range lee únicamente los bloques que pide.
+ */
+public class BlobResource extends AbstractResource {
+
+    public static final int CHUNK_SIZE = 256 * 1024;
+
+    private static final String READ_CHUNK = "SELECT SUBSTRING(data, ?, ?) FROM image_blobs WHERE hash = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final String hash;
+    private final String contentType;
+    private final long size;
+
+    public BlobResource(JdbcTemplate jdbcTemplate, String hash, String contentType, long size) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.hash = hash;
+        this.contentType = contentType;
+        this.size = size;
+    }
+
+    public String getHash() {
+        return hash;
+    }
+
+    public String getContentType() {
+        return contentType;
+    }
+
+    @Override
+    public long contentLength() {
+        return size;
+    }
+
+    @Override
+    public String getDescription() {
+        return "Image blob [" + hash + "]";
+    }
+
+    @Override
+    public InputStream getInputStream() {
+        return new ChunkedInputStream();
+    }
+
+    private class ChunkedInputStream extends InputStream {
+
+        // Posición (desde 0) del primer byte que aún no se ha pedido a la base de datos
+        private long position;
+        private byte[] chunk = new byte[0];
+        private int chunkOffset;
+
+        @Override
+        public int read() throws IOException {
+            if (!fill()) {
+                return -1;
+            }
+            return chunk[chunkOffset++] & 0xff;
+        }
+
+        @Override
+        public int read(byte[] buffer, int offset, int length) throws IOException {
+            if (length == 0) {
+                return 0;
+            }
+            if (!fill()) {
+                return -1;
+            }
+            int copied = Math.min(length, chunk.length - chunkOffset);
+            System.arraycopy(chunk, chunkOffset, buffer, offset, copied);
+            chunkOffset += copied;
+            return copied;
+        }
+
+        @Override
+        public long skip(long n) {
+            if (n <= 0) {
+                return 0;
+            }
+            int buffered = chunk.length - chunkOffset;
+            if (n <= buffered) {
+                chunkOffset += (int) n;
+                return n;
+            }
+            long skipped = Math.min(n - buffered, size - position);
+            position += skipped;
+            chunk = new byte[0];
+            chunkOffset = 0;
+            return buffered + skipped;
+        }
+
+        @Override
+        public int available() {
+            return chunk.length - chunkOffset;
+        }
+
+        private boolean fill() throws IOException {
+            if (chunkOffset < chunk.length) {
+                return true;
+            }
+            if (position >= size) {
+                return false;
+            }
+            int length = (int) Math.min(CHUNK_SIZE, size - position);
+            // SUBSTRING empieza en 1
+            byte[] data = jdbcTemplate.query(READ_CHUNK, rs -> rs.next() ? rs.getBytes(1) : null, position + 1, length, hash);
+            if (data == null || data.length == 0) {
+                throw new IOException("Image " + hash + " no longer exists");
+            }
+            chunk = data;
+            chunkOffset = 0;
+            position += data.length;
+            return true;
+        }
+    }
+}
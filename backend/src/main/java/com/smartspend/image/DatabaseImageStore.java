@@ -0,0 +1,134 @@
+package com.smartspend.image;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.time.LocalDateTime;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Optional;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.io.InputStreamSource;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+/**
+ * Implementación de ImageStore sobre la tabla image_blobs
+ */
+@Service
+public class DatabaseImageStore implements ImageStore {
+
+    private static final String INSERT_BLOB =
+        "INSERT INTO image_blobs (hash, data, content_type, size, created_at) VALUES (?, ?, ?, ?, ?)";
+
+    private static final String FIND_METADATA = "SELECT content_type, size FROM image_blobs WHERE hash = ?";
+
+    private static final String LOCK_BLOB = "SELECT hash FROM image_blobs WHERE hash = ? FOR UPDATE";
+
+    @Autowired
+    ImageBlobRepository imageBlobRepository;
+
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+
+    @Override
+    public String store(byte[] data, String contentType) {
+        String hash = sha256(data);
+        if (!lock(hash)) {
+            try {
+                imageBlobRepository.save(new ImageBlob(hash, data, contentType));
+            } catch (DataIntegrityViolationException e) {
+                // Otro hilo guardó el mismo contenido a la vez (p. ej. la misma miniatura en
+                // segundo plano y bajo demanda); el blob ya existe
+            }
+        }
+        return hash;
+    }
+
+    @Override
+    public StoredImage store(InputStreamSource source) throws IOException {
+        // Primera pasada: hash, tamaño y cabecera con un búfer fijo
+        MessageDigest digest = newDigest();
+        byte[] header = new byte[ImageSignature.HEADER_LENGTH];
+        int headerLength = 0;
+        long size = 0;
+        try (InputStream in = new DigestInputStream(source.getInputStream(), digest)) {
+            byte[] buffer = new byte[8192];
+            int read;
+            while ((read = in.read(buffer)) != -1) {
+                if (headerLength < header.length) {
+                    int copied = Math.min(read, header.length - headerLength);
+                    System.arraycopy(buffer, 0, header, headerLength, copied);
+                    headerLength += copied;
+                }
+                size += read;
+            }
+        }
+
+        String contentType = ImageSignature.detect(header, headerLength)
+            .orElseThrow(() -> new IllegalArgumentException("Invalid image file"));
+        String hash = HexFormat.of().formatHex(digest.digest());
+
+        // Segunda pasada solo si el contenido es nuevo: el driver recibe el stream directamente.
+        // Si ya existe queda bloqueado hasta el commit y un borrado concurrente espera a que la
+        // transacción que lo reutiliza sea visible
+        if (!lock(hash)) {
+            long length = size;
+            try (InputStream in = source.getInputStream()) {
+                jdbcTemplate.update(INSERT_BLOB, ps -> {
+                    ps.setString(1, hash);
+                    ps.setBinaryStream(2, in, length);
+                    ps.setString(3, contentType);
+                    ps.setLong(4, length);
+                    ps.setObject(5, LocalDateTime.now());
+                });
+            } catch (DuplicateKeyException e) {
+                // Otra petición subió la misma imagen a la vez
+            }
+        }
+        return new StoredImage(hash, contentType, size);
+    }
+
+    @Override
+    public Optional<byte[]> load(String hash) {
+        return imageBlobRepository.findById(hash).map(ImageBlob::getData);
+    }
+
+    @Override
+    public Optional<BlobResource> open(String hash) {
+        return jdbcTemplate.query(FIND_METADATA, rs -> rs.next()
+            ? Optional.of(new BlobResource(jdbcTemplate, hash, rs.getString(1), rs.getLong(2)))
+            : Optional.<BlobResource>empty(), hash);
+    }
+
+    @Override
+    public boolean exists(String hash) {
+        return imageBlobRepository.existsById(hash);
+    }
+
+    @Override
+    public boolean lock(String hash) {
+        return !jdbcTemplate.queryForList(LOCK_BLOB, String.class, hash).isEmpty();
+    }
+
+    @Override
+    public void delete(String hash) {
+        imageBlobRepository.deleteById(hash);
+    }
+
+    public static String sha256(byte[] data) {
+        return HexFormat.of().formatHex(newDigest().digest(data));
+    }
+
+    private static MessageDigest newDigest() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+}
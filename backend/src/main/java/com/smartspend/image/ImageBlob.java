@@ -0,0 +1,65 @@
+package com.smartspend.image;
+
+import java.time.LocalDateTime;
+
+import org.springframework.data.domain.Persistable;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.Setter;
+
+/**
+ * Contenido de una imagen direccionado por su hash SHA-256. Varias transacciones
+ * (por ejemplo, las hijas de una recurrente) pueden apuntar al mismo blob.
+ */
+@Entity
+@Table(name = "image_blobs")
+@Getter @Setter
+public class ImageBlob implements Persistable<String> {
+
+    @Id
+    @Column(length = 64)
+    private String hash;
+
+    @Lob
+    @Column(nullable = false, columnDefinition = "LONGBLOB")
+    private byte[] data;
+
+    @Column(name = "content_type", nullable = false, length = 100)
+    private String contentType;
+
+    @Column(nullable = false)
+    private Long size;
+
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private LocalDateTime createdAt = LocalDateTime.now();
+
+    // El id lo asigna la aplicación (hash): así save() hace un INSERT directo en vez de merge
+    @Transient
+    private boolean isNew = true;
+
+    public ImageBlob() {}
+
+    public ImageBlob(String hash, byte[] data, String contentType) {
+        this.hash = hash;
+        this.data = data;
+        this.contentType = contentType;
+        this.size = (long) data.length;
+    }
+
+    @Override
+    public String getId() {
+        return hash;
+    }
+
+    @Override
+    public boolean isNew() {
+        return isNew;
+    }
+
+    @PostLoad
+    @PostPersist
+    void markNotNew() {
+        this.isNew = false;
+    }
+}
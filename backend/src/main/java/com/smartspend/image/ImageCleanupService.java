@@ -0,0 +1,57 @@
+package com.smartspend.image;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Objects;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import com.smartspend.transaction.TransactionRepository;
+
+/**
+ * Borra los blobs que ya no usa ninguna transacción. Los blobs se comparten por contenido, así
+ * que el borrado compite con las subidas que reutilizan el mismo blob: las dos partes bloquean
+ * antes la fila del blob (ImageStore.lock). Quien borra toma el bloqueo antes que el de la
+ * cuenta, en el mismo orden que una subida (imagen y después saldo), para no interbloquearse.
+ */
+@Service
+public class ImageCleanupService {
+
+    @Autowired
+    private ImageStore imageStore;
+
+    @Autowired
+    private ImageVariantService imageVariantService;
+
+    @Autowired
+    private TransactionRepository transactionRepository;
+
+    /**
+     * Bloquea los blobs hasta el commit y devuelve los que existen. Se ordenan para que dos
+     * borrados con varios blobs en común los tomen en el mismo orden
+     */
+    public List<String> lock(Collection<String> hashes) {
+        return hashes.stream()
+            .filter(Objects::nonNull)
+            .distinct()
+            .sorted()
+            .filter(imageStore::lock)
+            .toList();
+    }
+
+    /**
+     * Borra el blob y sus miniaturas si ninguna transacción lo usa ya. Se llama con el blob
+     * bloqueado (lock) y después de borrar las transacciones que lo usaban
+     */
+    public void releaseIfUnused(String hash) {
+        if (!transactionRepository.findIdsByImageHashForUpdate(hash).isEmpty()) {
+            return;
+        }
+        imageVariantService.deleteVariants(hash);
+        // Tampoco se borra si el mismo contenido es la miniatura de otra imagen
+        if (!imageVariantService.isVariant(hash)) {
+            imageStore.delete(hash);
+        }
+    }
+}
@@ -0,0 +1,45 @@
+package com.smartspend.image;
+
+import java.util.Optional;
+
+/**
+ * Detecta el formato de una imagen por sus primeros bytes (magic bytes), sin fiarse del
+ * Content-Type que declara el cliente.
+ */
+public final class ImageSignature {
+
+    // Bytes necesarios para reconocer cualquiera de los formatos admitidos (WebP: RIFF....WEBP)
+    public static final int HEADER_LENGTH = 12;
+
+    private static final byte[] JPEG = {(byte) 0xFF, (byte) 0xD8, (byte) 0xFF};
+    private static final byte[] PNG = {(byte) 0x89, 'P', 'N', 'G', '\r', '\n', 0x1A, '\n'};
+    private static final byte[] RIFF = {'R', 'I', 'F', 'F'};
+    private static final byte[] WEBP = {'W', 'E', 'B', 'P'};
+
+    private ImageSignature() {}
+
+    public static Optional<String> detect(byte[] header, int length) {
+        if (startsWith(header, length, 0, JPEG)) {
+            return Optional.of("image/jpeg");
+        }
+        if (startsWith(header, length, 0, PNG)) {
+            return Optional.of("image/png");
+        }
+        if (startsWith(header, length, 0, RIFF) && startsWith(header, length, 8, WEBP)) {
+            return Optional.of("image/webp");
+        }
+        return Optional.empty();
+    }
+
+    private static boolean startsWith(byte[] header, int length, int offset, byte[] signature) {
+        if (length < offset + signature.length) {
+            return false;
+        }
+        for (int i = 0; i < signature.length; i++) {
+            if (header[offset + i] != signature[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
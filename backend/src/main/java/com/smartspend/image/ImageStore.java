@@ -0,0 +1,45 @@
+package com.smartspend.image;
+
+import java.io.IOException;
+import java.util.Optional;
+
+import org.springframework.core.io.InputStreamSource;
+
+/**
+ * Almacén de imágenes direccionado por contenido: la clave es el hash SHA-256 de los bytes,
+ * de modo que subir dos veces la misma imagen solo la guarda una vez.
+ */
+public interface ImageStore {
+
+    /**
+     * Guarda la imagen (si no existe ya) y devuelve su hash
+     */
+    String store(byte[] data, String contentType);
+
+    /**
+     * Guarda la imagen leyéndola en streaming, sin cargarla entera en memoria. El tipo se
+     * detecta por los magic bytes; lanza IllegalArgumentException("Invalid image file") si no es
+     * un formato admitido. La fuente se lee dos veces (hash y volcado), por eso se recibe
+     * un InputStreamSource y no un InputStream.
+     */
+    StoredImage store(InputStreamSource source) throws IOException;
+
+    record StoredImage(String hash, String contentType, long size) {}
+
+    Optional<byte[]> load(String hash);
+
+    /**
+     * La imagen lista para servirla en streaming, sin leer sus bytes; vacío si no existe
+     */
+    Optional<BlobResource> open(String hash);
+
+    boolean exists(String hash);
+
+    /**
+     * Bloquea la fila del blob hasta el commit y devuelve si existe. Las subidas que reutilizan
+     * un blob y el borrado de blobs sin uso lo toman antes de decidir, así que no se cruzan
+     */
+    boolean lock(String hash);
+
+    void delete(String hash);
+}
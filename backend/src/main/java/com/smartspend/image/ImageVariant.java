@@ -0,0 +1,41 @@
+package com.smartspend.image;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.Setter;
+
+/**
+ * Relaciona una imagen original con su miniatura de un tamaño. La miniatura es a su vez
+ * un blob de image_blobs; si no se pudo reducir (formato sin lector, imagen ya pequeña)
+ * apunta al propio original.
+ */
+@Entity
+@Table(name = "image_variants",
+    uniqueConstraints = @UniqueConstraint(
+        name = "uk_image_variant_source_size",
+        columnNames = {"source_hash", "size"}))
+@Getter @Setter
+public class ImageVariant {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "source_hash", nullable = false, length = 64)
+    private String sourceHash;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    private ImageVariantSize size;
+
+    @Column(name = "variant_hash", nullable = false, length = 64)
+    private String variantHash;
+
+    public ImageVariant() {}
+
+    public ImageVariant(String sourceHash, ImageVariantSize size, String variantHash) {
+        this.sourceHash = sourceHash;
+        this.size = size;
+        this.variantHash = variantHash;
+    }
+}
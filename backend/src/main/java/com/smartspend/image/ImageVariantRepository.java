@@ -0,0 +1,17 @@
+package com.smartspend.image;
+
+import java.util.List;
+import java.util.Optional;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface ImageVariantRepository extends JpaRepository<ImageVariant, Long> {
+
+    Optional<ImageVariant> findBySourceHashAndSize(String sourceHash, ImageVariantSize size);
+
+    List<ImageVariant> findBySourceHash(String sourceHash);
+
+    boolean existsByVariantHash(String variantHash);
+}
@@ -0,0 +1,208 @@
+package com.smartspend.image;
+
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Optional;
+
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.stream.ImageInputStream;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.smartspend.transaction.TransactionRepository;
+
+/**
+ * Genera y sirve miniaturas de las imágenes. Se generan en segundo plano tras guardar la
+ * imagen y, si aún no existen cuando se piden (cola llena, imágenes antiguas), al vuelo.
+ */
+@Service
+public class ImageVariantService {
+
+    @Autowired
+    private ImageStore imageStore;
+
+    @Autowired
+    private ImageBlobRepository imageBlobRepository;
+
+    @Autowired
+    private ImageVariantRepository imageVariantRepository;
+
+    @Autowired
+    private TransactionRepository transactionRepository;
+
+    @Autowired
+    @Qualifier("imageTaskExecutor")
+    private TaskExecutor imageTaskExecutor;
+
+    public record ResizedImage(byte[] data, String contentType) {}
+
+    /**
+     * Encola la generación de todas las miniaturas. Dentro de una transacción espera al
+     * commit para que el hilo de trabajo vea el blob original.
+     */
+    public void scheduleVariants(String sourceHash) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    submitVariants(sourceHash);
+                }
+            });
+        } else {
+            submitVariants(sourceHash);
+        }
+    }
+
+    private void submitVariants(String sourceHash) {
+        try {
+            imageTaskExecutor.execute(() -> {
+                for (ImageVariantSize size : ImageVariantSize.values()) {
+                    try {
+                        generateVariant(sourceHash, size);
+                    } catch (RuntimeException e) {
+                        System.err.println("Error generando miniatura " + size + " de " + sourceHash + ": " + e.getMessage());
+                    }
+                }
+            });
+        } catch (TaskRejectedException e) {
+            System.out.println("⚠️ Cola de miniaturas llena, se generarán bajo demanda: " + sourceHash);
+        }
+    }
+
+    /**
+     * Blob a servir en streaming: el original si size es null, o la miniatura (generándola si falta)
+     */
+    public Optional<BlobResource> load(String sourceHash, ImageVariantSize size) {
+        if (size == null) {
+            return imageStore.open(sourceHash);
+        }
+        return generateVariant(sourceHash, size).flatMap(imageStore::open);
+    }
+
+    /**
+     * Devuelve el hash de la miniatura, creándola si no existe. Vacío si el original no existe.
+     */
+    public Optional<String> generateVariant(String sourceHash, ImageVariantSize size) {
+        Optional<ImageVariant> existing = imageVariantRepository.findBySourceHashAndSize(sourceHash, size);
+        if (existing.isPresent()) {
+            return Optional.of(existing.get().getVariantHash());
+        }
+
+        Optional<ImageBlob> source = imageBlobRepository.findById(sourceHash);
+        if (source.isEmpty()) {
+            return Optional.empty();
+        }
+
+        // Si no se puede reducir se registra el original para no volver a intentarlo
+        String variantHash = resize(source.get().getData(), size.getPixels())
+            .map(resized -> imageStore.store(resized.data(), resized.contentType()))
+            .orElse(sourceHash);
+
+        try {
+            imageVariantRepository.save(new ImageVariant(sourceHash, size, variantHash));
+        } catch (DataIntegrityViolationException e) {
+            // Otro hilo la generó a la vez; el contenido es el mismo
+        }
+        return Optional.of(variantHash);
+    }
+
+    /**
+     * Borra las miniaturas de una imagen original que ya no se usa. Con la deduplicación por
+     * contenido, el blob de una miniatura puede ser también la imagen de otra transacción (p. ej.
+     * si alguien sube una miniatura descargada): solo se borra si nadie más lo usa.
+     */
+    public void deleteVariants(String sourceHash) {
+        List<ImageVariant> variants = imageVariantRepository.findBySourceHash(sourceHash);
+        imageVariantRepository.deleteAll(variants);
+        for (ImageVariant variant : variants) {
+            String variantHash = variant.getVariantHash();
+            if (!variantHash.equals(sourceHash)
+                    && !imageVariantRepository.existsByVariantHash(variantHash)
+                    && !transactionRepository.existsByImageHash(variantHash)) {
+                imageStore.delete(variantHash);
+            }
+        }
+    }
+
+    /**
+     * Si el blob es la miniatura de alguna imagen (y por tanto no se puede borrar aunque
+     * ninguna transacción lo use como original)
+     */
+    public boolean isVariant(String hash) {
+        return imageVariantRepository.existsByVariantHash(hash);
+    }
+
+    /**
+     * Reduce la imagen para que su lado mayor mida maxSide. Vacío si no hay lector para el
+     * formato (p. ej. WebP en el JDK) o si la imagen ya es igual o más pequeña.
+     * Las que tienen transparencia se guardan en PNG y el resto en JPEG.
+     */
+    public static Optional<ResizedImage> resize(byte[] data, int maxSide) {
+        try (ImageInputStream input = ImageIO.createImageInputStream(new ByteArrayInputStream(data))) {
+            Iterator<ImageReader> readers = ImageIO.getImageReaders(input);
+            if (!readers.hasNext()) {
+                return Optional.empty();
+            }
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(input, true, true);
+                int width = reader.getWidth(0);
+                int height = reader.getHeight(0);
+                int longestSide = Math.max(width, height);
+                if (longestSide <= maxSide) {
+                    return Optional.empty();
+                }
+
+                // Submuestreo al decodificar: no se carga en memoria el raster completo
+                // de fotos grandes, solo el doble del tamaño final para mantener calidad
+                ImageReadParam param = reader.getDefaultReadParam();
+                int subsampling = Math.max(1, longestSide / (maxSide * 2));
+                param.setSourceSubsampling(subsampling, subsampling, 0, 0);
+                BufferedImage source = reader.read(0, param);
+
+                double scale = (double) maxSide / longestSide;
+                int targetWidth = Math.max(1, (int) Math.round(width * scale));
+                int targetHeight = Math.max(1, (int) Math.round(height * scale));
+                boolean hasAlpha = source.getColorModel().hasAlpha();
+
+                BufferedImage target = new BufferedImage(targetWidth, targetHeight,
+                    hasAlpha ? BufferedImage.TYPE_INT_ARGB : BufferedImage.TYPE_INT_RGB);
+                Graphics2D graphics = target.createGraphics();
+                try {
+                    graphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+                    graphics.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+                    graphics.drawImage(source, 0, 0, targetWidth, targetHeight, null);
+                } finally {
+                    graphics.dispose();
+                }
+
+                String format = hasAlpha ? "png" : "jpeg";
+                ByteArrayOutputStream output = new ByteArrayOutputStream();
+                if (!ImageIO.write(target, format, output)) {
+                    return Optional.empty();
+                }
+                return Optional.of(new ResizedImage(output.toByteArray(), "image/" + format));
+            } finally {
+                reader.dispose();
+            }
+        } catch (IOException e) {
+            // Imagen corrupta o formato no soportado: se sirve el original
+            return Optional.empty();
+        }
+    }
+}
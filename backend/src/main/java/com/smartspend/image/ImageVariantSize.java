@@ -0,0 +1,30 @@
+package com.smartspend.image;
+
+import java.util.Optional;
+
+/**
+ * Tamaños de miniatura que se generan para cada imagen (lado mayor en píxeles)
+ */
+public enum ImageVariantSize {
+    THUMB_64(64),
+    THUMB_256(256);
+
+    private final int pixels;
+
+    ImageVariantSize(int pixels) {
+        this.pixels = pixels;
+    }
+
+    public int getPixels() {
+        return pixels;
+    }
+
+    public static Optional<ImageVariantSize> fromPixels(int pixels) {
+        for (ImageVariantSize size : values()) {
+            if (size.pixels == pixels) {
+                return Optional.of(size);
+            }
+        }
+        return Optional.empty();
+    }
+}
@@ -0,0 +1,55 @@
+package com.smartspend.ledger;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+import com.smartspend.transaction.TransactionType;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.Setter;
+
+/**
+ * Agregado diario por cuenta, tipo y categoría. Se mantiene en cada escritura de
+ * transacciones para que gráficos e informes no tengan que recorrer la tabla transactions.
+ */
+@Entity
+@Table(name = "account_daily_ledger",
+    uniqueConstraints = @UniqueConstraint(
+        name = "uk_ledger_account_date_type_category",
+        columnNames = {"account_id", "entry_date", "type", "category_id"}))
+@Getter @Setter
+public class LedgerEntry {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "account_id", nullable = false)
+    private Long accountId;
+
+    @Column(name = "entry_date", nullable = false)
+    private LocalDate entryDate;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private TransactionType type;
+
+    @Column(name = "category_id", nullable = false)
+    private Long categoryId;
+
+    @Column(nullable = false, precision = 15, scale = 2)
+    private BigDecimal total = BigDecimal.ZERO;
+
+    @Column(name = "transaction_count", nullable = false)
+    private Long transactionCount = 0L;
+
+    public LedgerEntry() {}
+
+    public LedgerEntry(Long accountId, LocalDate entryDate, TransactionType type, Long categoryId) {
+        this.accountId = accountId;
+        this.entryDate = entryDate;
+        this.type = type;
+        this.categoryId = categoryId;
+    }
+}
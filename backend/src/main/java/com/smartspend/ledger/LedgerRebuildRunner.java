@@ -0,0 +1,28 @@
+package com.smartspend.ledger;
+
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+/**
+ * Reconstruye el ledger al arrancar cuando se lanza con --smartspend.ledger.rebuild=true
+ * (backfill de bases de datos existentes).
+ */
+@Component
+@Order(100)
+@ConditionalOnProperty(name = "smartspend.ledger.rebuild", havingValue = "true")
+public class LedgerRebuildRunner implements CommandLineRunner {
+
+    private final LedgerService ledgerService;
+
+    public LedgerRebuildRunner(LedgerService ledgerService) {
+        this.ledgerService = ledgerService;
+    }
+
+    @Override
+    public void run(String... args) {
+        int rows = ledgerService.rebuild();
+        System.out.println("📒 Ledger reconstruido: " + rows + " filas agregadas");
+    }
+}
@@ -0,0 +1,85 @@
+package com.smartspend.ledger;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import com.smartspend.transaction.TransactionType;
+
+import jakarta.persistence.LockModeType;
+
+@Repository
+public interface LedgerRepository extends JpaRepository<LedgerEntry, Long> {
+
+    // Lectura con bloqueo: con REPEATABLE READ una lectura normal vería la foto del inicio de
+    // la transacción y el read-modify-write de LedgerService perdería apuntes concurrentes
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    Optional<LedgerEntry> findByAccountIdAndEntryDateAndTypeAndCategoryId(
+        Long accountId, LocalDate entryDate, TransactionType type, Long categoryId);
+
+    @Query("SELECT COALESCE(SUM(CASE WHEN l.type = 'INCOME' THEN l.total ELSE -l.total END), 0) " +
+           "FROM LedgerEntry l WHERE l.accountId = :accountId AND l.entryDate <= :endDate")
+    BigDecimal findBalanceUpToDate(@Param("accountId") Long accountId, @Param("endDate") LocalDate endDate);
+
+    @Query("SELECT c.name, SUM(l.total) " +
+           "FROM LedgerEntry l JOIN Category c ON c.id = l.categoryId " +
+           "WHERE l.accountId = :accountId " +
+           "AND l.entryDate BETWEEN :dateFrom AND :dateTo " +
+           "AND l.type = :type " +
+           "GROUP BY c.name")
+    List<Object[]> findCategoryTotalsByAccountAndDateRangeAndType(
+        @Param("accountId") Long accountId,
+        @Param("dateFrom") LocalDate dateFrom,
+        @Param("dateTo") LocalDate dateTo,
+        @Param("type") TransactionType type);
+
+    @Query("SELECT SUM(l.total) FROM LedgerEntry l WHERE l.accountId = :accountId " +
+           "AND l.entryDate BETWEEN :dateFrom AND :dateTo " +
+           "AND l.type = :type")
+    BigDecimal findTotalByAccountAndDateRangeAndType(
+        @Param("accountId") Long accountId,
+        @Param("dateFrom") LocalDate dateFrom,
+        @Param("dateTo") LocalDate dateTo,
+        @Param("type") TransactionType type);
+
+    @Query("SELECT l.entryDate, l.type, SUM(l.total) " +
+           "FROM LedgerEntry l WHERE l.accountId = :accountId " +
+           "AND l.entryDate BETWEEN :dateFrom AND :dateTo " +
+           "GROUP BY l.entryDate, l.type " +
+           "ORDER BY l.entryDate ASC")
+    List<Object[]> findDailyTotalsByAccountAndDateRange(
+        @Param("accountId") Long accountId,
+        @Param("dateFrom") LocalDate dateFrom,
+        @Param("dateTo") LocalDate dateTo);
+
+    // Filas [fecha, tipo, categoría, total]: de aquí salen a la vez las tartas, las barras y la evolución
+    @Query("SELECT l.entryDate, l.type, c.name, SUM(l.total) " +
+           "FROM LedgerEntry l JOIN Category c ON c.id = l.categoryId " +
+           "WHERE l.accountId = :accountId " +
+           "AND l.entryDate BETWEEN :dateFrom AND :dateTo " +
+           "GROUP BY l.entryDate, l.type, c.name " +
+           "ORDER BY l.entryDate ASC")
+    List<Object[]> findDailyCategoryTotalsByAccountAndDateRange(
+        @Param("accountId") Long accountId,
+        @Param("dateFrom") LocalDate dateFrom,
+        @Param("dateTo") LocalDate dateTo);
+
+    @Modifying
+    @Query("DELETE FROM LedgerEntry l WHERE l.accountId = :accountId")
+    void deleteByAccountId(@Param("accountId") Long accountId);
+
+    // Reconstrucción completa a partir de la tabla transactions (una sola sentencia INSERT ... SELECT)
+    @Modifying
+    @Query(value = "INSERT INTO account_daily_ledger (account_id, entry_date, type, category_id, total, transaction_count) " +
+                   "SELECT account_id, date, type, category_id, SUM(amount), COUNT(*) " +
+                   "FROM transactions GROUP BY account_id, date, type, category_id", nativeQuery = true)
+    int backfillFromTransactions();
+}
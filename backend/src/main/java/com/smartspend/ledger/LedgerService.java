@@ -0,0 +1,66 @@
+package com.smartspend.ledger;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.smartspend.transaction.Transaction;
+import com.smartspend.transaction.TransactionType;
+
+@Service
+public class LedgerService {
+
+    @Autowired
+    LedgerRepository ledgerRepository;
+
+    /**
+     * Suma la transacción al agregado de su día. Debe llamarse dentro de la misma
+     * transacción que la escritura sobre transactions.
+     */
+    public void record(Transaction transaction) {
+        apply(transaction.getAccount().getId(), transaction.getDate(), transaction.getType(),
+            transaction.getCategory().getId(), transaction.getAmount(), 1);
+    }
+
+    /**
+     * Resta la transacción del agregado (borrado o antes de editarla)
+     */
+    public void reverse(Transaction transaction) {
+        apply(transaction.getAccount().getId(), transaction.getDate(), transaction.getType(),
+            transaction.getCategory().getId(), transaction.getAmount().negate(), -1);
+    }
+
+    public void apply(Long accountId, LocalDate date, TransactionType type, Long categoryId, BigDecimal amountDelta, long countDelta) {
+
+        LedgerEntry entry = ledgerRepository
+            .findByAccountIdAndEntryDateAndTypeAndCategoryId(accountId, date, type, categoryId)
+            .orElseGet(() -> new LedgerEntry(accountId, date, type, categoryId));
+
+        entry.setTotal(entry.getTotal().add(amountDelta));
+        entry.setTransactionCount(entry.getTransactionCount() + countDelta);
+
+        if (entry.getTransactionCount() <= 0) {
+            if (entry.getId() != null) {
+                ledgerRepository.delete(entry);
+            }
+            return;
+        }
+        ledgerRepository.save(entry);
+    }
+
+    public void deleteAccount(Long accountId) {
+        ledgerRepository.deleteByAccountId(accountId);
+    }
+
+    /**
+     * Vacía el ledger y lo vuelve a generar desde los datos existentes
+     */
+    @Transactional
+    public int rebuild() {
+        ledgerRepository.deleteAllInBatch();
+        return ledgerRepository.backfillFromTransactions();
+    }
+}
@@ -0,0 +1,94 @@
+package com.smartspend.migration;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.flywaydb.core.api.migration.BaseJavaMigration;
+import org.flywaydb.core.api.migration.Context;
+import org.springframework.stereotype.Component;
+
+import com.smartspend.image.DatabaseImageStore;
+import com.smartspend.image.ImageSignature;
+
+/**
+ * Mueve las imágenes de la antigua columna transactions.image_data a image_blobs, usando
+ * como clave el mismo SHA-256 que DatabaseImageStore. Es una migración Java porque el hash
+ * no se puede calcular igual en SQL de MySQL y de H2.
+ * Las filas se leen de una en una para no cargar todas las imágenes a la vez.
+ */
+@Component
+public class V3__MoveLegacyImagesToBlobStore extends BaseJavaMigration {
+
+    @Override
+    public void migrate(Context context) throws Exception {
+        Connection connection = context.getConnection();
+
+        List<Long> ids = new ArrayList<>();
+        try (Statement statement = connection.createStatement();
+             ResultSet rows = statement.executeQuery("SELECT id FROM transactions WHERE image_data IS NOT NULL")) {
+            while (rows.next()) {
+                ids.add(rows.getLong(1));
+            }
+        }
+
+        Set<String> storedHashes = new HashSet<>();
+        try (PreparedStatement select = connection.prepareStatement(
+                 "SELECT image_data, image_type FROM transactions WHERE id = ?");
+             PreparedStatement exists = connection.prepareStatement(
+                 "SELECT 1 FROM image_blobs WHERE hash = ?");
+             PreparedStatement insert = connection.prepareStatement(
+                 "INSERT INTO image_blobs (hash, data, content_type, size, created_at) VALUES (?, ?, ?, ?, ?)");
+             PreparedStatement update = connection.prepareStatement(
+                 "UPDATE transactions SET image_hash = ?, image_size = ? WHERE id = ?")) {
+
+            for (Long id : ids) {
+                byte[] data;
+                String imageType;
+                select.setLong(1, id);
+                try (ResultSet row = select.executeQuery()) {
+                    if (!row.next()) {
+                        continue;
+                    }
+                    data = row.getBytes(1);
+                    imageType = row.getString(2);
+                }
+
+                String hash = DatabaseImageStore.sha256(data);
+                if (storedHashes.add(hash) && !blobExists(exists, hash)) {
+                    String contentType = ImageSignature.detect(data, Math.min(data.length, ImageSignature.HEADER_LENGTH))
+                        .orElse(imageType != null ? imageType : "application/octet-stream");
+                    insert.setString(1, hash);
+                    insert.setBytes(2, data);
+                    insert.setString(3, contentType);
+                    insert.setLong(4, data.length);
+                    insert.setTimestamp(5, Timestamp.valueOf(LocalDateTime.now()));
+                    insert.executeUpdate();
+                }
+
+                update.setString(1, hash);
+                update.setLong(2, data.length);
+                update.setLong(3, id);
+                update.executeUpdate();
+            }
+        }
+
+        if (!ids.isEmpty()) {
+            System.out.println("🖼️ Imágenes migradas a image_blobs: " + ids.size() + " transacciones, " + storedHashes.size() + " blobs");
+        }
+    }
+
+    private boolean blobExists(PreparedStatement exists, String hash) throws Exception {
+        exists.setString(1, hash);
+        try (ResultSet row = exists.executeQuery()) {
+            return row.next();
+        }
+    }
+}
@@ -0,0 +1,58 @@
+package com.smartspend.migration;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.Map;
+
+import org.flywaydb.core.api.migration.BaseJavaMigration;
+import org.flywaydb.core.api.migration.Context;
+import org.springframework.stereotype.Component;
+
+import com.smartspend.transaction.search.SearchTerms;
+
+/**
+ * Rellena transaction_search_terms con las transacciones existentes. Es una migración Java
+ * porque quitar los acentos (SearchTerms) no se puede hacer igual en SQL de MySQL y de H2.
+ */
+@Component
+public class V8__IndexTransactionSearchTerms extends BaseJavaMigration {
+
+    private static final int BATCH_SIZE = 500;
+
+    @Override
+    public void migrate(Context context) throws Exception {
+        Connection connection = context.getConnection();
+
+        int transactions = 0;
+        int pending = 0;
+        try (Statement select = connection.createStatement();
+             ResultSet rows = select.executeQuery("SELECT id, account_id, title, description FROM transactions");
+             PreparedStatement insert = connection.prepareStatement(
+                 "INSERT INTO transaction_search_terms (transaction_id, term, account_id, weight) VALUES (?, ?, ?, ?)")) {
+
+            while (rows.next()) {
+                for (Map.Entry<String, Integer> term : SearchTerms.weights(rows.getString(3), rows.getString(4)).entrySet()) {
+                    insert.setLong(1, rows.getLong(1));
+                    insert.setString(2, term.getKey());
+                    insert.setLong(3, rows.getLong(2));
+                    insert.setInt(4, term.getValue());
+                    insert.addBatch();
+                    if (++pending == BATCH_SIZE) {
+                        insert.executeBatch();
+                        pending = 0;
+                    }
+                }
+                transactions++;
+            }
+            if (pending > 0) {
+                insert.executeBatch();
+            }
+        }
+
+        if (transactions > 0) {
+            System.out.println("🔎 Índice de búsqueda generado para " + transactions + " transacciones");
+        }
+    }
+}
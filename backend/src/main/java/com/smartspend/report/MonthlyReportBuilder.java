@@ -0,0 +1,85 @@
+package com.smartspend.report;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.smartspend.charts.TimelineEngine;
+import com.smartspend.charts.dtos.BarLineChartDto;
+import com.smartspend.charts.dtos.PieChartDto;
+import com.smartspend.report.dtos.ReportAccountDto;
+import com.smartspend.report.dtos.ReportResponseDTO;
+import com.smartspend.report.dtos.ReportTransactionRow;
+import com.smartspend.report.dtos.StadisticsDto;
+import com.smartspend.transaction.TransactionType;
+
+/**
+ * Construye el informe mensual recorriendo una sola vez las filas del mes:
+ * cada fila alimenta a la vez su lista, las estadísticas, la tarta de su tipo,
+ * las barras y la serie diaria del balance.
+ */
+public class MonthlyReportBuilder {
+
+    private final LocalDate dateFrom;
+    private final LocalDate dateTo;
+    private final TimelineEngine timeline;
+
+    private final List<ReportTransactionRow> incomes = new ArrayList<>();
+    private final List<ReportTransactionRow> expenses = new ArrayList<>();
+    private final Map<String, BigDecimal> incomeByCategory = new LinkedHashMap<>();
+    private final Map<String, BigDecimal> expenseByCategory = new LinkedHashMap<>();
+    private BigDecimal incomesTotal = BigDecimal.ZERO;
+    private BigDecimal expensesTotal = BigDecimal.ZERO;
+
+    public MonthlyReportBuilder(LocalDate dateFrom, LocalDate dateTo, BigDecimal openingBalance) {
+        this.dateFrom = dateFrom;
+        this.dateTo = dateTo;
+        this.timeline = new TimelineEngine(openingBalance);
+    }
+
+    public void accept(ReportTransactionRow row) {
+        BigDecimal amount = row.amount();
+        String categoryName = row.categoryName();
+
+        if (row.type() == TransactionType.INCOME) {
+            incomes.add(row);
+            incomeByCategory.merge(categoryName, amount, BigDecimal::add);
+            incomesTotal = incomesTotal.add(amount);
+        } else {
+            expenses.add(row);
+            expenseByCategory.merge(categoryName, amount, BigDecimal::add);
+            expensesTotal = expensesTotal.add(amount);
+        }
+        timeline.add(row.date(), row.type(), amount);
+    }
+
+    public ReportResponseDTO build(ReportAccountDto bankAccount) {
+        // La evolución del balance no pasa de hoy, igual que en el gráfico mensual
+        LocalDate today = LocalDate.now();
+        LocalDate timelineTo = dateTo.isAfter(today) ? today : dateTo;
+
+        Float incomes = incomesTotal.floatValue();
+        Float expenses = expensesTotal.floatValue();
+        StadisticsDto stadistics = new StadisticsDto(incomes, expenses, incomes - expenses);
+        BarLineChartDto barLineChart = new BarLineChartDto(List.of("Incomes", "Expenses"), List.of(incomes, expenses));
+
+        return new ReportResponseDTO(
+            bankAccount,
+            this.incomes,
+            this.expenses,
+            stadistics,
+            barLineChart,
+            toPieChart(expenseByCategory, expensesTotal),
+            toPieChart(incomeByCategory, incomesTotal),
+            timeline.buildDaily(dateFrom, timelineTo));
+    }
+
+    private PieChartDto toPieChart(Map<String, BigDecimal> categoryTotals, BigDecimal totalAmount) {
+        List<String> labels = new ArrayList<>(categoryTotals.keySet());
+        List<Double> data = categoryTotals.values().stream().map(BigDecimal::doubleValue).toList();
+        return new PieChartDto(labels, data, null, totalAmount);
+    }
+}
@@ -0,0 +1,97 @@
+package com.smartspend.report;
+
+import java.awt.Color;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+
+import com.lowagie.text.Document;
+import com.lowagie.text.Element;
+import com.lowagie.text.Font;
+import com.lowagie.text.FontFactory;
+import com.lowagie.text.PageSize;
+import com.lowagie.text.Paragraph;
+import com.lowagie.text.Phrase;
+import com.lowagie.text.pdf.PdfPCell;
+import com.lowagie.text.pdf.PdfPTable;
+import com.lowagie.text.pdf.PdfWriter;
+import com.smartspend.report.dtos.TransactionExportRow;
+import com.smartspend.transaction.TransactionType;
+
+/**
+ * Escribe el listado de movimientos en PDF a medida que llegan las filas. La tabla se marca
+ * como incompleta y se vuelca al documento cada FLUSH_ROWS filas, así OpenPDF libera las filas
+ * ya escritas y la memoria no depende del número de transacciones.
+ */
+public class PdfReportWriter implements AutoCloseable {
+
+    private static final int FLUSH_ROWS = 200;
+    private static final String[] HEADERS = {"Fecha", "Cuenta", "Categoría", "Concepto", "Tipo", "Importe"};
+
+    private final Font headerFont = FontFactory.getFont(FontFactory.HELVETICA_BOLD, 9, Color.WHITE);
+    private final Font cellFont = FontFactory.getFont(FontFactory.HELVETICA, 8);
+
+    private final Document document;
+    private final PdfPTable table;
+    private int pendingRows = 0;
+    private BigDecimal incomesTotal = BigDecimal.ZERO;
+    private BigDecimal expensesTotal = BigDecimal.ZERO;
+
+    public PdfReportWriter(OutputStream out, String title, String subtitle) {
+        document = new Document(PageSize.A4, 36, 36, 36, 36);
+        PdfWriter writer = PdfWriter.getInstance(document, out);
+        // El stream es la respuesta HTTP: lo cierra el contenedor, no el documento
+        writer.setCloseStream(false);
+        document.open();
+
+        document.add(new Paragraph(title, FontFactory.getFont(FontFactory.HELVETICA_BOLD, 16)));
+        document.add(new Paragraph(subtitle, FontFactory.getFont(FontFactory.HELVETICA, 10, Color.GRAY)));
+        document.add(new Paragraph(" "));
+
+        table = new PdfPTable(new float[] {1.4f, 2f, 2f, 3.4f, 1.2f, 1.6f});
+        table.setWidthPercentage(100);
+        table.setHeaderRows(1);
+        table.setComplete(false);
+        for (String header : HEADERS) {
+            PdfPCell cell = new PdfPCell(new Phrase(header, headerFont));
+            cell.setBackgroundColor(new Color(30, 41, 59));
+            table.addCell(cell);
+        }
+    }
+
+    public void write(TransactionExportRow row) {
+        boolean income = row.type() == TransactionType.INCOME;
+
+        table.addCell(new Phrase(row.date().toString(), cellFont));
+        table.addCell(new Phrase(row.accountName(), cellFont));
+        table.addCell(new Phrase(row.categoryName(), cellFont));
+        table.addCell(new Phrase(row.title(), cellFont));
+        table.addCell(new Phrase(income ? "Ingreso" : "Gasto", cellFont));
+        PdfPCell amount = new PdfPCell(new Phrase(row.amount().toPlainString(), cellFont));
+        amount.setHorizontalAlignment(Element.ALIGN_RIGHT);
+        table.addCell(amount);
+
+        if (income) {
+            incomesTotal = incomesTotal.add(row.amount());
+        } else {
+            expensesTotal = expensesTotal.add(row.amount());
+        }
+
+        if (++pendingRows == FLUSH_ROWS) {
+            document.add(table);
+            pendingRows = 0;
+        }
+    }
+
+    @Override
+    public void close() {
+        table.setComplete(true);
+        document.add(table);
+
+        Font totalsFont = FontFactory.getFont(FontFactory.HELVETICA_BOLD, 10);
+        document.add(new Paragraph(" "));
+        document.add(new Paragraph("Total ingresos: " + incomesTotal.toPlainString(), totalsFont));
+        document.add(new Paragraph("Total gastos: " + expensesTotal.toPlainString(), totalsFont));
+        document.add(new Paragraph("Balance: " + incomesTotal.subtract(expensesTotal).toPlainString(), totalsFont));
+        document.close();
+    }
+}
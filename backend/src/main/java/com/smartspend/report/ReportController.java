@@ -1,22 +1,32 @@
 package com.smartspend.report;
 
+import java.nio.charset.StandardCharsets;
+
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
-import org.springframework.security.core.Authentication;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import com.smartspend.report.dtos.ReportExportScope;
 import com.smartspend.report.dtos.ReportResponseDTO;
+import com.smartspend.security.SmartSpendPrincipal;
 
 @RestController
 @RequestMapping("/api/v1/report")
 public class ReportController {
 
     private final ReportService reportService;
+    private final ReportExportService reportExportService;
 
-    public ReportController(ReportService reportService) {
+    public ReportController(ReportService reportService, ReportExportService reportExportService) {
         this.reportService = reportService;
+        this.reportExportService = reportExportService;
     }
     
     @GetMapping("/report-data")
@@ -24,14 +34,60 @@ public class ReportController {
             @RequestParam Long bankAccountId,
             @RequestParam int year,
             @RequestParam int month,
-            Authentication authentication) {
+            @AuthenticationPrincipal SmartSpendPrincipal principal) {
         
         try {
-            String userEmail = authentication.getName();
-            ReportResponseDTO reportData = reportService.getResponseData(bankAccountId, userEmail, year, month);
+            Long userId = principal.userId();
+            ReportResponseDTO reportData = reportService.getResponseData(bankAccountId, userId, year, month);
             return ResponseEntity.ok(reportData);
         } catch (RuntimeException e) {
             return ResponseEntity.badRequest().build();
         }
     }
+
+    // Las exportaciones se escriben fila a fila sobre la respuesta; la cuenta y el periodo se
+    // validan antes para poder devolver 400 mientras aún no se ha enviado nada
+    @GetMapping("/export/csv")
+    public ResponseEntity<StreamingResponseBody> exportCsv(
+            @RequestParam(required = false) Long bankAccountId,
+            @RequestParam int year,
+            @RequestParam(required = false) Integer month,
+            @AuthenticationPrincipal SmartSpendPrincipal principal) {
+
+        try {
+            Long userId = principal.userId();
+            ReportExportScope scope = reportExportService.prepareExport(userId, bankAccountId, year, month);
+            StreamingResponseBody body = out -> reportExportService.writeCsv(scope, out);
+            return ResponseEntity.ok()
+                .header(HttpHeaders.CONTENT_DISPOSITION, attachment(scope.fileName() + ".csv"))
+                .contentType(new MediaType("text", "csv", StandardCharsets.UTF_8))
+                .body(body);
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    @GetMapping("/export/pdf")
+    public ResponseEntity<StreamingResponseBody> exportPdf(
+            @RequestParam(required = false) Long bankAccountId,
+            @RequestParam int year,
+            @RequestParam(required = false) Integer month,
+            @AuthenticationPrincipal SmartSpendPrincipal principal) {
+
+        try {
+            Long userId = principal.userId();
+            ReportExportScope scope = reportExportService.prepareExport(userId, bankAccountId, year, month);
+            StreamingResponseBody body = out -> reportExportService.writePdf(scope, out);
+            return ResponseEntity.ok()
+                .header(HttpHeaders.CONTENT_DISPOSITION, attachment(scope.fileName() + ".pdf"))
+                .contentType(MediaType.APPLICATION_PDF)
+                .body(body);
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    private String attachment(String fileName) {
+        return ContentDisposition.attachment().filename(fileName).build().toString();
+    }
 }
@@ -0,0 +1,127 @@
+package com.smartspend.report;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.smartspend.bankAccount.BankAccount;
+import com.smartspend.bankAccount.BankAccountRepository;
+import com.smartspend.report.dtos.ReportExportScope;
+import com.smartspend.report.dtos.TransactionExportRow;
+import com.smartspend.transaction.TransactionRepository;
+
+import io.micrometer.core.annotation.Counted;
+import io.micrometer.core.annotation.Timed;
+
+@Service
+@Timed(value = "smartspend.service", histogram = true)
+@Counted("smartspend.service.calls")
+public class ReportExportService {
+
+    private static final String CSV_HEADER = "date,account,type,category,title,description,amount";
+
+    @Autowired
+    BankAccountRepository bankAccountRepository;
+
+    @Autowired
+    TransactionRepository transactionRepository;
+
+
+    /**
+     * Valida la cuenta y el periodo antes de empezar a escribir la respuesta.
+     * Sin cuenta se exportan todas las del usuario; sin mes, el año completo.
+     */
+    public ReportExportScope prepareExport(Long userId, Long bankAccountId, int year, Integer month) {
+
+        if (month != null && (month < 1 || month > 12)) {
+            throw new RuntimeException("Invalid month");
+        }
+
+        String accountLabel = "Todas las cuentas";
+        String accountSlug = "all";
+        if (bankAccountId != null) {
+            BankAccount bankAccount = bankAccountRepository.findByIdAndUser_UserId(bankAccountId, userId)
+                .orElseThrow(() -> new RuntimeException("Bank account not found"));
+            accountLabel = bankAccount.getAccountName();
+            accountSlug = String.valueOf(bankAccount.getId());
+        }
+
+        LocalDate dateFrom = month != null ? LocalDate.of(year, month, 1) : LocalDate.of(year, 1, 1);
+        LocalDate dateTo = month != null ? dateFrom.withDayOfMonth(dateFrom.lengthOfMonth()) : LocalDate.of(year, 12, 31);
+        String period = month != null ? String.format("%d-%02d", year, month) : String.valueOf(year);
+
+        return new ReportExportScope(userId, bankAccountId, accountLabel, dateFrom, dateTo,
+            "smartspend-" + accountSlug + "-" + period);
+    }
+
+    @Transactional(readOnly = true)
+    public void writeCsv(ReportExportScope scope, OutputStream out) throws IOException {
+
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        writer.write(CSV_HEADER);
+        writer.write('\n');
+
+        try (Stream<TransactionExportRow> rows = streamRows(scope)) {
+            Iterator<TransactionExportRow> iterator = rows.iterator();
+            while (iterator.hasNext()) {
+                TransactionExportRow row = iterator.next();
+                writer.write(row.date().toString());
+                writer.write(',');
+                writer.write(csvField(row.accountName()));
+                writer.write(',');
+                writer.write(row.type().name());
+                writer.write(',');
+                writer.write(csvField(row.categoryName()));
+                writer.write(',');
+                writer.write(csvField(row.title()));
+                writer.write(',');
+                writer.write(csvField(row.description()));
+                writer.write(',');
+                writer.write(row.amount().toPlainString());
+                writer.write('\n');
+            }
+        }
+        writer.flush();
+    }
+
+    @Transactional(readOnly = true)
+    public void writePdf(ReportExportScope scope, OutputStream out) {
+
+        String subtitle = scope.accountLabel() + " · " + scope.dateFrom() + " - " + scope.dateTo();
+
+        try (PdfReportWriter pdf = new PdfReportWriter(out, "SmartSpend - Movimientos", subtitle);
+             Stream<TransactionExportRow> rows = streamRows(scope)) {
+            rows.forEach(pdf::write);
+        }
+    }
+
+    private Stream<TransactionExportRow> streamRows(ReportExportScope scope) {
+        return transactionRepository.streamExportRows(
+            scope.userId(), scope.accountId(), scope.dateFrom(), scope.dateTo());
+    }
+
+    // RFC 4180: comillas solo cuando el valor contiene separador, comillas o saltos de línea.
+    // Los textos que una hoja de cálculo interpretaría como fórmula se escapan con un apóstrofo
+    private static String csvField(String value) {
+        if (value == null) {
+            return "";
+        }
+        if (!value.isEmpty() && "=+-@\t\r".indexOf(value.charAt(0)) >= 0) {
+            value = "'" + value;
+        }
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+            return value;
+        }
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+}
@@ -1,27 +1,27 @@
 package com.smartspend.report;
 
+import java.math.BigDecimal;
 import java.time.LocalDate;
-import java.util.List;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.annotation.Cacheable;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
-import com.smartspend.bankAccount.BankAccount;
 import com.smartspend.bankAccount.BankAccountRepository;
-import com.smartspend.charts.ChartsService;
-import com.smartspend.charts.dtos.BarLineChartDto;
-import com.smartspend.charts.dtos.LineChartDto;
-import com.smartspend.charts.dtos.PieChartDto;
+import com.smartspend.cache.ChartCacheConfig;
+import com.smartspend.ledger.LedgerRepository;
+import com.smartspend.report.dtos.ReportAccountDto;
 import com.smartspend.report.dtos.ReportResponseDTO;
-import com.smartspend.report.dtos.StadisticsDto;
-import com.smartspend.transaction.Transaction;
+import com.smartspend.report.dtos.ReportTransactionRow;
 import com.smartspend.transaction.TransactionRepository;
-import com.smartspend.transaction.TransactionService;
-import com.smartspend.transaction.TransactionType;
-import com.smartspend.user.User;
-import com.smartspend.user.UserRepository;
+
+import io.micrometer.core.annotation.Counted;
+import io.micrometer.core.annotation.Timed;
 
 @Service
+@Timed(value = "smartspend.service", histogram = true)
+@Counted("smartspend.service.calls")
 public class ReportService {
 
     @Autowired
@@ -31,43 +31,28 @@ public class ReportService {
     TransactionRepository transactionRepository;
 
     @Autowired
-    UserRepository userRepository;
-
-    @Autowired 
-    ChartsService chartsService;
-
-    @Autowired 
-    TransactionService transactionService;
+    LedgerRepository ledgerRepository;
 
 
-    public ReportResponseDTO getResponseData(Long bankAccountId, String userEmail, int year, int month){
+    // Tres consultas en total: la cuenta, el balance previo al mes y las transacciones del mes.
+    // Incluye el saldo actual de la cuenta, así que cualquier movimiento de la cuenta lo invalida
+    @Cacheable(cacheNames = ChartCacheConfig.REPORTS,
+        key = "T(com.smartspend.cache.ChartCacheKey).account(#userId, #bankAccountId, 'report', #year, #month)")
+    @Transactional(readOnly = true)
+    public ReportResponseDTO getResponseData(Long bankAccountId, Long userId, int year, int month){
         
-        
-        User user = userRepository.findByUserEmail(userEmail).orElseThrow(() -> new RuntimeException("User not found"));
-
-        BankAccount bankAccount = bankAccountRepository.findById(bankAccountId).orElseThrow(() -> new RuntimeException("Bank account not found"));
+        ReportAccountDto bankAccount = bankAccountRepository.findReportAccount(bankAccountId, userId).orElseThrow(() -> new RuntimeException("Bank account not found"));
 
         LocalDate dateFrom = LocalDate.of(year, month, 1);
         LocalDate dateTo = dateFrom.withDayOfMonth(dateFrom.lengthOfMonth());
 
-        List<Transaction> expenseTransactions = transactionRepository.findByAccountAndDateRangeAndType(bankAccountId, dateFrom, dateTo, TransactionType.EXPENSE);
-        List<Transaction> incomeTransactions = transactionRepository.findByAccountAndDateRangeAndType(bankAccountId, dateFrom, dateTo, TransactionType.INCOME);
+        BigDecimal openingBalance = ledgerRepository.findBalanceUpToDate(bankAccount.id(), dateFrom.minusDays(1));
+        MonthlyReportBuilder builder = new MonthlyReportBuilder(dateFrom, dateTo, openingBalance);
 
-        PieChartDto expensePieChart = chartsService.getCategoryStadsByMonth(user.getUserEmail(), bankAccount.getId(),year, month, TransactionType.EXPENSE);
-        PieChartDto incomePieChart = chartsService.getCategoryStadsByMonth(user.getUserEmail(), bankAccount.getId(),year, month, TransactionType.INCOME);
-        
-        BarLineChartDto barLineChart = chartsService.getBarLineChartByMonth(user.getUserEmail(), bankAccount.getId(), year, month);
-
-        LineChartDto lineChart = chartsService.getTimeLineChartByMonth(user.getUserEmail(), bankAccount.getId(), year, month);
-
-        Float incomesTotal = transactionRepository.findTotalByAccountAndDateRangeAndType(bankAccountId, dateFrom, dateTo, TransactionType.INCOME).floatValue();
-        Float expensesTotal = transactionRepository.findTotalByAccountAndDateRangeAndType(bankAccountId, dateFrom, dateTo, TransactionType.EXPENSE).floatValue();
-        Float balance = incomesTotal - expensesTotal;
+        for (ReportTransactionRow row : transactionRepository.findReportRows(bankAccount.id(), dateFrom, dateTo)) {
+            builder.accept(row);
+        }
 
-        StadisticsDto stadistics = new StadisticsDto(incomesTotal, expensesTotal, balance);
-
-        ReportResponseDTO response = new ReportResponseDTO(bankAccount, incomeTransactions, expenseTransactions, stadistics, barLineChart, expensePieChart, incomePieChart, lineChart);
-        
-        return response;
+        return builder.build(bankAccount);
     }
 }
@@ -0,0 +1,13 @@
+package com.smartspend.report.dtos;
+
+import java.math.BigDecimal;
+
+public record ReportAccountDto(
+
+    Long id,
+    String accountName,
+    BigDecimal currentBalance
+
+) {
+    
+}
@@ -0,0 +1,19 @@
+package com.smartspend.report.dtos;
+
+import java.time.LocalDate;
+
+/**
+ * Qué se exporta: las cuentas del usuario (una o todas si accountId es null) entre dos fechas
+ */
+public record ReportExportScope(
+
+    Long userId,
+    Long accountId,
+    String accountLabel,
+    LocalDate dateFrom,
+    LocalDate dateTo,
+    String fileName
+
+) {
+    
+}
@@ -2,17 +2,15 @@ package com.smartspend.report.dtos;
 
 import java.util.List;
 
-import com.smartspend.bankAccount.BankAccount;
 import com.smartspend.charts.dtos.BarLineChartDto;
 import com.smartspend.charts.dtos.LineChartDto;
 import com.smartspend.charts.dtos.PieChartDto;
-import com.smartspend.transaction.Transaction;
 
 public record ReportResponseDTO(
 
-    BankAccount bankAccount,
-    List<Transaction> incomesList,
-    List<Transaction> expensesList,
+    ReportAccountDto bankAccount,
+    List<ReportTransactionRow> incomesList,
+    List<ReportTransactionRow> expensesList,
     StadisticsDto stadistics,
     BarLineChartDto barLineChart,
     PieChartDto expensePieChart,
@@ -0,0 +1,25 @@
+package com.smartspend.report.dtos;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+import com.smartspend.transaction.TransactionType;
+
+/**
+ * Fila plana del informe: solo las columnas que se pintan, sin entidades ni imágenes
+ */
+public record ReportTransactionRow(
+
+    Long id,
+    String title,
+    String description,
+    BigDecimal amount,
+    LocalDate date,
+    TransactionType type,
+    String categoryName,
+    String categoryColor,
+    String categoryIcon
+
+) {
+    
+}
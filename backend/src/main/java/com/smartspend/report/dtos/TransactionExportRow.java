@@ -0,0 +1,20 @@
+package com.smartspend.report.dtos;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+import com.smartspend.transaction.TransactionType;
+
+public record TransactionExportRow(
+
+    LocalDate date,
+    String accountName,
+    TransactionType type,
+    String categoryName,
+    String title,
+    String description,
+    BigDecimal amount
+
+) {
+    
+}
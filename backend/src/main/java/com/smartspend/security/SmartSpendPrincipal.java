@@ -0,0 +1,16 @@
+package com.smartspend.security;
+
+import java.security.Principal;
+
+/**
+ * Identidad del usuario autenticado, sacada de los claims del JWT (userId y subject).
+ * Los servicios autorizan por userId, así que ninguna petición necesita buscar al usuario
+ * por email. getName() devuelve el email para que Authentication.getName() siga funcionando.
+ */
+public record SmartSpendPrincipal(Long userId, String email) implements Principal {
+
+    @Override
+    public String getName() {
+        return email;
+    }
+}
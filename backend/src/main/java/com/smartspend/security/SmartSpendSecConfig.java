@@ -1,8 +1,11 @@
 package com.smartspend.security;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.actuate.autoconfigure.security.servlet.EndpointRequest;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.annotation.Order;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.AuthenticationProvider;
 import org.springframework.security.authentication.dao.DaoAuthenticationProvider;
@@ -18,6 +21,7 @@ import org.springframework.security.web.authentication.UsernamePasswordAuthentic
 
 
 
+import jakarta.servlet.DispatcherType;
 import jakarta.servlet.Filter;
 
 
@@ -34,6 +38,25 @@ public class SmartSpendSecConfig {
     PasswordEncoder passwordEncoder;
     
 
+    @Value("${management.server.port:-1}")
+    int managementPort;
+
+    /**
+     * Actuator (salud y scrape de Prometheus) solo se sirve en el puerto de management, que no se
+     * publica fuera de la red interna; ahí no se pide token. En el puerto de la API no existe.
+     */
+    @Bean
+    @Order(1)
+    public SecurityFilterChain managementFilterChain(HttpSecurity http) throws Exception {
+        http
+            .securityMatcher(request -> request.getLocalPort() == managementPort
+                && EndpointRequest.toAnyEndpoint().matches(request))
+            .csrf(csrf -> csrf.disable())
+            .sessionManagement(sm -> sm.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
+            .authorizeHttpRequests(auth -> auth.anyRequest().permitAll());
+        return http.build();
+    }
+
     @Bean 
     public SecurityFilterChain securityFilterChain(HttpSecurity http) throws Exception {
     http
@@ -64,6 +87,8 @@ public class SmartSpendSecConfig {
                 "/static/**"
             ).permitAll()
             .requestMatchers("/api/v1/auth/login", "/api/v1/auth/register").permitAll()
+            // Fin de las respuestas en streaming (exportaciones): la petición original ya se autorizó
+            .dispatcherTypeMatchers(DispatcherType.ASYNC).permitAll()
             .anyRequest().authenticated()
         )
         .authenticationProvider(authenticationProvider())
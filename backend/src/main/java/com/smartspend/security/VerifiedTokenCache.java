@@ -0,0 +1,77 @@
+package com.smartspend.security;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HexFormat;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.smartspend.auth.JwtService;
+
+import io.jsonwebtoken.Claims;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+
+/**
+ * Tokens ya verificados. Una carga del dashboard lanza muchas peticiones con el mismo token:
+ * solo la primera comprueba la firma HMAC y parsea los claims, el resto sale de aquí.
+ * La clave es el SHA-256 del token (no se guardan tokens en claro) y cada entrada caduca
+ * exactamente en el exp del token, así que nunca se acepta un token caducado.
+ * Los tokens inválidos no se cachean.
+ */
+@Component
+public class VerifiedTokenCache {
+
+    public static final String CACHE_NAME = "jwt.verified";
+
+    @Autowired
+    private JwtService jwtService;
+
+    private final Cache<String, VerifiedToken> cache;
+
+    private record VerifiedToken(SmartSpendPrincipal principal, Instant expiresAt) {}
+
+    public VerifiedTokenCache(@Value("${jwt.cache.max-size:10000}") long maxSize, MeterRegistry meterRegistry) {
+        this.cache = Caffeine.newBuilder()
+            .maximumSize(maxSize)
+            .expireAfter(Expiry.creating((String hash, VerifiedToken token) ->
+                maxZero(Duration.between(Instant.now(), token.expiresAt()))))
+            .recordStats()
+            .build();
+        // Expone cache_gets{result=hit|miss}, cache_evictions y cache_size
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, CACHE_NAME);
+    }
+
+    /**
+     * Usuario del token; lanza JwtException si el token no es válido
+     */
+    public SmartSpendPrincipal principalFor(String token) {
+        return cache.get(sha256(token), hash -> verify(token)).principal();
+    }
+
+    private VerifiedToken verify(String token) {
+        Claims claims = jwtService.parseClaims(token);
+        return new VerifiedToken(jwtService.toPrincipal(claims), claims.getExpiration().toInstant());
+    }
+
+    private static Duration maxZero(Duration duration) {
+        return duration.isNegative() ? Duration.ZERO : duration;
+    }
+
+    private static String sha256(String token) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(token.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+}
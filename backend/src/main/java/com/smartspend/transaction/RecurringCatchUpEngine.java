@@ -0,0 +1,214 @@
+package com.smartspend.transaction;
+
+import java.math.BigDecimal;
+import java.sql.Types;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import com.smartspend.bankAccount.BankAccountRepository;
+import com.smartspend.ledger.LedgerService;
+import com.smartspend.transaction.search.TransactionSearchIndex;
+
+/**
+ * Materializa todas las ocurrencias pendientes hasta hoy de un grupo de series recurrentes.
+ * Las hijas se insertan con lotes JDBC, el saldo se actualiza con un UPDATE por cuenta y el
+ * ledger con un apunte por (cuenta, día, tipo, categoría). Debe ejecutarse dentro de la
+ * transacción del bloque que lo invoca, con todas las series de una misma cuenta en el bloque.
+ */
+@Component
+public class RecurringCatchUpEngine {
+
+    static final String INSERT_CHILD = "INSERT INTO transactions (title, description, amount, date, type, recurrence, " +
+        "is_recurring_series_parent, next_recurrence_date, account_id, category_id, before_balance, " +
+        "image_hash, image_size, image_type, image_name) " +
+        "VALUES (?, ?, ?, ?, ?, 'NONE', FALSE, NULL, ?, ?, ?, ?, ?, ?, ?)";
+
+    // Solo avanza el padre si sigue como se leyó: si otro nodo ya lo avanzó, o el usuario lo ha
+    // editado o borrado, no cambia ninguna fila y sus hijas no se generan
+    static final String ADVANCE_PARENT = "UPDATE transactions SET next_recurrence_date = ? " +
+        "WHERE id = ? AND next_recurrence_date = ? AND amount = ? AND type = ? AND category_id = ? AND recurrence = ?";
+
+    private static final int[] INSERT_CHILD_TYPES = {
+        Types.VARCHAR, Types.VARCHAR, Types.DECIMAL, Types.DATE, Types.VARCHAR,
+        Types.BIGINT, Types.BIGINT, Types.DECIMAL,
+        Types.VARCHAR, Types.BIGINT, Types.VARCHAR, Types.VARCHAR
+    };
+
+    private static final int[] ADVANCE_PARENT_TYPES = {
+        Types.DATE, Types.BIGINT, Types.DATE, Types.DECIMAL, Types.VARCHAR, Types.BIGINT, Types.VARCHAR
+    };
+
+    private record Occurrence(Transaction parent, LocalDate date) {}
+
+    private record LedgerKey(Long accountId, LocalDate date, TransactionType type, Long categoryId) {}
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private BankAccountRepository bankAccountRepository;
+
+    @Autowired
+    private LedgerService ledgerService;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private TransactionSearchIndex searchIndex;
+
+    @Value("${spring.jpa.properties.hibernate.jdbc.batch_size:100}")
+    private int batchSize = 100;
+
+    /**
+     * @return número de transacciones hijas generadas
+     */
+    public int catchUp(List<Transaction> parents, LocalDate today) {
+
+        // Las cuentas se bloquean antes que los padres y en orden de id, igual que una edición
+        // (cuenta y después transacción), porque avanzar un padre bloquea su fila
+        parents.stream()
+            .map(parent -> parent.getAccount().getId())
+            .distinct()
+            .sorted()
+            .forEach(bankAccountRepository::findByIdForUpdate);
+
+        // Los padres se leyeron antes de este chunk y sin bloqueo: cada uno se reclama con un
+        // UPDATE condicionado a los valores leídos y solo se generan las hijas de los reclamados.
+        // Los que han cambiado se recogen con sus valores nuevos en la siguiente ejecución
+        List<Object[]> parentUpdates = new ArrayList<>(parents.size());
+        for (Transaction parent : parents) {
+            LocalDate next = parent.getNextRecurrenceDate();
+            while (next != null && !next.isAfter(today)) {
+                next = nextOccurrence(next, parent.getRecurrence());
+            }
+            parentUpdates.add(new Object[] {
+                next,
+                parent.getId(),
+                parent.getNextRecurrenceDate(),
+                parent.getAmount(),
+                parent.getType().name(),
+                parent.getCategory().getId(),
+                parent.getRecurrence().name()
+            });
+        }
+        int[] claimed = batchUpdate(ADVANCE_PARENT, parentUpdates, ADVANCE_PARENT_TYPES);
+
+        List<Occurrence> occurrences = new ArrayList<>();
+        for (int i = 0; i < parents.size(); i++) {
+            // 0 filas: el padre ya no es el que se leyó (SUCCESS_NO_INFO cuenta como reclamado)
+            if (claimed[i] == 0) {
+                continue;
+            }
+            Transaction parent = parents.get(i);
+            LocalDate date = parent.getNextRecurrenceDate();
+            while (date != null && !date.isAfter(today)) {
+                occurrences.add(new Occurrence(parent, date));
+                date = nextOccurrence(date, parent.getRecurrence());
+            }
+        }
+
+        // Orden cronológico dentro de cada cuenta para que before_balance encadene bien
+        occurrences.sort(Comparator
+            .comparing((Occurrence o) -> o.parent().getAccount().getId())
+            .thenComparing(Occurrence::date)
+            .thenComparing(o -> o.parent().getId()));
+
+        Map<Long, BigDecimal> balanceDeltas = new LinkedHashMap<>();
+        for (Occurrence occurrence : occurrences) {
+            balanceDeltas.merge(occurrence.parent().getAccount().getId(), signedAmount(occurrence.parent()), BigDecimal::add);
+        }
+
+        // El saldo de la entidad padre se leyó antes de este chunk y sin bloqueo. La cuenta ya
+        // está bloqueada hasta el commit; el saldo previo se obtiene restando el delta al valor
+        // ya actualizado, como en la importación
+        Map<Long, BigDecimal> runningBalance = new HashMap<>();
+        balanceDeltas.forEach((accountId, delta) -> {
+            bankAccountRepository.addToBalance(accountId, delta);
+            runningBalance.put(accountId, bankAccountRepository.findCurrentBalance(accountId).subtract(delta));
+        });
+
+        Map<LedgerKey, BigDecimal> ledgerTotals = new LinkedHashMap<>();
+        Map<LedgerKey, Long> ledgerCounts = new HashMap<>();
+        Map<Long, Set<LocalDate>> changedDates = new LinkedHashMap<>();
+        List<Object[]> inserts = new ArrayList<>(occurrences.size());
+
+        for (Occurrence occurrence : occurrences) {
+            Transaction parent = occurrence.parent();
+            Long accountId = parent.getAccount().getId();
+
+            BigDecimal beforeBalance = runningBalance.get(accountId);
+            runningBalance.put(accountId, beforeBalance.add(signedAmount(parent)));
+
+            LedgerKey key = new LedgerKey(accountId, occurrence.date(), parent.getType(), parent.getCategory().getId());
+            ledgerTotals.merge(key, parent.getAmount(), BigDecimal::add);
+            ledgerCounts.merge(key, 1L, Long::sum);
+            changedDates.computeIfAbsent(accountId, id -> new TreeSet<>()).add(occurrence.date());
+
+            inserts.add(new Object[] {
+                parent.getTitle(),
+                parent.getDescription(),
+                parent.getAmount(),
+                occurrence.date(),
+                parent.getType().name(),
+                accountId,
+                parent.getCategory().getId(),
+                beforeBalance,
+                parent.getImageHash(), // mismo blob que el padre, sin copiar bytes
+                parent.getImageSize(),
+                parent.getImageType(),
+                parent.getImageName()
+            });
+        }
+
+        batchUpdate(INSERT_CHILD, inserts, INSERT_CHILD_TYPES);
+
+        ledgerTotals.forEach((key, total) -> ledgerService.apply(
+            key.accountId(), key.date(), key.type(), key.categoryId(), total, ledgerCounts.get(key)));
+        changedDates.forEach((accountId, dates) -> {
+            searchIndex.indexUnindexed(accountId, dates);
+            eventPublisher.publishEvent(new TransactionChangedEvent(accountId, dates));
+        });
+
+        return inserts.size();
+    }
+
+    private static BigDecimal signedAmount(Transaction parent) {
+        return parent.getType() == TransactionType.INCOME ? parent.getAmount() : parent.getAmount().negate();
+    }
+
+    /**
+     * @return filas afectadas por cada fila de rows, en el mismo orden
+     */
+    private int[] batchUpdate(String sql, List<Object[]> rows, int[] types) {
+        int[] counts = new int[rows.size()];
+        for (int from = 0; from < rows.size(); from += batchSize) {
+            int[] batch = jdbcTemplate.batchUpdate(sql, rows.subList(from, Math.min(from + batchSize, rows.size())), types);
+            System.arraycopy(batch, 0, counts, from, batch.length);
+        }
+        return counts;
+    }
+
+    static LocalDate nextOccurrence(LocalDate currentDate, Recurrence recurrenceType) {
+        return switch (recurrenceType) {
+            case DAILY -> currentDate.plusDays(1);
+            case WEEKLY -> currentDate.plusWeeks(1);
+            case MONTHLY -> currentDate.plusMonths(1);
+            case YEARLY -> currentDate.plusYears(1);
+            case NONE -> null;
+        };
+    }
+}
@@ -0,0 +1,46 @@
+package com.smartspend.transaction;
+
+import javax.sql.DataSource;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import net.javacrumbs.shedlock.core.LockProvider;
+import net.javacrumbs.shedlock.provider.jdbctemplate.JdbcTemplateLockProvider;
+import net.javacrumbs.shedlock.spring.annotation.EnableSchedulerLock;
+
+@Configuration
+@EnableSchedulerLock(defaultLockAtMostFor = "PT1H")
+public class RecurringSchedulerConfig {
+
+    /**
+     * Cerrojo en la tabla shedlock (migración V6). Usa la hora de la base de datos para que
+     * el desfase de reloj entre réplicas no deje entrar a dos nodos a la vez.
+     */
+    @Bean
+    public LockProvider lockProvider(DataSource dataSource) {
+        return new JdbcTemplateLockProvider(JdbcTemplateLockProvider.Configuration.builder()
+            .withJdbcTemplate(new JdbcTemplate(dataSource))
+            .usingDbTime()
+            .build());
+    }
+
+    /**
+     * Un hilo por partición de cuentas; el scheduler espera a que terminen todas antes de
+     * soltar el cerrojo, así que la cola nunca crece más allá del número de particiones
+     */
+    @Bean(name = "recurringTaskExecutor")
+    public ThreadPoolTaskExecutor recurringTaskExecutor(
+            @Value("${smartspend.recurring.workers:#{T(java.lang.Runtime).getRuntime().availableProcessors()}}") int workers) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(workers);
+        executor.setMaxPoolSize(workers);
+        executor.setThreadNamePrefix("recurring-");
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.setAwaitTerminationSeconds(30);
+        return executor;
+    }
+}
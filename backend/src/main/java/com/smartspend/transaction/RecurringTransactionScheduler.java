@@ -1,15 +1,23 @@
 package com.smartspend.transaction;
 
 import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskExecutor;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
-import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
-import com.smartspend.bankAccount.BankAccount;
-import com.smartspend.bankAccount.BankAccountRepository;
+import net.javacrumbs.shedlock.spring.annotation.SchedulerLock;
 
 @Component
 public class RecurringTransactionScheduler {
@@ -18,13 +26,28 @@ public class RecurringTransactionScheduler {
     private TransactionRepository transactionRepository;
 
     @Autowired
-    private BankAccountRepository bankAccountRepository;
+    private RecurringCatchUpEngine catchUpEngine;
 
     @Autowired
-    private TransactionService transactionService;
+    private TransactionTemplate transactionTemplate;
 
-    @Scheduled(cron = "0 0 0 * * ?") 
-    @Transactional
+    @Autowired
+    @Qualifier("recurringTaskExecutor")
+    private TaskExecutor recurringTaskExecutor;
+
+    // Series por bloque; cada bloque se confirma por separado y un fallo solo deshace el suyo
+    @Value("${smartspend.recurring.chunk-size:200}")
+    private int chunkSize = 200;
+
+    @Value("${smartspend.recurring.workers:#{T(java.lang.Runtime).getRuntime().availableProcessors()}}")
+    private int workers = 1;
+
+    /**
+     * Solo un nodo ejecuta la tarea (cerrojo en la tabla shedlock). lockAtLeastFor evita que
+     * otra réplica con el reloj algo retrasado la repita justo después de terminar.
+     */
+    @Scheduled(cron = "0 0 0 * * ?")
+    @SchedulerLock(name = "recurringTransactions", lockAtMostFor = "PT1H", lockAtLeastFor = "PT1M")
     public void generateRecurringTransactions() {
         LocalDate today = LocalDate.now();
         System.out.println("Ejecutando scheduler de transacciones recurrentes para fecha: " + today);
@@ -34,64 +57,96 @@ public class RecurringTransactionScheduler {
         if (pendingTransactions.isEmpty()){
             System.out.println("Sin transacciones recurrentes pendientes para hoy");
             return;
-        } 
+        }
+
+        System.out.println("Encontradas " + pendingTransactions.size() + " transacciones recurrentes pendientes");
+
+        AtomicInteger generated = new AtomicInteger();
+        AtomicInteger failedChunks = new AtomicInteger();
+        List<List<List<Transaction>>> partitions = partitionByAccount(pendingTransactions);
+
+        // Cada cuenta vive en una sola partición, así que los hilos nunca tocan el mismo saldo
+        // y dentro de una partición los bloques se procesan en orden
+        CompletableFuture<?>[] tasks = partitions.stream()
+            .map(partition -> CompletableFuture.runAsync(
+                () -> processPartition(partition, today, generated, failedChunks), recurringTaskExecutor))
+            .toArray(CompletableFuture[]::new);
+        CompletableFuture.allOf(tasks).join();
 
-        System.out.println("Encontradas " + pendingTransactions.size() + " transacciones recurrentes pendientes:");
+        System.out.println("Scheduler completado para " + today + " con " + partitions.size() + " particiones: "
+            + generated.get() + " transacciones generadas, " + failedChunks.get() + " bloques con error");
+    }
 
-        for (Transaction parentTransaction : pendingTransactions){
+    private void processPartition(List<List<Transaction>> chunks, LocalDate today,
+                                  AtomicInteger generated, AtomicInteger failedChunks) {
+        for (List<Transaction> chunk : chunks) {
             try {
-                System.out.println("Procesando: '" + parentTransaction.getTitle() + "' (próxima fecha: " + parentTransaction.getNextRecurrenceDate() + ")");
-                generateChildTransaction(parentTransaction);
-                updateNextRecurrenceDate(parentTransaction);
-                System.out.println("Generada exitosamente: '" + parentTransaction.getTitle() + "'");
+                Integer created = transactionTemplate.execute(status -> catchUpEngine.catchUp(chunk, today));
+                generated.addAndGet(created != null ? created : 0);
             } catch (Exception e) {
-                System.out.println("Error generando transaccion recurrente '" + parentTransaction.getTitle() + "': " + e.getMessage());
+                failedChunks.incrementAndGet();
+                System.out.println("Error generando un bloque de " + chunk.size() + " transacciones recurrentes: " + e.getMessage());
                 e.printStackTrace();
             }
         }
-
-        System.out.println("Scheduler completado para " + today);
     }
 
-    private void generateChildTransaction(Transaction parent){
-
-        Transaction child = Transaction.builder()
-            .title(parent.getTitle())
-            .description(parent.getDescription())
-            .amount(parent.getAmount())
-            .date(parent.getNextRecurrenceDate()) 
-            .type(parent.getType())
-            .recurrence(Recurrence.NONE) 
-            .category(parent.getCategory())
-            .account(parent.getAccount())
-            .beforeBalance(parent.getAccount().getCurrentBalance())
-            .isRecurringSeriesParent(false) 
-            .nextRecurrenceDate(null)
-            .imageData(parent.getImageData())
-            .imageName(parent.getImageName())
-            .imageType(parent.getImageType())
-            .build();
-
-        transactionService.upadateAccountBalance(child, parent.getAccount());
-        bankAccountRepository.save(parent.getAccount());
-        transactionRepository.save(child);
-    }
+    /**
+     * Reparte las cuentas entre como mucho {@code workers} particiones, asignando primero las
+     * cuentas con más series a la partición menos cargada. Cada partición se divide después en
+     * bloques de cuentas completas.
+     */
+    private List<List<List<Transaction>>> partitionByAccount(List<Transaction> parents) {
+        Map<Long, List<Transaction>> byAccount = new LinkedHashMap<>();
+        for (Transaction parent : parents) {
+            byAccount.computeIfAbsent(parent.getAccount().getId(), id -> new ArrayList<>()).add(parent);
+        }
+
+        List<List<Transaction>> accountGroups = new ArrayList<>(byAccount.values());
+        accountGroups.sort(Comparator.comparingInt((List<Transaction> group) -> group.size()).reversed());
 
-    private void updateNextRecurrenceDate(Transaction parent) {
-        LocalDate currentNext = parent.getNextRecurrenceDate();
-        LocalDate newNext = calculateNextRecurrenceDate(currentNext, parent.getRecurrence());
-        
-        parent.setNextRecurrenceDate(newNext);
-        transactionRepository.save(parent);
+        int partitionCount = Math.max(1, Math.min(workers, accountGroups.size()));
+        List<List<List<Transaction>>> partitions = new ArrayList<>(partitionCount);
+        int[] load = new int[partitionCount];
+        for (int i = 0; i < partitionCount; i++) {
+            partitions.add(new ArrayList<>());
+        }
+
+        for (List<Transaction> group : accountGroups) {
+            int target = 0;
+            for (int i = 1; i < partitionCount; i++) {
+                if (load[i] < load[target]) {
+                    target = i;
+                }
+            }
+            partitions.get(target).add(group);
+            load[target] += group.size();
+        }
+
+        List<List<List<Transaction>>> chunked = new ArrayList<>(partitionCount);
+        for (List<List<Transaction>> partition : partitions) {
+            chunked.add(chunksByAccount(partition));
+        }
+        return chunked;
     }
 
-    private LocalDate calculateNextRecurrenceDate(LocalDate currentDate, Recurrence recurrenceType) {
-        return switch (recurrenceType) {
-            case DAILY -> currentDate.plusDays(1);
-            case WEEKLY -> currentDate.plusWeeks(1);
-            case MONTHLY -> currentDate.plusMonths(1);
-            case YEARLY -> currentDate.plusYears(1);
-            case NONE -> null;
-        };
+    /**
+     * Llena cada bloque con cuentas completas, de modo que el saldo de una cuenta se actualiza
+     * siempre en un único bloque
+     */
+    private List<List<Transaction>> chunksByAccount(List<List<Transaction>> accountGroups) {
+        List<List<Transaction>> chunks = new ArrayList<>();
+        List<Transaction> current = new ArrayList<>();
+        for (List<Transaction> accountParents : accountGroups) {
+            if (!current.isEmpty() && current.size() + accountParents.size() > chunkSize) {
+                chunks.add(current);
+                current = new ArrayList<>();
+            }
+            current.addAll(accountParents);
+        }
+        if (!current.isEmpty()) {
+            chunks.add(current);
+        }
+        return chunks;
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,16 @@
+package com.smartspend.transaction;
+
+/**
+ * Cómo obtiene /paginated el total de elementos
+ */
+public enum TotalCount {
+
+    // count(*) en cada petición (comportamiento original)
+    EXACT,
+
+    // count(*) solo la primera vez para cada (cuenta, filtros); se invalida al escribir en la cuenta
+    CACHED,
+
+    // sin total: Slice con hasNext, pensado para scroll infinito
+    NONE
+}
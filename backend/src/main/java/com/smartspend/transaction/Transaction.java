@@ -5,7 +5,6 @@ import java.time.LocalDate;
 
 import com.smartspend.bankAccount.BankAccount;
 import com.smartspend.category.Category;
-import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonManagedReference;
 
 import jakarta.persistence.*;
@@ -17,7 +16,15 @@ import lombok.Setter;
 
 
 @Entity
-@Table(name = "transactions")
+// Los índices los crea la migración V5__hot_path_indexes; se declaran aquí para que el
+// esquema que genera Hibernate en los tests coincida
+@Table(name = "transactions", indexes = {
+    @Index(name = "idx_transactions_account_date_id", columnList = "account_id, date DESC, id DESC"),
+    @Index(name = "idx_transactions_account_type_date", columnList = "account_id, type, date"),
+    @Index(name = "idx_transactions_account_category_date", columnList = "account_id, category_id, date"),
+    @Index(name = "idx_transactions_recurring_next_date", columnList = "is_recurring_series_parent, next_recurrence_date"),
+    @Index(name = "idx_transactions_image_hash", columnList = "image_hash")
+})
 @Getter @Setter
 @Builder
 @NoArgsConstructor
@@ -54,20 +61,24 @@ public class Transaction {
     @Column(name = "next_recurrence_date")
     private LocalDate nextRecurrenceDate;
 
-    @ManyToOne(optional = false)
+    // LAZY: los listados cargan la cuenta con un entity graph (ver TransactionRepository)
+    @ManyToOne(fetch = FetchType.LAZY, optional = false)
     @JoinColumn(name = "account_id")
     @JsonManagedReference
     private BankAccount account;
     
-    @ManyToOne(optional = false)
+    // LAZY: la categoría de un listado sale de CategoryReferenceCache por su id
+    @ManyToOne(fetch = FetchType.LAZY, optional = false)
     @JoinColumn(name = "category_id")
     @JsonManagedReference
     private Category category;
 
-    @Lob
-    @Column(name = "image_data", columnDefinition = "LONGBLOB")
-    @JsonIgnore 
-    private byte[] imageData;
+    // Hash SHA-256 de la imagen en ImageStore; los bytes nunca viajan con la transacción
+    @Column(name = "image_hash", length = 64)
+    private String imageHash;
+
+    @Column(name = "image_size")
+    private Long imageSize;
 
     @Column(name = "image_type", length = 100)
     private String imageType;
@@ -93,13 +104,6 @@ public class Transaction {
     }
 
     public boolean hasImage() {
-        return this.imageData != null && this.imageData.length > 0;
-    }
-
-    public String getImageBase64() {
-        if (hasImage()) {
-            return java.util.Base64.getEncoder().encodeToString(this.imageData);
-        }
-        return null;
+        return this.imageHash != null;
     }
 }
@@ -0,0 +1,30 @@
+package com.smartspend.transaction;
+
+import java.time.LocalDate;
+import java.util.Objects;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Se publica cuando cambian los movimientos de una cuenta (alta, edición, borrado, recurrentes
+ * o importación). Los oyentes lo reciben tras el commit y lo usan para invalidar cachés.
+ *
+ * @param dates días afectados; null significa todos (p. ej. al borrar la cuenta)
+ */
+public record TransactionChangedEvent(Long accountId, Set<LocalDate> dates) {
+
+    public static TransactionChangedEvent of(Long accountId, LocalDate... dates) {
+        return new TransactionChangedEvent(accountId, Stream.of(dates)
+            .filter(Objects::nonNull)
+            .collect(Collectors.toUnmodifiableSet()));
+    }
+
+    public static TransactionChangedEvent allDates(Long accountId) {
+        return new TransactionChangedEvent(accountId, null);
+    }
+
+    public boolean affectsAllDates() {
+        return dates == null;
+    }
+}
@@ -3,18 +3,22 @@ package com.smartspend.transaction;
 import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.io.IOException;
+import java.io.InputStream;
+import java.time.Duration;
 import java.util.List;
 import java.util.Optional;
 
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.data.domain.Page;
+import org.springframework.core.io.Resource;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.domain.Sort;
 import org.springframework.data.web.PageableDefault;
+import org.springframework.http.CacheControl;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
-import org.springframework.security.core.Authentication;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.ModelAttribute;
@@ -22,44 +26,67 @@ import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
 import org.springframework.web.multipart.MultipartFile;
 
+import com.smartspend.image.BlobResource;
+import com.smartspend.image.ImageVariantSize;
+import com.smartspend.security.SmartSpendPrincipal;
 import com.smartspend.transaction.dtos.CreateTransactionDto;
 import com.smartspend.transaction.dtos.CreateTransactionWithImageDto;
+import com.smartspend.transaction.dtos.ImportResultDto;
 import com.smartspend.transaction.dtos.TransactionResponseDto;
+import com.smartspend.transaction.dtos.TransactionSliceDto;
+import com.smartspend.transaction.imports.ImportFormat;
+import com.smartspend.transaction.imports.TransactionImportService;
+
+import jakarta.servlet.http.HttpServletRequest;
 
 @RestController
 @RequestMapping("/api/v1/transactions")
 public class TransactionController {
 
+    // El contenido bajo un mismo ETag nunca cambia; privado porque requiere autenticación
+    private static final CacheControl IMAGE_CACHE_CONTROL = CacheControl.maxAge(Duration.ofDays(30)).cachePrivate();
+
+    private static final int MAX_SCROLL_SIZE = 100;
+
     @Autowired
     private TransactionService transactionService;
 
+    @Autowired
+    private TransactionImportService transactionImportService;
+
     public TransactionController(TransactionService transactionService) {
         this.transactionService = transactionService;
     }
 
     @GetMapping
-    public List<TransactionResponseDto> getAllTransactions(Authentication authentication) {
+    public List<TransactionResponseDto> getAllTransactions(@AuthenticationPrincipal SmartSpendPrincipal principal) {
 
-        String userEmail = authentication.getName();
+        Long userId = principal.userId();
 
-        return transactionService.findAll(userEmail);
+        return transactionService.findAll(userId);
     }
 
     @GetMapping("/account/{accountId}")
-    public List<TransactionResponseDto> getTransactionsByAccount(@PathVariable Long accountId, @RequestParam int limit, Authentication authentication) {
-        String userEmail = authentication.getName();
+    public List<TransactionResponseDto> getTransactionsByAccount(@PathVariable Long accountId, @RequestParam int limit, @AuthenticationPrincipal SmartSpendPrincipal principal) {
+        Long userId = principal.userId();
 
-        return transactionService.getRecentTransactionsByAccount(accountId, limit, userEmail);
+        return transactionService.getRecentTransactionsByAccount(accountId, limit, userId);
     }
 
 
+    /**
+     * total=EXACT cuenta en cada petición, CACHED reutiliza el total mientras no cambie la cuenta y
+     * NONE devuelve un Slice sin totalElements/totalPages (last indica si hay más)
+     */
     @GetMapping("/account/{accountId}/paginated")
-    public ResponseEntity<Page<TransactionResponseDto>> getTransactionsByAccountPaginated(
+    public ResponseEntity<Slice<TransactionResponseDto>> getTransactionsByAccountPaginated(
         @PathVariable Long accountId,
         @RequestParam(required = false) String search,
         @RequestParam(required = false) String type,
@@ -69,38 +96,134 @@ public class TransactionController {
         @RequestParam(required = false) BigDecimal maxAmount,
         @RequestParam(required = false) Long categoryId,
         @PageableDefault(size = 5, sort = "date", direction = Sort.Direction.DESC) Pageable pageable, // ✅ Valores por defecto
-        Authentication authentication) {
-            String userEmail = authentication.getName();
-            Page<TransactionResponseDto> transactionsPage = transactionService.getTransactionsByAccount(accountId, userEmail, search, type, dateFrom, dateTo, minAmount, maxAmount, categoryId, pageable);
+        @RequestParam(defaultValue = "EXACT") TotalCount total,
+        @AuthenticationPrincipal SmartSpendPrincipal principal) {
+            Long userId = principal.userId();
+            Slice<TransactionResponseDto> transactionsPage = transactionService.getTransactionsByAccount(accountId, userId, search, type, dateFrom, dateTo, minAmount, maxAmount, categoryId, pageable, total);
             return ResponseEntity.ok(transactionsPage);
     }
 
+    /**
+     * Listado por cursor: pasar el nextCursor de la respuesta anterior para continuar.
+     * Admite los mismos filtros que /paginated
+     */
+    @GetMapping("/account/{accountId}/scroll")
+    public ResponseEntity<TransactionSliceDto> getTransactionsByAccountScroll(
+        @PathVariable Long accountId,
+        @RequestParam(required = false) String cursor,
+        @RequestParam(defaultValue = "20") int size,
+        @RequestParam(required = false) String search,
+        @RequestParam(required = false) String type,
+        @RequestParam(required = false) String dateFrom,
+        @RequestParam(required = false) String dateTo,
+        @RequestParam(required = false) BigDecimal minAmount,
+        @RequestParam(required = false) BigDecimal maxAmount,
+        @RequestParam(required = false) Long categoryId,
+        @AuthenticationPrincipal SmartSpendPrincipal principal) {
+            if (size < 1 || size > MAX_SCROLL_SIZE) {
+                return ResponseEntity.badRequest().build();
+            }
+            Long userId = principal.userId();
+            try {
+                TransactionSliceDto slice = transactionService.getTransactionsByAccountAfter(accountId, userId, cursor, size, search, type, dateFrom, dateTo, minAmount, maxAmount, categoryId);
+                return ResponseEntity.ok(slice);
+            } catch (IllegalArgumentException e) {
+                return ResponseEntity.badRequest().build();
+            }
+    }
+
+    /**
+     * Búsqueda por texto (prefijos, sin distinguir acentos) ordenada por relevancia. Para filtrar
+     * por texto manteniendo el orden por fecha, usar el parámetro search de /paginated o /scroll
+     */
+    @GetMapping("/account/{accountId}/search")
+    public ResponseEntity<List<TransactionResponseDto>> searchTransactions(
+        @PathVariable Long accountId,
+        @RequestParam String q,
+        @RequestParam(defaultValue = "20") int limit,
+        @AuthenticationPrincipal SmartSpendPrincipal principal) {
+            if (q.isBlank() || limit < 1 || limit > MAX_SCROLL_SIZE) {
+                return ResponseEntity.badRequest().build();
+            }
+            Long userId = principal.userId();
+            try {
+                return ResponseEntity.ok(transactionService.searchTransactions(accountId, userId, q, limit));
+            } catch (IllegalArgumentException e) {
+                return ResponseEntity.badRequest().build();
+            }
+    }
+
     @GetMapping("/{transactionId}")
-    public ResponseEntity<TransactionResponseDto> getTransactionById(@PathVariable Long transactionId, Authentication authentication){
-        String userEmail = authentication.getName();
+    public ResponseEntity<TransactionResponseDto> getTransactionById(@PathVariable Long transactionId, @AuthenticationPrincipal SmartSpendPrincipal principal){
+        Long userId = principal.userId();
 
-        Optional<TransactionResponseDto> transaction = transactionService.getTransactionById(transactionId);
+        Optional<TransactionResponseDto> transaction = transactionService.getTransactionById(transactionId, userId);
         if (transaction.isEmpty()) {
             return ResponseEntity.notFound().build();
         }
         return ResponseEntity.ok(transaction.get());
     }
 
+    /**
+     * Sirve la imagen de la transacción, o su miniatura con ?size=64|256. El ETag es el hash
+     * del contenido, por lo que un If-None-Match coincidente se responde con 304 sin leer los
+     * bytes. Los bytes se leen por bloques mientras se escriben (BlobResource); al devolver un
+     * Resource, Spring atiende también peticiones Range (206).
+     */
+    @GetMapping("/{transactionId}/image")
+    public ResponseEntity<Resource> getTransactionImage(@PathVariable Long transactionId, @RequestParam(required = false) Integer size,
+            WebRequest webRequest, @AuthenticationPrincipal SmartSpendPrincipal principal) {
+        Long userId = principal.userId();
+
+        ImageVariantSize variantSize = null;
+        if (size != null) {
+            Optional<ImageVariantSize> requestedSize = ImageVariantSize.fromPixels(size);
+            if (requestedSize.isEmpty()) {
+                return ResponseEntity.badRequest().build();
+            }
+            variantSize = requestedSize.get();
+        }
+
+        Optional<Transaction> transaction = transactionService.getTransactionWithImage(transactionId, userId);
+        if (transaction.isEmpty()) {
+            return ResponseEntity.notFound().build();
+        }
+
+        String eTag = TransactionMapper.imageETag(transaction.get().getImageHash(), variantSize);
+        if (webRequest.checkNotModified(eTag)) {
+            // checkNotModified ya ha fijado el 304 y el ETag en la respuesta
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).cacheControl(IMAGE_CACHE_CONTROL).build();
+        }
+
+        Optional<BlobResource> image = transactionService.loadImage(transaction.get().getImageHash(), variantSize);
+        if (image.isEmpty()) {
+            return ResponseEntity.notFound().build();
+        }
+
+        // El tipo sale del blob: una miniatura puede estar en otro formato que el original
+        return ResponseEntity.ok()
+            .eTag(eTag)
+            .cacheControl(IMAGE_CACHE_CONTROL)
+            .contentType(MediaType.parseMediaType(image.get().getContentType()))
+            .contentLength(image.get().contentLength())
+            .body(image.get());
+    }
+
     @DeleteMapping("/{transactionId}")
-    public void deleteTransaction(@PathVariable Long transactionId, Authentication authentication) {
-        String userEmail = authentication.getName();
+    public void deleteTransaction(@PathVariable Long transactionId, @AuthenticationPrincipal SmartSpendPrincipal principal) {
+        Long userId = principal.userId();
 
-        System.out.println("Deleting transaction with ID: " + transactionId + " for user: " + userEmail);
+        System.out.println("Deleting transaction with ID: " + transactionId + " for user: " + userId);
         
-        transactionService.deleteTransaction(transactionId, userEmail);
+        transactionService.deleteTransaction(transactionId, userId);
     }
 
     @PostMapping
-    public ResponseEntity<TransactionResponseDto> createTransaction(@RequestBody CreateTransactionDto transactionDto, Authentication authentication){
+    public ResponseEntity<TransactionResponseDto> createTransaction(@RequestBody CreateTransactionDto transactionDto, @AuthenticationPrincipal SmartSpendPrincipal principal){
 
-        String userEmail = authentication.getName();
+        Long userId = principal.userId();
 
-        TransactionResponseDto transaction = transactionService.saveTransaction(transactionDto, userEmail);
+        TransactionResponseDto transaction = transactionService.saveTransaction(transactionDto, userId);
         
         return ResponseEntity.status(HttpStatus.CREATED).body(transaction);
 
@@ -109,19 +232,19 @@ public class TransactionController {
     @PostMapping("/with-image")
     public ResponseEntity<TransactionResponseDto> createTransactionWithImage(
             @ModelAttribute CreateTransactionWithImageDto transactionWithImageDto,
-            Authentication authentication) {
+            @AuthenticationPrincipal SmartSpendPrincipal principal) {
         
         try {
             System.out.println("🎯 Endpoint /with-image alcanzado");
-            String userEmail = authentication.getName();
-            System.out.println("🎯 User email: " + userEmail);
+            Long userId = principal.userId();
+            System.out.println("🎯 User id: " + userId);
             System.out.println("🎯 DTO Title: " + transactionWithImageDto.getTitle());
             System.out.println("🎯 DTO Amount: " + transactionWithImageDto.getAmount());
             System.out.println("🎯 Has image: " + (transactionWithImageDto.getImageFile() != null));
             
             TransactionResponseDto transaction = transactionService.saveTransactionWithImage(
                 transactionWithImageDto, 
-                userEmail
+                userId
             );
             
             System.out.println("🎯 Transaction created successfully");
@@ -138,15 +261,75 @@ public class TransactionController {
         }
     }
 
+    /**
+     * Importación masiva desde un fichero CSV, OFX o JSON (array de transacciones). El formato se
+     * toma de ?format= o de la extensión del fichero. Las filas erróneas no se importan y se
+     * devuelven con su número de fila en el resultado.
+     */
+    @PostMapping(value = "/import", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    public ResponseEntity<ImportResultDto> importTransactions(
+            @RequestParam("file") MultipartFile file,
+            @RequestParam Long accountId,
+            @RequestParam(required = false) Long categoryId,
+            @RequestParam(required = false) String format,
+            @AuthenticationPrincipal SmartSpendPrincipal principal) {
+
+        Optional<ImportFormat> importFormat = ImportFormat.resolve(format, file.getOriginalFilename(), file.getContentType());
+        if (importFormat.isEmpty()) {
+            return ResponseEntity.badRequest().build();
+        }
+
+        try (InputStream input = file.getInputStream()) {
+            return importTransactions(principal.userId(), accountId, categoryId, importFormat.get(), input);
+        } catch (IOException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    /**
+     * Misma importación con el contenido directamente en el cuerpo (text/csv, application/json
+     * o application/x-ofx), leído en streaming sin pasar por un fichero temporal
+     */
+    @PostMapping(value = "/import", consumes = {"text/csv", MediaType.APPLICATION_JSON_VALUE, "application/x-ofx"})
+    public ResponseEntity<ImportResultDto> importTransactionsFromBody(
+            HttpServletRequest request,
+            @RequestHeader("Content-Type") String contentType,
+            @RequestParam Long accountId,
+            @RequestParam(required = false) Long categoryId,
+            @AuthenticationPrincipal SmartSpendPrincipal principal) {
+
+        Optional<ImportFormat> importFormat = ImportFormat.resolve(null, null, contentType);
+        if (importFormat.isEmpty()) {
+            return ResponseEntity.badRequest().build();
+        }
+
+        try (InputStream input = request.getInputStream()) {
+            return importTransactions(principal.userId(), accountId, categoryId, importFormat.get(), input);
+        } catch (IOException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    private ResponseEntity<ImportResultDto> importTransactions(Long userId, Long accountId, Long categoryId,
+                                                               ImportFormat format, InputStream input) throws IOException {
+        try {
+            ImportResultDto result = transactionImportService.importTransactions(userId, accountId, categoryId, format, input);
+            return ResponseEntity.ok(result);
+        } catch (RuntimeException e) {
+            System.err.println("❌ Importación rechazada: " + e.getMessage());
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
     @PutMapping("/{transactionId}")
     public ResponseEntity<TransactionResponseDto> updateTransaction(
             @PathVariable Long transactionId,
             @ModelAttribute CreateTransactionDto transactionDto,
-            Authentication authentication) {
+            @AuthenticationPrincipal SmartSpendPrincipal principal) {
 
-        String userEmail = authentication.getName();
+        Long userId = principal.userId();
 
-        Optional<TransactionResponseDto> updatedTransaction = transactionService.updateTransaction(transactionId, transactionDto, userEmail);
+        Optional<TransactionResponseDto> updatedTransaction = transactionService.updateTransaction(transactionId, transactionDto, userId);
 
         if (updatedTransaction.isEmpty()) {
             return ResponseEntity.notFound().build();
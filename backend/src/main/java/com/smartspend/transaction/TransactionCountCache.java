@@ -0,0 +1,110 @@
+package com.smartspend.transaction;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Supplier;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.smartspend.transaction.search.SearchTerms;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+
+/**
+ * Totales del listado paginado por (cuenta, filtros). Paginar con los mismos filtros repite
+ * siempre el mismo count(*); aquí se calcula una vez y se reutiliza hasta que cambian los
+ * movimientos de la cuenta. El TTL solo acota lo que puede tardar en verse una escritura
+ * hecha desde otra instancia.
+ *
+ * Un count(*) que empezó antes del commit de una escritura puede terminar después de la
+ * invalidación con el total antiguo: cada cuenta lleva una generación que la invalidación
+ * incrementa, y el total solo se guarda si la generación no ha cambiado mientras se contaba.
+ */
+@Component
+public class TransactionCountCache {
+
+    public static final String CACHE_NAME = "transactions.count";
+
+    /**
+     * Filtros normalizados: dos peticiones que devuelven las mismas filas comparten entrada
+     */
+    public record Key(Long accountId, String search, String type, String dateFrom, String dateTo,
+                      BigDecimal minAmount, BigDecimal maxAmount, Long categoryId) {
+
+        public static Key of(Long accountId, String search, String type, String dateFrom, String dateTo,
+                             BigDecimal minAmount, BigDecimal maxAmount, Long categoryId) {
+            return new Key(
+                accountId,
+                // La búsqueda se resuelve por términos normalizados: "Nómina" y "nomina " son la misma
+                isBlank(search) ? null : String.join(" ", SearchTerms.queryTerms(search)),
+                isBlank(type) ? null : type.trim(),
+                isBlank(dateFrom) ? null : dateFrom.trim(),
+                isBlank(dateTo) ? null : dateTo.trim(),
+                minAmount == null ? null : minAmount.stripTrailingZeros(),
+                maxAmount == null ? null : maxAmount.stripTrailingZeros(),
+                categoryId);
+        }
+
+        private static boolean isBlank(String value) {
+            return value == null || value.isBlank();
+        }
+    }
+
+    private final Cache<Key, Long> cache;
+
+    private final ConcurrentMap<Long, Long> generations = new ConcurrentHashMap<>();
+
+    public TransactionCountCache(@Value("${smartspend.transactions.count-cache.max-size:10000}") long maxSize,
+                                 @Value("${smartspend.transactions.count-cache.ttl:PT10M}") Duration ttl,
+                                 MeterRegistry meterRegistry) {
+        this.cache = Caffeine.newBuilder()
+            .maximumSize(maxSize)
+            .expireAfterWrite(ttl)
+            .recordStats()
+            .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, CACHE_NAME);
+    }
+
+    public long countFor(Key key, Supplier<Long> count) {
+        Long cached = cache.getIfPresent(key);
+        if (cached != null) {
+            return cached;
+        }
+        // La generación se lee antes de contar: si cambia durante el count(*), el total puede
+        // venir de antes del commit y se devuelve sin guardarlo
+        long generation = generation(key.accountId());
+        long total = count.get();
+        // compute sobre la generación: la invalidación espera a que termine el put (y lo borra)
+        // o se ejecuta antes y el put se descarta
+        generations.compute(key.accountId(), (accountId, current) -> {
+            if ((current == null ? 0 : current) == generation) {
+                cache.put(key, total);
+            }
+            return current;
+        });
+        return total;
+    }
+
+    private long generation(Long accountId) {
+        return generations.getOrDefault(accountId, 0L);
+    }
+
+    /**
+     * Cualquier alta, edición o borrado puede cambiar el total de cualquier filtro de la cuenta.
+     * Tras el commit, para que un recuento posterior ya vea la escritura; los que estaban en
+     * curso no guardan su total porque la generación ha cambiado.
+     */
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onTransactionChanged(TransactionChangedEvent event) {
+        generations.merge(event.accountId(), 1L, Long::sum);
+        cache.asMap().keySet().removeIf(key -> key.accountId().equals(event.accountId()));
+    }
+}
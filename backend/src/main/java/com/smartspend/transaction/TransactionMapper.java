@@ -1,16 +1,32 @@
 package com.smartspend.transaction;
 
+import java.util.Collection;
+import java.util.stream.Collectors;
+
+import org.hibernate.Hibernate;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 
+import com.smartspend.category.Category;
+import com.smartspend.category.CategoryReferenceCache;
+import com.smartspend.category.dtos.CategoryDto;
+import com.smartspend.image.ImageVariantSize;
 import com.smartspend.transaction.dtos.TransactionResponseDto;
 
 @Component
 public class TransactionMapper {
+
+    public static final String IMAGE_URL_TEMPLATE = "/api/v1/transactions/%d/image";
+
+    @Autowired
+    private CategoryReferenceCache categoryCache;
     
     /**
-     * Convierte una entidad Transaction a TransactionResponseDto
+     * Convierte una entidad Transaction a TransactionResponseDto.
+     * La imagen no se incrusta: solo se devuelven URL, ETag y tamaño.
      */
     public TransactionResponseDto toResponseDto(Transaction transaction) {
+        boolean hasImage = transaction.hasImage();
         return new TransactionResponseDto(
             transaction.getId(),
             transaction.getTitle(),
@@ -21,11 +37,46 @@ public class TransactionMapper {
             transaction.getRecurrence(),
             transaction.getAccount().getId(),
             transaction.getAccount().getAccountName(),
-            transaction.getCategory(), // Objeto Category completo
-            transaction.hasImage(),
-            transaction.getImageBase64(), // null si no tiene imagen
+            toCategoryDto(transaction.getCategory()),
+            hasImage,
+            hasImage ? String.format(IMAGE_URL_TEMPLATE, transaction.getId()) : null,
+            hasImage ? imageETag(transaction.getImageHash()) : null,
+            transaction.getImageSize(),
             transaction.getImageName(),   // null si no tiene imagen
             transaction.getImageType()    // null si no tiene imagen
         );
     }
-}
\ No newline at end of file
+
+    /**
+     * Carga en una sola consulta las categorías de un listado que aún no están en caché, para
+     * que mapear la página después no lance una consulta por categoría
+     */
+    public void prefetchCategories(Collection<Transaction> transactions) {
+        categoryCache.getAll(transactions.stream()
+            .map(Transaction::getCategory)
+            .filter(category -> !Hibernate.isInitialized(category))
+            .map(Category::getId)
+            .collect(Collectors.toSet()));
+    }
+
+    // Si la categoría ya está cargada (recién guardada) se usa tal cual; si es un proxy
+    // solo se lee su id, que no lanza ninguna consulta
+    private CategoryDto toCategoryDto(Category category) {
+        return Hibernate.isInitialized(category) ? CategoryDto.from(category) : categoryCache.get(category.getId());
+    }
+
+    /**
+     * El hash SHA-256 identifica el contenido, así que sirve directamente como ETag fuerte
+     */
+    public static String imageETag(String imageHash) {
+        return "\"" + imageHash + "\"";
+    }
+
+    /**
+     * Cada miniatura depende solo del original y del tamaño, así que su ETag se conoce
+     * sin consultar si ya se ha generado
+     */
+    public static String imageETag(String imageHash, ImageVariantSize size) {
+        return size == null ? imageETag(imageHash) : "\"" + imageHash + "-" + size.getPixels() + "\"";
+    }
+}
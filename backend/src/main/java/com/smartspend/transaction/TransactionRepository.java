@@ -2,25 +2,88 @@ package com.smartspend.transaction;
 import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
+import org.hibernate.jpa.HibernateHints;
+
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Lock;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import com.smartspend.report.dtos.ReportTransactionRow;
+import com.smartspend.report.dtos.TransactionExportRow;
+
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+
 @Repository
 public interface TransactionRepository extends JpaRepository<Transaction, Long>, JpaSpecificationExecutor<Transaction> {   
 
+    /**
+     * Lo que necesita TransactionMapper de cada fila de un listado: la cuenta (nombre) y su
+     * usuario (comprobación de propiedad) van en el mismo SELECT; la categoría no, sale de
+     * CategoryReferenceCache. Para los listados con findBy(spec, ...) se pasa a project(...).
+     */
+    List<String> LISTING_GRAPH = List.of("account", "account.user");
+
+    @EntityGraph(attributePaths = {"account", "account.user"})
     List<Transaction> findByAccount_User_UserIdOrderByDateDesc(Long userId);
 
-    @Query(value = "SELECT * FROM transactions WHERE account_id = :accountId ORDER BY date DESC, id DESC LIMIT :limit", nativeQuery = true)
-    List<Transaction> findByAccountIdAndLimit(Long accountId, int limit);
+    @EntityGraph(attributePaths = {"account", "account.user"})
+    @Query("SELECT t FROM Transaction t WHERE t.account.id = :accountId ORDER BY t.date DESC, t.id DESC")
+    List<Transaction> findByAccountIdAndLimit(@Param("accountId") Long accountId, Limit limit);
 
+    @EntityGraph(attributePaths = {"account", "account.user"})
     Page<Transaction> findByAccountIdOrderByDateDesc(Long accountId, Pageable pageable);
 
+    @Override
+    @EntityGraph(attributePaths = {"account", "account.user"})
+    Page<Transaction> findAll(Specification<Transaction> spec, Pageable pageable);
+
+    @Override
+    @EntityGraph(attributePaths = {"account", "account.user"})
+    List<Transaction> findAllById(Iterable<Long> ids);
+
+    // Todas las lecturas de una transacción comprueban el propietario de su cuenta
+    @Override
+    @EntityGraph(attributePaths = {"account", "account.user"})
+    Optional<Transaction> findById(Long id);
+
+    // Cuenta de una transacción sin cargarla: para bloquear la cuenta antes de leer la transacción
+    @Query("SELECT t.account.id FROM Transaction t WHERE t.id = :id")
+    Optional<Long> findAccountIdById(@Param("id") Long id);
+
+    // Lectura con bloqueo para editar o borrar, siempre después de bloquear la cuenta: con
+    // REPEATABLE READ una lectura normal vería la foto del inicio de la transacción y dos
+    // escrituras sobre la misma fila calcularían el delta desde el mismo importe antiguo
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT t FROM Transaction t WHERE t.id = :id")
+    Optional<Transaction> findByIdForUpdate(@Param("id") Long id);
+
+    boolean existsByImageHash(String imageHash);
+
+    // La imagen no cambia al editar: se lee antes de bloquear nada para bloquear primero su blob
+    @Query("SELECT t.imageHash FROM Transaction t WHERE t.id = :id")
+    Optional<String> findImageHashById(@Param("id") Long id);
+
+    @Query("SELECT DISTINCT t.imageHash FROM Transaction t WHERE t.account.id = :accountId AND t.imageHash IS NOT NULL")
+    List<String> findImageHashesByAccountId(@Param("accountId") Long accountId);
+
+    // Lectura con bloqueo al decidir si un blob se puede borrar: con REPEATABLE READ una lectura
+    // normal no vería una subida que reutilizó el blob y confirmó mientras se esperaba su bloqueo
+    @Query(value = "SELECT id FROM transactions WHERE image_hash = :imageHash LIMIT 1 FOR UPDATE", nativeQuery = true)
+    List<Long> findIdsByImageHashForUpdate(@Param("imageHash") String imageHash);
+
     @Query("SELECT COALESCE(SUM(CASE WHEN t.type = 'INCOME' THEN t.amount ELSE -t.amount END), 0) " +
            "FROM Transaction t WHERE t.account.id = :accountId AND t.date <= :endDate")
     BigDecimal findBalanceUpToDate(@Param("accountId") Long accountId, @Param("endDate") LocalDate endDate);
@@ -36,6 +99,37 @@ public interface TransactionRepository extends JpaRepository<Transaction, Long>,
         @Param("dateTo") LocalDate dateTo,
         @Param("type") TransactionType type);
 
+    // Filas del informe mensual: proyección plana con las columnas de la transacción y su categoría
+    @Query("SELECT new com.smartspend.report.dtos.ReportTransactionRow(" +
+           "t.id, t.title, t.description, t.amount, t.date, t.type, c.name, c.color, c.icon) " +
+           "FROM Transaction t JOIN t.category c " +
+           "WHERE t.account.id = :accountId " +
+           "AND t.date BETWEEN :dateFrom AND :dateTo " +
+           "ORDER BY t.date ASC, t.id ASC")
+    List<ReportTransactionRow> findReportRows(
+        @Param("accountId") Long accountId,
+        @Param("dateFrom") LocalDate dateFrom,
+        @Param("dateTo") LocalDate dateTo);
+
+    // Cursor de solo avance para las exportaciones: proyección plana (no llena el contexto de
+    // persistencia) y fetch size acotado para que el driver no cargue el resultado completo
+    @QueryHints({
+        @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+        @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT new com.smartspend.report.dtos.TransactionExportRow(" +
+           "t.date, a.accountName, t.type, c.name, t.title, t.description, t.amount) " +
+           "FROM Transaction t JOIN t.account a JOIN t.category c " +
+           "WHERE a.user.userId = :userId " +
+           "AND (:accountId IS NULL OR a.id = :accountId) " +
+           "AND t.date BETWEEN :dateFrom AND :dateTo " +
+           "ORDER BY t.date ASC, t.id ASC")
+    Stream<TransactionExportRow> streamExportRows(
+        @Param("userId") Long userId,
+        @Param("accountId") Long accountId,
+        @Param("dateFrom") LocalDate dateFrom,
+        @Param("dateTo") LocalDate dateTo);
+
     // ✅ QUERY SÚPER OPTIMIZADA - SOLO TOTALES POR CATEGORÍA
     @Query("SELECT t.category.name, SUM(t.amount) " +
            "FROM Transaction t WHERE t.account.id = :accountId " +
@@ -58,9 +152,22 @@ public interface TransactionRepository extends JpaRepository<Transaction, Long>,
         @Param("dateTo") LocalDate dateTo,
         @Param("type") TransactionType type);
 
+    // Totales diarios por tipo en una sola consulta (motor de timeline)
+    @Query("SELECT t.date, t.type, SUM(t.amount) " +
+           "FROM Transaction t WHERE t.account.id = :accountId " +
+           "AND t.date BETWEEN :dateFrom AND :dateTo " +
+           "GROUP BY t.date, t.type " +
+           "ORDER BY t.date ASC")
+    List<Object[]> findDailyTotalsByAccountAndDateRange(
+        @Param("accountId") Long accountId,
+        @Param("dateFrom") LocalDate dateFrom,
+        @Param("dateTo") LocalDate dateTo);
+
        List<Transaction> findByIsRecurringSeriesParentTrueAndRecurrenceIsNotAndNextRecurrenceDateLessThanEqual(
         Recurrence recurrenceType, LocalDate today);
 
+       // Las series se procesan en otros hilos fuera de esta sesión: la cuenta tiene que venir cargada
+       @EntityGraph(attributePaths = {"account", "account.user"})
        @Query("SELECT t FROM Transaction t WHERE t.isRecurringSeriesParent = true " +
            "AND t.recurrence != 'NONE' " +
            "AND t.nextRecurrenceDate <= :today")
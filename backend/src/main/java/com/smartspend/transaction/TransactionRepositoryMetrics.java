@@ -0,0 +1,63 @@
+package com.smartspend.transaction;
+
+import java.util.Collection;
+import java.util.Optional;
+
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Slice;
+import org.springframework.stereotype.Component;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Filas devueltas por cada consulta de TransactionRepository. La duración de cada consulta ya
+ * la mide Spring Boot en spring.data.repository.invocations (etiquetas repository y method);
+ * aquí se añade cuántas filas trae, con las mismas etiquetas para poder cruzar ambas métricas.
+ */
+@Aspect
+@Component
+public class TransactionRepositoryMetrics {
+
+    public static final String ROWS_METRIC = "smartspend.repository.rows";
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Around("execution(* *(..)) && target(com.smartspend.transaction.TransactionRepository)")
+    public Object countRows(ProceedingJoinPoint joinPoint) throws Throwable {
+        Object result = joinPoint.proceed();
+
+        Long rows = rowCount(result);
+        if (rows != null) {
+            DistributionSummary.builder(ROWS_METRIC)
+                .description("Filas devueltas por consulta")
+                .baseUnit("rows")
+                .tag("repository", TransactionRepository.class.getSimpleName())
+                .tag("method", joinPoint.getSignature().getName())
+                .publishPercentileHistogram()
+                .register(meterRegistry)
+                .record(rows);
+        }
+        return result;
+    }
+
+    /**
+     * Solo cuentan los resultados de lectura; save, count, exists o los UPDATE devuelven null
+     */
+    static Long rowCount(Object result) {
+        if (result instanceof Collection<?> collection) {
+            return (long) collection.size();
+        }
+        if (result instanceof Slice<?> slice) {
+            return (long) slice.getNumberOfElements();
+        }
+        if (result instanceof Optional<?> optional) {
+            return optional.isPresent() ? 1L : 0L;
+        }
+        return null;
+    }
+}
@@ -5,89 +5,252 @@ import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
 import org.springframework.data.jpa.domain.Specification;
 import org.springframework.security.core.Authentication;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import com.smartspend.bankAccount.BankAccount;
 import com.smartspend.bankAccount.BankAccountRepository;
 import com.smartspend.category.Category;
+import com.smartspend.category.CategoryCatalog;
 import com.smartspend.category.CategoryRepository;
 import com.smartspend.config.ImageUtils;
+import com.smartspend.image.BlobResource;
+import com.smartspend.image.ImageCleanupService;
+import com.smartspend.image.ImageStore;
+import com.smartspend.image.ImageVariantService;
+import com.smartspend.image.ImageVariantSize;
+import com.smartspend.ledger.LedgerService;
 import com.smartspend.transaction.dtos.CreateTransactionDto;
 import com.smartspend.transaction.dtos.CreateTransactionWithImageDto;
 import com.smartspend.transaction.dtos.TransactionResponseDto;
-import com.smartspend.user.User;
-import com.smartspend.user.UserRepository;
+import com.smartspend.transaction.dtos.TransactionSliceDto;
+import com.smartspend.transaction.search.TransactionSearchIndex;
 
-@Service 
+import io.micrometer.core.annotation.Counted;
+import io.micrometer.core.annotation.Timed;
+
+@Service
+// Timer (con histograma para p99) y contador de llamadas por método público; etiquetas class y method
+@Timed(value = "smartspend.service", histogram = true)
+@Counted("smartspend.service.calls")
 public class TransactionService {
+
+    private static final Sort KEYSET_ORDER = Sort.by(Sort.Order.desc("date"), Sort.Order.desc("id"));
     
     @Autowired
     private TransactionRepository transactionRepository;
 
-    @Autowired
-    private UserRepository userRepository;
-
     @Autowired 
     private BankAccountRepository bankAccountRepository;
 
     @Autowired
     private CategoryRepository categoryRepository;
 
+    @Autowired
+    private CategoryCatalog categoryCatalog;
+
     @Autowired 
     private ImageUtils imageUtils;
 
     @Autowired
     private TransactionMapper transactionMapper;
 
+    @Autowired
+    private LedgerService ledgerService;
+
+    @Autowired
+    private ImageStore imageStore;
 
-    public Optional<TransactionResponseDto> getTransactionById(Long transactionId) {
+    @Autowired
+    private ImageVariantService imageVariantService;
+
+    @Autowired
+    private ImageCleanupService imageCleanupService;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private TransactionSearchIndex searchIndex;
+
+    @Autowired
+    private TransactionCountCache countCache;
+
+
+    public Optional<TransactionResponseDto> getTransactionById(Long transactionId, Long userId) {
         return transactionRepository.findById(transactionId)
+                .filter(transaction -> transaction.getAccount().getUser().getUserId().equals(userId))
                 .map(transactionMapper::toResponseDto);
     }
 
-    public List<TransactionResponseDto> findAll(String email) {
+    /**
+     * Transacción con imagen perteneciente al usuario. Vacío si no existe, no tiene imagen
+     * o es de otro usuario (no se distingue para no revelar ids ajenos)
+     */
+    public Optional<Transaction> getTransactionWithImage(Long transactionId, Long userId) {
+        return transactionRepository.findById(transactionId)
+            .filter(Transaction::hasImage)
+            .filter(transaction -> transaction.getAccount().getUser().getUserId().equals(userId));
+    }
 
-        User user = userRepository.findByUserEmail(email).orElseThrow(() -> new RuntimeException("User not found"));
-        
-        List<Transaction> transactions = transactionRepository.findByAccount_User_UserIdOrderByDateDesc(user.getUserId());
+    /**
+     * Imagen original (size null) o su miniatura, que se genera al vuelo si aún no existe
+     */
+    public Optional<BlobResource> loadImage(String imageHash, ImageVariantSize size) {
+        return imageVariantService.load(imageHash, size);
+    }
+
+    public List<TransactionResponseDto> findAll(Long userId) {
+
+        List<Transaction> transactions = transactionRepository.findByAccount_User_UserIdOrderByDateDesc(userId);
+        transactionMapper.prefetchCategories(transactions);
         
         return transactions.stream()
                 .map(transactionMapper::toResponseDto)
                 .collect(Collectors.toList());
     }
 
-    public List<TransactionResponseDto> getRecentTransactionsByAccount(Long accountId, int limit, String email) {
-        User user = userRepository.findByUserEmail(email).orElseThrow(() -> new RuntimeException("User not found"));
-
-        BankAccount account = bankAccountRepository.findByIdAndUser_UserId(accountId, user.getUserId())
+    public List<TransactionResponseDto> getRecentTransactionsByAccount(Long accountId, int limit, Long userId) {
+        BankAccount account = bankAccountRepository.findByIdAndUser_UserId(accountId, userId)
             .orElseThrow(() -> new RuntimeException("Bank account not found"));
 
-        List<Transaction> transactions = transactionRepository.findByAccountIdAndLimit(accountId, limit);
+        List<Transaction> transactions = transactionRepository.findByAccountIdAndLimit(accountId, Limit.of(limit));
+        transactionMapper.prefetchCategories(transactions);
         
         return transactions.stream()
                 .map(transactionMapper::toResponseDto)
                 .collect(Collectors.toList());
     }
 
-    public Page<TransactionResponseDto> getTransactionsByAccount(Long accountId, String userEmail, String search, String type, String dateFrom, String dateTo, BigDecimal minAmount, BigDecimal maxAmount, Long categoryId, Pageable pageable) {
-        User user = userRepository.findByUserEmail(userEmail)
-            .orElseThrow(() -> new RuntimeException("User not found"));
+    public Page<TransactionResponseDto> getTransactionsByAccount(Long accountId, Long userId, String search, String type, String dateFrom, String dateTo, BigDecimal minAmount, BigDecimal maxAmount, Long categoryId, Pageable pageable) {
+        checkAccountOwnership(accountId, userId);
+
+        Specification<Transaction> spec = buildAccountFilter(accountId, search, type, dateFrom, dateTo, minAmount, maxAmount, categoryId);
+
+        Page<Transaction> transactions = transactionRepository.findAll(spec, pageable);
+        transactionMapper.prefetchCategories(transactions.getContent());
         
+        return transactions.map(transactionMapper::toResponseDto);
+    }
+
+    /**
+     * Listado paginado sin el count(*) por petición. La página se lee como Slice (se pide un
+     * elemento de más para saber si hay siguiente); con CACHED el total sale de
+     * TransactionCountCache y solo se cuenta si no está, con NONE no se calcula.
+     */
+    public Slice<TransactionResponseDto> getTransactionsByAccount(Long accountId, Long userId, String search, String type, String dateFrom, String dateTo, BigDecimal minAmount, BigDecimal maxAmount, Long categoryId, Pageable pageable, TotalCount total) {
+        if (total == TotalCount.EXACT) {
+            return getTransactionsByAccount(accountId, userId, search, type, dateFrom, dateTo, minAmount, maxAmount, categoryId, pageable);
+        }
+        checkAccountOwnership(accountId, userId);
+
+        Specification<Transaction> spec = buildAccountFilter(accountId, search, type, dateFrom, dateTo, minAmount, maxAmount, categoryId);
+
+        Slice<Transaction> rows = transactionRepository.findBy(spec, query -> query
+            .project(TransactionRepository.LISTING_GRAPH)
+            .slice(pageable));
+        transactionMapper.prefetchCategories(rows.getContent());
+        Slice<TransactionResponseDto> slice = rows.map(transactionMapper::toResponseDto);
+
+        if (total == TotalCount.NONE) {
+            return slice;
+        }
+        TransactionCountCache.Key key = TransactionCountCache.Key.of(accountId, search, type, dateFrom, dateTo, minAmount, maxAmount, categoryId);
+        long totalElements = countCache.countFor(key, () -> transactionRepository.count(spec));
+        return new PageImpl<>(slice.getContent(), pageable, totalElements);
+    }
+
+    /**
+     * Listado por cursor (keyset) en orden (date DESC, id DESC). Cada página cuesta lo mismo
+     * sea cual sea su profundidad y no lanza count: se pide un elemento de más para saber
+     * si hay siguiente página.
+     */
+    public TransactionSliceDto getTransactionsByAccountAfter(Long accountId, Long userId, String cursor, int size, String search, String type, String dateFrom, String dateTo, BigDecimal minAmount, BigDecimal maxAmount, Long categoryId) {
+        checkAccountOwnership(accountId, userId);
+
+        Specification<Transaction> spec = buildAccountFilter(accountId, search, type, dateFrom, dateTo, minAmount, maxAmount, categoryId);
+        if (cursor != null && !cursor.isBlank()) {
+            spec = spec.and(TransactionSpecification.afterCursor(TransactionCursor.decode(cursor)));
+        }
+
+        List<Transaction> rows = transactionRepository.findBy(spec, query -> query
+            .project(TransactionRepository.LISTING_GRAPH)
+            .sortBy(KEYSET_ORDER)
+            .limit(size + 1)
+            .all());
+
+        boolean hasNext = rows.size() > size;
+        List<Transaction> page = hasNext ? rows.subList(0, size) : rows;
+        String nextCursor = hasNext ? TransactionCursor.of(page.get(page.size() - 1)).encode() : null;
+        transactionMapper.prefetchCategories(page);
+
+        return new TransactionSliceDto(
+            page.stream().map(transactionMapper::toResponseDto).collect(Collectors.toList()),
+            page.size(),
+            hasNext,
+            nextCursor);
+    }
+
+    /**
+     * Búsqueda por texto en título y descripción ordenada por relevancia (ver TransactionSearchIndex)
+     */
+    public List<TransactionResponseDto> searchTransactions(Long accountId, Long userId, String query, int limit) {
+        checkAccountOwnership(accountId, userId);
+
+        List<TransactionSearchIndex.Match> matches = searchIndex.search(accountId, query, limit);
+        if (matches.isEmpty()) {
+            return List.of();
+        }
+
+        List<Transaction> found = transactionRepository.findAllById(
+            matches.stream().map(TransactionSearchIndex.Match::transactionId).toList());
+        transactionMapper.prefetchCategories(found);
+        Map<Long, Transaction> byId = found.stream()
+            .collect(Collectors.toMap(Transaction::getId, Function.identity()));
+
+        return matches.stream()
+            .map(match -> byId.get(match.transactionId()))
+            .filter(Objects::nonNull)
+            .map(transactionMapper::toResponseDto)
+            .collect(Collectors.toList());
+    }
+
+    /**
+     * Valida la categoría contra CategoryCatalog (sin consultas) y devuelve una referencia para
+     * asociarla a la transacción; el mapper la pinta desde CategoryReferenceCache
+     */
+    private Category resolveCategory(Long categoryId, Long userId) {
+        return categoryCatalog.find(categoryId, userId)
+            .map(category -> categoryRepository.getReferenceById(category.id()))
+            .orElseThrow(() -> new RuntimeException("Category not found"));
+    }
+
+    private void checkAccountOwnership(Long accountId, Long userId) {
         BankAccount account = bankAccountRepository.findById(accountId)
             .orElseThrow(() -> new RuntimeException("Bank account not found"));
 
-        if (!account.getUser().getUserId().equals(user.getUserId())) {
+        if (!account.getUser().getUserId().equals(userId)) {
             throw new RuntimeException("Unauthorized to access this account");
         }
+    }
 
+    private Specification<Transaction> buildAccountFilter(Long accountId, String search, String type, String dateFrom, String dateTo, BigDecimal minAmount, BigDecimal maxAmount, Long categoryId) {
         LocalDate parsedDateFrom = null;
         LocalDate parsedDateTo = null;
         
@@ -102,54 +265,53 @@ public class TransactionService {
          
         }
         
-        Specification<Transaction> spec = TransactionSpecification.filterTransactions(
+        return TransactionSpecification.filterTransactions(
             accountId, search, type, parsedDateFrom, parsedDateTo, minAmount, maxAmount, categoryId
         );
-
-        Page<Transaction> transactions = transactionRepository.findAll(spec, pageable);
-        
-        return transactions.map(transactionMapper::toResponseDto);
     }
 
-    public void deleteTransaction(Long transactionId, String email) {
-
-        User user = userRepository.findByUserEmail(email).orElseThrow(() -> new RuntimeException("User not found"));
+    @Transactional
+    public void deleteTransaction(Long transactionId, Long userId) {
 
-        Transaction transaction = transactionRepository.findById(transactionId)
-            .orElseThrow(() -> new RuntimeException("Transaction not found"));  
+        Long accountId = transactionRepository.findAccountIdById(transactionId)
+            .orElseThrow(() -> new RuntimeException("Transaction not found"));
+        // El blob de la imagen se bloquea antes que la cuenta, en el mismo orden que una subida
+        List<String> lockedImages = imageCleanupService.lock(
+            transactionRepository.findImageHashById(transactionId).stream().toList());
 
-        BankAccount account = transaction.getAccount();
-        if (!account.getUser().getUserId().equals(user.getUserId())) {
+        // Primero la cuenta y después la transacción, leída con bloqueo: un borrado o una
+        // edición concurrente de la misma fila ya ha terminado y el importe a revertir es el vigente
+        BankAccount account = bankAccountRepository.findByIdForUpdate(accountId)
+            .orElseThrow(() -> new RuntimeException("Transaction not found"));
+        if (!account.getUser().getUserId().equals(userId)) {
             throw new RuntimeException("Unauthorized to delete this transaction");
         }
 
-        if (transaction.getType() == TransactionType.INCOME){
-            account.setCurrentBalance(account.getCurrentBalance().subtract(transaction.getAmount()));
-        } else {
-            account.setCurrentBalance(account.getCurrentBalance().add(transaction.getAmount()));
-        }
-        
+        Transaction transaction = transactionRepository.findByIdForUpdate(transactionId)
+            .orElseThrow(() -> new RuntimeException("Transaction not found"));
 
-        bankAccountRepository.save(account);
+        applyBalanceDelta(account.getId(), signedAmount(transaction.getType(), transaction.getAmount()).negate());
+        ledgerService.reverse(transaction);
+        searchIndex.remove(transaction.getId());
         transactionRepository.delete(transaction);
+        lockedImages.forEach(imageCleanupService::releaseIfUnused);
+        eventPublisher.publishEvent(TransactionChangedEvent.of(account.getId(), transaction.getDate()));
     }
 
-    public TransactionResponseDto saveTransaction(CreateTransactionDto transactionDto, String userEmail) {
+    @Transactional
+    public TransactionResponseDto saveTransaction(CreateTransactionDto transactionDto, Long userId) {
 
-        User user = userRepository.findByUserEmail(userEmail).orElseThrow(() -> new RuntimeException("User not found"));
-        
         BankAccount account = bankAccountRepository.findById(transactionDto.accountId())
             .orElseThrow(() -> new RuntimeException("Bank account not found"));
 
-        if (!account.getUser().getUserId().equals(user.getUserId())) {
+        if (!account.getUser().getUserId().equals(userId)) {
             throw new RuntimeException("Unauthorized to add transaction to this account");
         }
 
 
         LocalDate transactionDate = transactionDto.date() != null ? transactionDto.date() : LocalDate.now();
 
-        Category category = categoryRepository.findById(transactionDto.categoryId())
-            .orElseThrow(() -> new RuntimeException("Category not found"));
+        Category category = resolveCategory(transactionDto.categoryId(), userId);
         
         // ✅ Lógica para recurrencia:
         boolean isRecurring = false;
@@ -169,66 +331,84 @@ public class TransactionService {
             .recurrence(transactionDto.recurrence() != null ? transactionDto.recurrence() : Recurrence.NONE)
             .category(category)
             .account(account)
-            .beforeBalance(account.getCurrentBalance()) // balance before transaction applied
+            .beforeBalance(applyBalanceDelta(account.getId(), signedAmount(transactionDto.type(), transactionDto.amount())))
             .isRecurringSeriesParent(isRecurring) // ✅ Nuevo campo
             .nextRecurrenceDate(nextRecurrenceDate) // ✅ Nuevo campo
             .build();
 
-        upadateAccountBalance(transaction, account);
-
-        bankAccountRepository.save(account);
-
         Transaction savedTransaction = transactionRepository.save(transaction);
+        ledgerService.record(savedTransaction);
+        searchIndex.index(savedTransaction);
+        eventPublisher.publishEvent(TransactionChangedEvent.of(account.getId(), transactionDate));
         
         return transactionMapper.toResponseDto(savedTransaction);
 
     }
 
-    public Optional<TransactionResponseDto> updateTransaction(Long transactionId, CreateTransactionDto transactionDto, String userEmail) {
-        User user = userRepository.findByUserEmail(userEmail)
-            .orElseThrow(() -> new RuntimeException("User not found"));
-
-        BankAccount account = bankAccountRepository.findById(transactionDto.accountId())
+    @Transactional
+    public Optional<TransactionResponseDto> updateTransaction(Long transactionId, CreateTransactionDto transactionDto, Long userId) {
+        // Primero la cuenta y después la transacción, leída con bloqueo: el delta y la reversión
+        // del ledger parten del importe vigente aunque otra petición edite o borre la misma fila
+        BankAccount account = bankAccountRepository.findByIdForUpdate(transactionDto.accountId())
             .orElseThrow(() -> new RuntimeException("Bank account not found"));
 
-        Transaction transaction = transactionRepository.findById(transactionId)
-            .orElseThrow(() -> new RuntimeException("Transaction not found"));
+        if (!account.getUser().getUserId().equals(userId)) {
+            throw new RuntimeException("Unauthorized to update transaction in this account");
+        }
+
+        // La transacción tiene que ser de esa cuenta: si no, el saldo se movería en la cuenta del
+        // DTO y el ledger y el índice en la de la transacción. Inexistente o ajena, 404 igual
+        Optional<Transaction> locked = transactionRepository.findByIdForUpdate(transactionId)
+            .filter(candidate -> candidate.getAccount().getId().equals(account.getId()));
+        if (locked.isEmpty()) {
+            return Optional.empty();
+        }
+        Transaction transaction = locked.get();
+
+        Category category = resolveCategory(transactionDto.categoryId(), userId);
+
+        // Deshace el importe antiguo y aplica el nuevo en un único UPDATE
+        applyBalanceDelta(account.getId(), signedAmount(transactionDto.type(), transactionDto.amount())
+            .subtract(signedAmount(transaction.getType(), transaction.getAmount())));
+
+        // Retira los valores antiguos del ledger antes de modificarlos
+        ledgerService.reverse(transaction);
+        LocalDate previousDate = transaction.getDate();
 
         // Actualiza los campos (sin tocar el id ni la cuenta)
         transaction.setTitle(transactionDto.title());
         transaction.setDescription(transactionDto.description());
-        BigDecimal oldAmount = transaction.getAmount();
         transaction.setAmount(transactionDto.amount());
         transaction.setDate(transactionDto.date() != null ? transactionDto.date() : LocalDate.now());
-        TransactionType oldType = transaction.getType();
         transaction.setType(transactionDto.type());
         transaction.setRecurrence(transactionDto.recurrence());
-
-        Category category = categoryRepository.findById(transactionDto.categoryId())
-            .orElseThrow(() -> new RuntimeException("Category not found"));
         transaction.setCategory(category);
 
-        updateBalanceOfEditTransaction(transaction, oldAmount, oldType, account);
         Transaction updated = transactionRepository.save(transaction);
-        bankAccountRepository.save(account);
+        ledgerService.record(updated);
+        searchIndex.index(updated);
+        // Se invalidan tanto el periodo de la fecha antigua como el de la nueva
+        eventPublisher.publishEvent(TransactionChangedEvent.of(account.getId(), previousDate, updated.getDate()));
         return Optional.of(transactionMapper.toResponseDto(updated));
     }
 
 
-    public TransactionResponseDto saveTransactionWithImage(CreateTransactionWithImageDto transactionDto, String userEmail) {
+    @Transactional
+    public TransactionResponseDto saveTransactionWithImage(CreateTransactionWithImageDto transactionDto, Long userId) {
 
     
         if (!imageUtils.isValidImage(transactionDto.getImageFile())) {
-            throw new RuntimeException("Invalid image file");
+            throw new IllegalArgumentException("Invalid image file");
         }
 
-        User user = userRepository.findByUserEmail(userEmail).orElseThrow(() -> new RuntimeException("User not found"));
-
         BankAccount account = bankAccountRepository.findById(transactionDto.getAccountId())
             .orElseThrow(() -> new RuntimeException("Bank account not found"));
+
+        if (!account.getUser().getUserId().equals(userId)) {
+            throw new RuntimeException("Unauthorized to add transaction to this account");
+        }
         
-        Category category = categoryRepository.findById(transactionDto.getCategoryId())
-            .orElseThrow(() -> new RuntimeException("Category not found"));
+        Category category = resolveCategory(transactionDto.getCategoryId(), userId);
         
         // ✅ Lógica para recurrencia:
         boolean isRecurring = false;
@@ -249,27 +429,30 @@ public class TransactionService {
             .recurrence(transactionDto.getRecurrence() != null ? transactionDto.getRecurrence() : Recurrence.NONE)
             .category(category)
             .account(account)
-            .beforeBalance(account.getCurrentBalance())
             .isRecurringSeriesParent(isRecurring) // ✅ Nuevo campo
             .nextRecurrenceDate(nextRecurrenceDate) // ✅ Nuevo campo
             .build();
         
         try {
-            byte[] imageData = imageUtils.processImage(transactionDto.getImageFile());
-            transaction.setImageData(imageData);
-            transaction.setImageType(transactionDto.getImageFile().getContentType());
+            // Streaming desde el fichero temporal del multipart: no se copia la imagen en memoria
+            ImageStore.StoredImage storedImage = imageStore.store(transactionDto.getImageFile());
+            transaction.setImageHash(storedImage.hash());
+            imageVariantService.scheduleVariants(storedImage.hash());
+            transaction.setImageSize(storedImage.size());
+            transaction.setImageType(storedImage.contentType());
             transaction.setImageName(transactionDto.getImageFile().getOriginalFilename()); 
 
         } catch (IOException e) {
             throw new RuntimeException("Failed to process image file", e);
         }
-        
 
-        upadateAccountBalance(transaction, account);
-
-        bankAccountRepository.save(account);
+        // Después de guardar la imagen, para no retener el bloqueo de la cuenta durante la E/S
+        transaction.setBeforeBalance(applyBalanceDelta(account.getId(), signedAmount(transactionDto.getType(), transactionDto.getAmount())));
 
         Transaction savedTransaction = transactionRepository.save(transaction);
+        ledgerService.record(savedTransaction);
+        searchIndex.index(savedTransaction);
+        eventPublisher.publishEvent(TransactionChangedEvent.of(account.getId(), transactionDate));
         
         return transactionMapper.toResponseDto(savedTransaction);
 
@@ -277,23 +460,20 @@ public class TransactionService {
 
     
 
-    public void upadateAccountBalance(Transaction transaction, BankAccount account) {
-        if (transaction.getType() == TransactionType.INCOME){
-            account.setCurrentBalance(account.getCurrentBalance().add(transaction.getAmount()));
-        } else {
-            account.setCurrentBalance(account.getCurrentBalance().subtract(transaction.getAmount()));
-        }
+    /**
+     * Suma el delta al saldo con un UPDATE atómico en la base de datos y devuelve el saldo
+     * anterior. El UPDATE bloquea la fila de la cuenta hasta el commit, así que las escrituras
+     * concurrentes sobre la misma cuenta (saldo y ledger) se serializan sin perder ninguna.
+     * La entidad BankAccount cargada no se modifica ni se guarda: su saldo en memoria queda
+     * desfasado y guardarla pisaría los deltas de otras transacciones.
+     */
+    private BigDecimal applyBalanceDelta(Long accountId, BigDecimal delta) {
+        bankAccountRepository.addToBalance(accountId, delta);
+        return bankAccountRepository.findCurrentBalance(accountId).subtract(delta);
     }
 
-    private void updateBalanceOfEditTransaction(Transaction transaction, BigDecimal oldAmount, TransactionType oldType, BankAccount account){
-
-        if (oldType == TransactionType.INCOME){
-            account.setCurrentBalance(account.getCurrentBalance().subtract(oldAmount)); // substract old income amount to restore balance
-        } else { 
-            account.setCurrentBalance(account.getCurrentBalance().add(oldAmount)); // add back old expense amount to restore balance
-        }
-        upadateAccountBalance(transaction, account);
-        
+    private static BigDecimal signedAmount(TransactionType type, BigDecimal amount) {
+        return type == TransactionType.INCOME ? amount : amount.negate();
     }
 
     // ✅ Método auxiliar para calcular la próxima fecha de recurrencia
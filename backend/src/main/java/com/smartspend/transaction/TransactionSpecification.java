@@ -7,7 +7,12 @@ import java.util.List;
 
 import org.springframework.data.jpa.domain.Specification;
 
+import com.smartspend.transaction.search.SearchTerms;
+import com.smartspend.transaction.search.TransactionSearchTerm;
+
 import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import jakarta.persistence.criteria.Subquery;
 
 public class TransactionSpecification {
     
@@ -28,12 +33,20 @@ public class TransactionSpecification {
             predicates.add(criteriaBuilder.equal(root.get("account").get("id"), accountId));
             
             if (search != null && !search.trim().isEmpty()) {
-                String searchPattern = "%" + search.toLowerCase() + "%";
-                Predicate titlePredicate = criteriaBuilder.like(
-                    criteriaBuilder.lower(root.get("title")), searchPattern);
-                Predicate descriptionPredicate = criteriaBuilder.like(
-                    criteriaBuilder.lower(root.get("description")), searchPattern);
-                predicates.add(criteriaBuilder.or(titlePredicate, descriptionPredicate));
+                // Un IN sobre el índice de búsqueda por cada término: todos deben aparecer como
+                // prefijo de alguna palabra del título o la descripción, sin distinguir acentos
+                List<String> terms = SearchTerms.queryTerms(search);
+                if (terms.isEmpty()) {
+                    predicates.add(criteriaBuilder.disjunction());
+                }
+                for (String term : terms) {
+                    Subquery<Long> matches = query.subquery(Long.class);
+                    Root<TransactionSearchTerm> searchTerm = matches.from(TransactionSearchTerm.class);
+                    matches.select(searchTerm.get("transactionId")).where(
+                        criteriaBuilder.equal(searchTerm.get("accountId"), accountId),
+                        criteriaBuilder.like(searchTerm.get("term"), term + "%"));
+                    predicates.add(root.get("id").in(matches));
+                }
             }
 
             if (type != null && !type.trim().isEmpty()) {
@@ -72,6 +85,21 @@ public class TransactionSpecification {
     }
 
 
+    /**
+     * Filas posteriores al cursor en el orden (date DESC, id DESC):
+     * date <= :date AND (date < :date OR (date = :date AND id < :id)).
+     * El primer término es redundante pero acota un rango sobre el índice (account_id, date, id)
+     */
+    public static Specification<Transaction> afterCursor(TransactionCursor cursor) {
+        return (root, query, criteriaBuilder) -> criteriaBuilder.and(
+            criteriaBuilder.lessThanOrEqualTo(root.get("date"), cursor.date()),
+            criteriaBuilder.or(
+                criteriaBuilder.lessThan(root.get("date"), cursor.date()),
+                criteriaBuilder.and(
+                    criteriaBuilder.equal(root.get("date"), cursor.date()),
+                    criteriaBuilder.lessThan(root.get("id"), cursor.id()))));
+    }
+
     public static Specification<Transaction> filterTransactionsForCharts(Long accountId, LocalDate dateFrom, LocalDate dateTo, TransactionType transactionType) {
         return (root, query, criteriaBuilder) -> {
             List<Predicate> predicates = new ArrayList<>();
@@ -0,0 +1,15 @@
+package com.smartspend.transaction.dtos;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+/**
+ * Resultado de una importación masiva: las filas válidas se guardan y las erróneas se
+ * devuelven con su número de fila para corregirlas y reenviarlas
+ */
+public record ImportResultDto(
+    int totalRows,
+    int imported,
+    BigDecimal balanceDelta,   // variación neta aplicada al saldo de la cuenta
+    List<ImportRowErrorDto> errors
+) {}
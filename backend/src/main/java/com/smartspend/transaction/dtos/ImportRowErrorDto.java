@@ -0,0 +1,6 @@
+package com.smartspend.transaction.dtos;
+
+public record ImportRowErrorDto(
+    int row,
+    String message
+) {}
@@ -4,7 +4,7 @@ import java.math.BigDecimal;
 import java.time.LocalDate;
 import com.smartspend.transaction.TransactionType;
 import com.smartspend.transaction.Recurrence;
-import com.smartspend.category.Category;
+import com.smartspend.category.dtos.CategoryDto;
 
 public record TransactionResponseDto(
     Long id,
@@ -16,10 +16,12 @@ public record TransactionResponseDto(
     Recurrence recurrence,
     Long accountId,
     String accountName,
-    Category category, // Objeto Category completo
-    // Campos de imagen - null si no tiene imagen
+    CategoryDto category,
+    // Campos de imagen - null si no tiene imagen. Los bytes se sirven en imageUrl
     Boolean hasImage,
-    String imageBase64,  // null si no tiene imagen
+    String imageUrl,     // /api/v1/transactions/{id}/image
+    String imageETag,    // ETag fuerte (hash del contenido)
+    Long imageSize,      // tamaño en bytes
     String imageName,    // null si no tiene imagen
     String imageType     // null si no tiene imagen
 ) {}
\ No newline at end of file
@@ -0,0 +1,14 @@
+package com.smartspend.transaction.dtos;
+
+import java.util.List;
+
+/**
+ * Página del listado por cursor: sin totales (no hay count), solo si hay más y el token
+ * para pedir la siguiente
+ */
+public record TransactionSliceDto(
+    List<TransactionResponseDto> content,
+    int size,
+    boolean hasNext,
+    String nextCursor   // null si no hay más páginas
+) {}
@@ -0,0 +1,61 @@
+package com.smartspend.transaction.imports;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+
+import com.smartspend.category.CategoryCatalog;
+import com.smartspend.category.dtos.CategoryDto;
+import com.smartspend.transaction.TransactionType;
+
+/**
+ * Resuelve las categorías de una importación contra CategoryCatalog: por id o por nombre entre
+ * las categorías visibles para el usuario (las suyas y las del sistema). El índice por nombre
+ * se construye en la primera búsqueda por nombre y sirve para todo el fichero.
+ */
+class CategoryResolver {
+
+    private final CategoryCatalog categoryCatalog;
+    private final Long userId;
+    private Map<String, List<CategoryDto>> byName;
+
+    CategoryResolver(CategoryCatalog categoryCatalog, Long userId) {
+        this.categoryCatalog = categoryCatalog;
+        this.userId = userId;
+    }
+
+    Optional<CategoryDto> resolve(String reference, TransactionType type) {
+        String value = reference.trim();
+        if (!value.isEmpty() && value.chars().allMatch(Character::isDigit)) {
+            return byId(Long.valueOf(value));
+        }
+        return byName(value, type);
+    }
+
+    Optional<CategoryDto> byId(Long id) {
+        return categoryCatalog.find(id, userId);
+    }
+
+    private Optional<CategoryDto> byName(String name, TransactionType type) {
+        if (byName == null) {
+            byName = new HashMap<>();
+            for (CategoryDto category : categoryCatalog.visibleTo(userId)) {
+                byName.computeIfAbsent(key(category.name()), k -> new ArrayList<>()).add(category);
+            }
+        }
+
+        List<CategoryDto> candidates = byName.getOrDefault(key(name), List.of());
+        // Las del usuario van primero; entre homónimas se prefiere la del mismo tipo
+        return candidates.stream()
+            .filter(category -> category.type() == type)
+            .findFirst()
+            .or(() -> candidates.stream().findFirst());
+    }
+
+    private static String key(String name) {
+        return name.trim().toLowerCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,126 @@
+package com.smartspend.transaction.imports;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * CSV con cabecera (RFC 4180: comillas dobles, "" como escape y saltos de línea dentro de
+ * comillas). Las columnas se localizan por nombre, así que el orden es libre y las columnas
+ * desconocidas se ignoran; el CSV de la exportación de informes se puede importar tal cual.
+ * Admite ';' como separador, habitual en hojas de cálculo en español.
+ */
+class CsvImportParser implements ImportRowParser {
+
+    private static final Map<String, String> COLUMN_ALIASES = Map.of(
+        "name", "title",
+        "concept", "title",
+        "memo", "description",
+        "categoryid", "category"
+    );
+
+    @Override
+    public void parse(Reader reader, Consumer<ImportRow> rows) throws IOException {
+        BufferedReader in = reader instanceof BufferedReader buffered ? buffered : new BufferedReader(reader);
+
+        char delimiter = ',';
+        List<String> header = readRecord(in, delimiter);
+        if (header == null) {
+            throw new IllegalArgumentException("CSV file is empty");
+        }
+        if (header.size() == 1 && header.get(0).indexOf(';') >= 0) {
+            delimiter = ';';
+            header = List.of(header.get(0).split(";", -1));
+        }
+
+        Map<String, Integer> columns = new HashMap<>();
+        for (int i = 0; i < header.size(); i++) {
+            String name = header.get(i).replace("\uFEFF", "").trim().toLowerCase(Locale.ROOT);
+            columns.putIfAbsent(COLUMN_ALIASES.getOrDefault(name, name), i);
+        }
+        for (String required : List.of("date", "title", "amount")) {
+            if (!columns.containsKey(required)) {
+                throw new IllegalArgumentException("CSV header must contain a '" + required + "' column");
+            }
+        }
+
+        int rowNumber = 0;
+        List<String> record;
+        while ((record = readRecord(in, delimiter)) != null) {
+            if (record.size() == 1 && record.get(0).isBlank()) {
+                continue;
+            }
+            rowNumber++;
+            rows.accept(new ImportRow(rowNumber,
+                field(record, columns, "date"),
+                field(record, columns, "title"),
+                field(record, columns, "description"),
+                field(record, columns, "amount"),
+                field(record, columns, "type"),
+                field(record, columns, "category")));
+        }
+    }
+
+    private static String field(List<String> record, Map<String, Integer> columns, String name) {
+        Integer index = columns.get(name);
+        return index != null && index < record.size() ? record.get(index) : null;
+    }
+
+    /**
+     * @return campos del siguiente registro, o null al final del fichero
+     */
+    static List<String> readRecord(BufferedReader in, char delimiter) throws IOException {
+        int c = in.read();
+        if (c < 0) {
+            return null;
+        }
+
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+
+        while (c >= 0) {
+            char ch = (char) c;
+            if (quoted) {
+                if (ch == '"') {
+                    in.mark(1);
+                    int next = in.read();
+                    if (next == '"') {
+                        field.append('"');
+                    } else {
+                        quoted = false;
+                        if (next >= 0) {
+                            in.reset();
+                        }
+                    }
+                } else {
+                    field.append(ch);
+                }
+            } else if (ch == '"' && field.isEmpty()) {
+                quoted = true;
+            } else if (ch == delimiter) {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else if (ch == '\n') {
+                break;
+            } else if (ch == '\r') {
+                in.mark(1);
+                if (in.read() != '\n') {
+                    in.reset();
+                }
+                break;
+            } else {
+                field.append(ch);
+            }
+            c = in.read();
+        }
+        fields.add(field.toString());
+        return fields;
+    }
+}
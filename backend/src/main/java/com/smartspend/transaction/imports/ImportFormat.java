@@ -0,0 +1,44 @@
+package com.smartspend.transaction.imports;
+
+import java.util.Locale;
+import java.util.Optional;
+
+public enum ImportFormat {
+    CSV,
+    JSON,
+    OFX;
+
+    ImportRowParser parser() {
+        return switch (this) {
+            case CSV -> new CsvImportParser();
+            case JSON -> new JsonImportParser();
+            case OFX -> new OfxImportParser();
+        };
+    }
+
+    /**
+     * Formato indicado explícitamente, o deducido de la extensión del fichero o del Content-Type
+     */
+    public static Optional<ImportFormat> resolve(String format, String fileName, String contentType) {
+        if (format != null && !format.isBlank()) {
+            try {
+                return Optional.of(valueOf(format.trim().toUpperCase(Locale.ROOT)));
+            } catch (IllegalArgumentException e) {
+                return Optional.empty();
+            }
+        }
+        if (fileName != null) {
+            String name = fileName.toLowerCase(Locale.ROOT);
+            if (name.endsWith(".csv")) return Optional.of(CSV);
+            if (name.endsWith(".json")) return Optional.of(JSON);
+            if (name.endsWith(".ofx") || name.endsWith(".qfx")) return Optional.of(OFX);
+        }
+        if (contentType != null) {
+            String type = contentType.toLowerCase(Locale.ROOT);
+            if (type.startsWith("text/csv")) return Optional.of(CSV);
+            if (type.startsWith("application/json")) return Optional.of(JSON);
+            if (type.contains("ofx")) return Optional.of(OFX);
+        }
+        return Optional.empty();
+    }
+}
@@ -0,0 +1,18 @@
+package com.smartspend.transaction.imports;
+
+/**
+ * Fila tal y como viene en el fichero, sin interpretar. La validación y conversión de los
+ * valores se hace en TransactionImportService, igual para los tres formatos.
+ *
+ * @param rowNumber posición de la fila en el fichero (1 = primer movimiento)
+ * @param category  id o nombre de la categoría
+ */
+public record ImportRow(
+    int rowNumber,
+    String date,
+    String title,
+    String description,
+    String amount,
+    String type,
+    String category
+) {}
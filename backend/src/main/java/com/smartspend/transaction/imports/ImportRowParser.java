@@ -0,0 +1,15 @@
+package com.smartspend.transaction.imports;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.function.Consumer;
+
+/**
+ * Lee el fichero en streaming y entrega cada movimiento según se encuentra, sin cargar el
+ * documento entero en memoria. Un error de estructura (JSON mal formado, CSV sin cabecera...)
+ * se lanza como IllegalArgumentException y aborta la importación.
+ */
+interface ImportRowParser {
+
+    void parse(Reader reader, Consumer<ImportRow> rows) throws IOException;
+}
@@ -0,0 +1,52 @@
+package com.smartspend.transaction.imports;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.function.Consumer;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Array JSON de objetos con los campos date, title, description, amount, type y
+ * category/categoryId. Se recorre token a token y solo se materializa un elemento cada vez.
+ */
+class JsonImportParser implements ImportRowParser {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    @Override
+    public void parse(Reader reader, Consumer<ImportRow> rows) throws IOException {
+        try (JsonParser parser = MAPPER.getFactory().createParser(reader)) {
+            if (parser.nextToken() != JsonToken.START_ARRAY) {
+                throw new IllegalArgumentException("JSON import must be an array of transactions");
+            }
+
+            int rowNumber = 0;
+            while (parser.nextToken() == JsonToken.START_OBJECT) {
+                JsonNode node = MAPPER.readTree(parser);
+                rowNumber++;
+                String category = text(node, "category");
+                rows.accept(new ImportRow(rowNumber,
+                    text(node, "date"),
+                    text(node, "title"),
+                    text(node, "description"),
+                    text(node, "amount"),
+                    text(node, "type"),
+                    category != null ? category : text(node, "categoryId")));
+            }
+            if (parser.currentToken() != JsonToken.END_ARRAY) {
+                throw new IllegalArgumentException("JSON import must contain only transaction objects");
+            }
+        } catch (com.fasterxml.jackson.core.JsonProcessingException e) {
+            throw new IllegalArgumentException("Malformed JSON: " + e.getOriginalMessage());
+        }
+    }
+
+    private static String text(JsonNode node, String field) {
+        JsonNode value = node.get(field);
+        return value == null || value.isNull() ? null : value.asText();
+    }
+}
@@ -0,0 +1,98 @@
+package com.smartspend.transaction.imports;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * Extractos OFX 1.x (SGML, etiquetas sin cerrar) y 2.x (XML). Solo interesan los bloques
+ * STMTTRN: TRNAMT lleva el signo (negativo = gasto), DTPOSTED la fecha como yyyyMMdd[hhmmss...]
+ * y NAME/MEMO el concepto. Las categorías no existen en OFX: se usa la categoría por defecto
+ * de la importación.
+ */
+class OfxImportParser implements ImportRowParser {
+
+    @Override
+    public void parse(Reader reader, Consumer<ImportRow> rows) throws IOException {
+        BufferedReader in = reader instanceof BufferedReader buffered ? buffered : new BufferedReader(reader);
+
+        Map<String, String> transaction = null;
+        String currentTag = null;
+        StringBuilder text = new StringBuilder();
+        int rowNumber = 0;
+        boolean sawOfx = false;
+
+        int c;
+        while ((c = in.read()) >= 0) {
+            if (c != '<') {
+                text.append((char) c);
+                continue;
+            }
+
+            // El texto acumulado es el valor de la última etiqueta abierta (en SGML no se cierra)
+            if (transaction != null && currentTag != null) {
+                String value = unescape(text.toString().trim());
+                if (!value.isEmpty()) {
+                    transaction.putIfAbsent(currentTag, value);
+                }
+            }
+            text.setLength(0);
+
+            String tag = readTag(in);
+            if (tag.equals("OFX")) {
+                sawOfx = true;
+            }
+            if (tag.equals("STMTTRN")) {
+                transaction = new HashMap<>();
+                currentTag = null;
+            } else if (tag.equals("/STMTTRN")) {
+                if (transaction != null) {
+                    rows.accept(toRow(++rowNumber, transaction));
+                }
+                transaction = null;
+                currentTag = null;
+            } else {
+                currentTag = tag.startsWith("/") ? null : tag;
+            }
+        }
+
+        if (!sawOfx) {
+            throw new IllegalArgumentException("File is not an OFX statement");
+        }
+    }
+
+    private static String readTag(BufferedReader in) throws IOException {
+        StringBuilder tag = new StringBuilder();
+        int c;
+        while ((c = in.read()) >= 0 && c != '>') {
+            tag.append((char) c);
+        }
+        return tag.toString().trim().toUpperCase(Locale.ROOT);
+    }
+
+    private static String unescape(String value) {
+        if (value.indexOf('&') < 0) {
+            return value;
+        }
+        return value.replace("&lt;", "<").replace("&gt;", ">").replace("&quot;", "\"").replace("&amp;", "&");
+    }
+
+    private static ImportRow toRow(int rowNumber, Map<String, String> transaction) {
+        String posted = transaction.get("DTPOSTED");
+        String date = posted != null && posted.length() >= 8
+            ? posted.substring(0, 4) + "-" + posted.substring(4, 6) + "-" + posted.substring(6, 8)
+            : posted;
+        String name = transaction.get("NAME");
+        String memo = transaction.get("MEMO");
+        return new ImportRow(rowNumber, date,
+            name != null ? name : memo,
+            name != null ? memo : null,
+            transaction.get("TRNAMT"),
+            null,
+            null);
+    }
+}
@@ -0,0 +1,315 @@
+package com.smartspend.transaction.imports;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.sql.Types;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.smartspend.bankAccount.BankAccount;
+import com.smartspend.bankAccount.BankAccountRepository;
+import com.smartspend.category.CategoryCatalog;
+import com.smartspend.category.dtos.CategoryDto;
+import com.smartspend.ledger.LedgerService;
+import com.smartspend.transaction.TransactionChangedEvent;
+import com.smartspend.transaction.TransactionType;
+import com.smartspend.transaction.dtos.ImportResultDto;
+import com.smartspend.transaction.dtos.ImportRowErrorDto;
+import com.smartspend.transaction.search.TransactionSearchIndex;
+
+import io.micrometer.core.annotation.Counted;
+import io.micrometer.core.annotation.Timed;
+
+/**
+ * Importación masiva de movimientos en una cuenta. El fichero se lee en streaming y se valida
+ * fila a fila; las válidas se insertan con lotes JDBC según se leen (en memoria solo hay un
+ * lote), el saldo se actualiza con un único delta y el ledger con un apunte por (día, tipo,
+ * categoría). Las filas con errores no se importan y se devuelven en el resultado.
+ */
+@Service
+@Timed(value = "smartspend.service", histogram = true)
+@Counted("smartspend.service.calls")
+public class TransactionImportService {
+
+    static final String INSERT_TRANSACTION = "INSERT INTO transactions (title, description, amount, date, type, recurrence, " +
+        "is_recurring_series_parent, next_recurrence_date, account_id, category_id, before_balance) " +
+        "VALUES (?, ?, ?, ?, ?, 'NONE', FALSE, NULL, ?, ?, ?)";
+
+    private static final int[] INSERT_TRANSACTION_TYPES = {
+        Types.VARCHAR, Types.VARCHAR, Types.DECIMAL, Types.DATE, Types.VARCHAR,
+        Types.BIGINT, Types.BIGINT, Types.DECIMAL
+    };
+
+    private static final int TITLE_LENGTH = 30;
+    private static final int DESCRIPTION_LENGTH = 100;
+    private static final BigDecimal MAX_AMOUNT = new BigDecimal("99999999.99");
+
+    private static final List<DateTimeFormatter> DATE_FORMATS = List.of(
+        DateTimeFormatter.ISO_LOCAL_DATE,
+        DateTimeFormatter.ofPattern("dd/MM/yyyy"),
+        DateTimeFormatter.ofPattern("dd-MM-yyyy"));
+
+    private record ValidRow(LocalDate date, String title, String description, BigDecimal amount,
+                            TransactionType type, Long categoryId) {}
+
+    private record LedgerKey(LocalDate date, TransactionType type, Long categoryId) {}
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private BankAccountRepository bankAccountRepository;
+
+    @Autowired
+    private CategoryCatalog categoryCatalog;
+
+    @Autowired
+    private LedgerService ledgerService;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private TransactionSearchIndex searchIndex;
+
+    @Value("${smartspend.import.max-rows:10000}")
+    private int maxRows = 10000;
+
+    @Value("${spring.jpa.properties.hibernate.jdbc.batch_size:100}")
+    private int batchSize = 100;
+
+    /**
+     * @param defaultCategoryId categoría para las filas que no indican ninguna (siempre en OFX)
+     */
+    @Transactional
+    public ImportResultDto importTransactions(Long userId, Long accountId, Long defaultCategoryId,
+                                              ImportFormat format, InputStream input) throws IOException {
+
+        // La cuenta se bloquea antes de leer el fichero: before_balance se encadena desde su saldo
+        // mientras se insertan los lotes, y ninguna otra escritura lo cambia hasta el commit
+        BankAccount account = bankAccountRepository.findByIdForUpdate(accountId)
+            .orElseThrow(() -> new RuntimeException("Bank account not found"));
+
+        if (!account.getUser().getUserId().equals(userId)) {
+            throw new RuntimeException("Unauthorized to import into this account");
+        }
+
+        CategoryResolver categories = new CategoryResolver(categoryCatalog, userId);
+        CategoryDto defaultCategory = null;
+        if (defaultCategoryId != null) {
+            defaultCategory = categories.byId(defaultCategoryId)
+                .orElseThrow(() -> new RuntimeException("Category not found"));
+        }
+
+        List<ImportRowErrorDto> errors = new ArrayList<>();
+        int[] totalRows = {0};
+        CategoryDto fallback = defaultCategory;
+        BatchWriter writer = new BatchWriter(account.getId(), bankAccountRepository.findCurrentBalance(account.getId()));
+
+        // Un error de formato o el límite de filas lanzan una excepción que deshace también los
+        // lotes ya insertados: la importación nunca queda a medias
+        BufferedReader reader = new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8));
+        format.parser().parse(reader, row -> {
+            if (++totalRows[0] > maxRows) {
+                throw new IllegalArgumentException("Import exceeds the limit of " + maxRows + " rows");
+            }
+            try {
+                writer.add(validate(row, categories, fallback));
+            } catch (IllegalArgumentException e) {
+                errors.add(new ImportRowErrorDto(row.rowNumber(), e.getMessage()));
+            }
+        });
+        writer.flush();
+
+        if (writer.imported > 0) {
+            bankAccountRepository.addToBalance(account.getId(), writer.netDelta);
+            writer.ledgerTotals.forEach((key, total) -> ledgerService.apply(
+                account.getId(), key.date(), key.type(), key.categoryId(), total, writer.ledgerCounts.get(key)));
+            searchIndex.indexUnindexed(account.getId(), writer.dates);
+            eventPublisher.publishEvent(new TransactionChangedEvent(account.getId(), writer.dates));
+        }
+
+        System.out.println("Importación " + format + " en cuenta " + accountId + ": " + writer.imported + " de "
+            + totalRows[0] + " filas importadas, " + errors.size() + " con errores");
+
+        return new ImportResultDto(totalRows[0], writer.imported, writer.netDelta, errors);
+    }
+
+    /**
+     * Inserta las filas válidas en lotes del tamaño configurado, encadenando before_balance desde
+     * el saldo de la cuenta bloqueada, y acumula el delta del saldo y los apuntes del ledger
+     */
+    private final class BatchWriter {
+
+        private final Long accountId;
+        private BigDecimal running;
+        private BigDecimal netDelta = BigDecimal.ZERO;
+        private int imported;
+        private final Set<LocalDate> dates = new TreeSet<>();
+        private final Map<LedgerKey, BigDecimal> ledgerTotals = new LinkedHashMap<>();
+        private final Map<LedgerKey, Long> ledgerCounts = new HashMap<>();
+        private List<Object[]> batch = new ArrayList<>(batchSize);
+
+        private BatchWriter(Long accountId, BigDecimal balance) {
+            this.accountId = accountId;
+            this.running = balance;
+        }
+
+        void add(ValidRow row) {
+            batch.add(new Object[] {
+                row.title(), row.description(), row.amount(), row.date(), row.type().name(),
+                accountId, row.categoryId(), running
+            });
+            BigDecimal signed = signedAmount(row.type(), row.amount());
+            running = running.add(signed);
+            netDelta = netDelta.add(signed);
+            imported++;
+            dates.add(row.date());
+
+            LedgerKey key = new LedgerKey(row.date(), row.type(), row.categoryId());
+            ledgerTotals.merge(key, row.amount(), BigDecimal::add);
+            ledgerCounts.merge(key, 1L, Long::sum);
+
+            if (batch.size() == batchSize) {
+                flush();
+            }
+        }
+
+        void flush() {
+            if (!batch.isEmpty()) {
+                jdbcTemplate.batchUpdate(INSERT_TRANSACTION, batch, INSERT_TRANSACTION_TYPES);
+                batch = new ArrayList<>(batchSize);
+            }
+        }
+    }
+
+    private ValidRow validate(ImportRow row, CategoryResolver categories, CategoryDto defaultCategory) {
+
+        LocalDate date = parseDate(row.date());
+
+        if (isBlank(row.title())) {
+            throw new IllegalArgumentException("Title is required");
+        }
+        String title = truncate(row.title().trim(), TITLE_LENGTH);
+        String description = isBlank(row.description()) ? null : truncate(row.description().trim(), DESCRIPTION_LENGTH);
+
+        BigDecimal amount = parseAmount(row.amount());
+        TransactionType type;
+        if (isBlank(row.type())) {
+            // Sin tipo manda el signo, como en los extractos bancarios
+            type = amount.signum() < 0 ? TransactionType.EXPENSE : TransactionType.INCOME;
+        } else {
+            try {
+                type = TransactionType.valueOf(row.type().trim().toUpperCase(Locale.ROOT));
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("Invalid type '" + row.type().trim() + "'");
+            }
+        }
+
+        CategoryDto category;
+        if (!isBlank(row.category())) {
+            category = categories.resolve(row.category(), type)
+                .orElseThrow(() -> new IllegalArgumentException("Category '" + row.category().trim() + "' not found"));
+        } else if (defaultCategory != null) {
+            category = defaultCategory;
+        } else {
+            throw new IllegalArgumentException("Category is required");
+        }
+
+        return new ValidRow(date, title, description, amount.abs(), type, category.id());
+    }
+
+    private static LocalDate parseDate(String value) {
+        if (isBlank(value)) {
+            throw new IllegalArgumentException("Date is required");
+        }
+        for (DateTimeFormatter format : DATE_FORMATS) {
+            try {
+                return LocalDate.parse(value.trim(), format);
+            } catch (DateTimeParseException e) {
+                // se prueba el siguiente formato
+            }
+        }
+        throw new IllegalArgumentException("Invalid date '" + value.trim() + "'");
+    }
+
+    /**
+     * Acepta punto o coma decimal. Con los dos, el último es el decimal y el otro el de miles
+     * (1.234,56 y 1,234.56). Con uno solo, es de miles si se repite (1.000.000) o si le siguen
+     * exactamente tres cifras tras una parte entera que no empieza por 0 (1.000 y 1,234 son mil
+     * y mil doscientos treinta y cuatro, nunca importes con tres decimales).
+     */
+    static BigDecimal parseAmount(String value) {
+        if (isBlank(value)) {
+            throw new IllegalArgumentException("Amount is required");
+        }
+        String normalized = value.trim().replace(" ", "");
+        int lastDot = normalized.lastIndexOf('.');
+        int lastComma = normalized.lastIndexOf(',');
+        int decimalSeparator = Math.max(lastDot, lastComma);
+        if (decimalSeparator >= 0 && (lastDot < 0 || lastComma < 0) && isThousandsSeparator(normalized, decimalSeparator)) {
+            normalized = normalized.replace(".", "").replace(",", "");
+        } else if (decimalSeparator >= 0) {
+            String integerPart = normalized.substring(0, decimalSeparator).replace(".", "").replace(",", "");
+            normalized = integerPart + "." + normalized.substring(decimalSeparator + 1);
+        }
+
+        BigDecimal amount;
+        try {
+            amount = new BigDecimal(normalized);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid amount '" + value.trim() + "'");
+        }
+        if (amount.signum() == 0) {
+            throw new IllegalArgumentException("Amount must not be zero");
+        }
+        if (amount.stripTrailingZeros().scale() > 2) {
+            throw new IllegalArgumentException("Amount must have at most 2 decimals");
+        }
+        if (amount.abs().compareTo(MAX_AMOUNT) > 0) {
+            throw new IllegalArgumentException("Amount is too large");
+        }
+        return amount;
+    }
+
+    private static boolean isThousandsSeparator(String amount, int separator) {
+        char symbol = amount.charAt(separator);
+        if (amount.indexOf(symbol) != separator) {
+            return true;
+        }
+        String integerPart = amount.substring(0, separator).replaceFirst("^[+-]", "");
+        return amount.length() - separator - 1 == 3 && !integerPart.isEmpty() && !integerPart.startsWith("0");
+    }
+
+    private static BigDecimal signedAmount(TransactionType type, BigDecimal amount) {
+        return type == TransactionType.INCOME ? amount : amount.negate();
+    }
+
+    private static boolean isBlank(String value) {
+        return value == null || value.isBlank();
+    }
+
+    private static String truncate(String value, int length) {
+        return value.length() <= length ? value : value.substring(0, length);
+    }
+}
@@ -0,0 +1,82 @@
+package com.smartspend.transaction.search;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+/**
+ * Normalización de texto compartida por el índice de búsqueda y las consultas: minúsculas,
+ * sin tildes ni diéresis ("Nómina" -> "nomina") y troceado por cualquier carácter que no sea
+ * letra o dígito. Los términos solo contienen [a-z0-9], así que se pueden usar en un LIKE sin escapar.
+ */
+public final class SearchTerms {
+
+    public static final int MAX_TERM_LENGTH = 40;
+    public static final int TITLE_WEIGHT = 2;
+    public static final int DESCRIPTION_WEIGHT = 1;
+
+    // Las palabras de una letra ("a", "y") no se indexan; en una consulta solo valen como prefijo
+    // si no hay otras más largas ("luz y gas" busca "luz gas", "a" busca todo lo que empiece por a)
+    private static final int MIN_INDEXED_LENGTH = 2;
+    private static final int MAX_QUERY_TERMS = 8;
+
+    private static final Pattern MARKS = Pattern.compile("\\p{M}+");
+    private static final Pattern SEPARATORS = Pattern.compile("[^a-z0-9]+");
+
+    private SearchTerms() {}
+
+    /**
+     * Términos distintos del texto, en orden de aparición
+     */
+    public static List<String> tokenize(String text) {
+        if (text == null || text.isBlank()) {
+            return List.of();
+        }
+        String normalized = MARKS.matcher(Normalizer.normalize(text, Normalizer.Form.NFD)).replaceAll("")
+            .toLowerCase(Locale.ROOT);
+
+        Set<String> terms = new LinkedHashSet<>();
+        for (String term : SEPARATORS.split(normalized)) {
+            if (!term.isEmpty()) {
+                terms.add(term.length() > MAX_TERM_LENGTH ? term.substring(0, MAX_TERM_LENGTH) : term);
+            }
+        }
+        return new ArrayList<>(terms);
+    }
+
+    /**
+     * Prefijos a buscar para el texto tecleado por el usuario
+     */
+    public static List<String> queryTerms(String query) {
+        List<String> terms = tokenize(query);
+        if (terms.stream().anyMatch(term -> term.length() >= MIN_INDEXED_LENGTH)) {
+            terms = terms.stream().filter(term -> term.length() >= MIN_INDEXED_LENGTH).toList();
+        }
+        return terms.size() > MAX_QUERY_TERMS ? terms.subList(0, MAX_QUERY_TERMS) : terms;
+    }
+
+    /**
+     * Términos a indexar de una transacción con su peso; un término del título pesa más que
+     * uno de la descripción y si aparece en los dos se suman
+     */
+    public static Map<String, Integer> weights(String title, String description) {
+        Map<String, Integer> weights = new LinkedHashMap<>();
+        addTerms(weights, title, TITLE_WEIGHT);
+        addTerms(weights, description, DESCRIPTION_WEIGHT);
+        return weights;
+    }
+
+    private static void addTerms(Map<String, Integer> weights, String text, int weight) {
+        for (String term : tokenize(text)) {
+            if (term.length() >= MIN_INDEXED_LENGTH) {
+                weights.merge(term, weight, Integer::sum);
+            }
+        }
+    }
+}
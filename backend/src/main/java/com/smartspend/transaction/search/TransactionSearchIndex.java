@@ -0,0 +1,152 @@
+package com.smartspend.transaction.search;
+
+import java.sql.Types;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.smartspend.transaction.Transaction;
+
+/**
+ * Índice invertido de título y descripción en la tabla transaction_search_terms: una fila por
+ * transacción y término normalizado (ver {@link SearchTerms}). Una búsqueda recorre solo el rango
+ * (account_id, term LIKE 'prefijo%') del índice, así que su coste depende de las coincidencias y
+ * no del tamaño de la cuenta. Se mantiene en la misma transacción que la escritura sobre transactions.
+ */
+@Service
+public class TransactionSearchIndex {
+
+    static final String INSERT_TERM = "INSERT INTO transaction_search_terms (transaction_id, term, account_id, weight) VALUES (?, ?, ?, ?)";
+
+    private static final int[] INSERT_TERM_TYPES = {Types.BIGINT, Types.VARCHAR, Types.BIGINT, Types.INTEGER};
+
+    // Filas insertadas por lotes JDBC (recurrentes, importación) que aún no tienen términos
+    private static final String SELECT_UNINDEXED = "SELECT t.id, t.account_id, t.title, t.description FROM transactions t "
+        + "WHERE t.account_id = ? AND t.date BETWEEN ? AND ? "
+        + "AND NOT EXISTS (SELECT 1 FROM transaction_search_terms s WHERE s.transaction_id = t.id)";
+
+    public record Match(Long transactionId, int score) {}
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Value("${spring.jpa.properties.hibernate.jdbc.batch_size:100}")
+    private int batchSize = 100;
+
+    /**
+     * Indexa una transacción nueva o vuelve a indexar una editada
+     */
+    public void index(Transaction transaction) {
+        remove(transaction.getId());
+        List<Object[]> rows = new ArrayList<>();
+        addRows(rows, transaction.getId(), transaction.getAccount().getId(), transaction.getTitle(), transaction.getDescription());
+        insert(rows);
+    }
+
+    public void remove(Long transactionId) {
+        jdbcTemplate.update("DELETE FROM transaction_search_terms WHERE transaction_id = ?", transactionId);
+    }
+
+    public void deleteAccount(Long accountId) {
+        jdbcTemplate.update("DELETE FROM transaction_search_terms WHERE account_id = ?", accountId);
+    }
+
+    /**
+     * Indexa las transacciones de la cuenta insertadas entre esas fechas que aún no están en el
+     * índice. Para los caminos que insertan por lotes JDBC y no conocen los ids generados.
+     *
+     * @return número de transacciones indexadas
+     */
+    public int indexUnindexed(Long accountId, Collection<LocalDate> dates) {
+        if (dates.isEmpty()) {
+            return 0;
+        }
+        List<Object[]> rows = new ArrayList<>();
+        int[] transactions = {0};
+        jdbcTemplate.query(SELECT_UNINDEXED, resultSet -> {
+            addRows(rows, resultSet.getLong(1), resultSet.getLong(2), resultSet.getString(3), resultSet.getString(4));
+            transactions[0]++;
+        }, accountId, Collections.min(dates), Collections.max(dates));
+        insert(rows);
+        return transactions[0];
+    }
+
+    /**
+     * Vacía el índice y lo vuelve a generar desde todas las transacciones
+     *
+     * @return número de términos indexados
+     */
+    @Transactional
+    public int rebuild() {
+        jdbcTemplate.update("DELETE FROM transaction_search_terms");
+        List<Object[]> rows = new ArrayList<>();
+        int[] terms = {0};
+        jdbcTemplate.query("SELECT id, account_id, title, description FROM transactions", resultSet -> {
+            addRows(rows, resultSet.getLong(1), resultSet.getLong(2), resultSet.getString(3), resultSet.getString(4));
+            if (rows.size() >= batchSize) {
+                terms[0] += rows.size();
+                insert(rows);
+                rows.clear();
+            }
+        });
+        terms[0] += rows.size();
+        insert(rows);
+        return terms[0];
+    }
+
+    /**
+     * Transacciones de la cuenta que contienen todos los términos de la consulta (cada uno como
+     * prefijo de alguna palabra), de más a menos relevante. La puntuación suma el peso de cada
+     * término coincidente (título 2, descripción 1) y lo duplica si la palabra es exacta; a
+     * igualdad de puntuación van primero las más recientes.
+     */
+    public List<Match> search(Long accountId, String query, int limit) {
+        List<String> terms = SearchTerms.queryTerms(query);
+        if (terms.isEmpty()) {
+            return List.of();
+        }
+
+        StringBuilder sql = new StringBuilder("SELECT transaction_id, SUM(weight) + SUM(CASE WHEN term IN (")
+            .append(String.join(", ", Collections.nCopies(terms.size(), "?")));
+        List<Object> args = new ArrayList<>(terms);
+        sql.append(") THEN weight ELSE 0 END) AS score FROM transaction_search_terms WHERE account_id = ? AND (");
+        args.add(accountId);
+        for (int i = 0; i < terms.size(); i++) {
+            sql.append(i == 0 ? "" : " OR ").append("term LIKE ?");
+            args.add(terms.get(i) + "%");
+        }
+        sql.append(") GROUP BY transaction_id HAVING ");
+        for (int i = 0; i < terms.size(); i++) {
+            sql.append(i == 0 ? "" : " + ").append("MAX(CASE WHEN term LIKE ? THEN 1 ELSE 0 END)");
+            args.add(terms.get(i) + "%");
+        }
+        sql.append(" = ? ORDER BY score DESC, transaction_id DESC LIMIT ?");
+        args.add(terms.size());
+        args.add(limit);
+
+        return jdbcTemplate.query(sql.toString(),
+            (resultSet, rowNum) -> new Match(resultSet.getLong(1), resultSet.getInt(2)),
+            args.toArray());
+    }
+
+    private static void addRows(List<Object[]> rows, Long transactionId, Long accountId, String title, String description) {
+        for (Map.Entry<String, Integer> term : SearchTerms.weights(title, description).entrySet()) {
+            rows.add(new Object[] {transactionId, term.getKey(), accountId, term.getValue()});
+        }
+    }
+
+    private void insert(List<Object[]> rows) {
+        for (int from = 0; from < rows.size(); from += batchSize) {
+            jdbcTemplate.batchUpdate(INSERT_TERM, rows.subList(from, Math.min(from + batchSize, rows.size())), INSERT_TERM_TYPES);
+        }
+    }
+}
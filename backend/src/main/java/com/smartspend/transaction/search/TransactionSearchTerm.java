@@ -0,0 +1,46 @@
+package com.smartspend.transaction.search;
+
+import java.io.Serializable;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * Entrada del índice invertido de búsqueda: un término normalizado de una transacción.
+ * Las filas las escribe {@link TransactionSearchIndex}; la entidad se usa para las subconsultas
+ * de TransactionSpecification y para que el esquema de los tests coincida con la migración V7.
+ */
+@Entity
+@Table(name = "transaction_search_terms", indexes = {
+    @Index(name = "idx_search_terms_account_term", columnList = "account_id, term, transaction_id")
+})
+@IdClass(TransactionSearchTerm.Key.class)
+@Getter @Setter
+public class TransactionSearchTerm {
+
+    @Id
+    @Column(name = "transaction_id")
+    private Long transactionId;
+
+    @Id
+    @Column(length = SearchTerms.MAX_TERM_LENGTH)
+    private String term;
+
+    @Column(name = "account_id", nullable = false)
+    private Long accountId;
+
+    @Column(nullable = false)
+    private Integer weight;
+
+    @NoArgsConstructor
+    @AllArgsConstructor
+    @EqualsAndHashCode
+    public static class Key implements Serializable {
+        private Long transactionId;
+        private String term;
+    }
+}
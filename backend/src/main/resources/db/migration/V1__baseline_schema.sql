@@ -0,0 +1,54 @@
+-- Esquema inicial, equivalente al que generaba Hibernate con ddl-auto: update.
+-- Las bases de datos existentes se marcan en esta versión (baseline-on-migrate) y no lo ejecutan.
+-- DDL compatible con MySQL 8 y con H2 en modo MySQL.
+
+CREATE TABLE users (
+    user_id BIGINT NOT NULL AUTO_INCREMENT,
+    user_email VARCHAR(255) NOT NULL,
+    user_hashed_password VARCHAR(255) NOT NULL,
+    user_name VARCHAR(255) NOT NULL,
+    PRIMARY KEY (user_id)
+);
+
+CREATE TABLE bank_accounts (
+    id BIGINT NOT NULL AUTO_INCREMENT,
+    account_name VARCHAR(255) NOT NULL,
+    created_at DATETIME(6) NOT NULL,
+    current_balance DECIMAL(38,2) NOT NULL,
+    user_id BIGINT NOT NULL,
+    PRIMARY KEY (id),
+    CONSTRAINT fk_bank_accounts_user FOREIGN KEY (user_id) REFERENCES users (user_id)
+);
+
+CREATE TABLE categories (
+    id BIGINT NOT NULL AUTO_INCREMENT,
+    color VARCHAR(255) NOT NULL,
+    icon VARCHAR(10) NOT NULL,
+    is_default BOOLEAN NOT NULL,
+    name VARCHAR(20) NOT NULL,
+    type ENUM('EXPENSE','INCOME') NOT NULL,
+    user_id BIGINT,
+    PRIMARY KEY (id),
+    CONSTRAINT fk_categories_user FOREIGN KEY (user_id) REFERENCES users (user_id)
+);
+
+CREATE TABLE transactions (
+    id BIGINT NOT NULL AUTO_INCREMENT,
+    amount DECIMAL(10,2) NOT NULL,
+    before_balance DECIMAL(10,2),
+    date DATE NOT NULL,
+    description VARCHAR(100),
+    image_data LONGBLOB,
+    image_name VARCHAR(255),
+    image_type VARCHAR(100),
+    is_recurring_series_parent BOOLEAN NOT NULL,
+    next_recurrence_date DATE,
+    recurrence ENUM('DAILY','MONTHLY','NONE','WEEKLY','YEARLY') NOT NULL,
+    title VARCHAR(30) NOT NULL,
+    type ENUM('EXPENSE','INCOME') NOT NULL,
+    account_id BIGINT NOT NULL,
+    category_id BIGINT NOT NULL,
+    PRIMARY KEY (id),
+    CONSTRAINT fk_transactions_account FOREIGN KEY (account_id) REFERENCES bank_accounts (id),
+    CONSTRAINT fk_transactions_category FOREIGN KEY (category_id) REFERENCES categories (id)
+);
@@ -0,0 +1,41 @@
+-- Ledger diario por cuenta y almacén de imágenes direccionado por contenido
+
+CREATE TABLE IF NOT EXISTS account_daily_ledger (
+    id BIGINT NOT NULL AUTO_INCREMENT,
+    account_id BIGINT NOT NULL,
+    category_id BIGINT NOT NULL,
+    entry_date DATE NOT NULL,
+    total DECIMAL(15,2) NOT NULL,
+    transaction_count BIGINT NOT NULL,
+    type ENUM('EXPENSE','INCOME') NOT NULL,
+    PRIMARY KEY (id),
+    CONSTRAINT uk_ledger_account_date_type_category UNIQUE (account_id, entry_date, type, category_id)
+);
+
+CREATE TABLE IF NOT EXISTS image_blobs (
+    hash VARCHAR(64) NOT NULL,
+    content_type VARCHAR(100) NOT NULL,
+    created_at DATETIME(6) NOT NULL,
+    data LONGBLOB NOT NULL,
+    size BIGINT NOT NULL,
+    PRIMARY KEY (hash)
+);
+
+CREATE TABLE IF NOT EXISTS image_variants (
+    id BIGINT NOT NULL AUTO_INCREMENT,
+    size ENUM('THUMB_256','THUMB_64') NOT NULL,
+    source_hash VARCHAR(64) NOT NULL,
+    variant_hash VARCHAR(64) NOT NULL,
+    PRIMARY KEY (id),
+    CONSTRAINT uk_image_variant_source_size UNIQUE (source_hash, size)
+);
+
+ALTER TABLE transactions ADD COLUMN image_hash VARCHAR(64);
+ALTER TABLE transactions ADD COLUMN image_size BIGINT;
+
+-- Backfill del ledger con el histórico (misma consulta que LedgerRepository.backfillFromTransactions)
+DELETE FROM account_daily_ledger;
+INSERT INTO account_daily_ledger (account_id, entry_date, type, category_id, total, transaction_count)
+SELECT account_id, date, type, category_id, SUM(amount), COUNT(*)
+FROM transactions
+GROUP BY account_id, date, type, category_id;
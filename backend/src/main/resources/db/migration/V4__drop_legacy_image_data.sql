@@ -0,0 +1,2 @@
+-- V3 ya ha copiado las imágenes a image_blobs
+ALTER TABLE transactions DROP COLUMN image_data;
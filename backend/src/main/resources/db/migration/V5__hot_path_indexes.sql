@@ -0,0 +1,30 @@
+-- Índices compuestos para las consultas frecuentes. Cada uno indica la consulta a la que sirve;
+-- QueryIndexUsageTest comprueba con EXPLAIN que se siguen usando.
+
+-- Listados por cuenta en orden (date DESC, id DESC): findByAccountIdAndLimit, listado por cursor,
+-- /paginated, findBalanceUpToDate y findDailyTotalsByAccountAndDateRange.
+-- Declarado DESC para que el índice entregue ya ordenadas las filas y el LIMIT corte sin ordenar
+CREATE INDEX idx_transactions_account_date_id ON transactions (account_id, date DESC, id DESC);
+
+-- Rangos de fechas filtrados por tipo: findByAccountAndDateRangeAndType,
+-- findCategoryTotalsByAccountAndDateRangeAndType y findTotalByAccountAndDateRangeAndType
+CREATE INDEX idx_transactions_account_type_date ON transactions (account_id, type, date);
+
+-- Filtro por categoría del listado de transacciones
+CREATE INDEX idx_transactions_account_category_date ON transactions (account_id, category_id, date);
+
+-- Barrido del scheduler de recurrentes: findPendingRecurringTransactions
+CREATE INDEX idx_transactions_recurring_next_date ON transactions (is_recurring_series_parent, next_recurrence_date);
+
+-- Recuento de referencias a una imagen al borrar: existsByImageHash
+CREATE INDEX idx_transactions_image_hash ON transactions (image_hash);
+
+-- Login y resolución del usuario autenticado: findByUserEmail
+CREATE INDEX idx_users_email ON users (user_email);
+
+-- Categorías propias por tipo: findByUserUserIdAndType; las por defecto: findByIsDefaultTrueAndType
+CREATE INDEX idx_categories_user_type ON categories (user_id, type);
+CREATE INDEX idx_categories_default_type ON categories (is_default, type);
+
+-- Borrado de miniaturas compartidas: existsByVariantHash
+CREATE INDEX idx_image_variants_variant_hash ON image_variants (variant_hash);
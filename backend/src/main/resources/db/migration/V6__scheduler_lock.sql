@@ -0,0 +1,9 @@
+-- Cerrojo de las tareas programadas (ShedLock): con varias réplicas solo una ejecuta cada tarea.
+-- Una fila por tarea; lock_until marca hasta cuándo la retiene el nodo locked_by.
+CREATE TABLE shedlock (
+    name VARCHAR(64) NOT NULL,
+    lock_until TIMESTAMP(3) NOT NULL,
+    locked_at TIMESTAMP(3) NOT NULL DEFAULT CURRENT_TIMESTAMP(3),
+    locked_by VARCHAR(255) NOT NULL,
+    PRIMARY KEY (name)
+);
@@ -0,0 +1,13 @@
+-- Índice invertido para la búsqueda de transacciones: una fila por transacción y término de su
+-- título o descripción, normalizado en minúsculas y sin acentos (ver SearchTerms).
+-- Lo rellena V8 y a partir de ahí lo mantiene TransactionSearchIndex en cada escritura.
+CREATE TABLE transaction_search_terms (
+    transaction_id BIGINT NOT NULL,
+    term VARCHAR(40) NOT NULL,
+    account_id BIGINT NOT NULL,
+    weight INT NOT NULL,
+    PRIMARY KEY (transaction_id, term)
+);
+
+-- Búsqueda por prefijo dentro de una cuenta: account_id = ? AND term LIKE 'nom%'
+CREATE INDEX idx_search_terms_account_term ON transaction_search_terms (account_id, term, transaction_id);
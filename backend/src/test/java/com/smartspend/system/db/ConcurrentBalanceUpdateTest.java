@@ -0,0 +1,254 @@
+package com.smartspend.system.db;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import com.smartspend.bankAccount.BankAccount;
+import com.smartspend.bankAccount.BankAccountRepository;
+import com.smartspend.category.Category;
+import com.smartspend.category.CategoryRepository;
+import com.smartspend.ledger.LedgerRepository;
+import com.smartspend.transaction.Recurrence;
+import com.smartspend.transaction.Transaction;
+import com.smartspend.transaction.TransactionRepository;
+import com.smartspend.transaction.TransactionService;
+import com.smartspend.transaction.TransactionType;
+import com.smartspend.transaction.dtos.CreateTransactionDto;
+import com.smartspend.user.User;
+import com.smartspend.user.UserRepository;
+
+/**
+ * Lanza escrituras en paralelo contra la misma cuenta sobre H2 y comprueba que el saldo, el
+ * ledger y el before_balance de cada transacción cuadran exactamente, sin actualizaciones perdidas.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE,
+    properties = "jwt.secret=Y29uY3VycmVudC1iYWxhbmNlLXRlc3Qtc2VjcmV0LWtleS0yNTYtYml0cw==")
+@ActiveProfiles("test")
+public class ConcurrentBalanceUpdateTest {
+
+    private static final int THREADS = 8;
+    private static final int WRITES_PER_THREAD = 25;
+    private static final BigDecimal INITIAL_BALANCE = new BigDecimal("1000.00");
+
+    @Autowired
+    private TransactionService transactionService;
+
+    @Autowired
+    private TransactionRepository transactionRepository;
+
+    @Autowired
+    private BankAccountRepository bankAccountRepository;
+
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    @Autowired
+    private LedgerRepository ledgerRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    private User user;
+    private BankAccount account;
+    private Category category;
+
+    @BeforeEach
+    void setUp() {
+        user = userRepository.save(new User("concurrent", "concurrent@example.com", "x"));
+        account = bankAccountRepository.save(new BankAccount(user, "Concurrent Account", INITIAL_BALANCE));
+        category = categoryRepository.save(new Category("Concurrent", "Stress test", "#000000", TransactionType.EXPENSE, user, "x"));
+    }
+
+    @AfterEach
+    void tearDown() {
+        transactionRepository.deleteAll(transactionRepository.findAll().stream()
+            .filter(transaction -> transaction.getAccount().getId().equals(account.getId()))
+            .toList());
+        ledgerRepository.deleteAll(ledgerRepository.findAll().stream()
+            .filter(entry -> entry.getAccountId().equals(account.getId()))
+            .toList());
+        bankAccountRepository.deleteById(account.getId());
+        categoryRepository.deleteById(category.getId());
+        userRepository.deleteById(user.getUserId());
+    }
+
+    private CreateTransactionDto dto(int thread, int index) {
+        // Mezcla ingresos y gastos con importes distintos para que un delta perdido se note
+        TransactionType type = (thread + index) % 3 == 0 ? TransactionType.INCOME : TransactionType.EXPENSE;
+        BigDecimal amount = new BigDecimal(thread + 1).add(new BigDecimal(index).movePointLeft(2));
+        return new CreateTransactionDto("Stress " + thread + "-" + index, null, amount, type,
+            LocalDate.of(2025, 6, 1 + index % 3), Recurrence.NONE, account.getId(), category.getId());
+    }
+
+    private static BigDecimal signed(TransactionType type, BigDecimal amount) {
+        return type == TransactionType.INCOME ? amount : amount.negate();
+    }
+
+    private <T> List<T> runConcurrently(List<Callable<T>> tasks) throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        try {
+            List<Future<T>> futures = new ArrayList<>();
+            for (Callable<T> task : tasks) {
+                futures.add(pool.submit(() -> {
+                    start.await();
+                    return task.call();
+                }));
+            }
+            start.countDown();
+            List<T> results = new ArrayList<>();
+            for (Future<T> future : futures) {
+                results.add(future.get(60, TimeUnit.SECONDS));
+            }
+            return results;
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    private BigDecimal ledgerNet() {
+        return ledgerRepository.findAll().stream()
+            .filter(entry -> entry.getAccountId().equals(account.getId()))
+            .map(entry -> signed(entry.getType(), entry.getTotal()))
+            .reduce(BigDecimal.ZERO, BigDecimal::add);
+    }
+
+    private List<Transaction> accountTransactions() {
+        return transactionRepository.findAll().stream()
+            .filter(transaction -> transaction.getAccount().getId().equals(account.getId()))
+            .sorted(Comparator.comparing(Transaction::getId))
+            .toList();
+    }
+
+    @Test
+    @DisplayName("CB-1: saveTransaction - Parallel inserts on one account should yield the exact balance")
+    void parallelInsertsShouldNotLoseUpdates() throws Exception {
+        // Given
+        List<Callable<Long>> tasks = new ArrayList<>();
+        BigDecimal expectedDelta = BigDecimal.ZERO;
+        for (int thread = 0; thread < THREADS; thread++) {
+            for (int index = 0; index < WRITES_PER_THREAD; index++) {
+                CreateTransactionDto dto = dto(thread, index);
+                expectedDelta = expectedDelta.add(signed(dto.type(), dto.amount()));
+                tasks.add(() -> transactionService.saveTransaction(dto, user.getUserId()).id());
+            }
+        }
+
+        // When
+        runConcurrently(tasks);
+
+        // Then
+        BigDecimal expectedBalance = INITIAL_BALANCE.add(expectedDelta);
+        assertEquals(0, expectedBalance.compareTo(bankAccountRepository.findCurrentBalance(account.getId())));
+        assertEquals(0, expectedDelta.compareTo(ledgerNet()));
+
+        // Las escrituras se serializan en el orden del bloqueo: cada before_balance encadena con la anterior
+        List<Transaction> saved = accountTransactions();
+        assertEquals(THREADS * WRITES_PER_THREAD, saved.size());
+        BigDecimal running = INITIAL_BALANCE;
+        for (Transaction transaction : saved) {
+            assertEquals(0, running.compareTo(transaction.getBeforeBalance()), "before_balance of " + transaction.getTitle());
+            running = running.add(signed(transaction.getType(), transaction.getAmount()));
+        }
+    }
+
+    @Test
+    @DisplayName("CB-2: updateTransaction/deleteTransaction - Parallel edits and deletes should keep balance and ledger exact")
+    void parallelEditsAndDeletesShouldNotLoseUpdates() throws Exception {
+        // Given
+        List<Long> ids = new ArrayList<>();
+        for (int index = 0; index < THREADS * 4; index++) {
+            ids.add(transactionService.saveTransaction(dto(index % THREADS, index), user.getUserId()).id());
+        }
+
+        List<Callable<Void>> tasks = new ArrayList<>();
+        for (int index = 0; index < ids.size(); index++) {
+            Long id = ids.get(index);
+            if (index % 2 == 0) {
+                CreateTransactionDto edit = new CreateTransactionDto("Edited " + index, null, new BigDecimal("7.50"),
+                    TransactionType.INCOME, LocalDate.of(2025, 6, 2), Recurrence.NONE, account.getId(), category.getId());
+                tasks.add(() -> {
+                    transactionService.updateTransaction(id, edit, user.getUserId());
+                    return null;
+                });
+            } else {
+                tasks.add(() -> {
+                    transactionService.deleteTransaction(id, user.getUserId());
+                    return null;
+                });
+            }
+        }
+
+        // When
+        runConcurrently(tasks);
+
+        // Then
+        List<Transaction> remaining = accountTransactions();
+        assertEquals(ids.size() / 2, remaining.size());
+        BigDecimal expectedDelta = new BigDecimal("7.50").multiply(new BigDecimal(remaining.size()));
+        assertEquals(0, INITIAL_BALANCE.add(expectedDelta).compareTo(bankAccountRepository.findCurrentBalance(account.getId())));
+        assertEquals(0, expectedDelta.compareTo(ledgerNet()));
+    }
+
+    @Test
+    @DisplayName("CB-3: updateTransaction/deleteTransaction - Concurrent edits and deletes of the same transaction should keep balance and ledger exact")
+    void concurrentWritesOnSameTransactionShouldNotLoseUpdates() throws Exception {
+        // Given
+        List<Long> ids = new ArrayList<>();
+        for (int index = 0; index < THREADS * 2; index++) {
+            ids.add(transactionService.saveTransaction(dto(index % THREADS, index), user.getUserId()).id());
+        }
+
+        // Cada transacción recibe dos ediciones con importes distintos; la mitad además se borra
+        List<Callable<Void>> tasks = new ArrayList<>();
+        for (int index = 0; index < ids.size(); index++) {
+            Long id = ids.get(index);
+            for (String amount : List.of("7.50", "3.25")) {
+                CreateTransactionDto edit = new CreateTransactionDto("Edited " + index, null, new BigDecimal(amount),
+                    TransactionType.INCOME, LocalDate.of(2025, 6, 2), Recurrence.NONE, account.getId(), category.getId());
+                // La edición que llega después del borrado ya no encuentra la transacción (vacío)
+                tasks.add(() -> {
+                    transactionService.updateTransaction(id, edit, user.getUserId());
+                    return null;
+                });
+            }
+            if (index % 2 == 0) {
+                tasks.add(() -> {
+                    transactionService.deleteTransaction(id, user.getUserId());
+                    return null;
+                });
+            }
+        }
+
+        // When
+        runConcurrently(tasks);
+
+        // Then - el saldo y el ledger cuadran con las filas que quedan, sea cual sea el orden
+        List<Transaction> remaining = accountTransactions();
+        assertEquals(ids.size() / 2, remaining.size());
+        BigDecimal expectedDelta = remaining.stream()
+            .map(transaction -> signed(transaction.getType(), transaction.getAmount()))
+            .reduce(BigDecimal.ZERO, BigDecimal::add);
+        assertEquals(0, INITIAL_BALANCE.add(expectedDelta).compareTo(bankAccountRepository.findCurrentBalance(account.getId())));
+        assertEquals(0, expectedDelta.compareTo(ledgerNet()));
+    }
+}
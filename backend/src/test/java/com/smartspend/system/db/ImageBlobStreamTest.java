@@ -0,0 +1,96 @@
+package com.smartspend.system.db;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.InputStream;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.Optional;
+import java.util.Random;
+
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.smartspend.image.BlobResource;
+import com.smartspend.image.DatabaseImageStore;
+import com.smartspend.migration.V3__MoveLegacyImagesToBlobStore;
+import com.smartspend.migration.V8__IndexTransactionSearchTerms;
+
+/**
+ * Lectura por bloques de image_blobs contra el esquema real de Flyway en H2 (modo MySQL):
+ * el SUBSTRING sobre el LONGBLOB tiene que devolver los mismos bytes que se guardaron.
+ */
+public class ImageBlobStreamTest {
+
+    private static final String URL = "jdbc:h2:mem:image_stream;DB_CLOSE_DELAY=-1;MODE=MySQL";
+    private static final String HASH = "a".repeat(64);
+
+    private static JdbcTemplate jdbcTemplate;
+    private static byte[] image;
+
+    @BeforeAll
+    static void migrate() {
+        Flyway.configure()
+            .dataSource(URL, "sa", "")
+            .locations("classpath:db/migration")
+            .javaMigrations(new V3__MoveLegacyImagesToBlobStore(), new V8__IndexTransactionSearchTerms())
+            .load()
+            .migrate();
+        jdbcTemplate = new JdbcTemplate(new DriverManagerDataSource(URL, "sa", ""));
+
+        // Dos bloques y medio para cubrir los bordes
+        image = new byte[BlobResource.CHUNK_SIZE * 5 / 2];
+        new Random(42).nextBytes(image);
+        jdbcTemplate.update("INSERT INTO image_blobs (hash, data, content_type, size, created_at) VALUES (?, ?, ?, ?, ?)",
+            HASH, image, "image/png", image.length, LocalDateTime.now());
+    }
+
+    private DatabaseImageStore imageStore() {
+        DatabaseImageStore imageStore = new DatabaseImageStore();
+        ReflectionTestUtils.setField(imageStore, "jdbcTemplate", jdbcTemplate);
+        return imageStore;
+    }
+
+    @Test
+    @DisplayName("DB-10: open - Should expose metadata and stream the blob chunk by chunk")
+    void shouldStreamWholeBlob() throws Exception {
+        // When
+        BlobResource resource = imageStore().open(HASH).orElseThrow();
+        byte[] read;
+        try (InputStream in = resource.getInputStream()) {
+            read = in.readAllBytes();
+        }
+
+        // Then
+        assertEquals("image/png", resource.getContentType());
+        assertEquals(image.length, resource.contentLength());
+        assertArrayEquals(image, read);
+        assertEquals(Optional.empty(), imageStore().open("b".repeat(64)));
+    }
+
+    @Test
+    @DisplayName("DB-11: open - Should skip to a range without reading the bytes before it")
+    void shouldSkipToRange() throws Exception {
+        // Given - un rango que empieza en el segundo bloque y cruza al tercero
+        int start = BlobResource.CHUNK_SIZE + 10;
+        int length = BlobResource.CHUNK_SIZE;
+
+        // When
+        byte[] read;
+        try (InputStream in = imageStore().open(HASH).orElseThrow().getInputStream()) {
+            assertEquals(5, in.skip(5));
+            assertEquals(start - 5, in.skip(start - 5));
+            read = in.readNBytes(length);
+            assertEquals(image.length - start - length, in.skip(Long.MAX_VALUE));
+            assertEquals(-1, in.read());
+        }
+
+        // Then
+        assertArrayEquals(Arrays.copyOfRange(image, start, start + length), read);
+    }
+}
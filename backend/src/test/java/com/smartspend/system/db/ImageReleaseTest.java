@@ -0,0 +1,193 @@
+package com.smartspend.system.db;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import javax.imageio.ImageIO;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.test.context.ActiveProfiles;
+
+import com.smartspend.bankAccount.BankAccount;
+import com.smartspend.bankAccount.BankAccountRepository;
+import com.smartspend.bankAccount.BankAccountService;
+import com.smartspend.category.Category;
+import com.smartspend.category.CategoryRepository;
+import com.smartspend.image.ImageBlobRepository;
+import com.smartspend.image.ImageVariantRepository;
+import com.smartspend.ledger.LedgerRepository;
+import com.smartspend.transaction.Recurrence;
+import com.smartspend.transaction.Transaction;
+import com.smartspend.transaction.TransactionRepository;
+import com.smartspend.transaction.TransactionService;
+import com.smartspend.transaction.TransactionType;
+import com.smartspend.transaction.dtos.CreateTransactionWithImageDto;
+import com.smartspend.user.User;
+import com.smartspend.user.UserRepository;
+
+/**
+ * Borrado de blobs compartidos sobre H2: un blob se borra con la última transacción que lo
+ * usa, también al borrar la cuenta entera, y nunca mientras una subida concurrente lo reutiliza.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE,
+    properties = "jwt.secret=aW1hZ2UtcmVsZWFzZS10ZXN0LXNlY3JldC1rZXktMjU2LWJpdHMtbG9uZw==")
+@ActiveProfiles("test")
+public class ImageReleaseTest {
+
+    @Autowired
+    private TransactionService transactionService;
+
+    @Autowired
+    private BankAccountService bankAccountService;
+
+    @Autowired
+    private TransactionRepository transactionRepository;
+
+    @Autowired
+    private BankAccountRepository bankAccountRepository;
+
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    @Autowired
+    private LedgerRepository ledgerRepository;
+
+    @Autowired
+    private ImageBlobRepository imageBlobRepository;
+
+    @Autowired
+    private ImageVariantRepository imageVariantRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    private User user;
+    private List<BankAccount> accounts;
+    private Category category;
+    private int nextImage;
+
+    @BeforeEach
+    void setUp() {
+        user = userRepository.save(new User("images", "images@example.com", "x"));
+        accounts = new ArrayList<>(List.of(
+            bankAccountRepository.save(new BankAccount(user, "Images A", BigDecimal.ZERO)),
+            bankAccountRepository.save(new BankAccount(user, "Images B", BigDecimal.ZERO))));
+        category = categoryRepository.save(new Category("Images", "Receipts", "#000000", TransactionType.EXPENSE, user, "x"));
+    }
+
+    @AfterEach
+    void tearDown() {
+        List<Long> accountIds = accounts.stream().map(BankAccount::getId).toList();
+        transactionRepository.deleteAll(transactionRepository.findAll().stream()
+            .filter(transaction -> accountIds.contains(transaction.getAccount().getId()))
+            .toList());
+        ledgerRepository.deleteAll(ledgerRepository.findAll().stream()
+            .filter(entry -> accountIds.contains(entry.getAccountId()))
+            .toList());
+        accountIds.stream().filter(bankAccountRepository::existsById).forEach(bankAccountRepository::deleteById);
+        categoryRepository.deleteById(category.getId());
+        userRepository.deleteById(user.getUserId());
+        imageVariantRepository.deleteAll();
+        imageBlobRepository.deleteAll();
+    }
+
+    // Un PNG distinto en cada llamada, para que cada prueba tenga sus propios blobs
+    private byte[] newImage() throws Exception {
+        BufferedImage image = new BufferedImage(4, 4, BufferedImage.TYPE_INT_RGB);
+        image.setRGB(0, 0, ++nextImage);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ImageIO.write(image, "png", out);
+        return out.toByteArray();
+    }
+
+    private Transaction upload(BankAccount account, byte[] image) {
+        CreateTransactionWithImageDto dto = new CreateTransactionWithImageDto("Receipt", null, new BigDecimal("10.00"),
+            TransactionType.EXPENSE, LocalDate.of(2025, 6, 1), Recurrence.NONE, account.getId(), category.getId(),
+            new MockMultipartFile("imageFile", "receipt.png", "image/png", image));
+        return transactionRepository.findById(transactionService.saveTransactionWithImage(dto, user.getUserId()).id()).orElseThrow();
+    }
+
+    @Test
+    @DisplayName("DB-12: deleteTransaction - Should keep a shared blob and delete it with its last transaction")
+    void shouldDeleteBlobWithLastTransaction() throws Exception {
+        // Given
+        byte[] image = newImage();
+        Transaction first = upload(accounts.get(0), image);
+        Transaction second = upload(accounts.get(0), image);
+        assertEquals(first.getImageHash(), second.getImageHash());
+
+        // When / Then
+        transactionService.deleteTransaction(first.getId(), user.getUserId());
+        assertTrue(imageBlobRepository.existsById(first.getImageHash()));
+
+        transactionService.deleteTransaction(second.getId(), user.getUserId());
+        assertFalse(imageBlobRepository.existsById(first.getImageHash()));
+    }
+
+    @Test
+    @DisplayName("DB-13: deleteBankAccount - Should release the blobs of the account's transactions but keep shared ones")
+    void shouldReleaseBlobsOfDeletedAccount() throws Exception {
+        // Given
+        byte[] shared = newImage();
+        Transaction own = upload(accounts.get(0), newImage());
+        Transaction sharedHere = upload(accounts.get(0), shared);
+        upload(accounts.get(1), shared);
+
+        // When
+        bankAccountService.deleteBankAccount(bankAccountRepository.findById(accounts.get(0).getId()).orElseThrow());
+
+        // Then
+        assertFalse(imageBlobRepository.existsById(own.getImageHash()));
+        assertTrue(imageBlobRepository.existsById(sharedHere.getImageHash()));
+    }
+
+    @Test
+    @DisplayName("DB-14: deleteTransaction/saveTransactionWithImage - A concurrent re-upload should never point at a deleted blob")
+    void concurrentReuploadShouldKeepBlob() throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(2);
+        try {
+            for (int round = 0; round < 10; round++) {
+                // Given - una única transacción usa el blob
+                byte[] image = newImage();
+                Transaction existing = upload(accounts.get(0), image);
+                CountDownLatch start = new CountDownLatch(1);
+
+                // When - se borra a la vez que otra transacción sube la misma imagen
+                Future<?> delete = pool.submit(() -> {
+                    start.await();
+                    transactionService.deleteTransaction(existing.getId(), user.getUserId());
+                    return null;
+                });
+                Future<Transaction> reupload = pool.submit(() -> {
+                    start.await();
+                    return upload(accounts.get(0), image);
+                });
+                start.countDown();
+                delete.get(30, TimeUnit.SECONDS);
+                Transaction uploaded = reupload.get(30, TimeUnit.SECONDS);
+
+                // Then
+                assertTrue(imageBlobRepository.existsById(uploaded.getImageHash()), "round " + round);
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+}
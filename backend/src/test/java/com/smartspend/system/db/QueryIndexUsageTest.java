@@ -0,0 +1,166 @@
+package com.smartspend.system.db;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import com.smartspend.migration.V3__MoveLegacyImagesToBlobStore;
+import com.smartspend.migration.V8__IndexTransactionSearchTerms;
+
+/**
+ * Aplica las migraciones de Flyway sobre H2 en modo MySQL y comprueba con EXPLAIN que las
+ * consultas frecuentes usan el índice compuesto previsto. Las sentencias son el SQL que
+ * genera Hibernate para cada método de repositorio, con los mismos predicados y orden.
+ */
+public class QueryIndexUsageTest {
+
+    private static final String URL = "jdbc:h2:mem:index_usage;DB_CLOSE_DELAY=-1;MODE=MySQL";
+
+    private static Connection connection;
+
+    @BeforeAll
+    static void migrate() throws SQLException {
+        Flyway.configure()
+            .dataSource(URL, "sa", "")
+            .locations("classpath:db/migration")
+            .javaMigrations(new V3__MoveLegacyImagesToBlobStore(), new V8__IndexTransactionSearchTerms())
+            .load()
+            .migrate();
+        connection = DriverManager.getConnection(URL, "sa", "");
+        seed();
+    }
+
+    // Con tablas vacías todos los índices cuestan lo mismo para el optimizador: se carga un
+    // volumen con la forma de los datos reales (varias cuentas, categorías y años) y se analiza
+    private static void seed() throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("INSERT INTO users (user_email, user_hashed_password, user_name) "
+                + "SELECT CONCAT('user', X, '@mail.com'), 'x', CONCAT('user', X) FROM SYSTEM_RANGE(1, 200)");
+            statement.execute("INSERT INTO bank_accounts (account_name, created_at, current_balance, user_id) "
+                + "SELECT CONCAT('Cuenta ', X), CURRENT_TIMESTAMP, 0, MOD(X, 200) + 1 FROM SYSTEM_RANGE(1, 20)");
+            statement.execute("INSERT INTO categories (color, icon, is_default, name, type, user_id) "
+                + "SELECT '#000000', 'x', X <= 5, CONCAT('Cat ', X), CASE WHEN MOD(X, 2) = 0 THEN 'INCOME' ELSE 'EXPENSE' END, "
+                + "CASE WHEN X <= 5 THEN NULL ELSE MOD(X, 200) + 1 END FROM SYSTEM_RANGE(1, 40)");
+            statement.execute("INSERT INTO transactions (amount, date, title, type, recurrence, is_recurring_series_parent, "
+                + "next_recurrence_date, account_id, category_id, image_hash) "
+                + "SELECT 10, DATEADD('DAY', -MOD(X, 1500), DATE '2025-06-30'), 'T', "
+                + "CASE WHEN MOD(X, 3) = 0 THEN 'INCOME' ELSE 'EXPENSE' END, "
+                + "CASE WHEN MOD(X, 50) = 0 THEN 'MONTHLY' ELSE 'NONE' END, MOD(X, 50) = 0, "
+                + "CASE WHEN MOD(X, 50) = 0 THEN DATE '2025-07-01' END, MOD(X, 20) + 1, MOD(X, 40) + 1, "
+                + "CASE WHEN MOD(X, 10) = 0 THEN CONCAT('hash', X) END FROM SYSTEM_RANGE(1, 20000)");
+            statement.execute("INSERT INTO account_daily_ledger (account_id, entry_date, type, category_id, total, transaction_count) "
+                + "SELECT account_id, date, type, category_id, SUM(amount), COUNT(*) FROM transactions "
+                + "GROUP BY account_id, date, type, category_id");
+            statement.execute("INSERT INTO transaction_search_terms (transaction_id, term, account_id, weight) "
+                + "SELECT id, CONCAT('term', MOD(id, 700)), account_id, 2 FROM transactions");
+            statement.execute("ANALYZE");
+        }
+    }
+
+    @AfterAll
+    static void close() throws SQLException {
+        connection.close();
+    }
+
+    private static void assertUsesIndex(String sql, String indexName) throws SQLException {
+        StringBuilder plan = new StringBuilder();
+        try (Statement statement = connection.createStatement();
+             ResultSet rows = statement.executeQuery("EXPLAIN " + sql)) {
+            while (rows.next()) {
+                plan.append(rows.getString(1));
+            }
+        }
+        assertTrue(plan.toString().toUpperCase().contains(indexName.toUpperCase()),
+            "Expected index " + indexName + " in plan:\n" + plan);
+    }
+
+    @Test
+    @DisplayName("DB-1: findBalanceUpToDate - Should range-scan the account/date index")
+    void balanceUpToDateUsesAccountDateIndex() throws SQLException {
+        assertUsesIndex(
+            "SELECT SUM(CASE WHEN type = 'INCOME' THEN amount ELSE -amount END) FROM transactions "
+                + "WHERE account_id = 1 AND date <= DATE '2024-12-31'",
+            "idx_transactions_account_date_id");
+    }
+
+    @Test
+    @DisplayName("DB-2: keyset page - Should seek on the account/date index after the cursor")
+    void keysetPageUsesAccountDateIndex() throws SQLException {
+        assertUsesIndex(
+            "SELECT * FROM transactions WHERE account_id = 1 AND date <= DATE '2025-03-10' "
+                + "AND (date < DATE '2025-03-10' OR (date = DATE '2025-03-10' AND id < 80)) "
+                + "ORDER BY date DESC, id DESC FETCH FIRST 21 ROWS ONLY",
+            "idx_transactions_account_date_id");
+    }
+
+    @Test
+    @DisplayName("DB-3: findByAccountAndDateRangeAndType - Should use the account/type/date index")
+    void dateRangeByTypeUsesTypeIndex() throws SQLException {
+        assertUsesIndex(
+            "SELECT * FROM transactions WHERE account_id = 1 AND type = 'EXPENSE' "
+                + "AND date BETWEEN DATE '2025-01-01' AND DATE '2025-01-31' ORDER BY date",
+            "idx_transactions_account_type_date");
+    }
+
+    @Test
+    @DisplayName("DB-4: category filter - Should use the account/category/date index")
+    void categoryFilterUsesCategoryIndex() throws SQLException {
+        assertUsesIndex(
+            "SELECT * FROM transactions WHERE account_id = 1 AND category_id = 5 ORDER BY date DESC",
+            "idx_transactions_account_category_date");
+    }
+
+    @Test
+    @DisplayName("DB-5: findPendingRecurringTransactions - Should range-scan next_recurrence_date")
+    void recurringScanUsesNextDateIndex() throws SQLException {
+        assertUsesIndex(
+            "SELECT * FROM transactions WHERE is_recurring_series_parent = TRUE "
+                + "AND recurrence <> 'NONE' AND next_recurrence_date <= DATE '2025-03-10'",
+            "idx_transactions_recurring_next_date");
+    }
+
+    @Test
+    @DisplayName("DB-6: existsByImageHash - Should use the image hash index")
+    void imageReferenceCheckUsesHashIndex() throws SQLException {
+        assertUsesIndex(
+            "SELECT id FROM transactions WHERE image_hash = 'abc' FETCH FIRST 1 ROWS ONLY",
+            "idx_transactions_image_hash");
+    }
+
+    @Test
+    @DisplayName("DB-7: findByUserEmail - Should use the email index")
+    void loginUsesEmailIndex() throws SQLException {
+        assertUsesIndex(
+            "SELECT * FROM users WHERE user_email = 'administrator@gmail.com'",
+            "idx_users_email");
+    }
+
+    @Test
+    @DisplayName("DB-8: ledger daily totals - Should use the ledger unique key")
+    void ledgerRangeUsesUniqueKey() throws SQLException {
+        assertUsesIndex(
+            "SELECT entry_date, type, SUM(total) FROM account_daily_ledger WHERE account_id = 1 "
+                + "AND entry_date BETWEEN DATE '2025-01-01' AND DATE '2025-12-31' GROUP BY entry_date, type",
+            "uk_ledger_account_date_type_category");
+    }
+
+    @Test
+    @DisplayName("DB-9: text search - Should range-scan the account/term index for a prefix")
+    void textSearchUsesTermIndex() throws SQLException {
+        assertUsesIndex(
+            "SELECT transaction_id, SUM(weight) AS score FROM transaction_search_terms "
+                + "WHERE account_id = 1 AND (term LIKE 'term12%') GROUP BY transaction_id "
+                + "ORDER BY score DESC, transaction_id DESC LIMIT 20",
+            "idx_search_terms_account_term");
+    }
+}
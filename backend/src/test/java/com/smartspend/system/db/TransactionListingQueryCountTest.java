@@ -0,0 +1,162 @@
+package com.smartspend.system.db;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Supplier;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.test.context.ActiveProfiles;
+
+import com.smartspend.bankAccount.BankAccount;
+import com.smartspend.bankAccount.BankAccountRepository;
+import com.smartspend.category.Category;
+import com.smartspend.category.CategoryReferenceCache;
+import com.smartspend.category.CategoryRepository;
+import com.smartspend.transaction.Recurrence;
+import com.smartspend.transaction.TotalCount;
+import com.smartspend.transaction.Transaction;
+import com.smartspend.transaction.TransactionRepository;
+import com.smartspend.transaction.TransactionService;
+import com.smartspend.transaction.TransactionType;
+import com.smartspend.user.User;
+import com.smartspend.user.UserRepository;
+
+import jakarta.persistence.EntityManagerFactory;
+
+/**
+ * Cuenta con las estadísticas de Hibernate las sentencias SQL de cada listado de transacciones:
+ * una página cuesta lo mismo tenga 3 filas o 10, y ninguna fila dispara SELECTs de su cuenta o
+ * su categoría.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE, properties = {
+    "jwt.secret=cXVlcnktY291bnQtdGVzdC1zZWNyZXQta2V5LTI1Ni1iaXRzLWxvbmctZW5vdWdo",
+    "spring.jpa.properties.hibernate.generate_statistics=true"
+})
+@ActiveProfiles("test")
+public class TransactionListingQueryCountTest {
+
+    private static final int CATEGORIES = 4;
+    private static final int TRANSACTIONS = 12;
+    private static final Sort BY_DATE = Sort.by(Sort.Direction.DESC, "date");
+
+    @Autowired
+    private TransactionService transactionService;
+
+    @Autowired
+    private TransactionRepository transactionRepository;
+
+    @Autowired
+    private BankAccountRepository bankAccountRepository;
+
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private CategoryReferenceCache categoryCache;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+    private User user;
+    private BankAccount account;
+    private List<Category> categories = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+
+        user = userRepository.save(new User("querycount", "querycount@example.com", "x"));
+        account = bankAccountRepository.save(new BankAccount(user, "Query Count Account", new BigDecimal("100.00")));
+        for (int index = 0; index < CATEGORIES; index++) {
+            categories.add(categoryRepository.save(
+                new Category("QC " + index, "Query count", "#000000", TransactionType.EXPENSE, user, "x")));
+        }
+
+        // Cada categoría aparece en todas las páginas: sin caché de referencia serían 4 SELECTs por página
+        List<Transaction> transactions = new ArrayList<>();
+        for (int index = 0; index < TRANSACTIONS; index++) {
+            transactions.add(new Transaction("QC " + index, null, new BigDecimal("1.00"), LocalDate.of(2025, 5, 1 + index),
+                TransactionType.EXPENSE, categories.get(index % CATEGORIES), Recurrence.NONE, account));
+        }
+        transactionRepository.saveAll(transactions);
+        categoryCache.clear();
+    }
+
+    @AfterEach
+    void tearDown() {
+        transactionRepository.deleteAll(transactionRepository.findAll().stream()
+            .filter(transaction -> transaction.getAccount().getId().equals(account.getId()))
+            .toList());
+        bankAccountRepository.deleteById(account.getId());
+        categoryRepository.deleteAll(categories);
+        userRepository.deleteById(user.getUserId());
+    }
+
+    private long statementsOf(Supplier<?> listing) {
+        statistics.clear();
+        listing.get();
+        assertEquals(0, statistics.getEntityFetchCount(), "secondary selects for lazy or eager associations");
+        return statistics.getPrepareStatementCount();
+    }
+
+    @Test
+    @DisplayName("QC-1: getTransactionsByAccount - A page should cost the same statements whatever its size")
+    void pageShouldCostConstantStatements() {
+        Long accountId = account.getId();
+        Long userId = user.getUserId();
+
+        // Given - la primera página carga sus cuatro categorías en una sola consulta
+        long cold = statementsOf(() -> transactionService.getTransactionsByAccount(
+            accountId, userId, null, null, null, null, null, null, null, PageRequest.of(0, 10, BY_DATE)));
+
+        // When
+        long small = statementsOf(() -> transactionService.getTransactionsByAccount(
+            accountId, userId, null, null, null, null, null, null, null, PageRequest.of(1, 3, BY_DATE)));
+        long large = statementsOf(() -> transactionService.getTransactionsByAccount(
+            accountId, userId, null, null, null, null, null, null, null, PageRequest.of(0, 10, BY_DATE)));
+
+        // Then - propietario de la cuenta, página y count (más las categorías la primera vez)
+        assertEquals(4, cold);
+        assertEquals(3, small);
+        assertEquals(3, large);
+    }
+
+    @Test
+    @DisplayName("QC-2: listings - Slice, keyset, recent and per-user listings should cost constant statements")
+    void otherListingsShouldCostConstantStatements() {
+        Long accountId = account.getId();
+        Long userId = user.getUserId();
+        categoryCache.getAll(categories.stream().map(Category::getId).toList());
+
+        // When
+        long slice = statementsOf(() -> transactionService.getTransactionsByAccount(
+            accountId, userId, null, null, null, null, null, null, null, PageRequest.of(0, 10, BY_DATE), TotalCount.NONE));
+        long keyset = statementsOf(() -> transactionService.getTransactionsByAccountAfter(
+            accountId, userId, null, 10, null, null, null, null, null, null, null));
+        long recent = statementsOf(() -> transactionService.getRecentTransactionsByAccount(accountId, 10, userId));
+        long all = statementsOf(() -> transactionService.findAll(userId));
+
+        // Then - propietario de la cuenta y página; findAll no comprueba cuenta
+        assertEquals(2, slice);
+        assertEquals(2, keyset);
+        assertEquals(2, recent);
+        assertEquals(1, all);
+    }
+}
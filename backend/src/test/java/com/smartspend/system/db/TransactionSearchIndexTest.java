@@ -0,0 +1,183 @@
+package com.smartspend.system.db;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.smartspend.bankAccount.BankAccount;
+import com.smartspend.migration.V3__MoveLegacyImagesToBlobStore;
+import com.smartspend.migration.V8__IndexTransactionSearchTerms;
+import com.smartspend.transaction.Transaction;
+import com.smartspend.transaction.search.SearchTerms;
+import com.smartspend.transaction.search.TransactionSearchIndex;
+
+/**
+ * Ejecuta el índice de búsqueda contra el esquema real de Flyway en H2 (modo MySQL): las
+ * consultas son SQL escrito a mano y tienen que funcionar igual que en MySQL.
+ */
+public class TransactionSearchIndexTest {
+
+    private static final String URL = "jdbc:h2:mem:search_index;DB_CLOSE_DELAY=-1;MODE=MySQL";
+
+    private static JdbcTemplate jdbcTemplate;
+
+    private TransactionSearchIndex searchIndex;
+
+    @BeforeAll
+    static void migrate() {
+        Flyway.configure()
+            .dataSource(URL, "sa", "")
+            .locations("classpath:db/migration")
+            .javaMigrations(new V3__MoveLegacyImagesToBlobStore(), new V8__IndexTransactionSearchTerms())
+            .load()
+            .migrate();
+        jdbcTemplate = new JdbcTemplate(new DriverManagerDataSource(URL, "sa", ""));
+        jdbcTemplate.update("INSERT INTO users (user_id, user_email, user_hashed_password, user_name) VALUES (1, 'search@mail.com', 'x', 'search')");
+        jdbcTemplate.update("INSERT INTO bank_accounts (id, account_name, created_at, current_balance, user_id) VALUES (1, 'Cuenta 1', CURRENT_TIMESTAMP, 0, 1)");
+        jdbcTemplate.update("INSERT INTO bank_accounts (id, account_name, created_at, current_balance, user_id) VALUES (2, 'Cuenta 2', CURRENT_TIMESTAMP, 0, 1)");
+        jdbcTemplate.update("INSERT INTO categories (id, color, icon, is_default, name, type, user_id) VALUES (1, '#000000', 'x', TRUE, 'Cat', 'INCOME', NULL)");
+    }
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate.update("DELETE FROM transaction_search_terms");
+        jdbcTemplate.update("DELETE FROM transactions");
+        searchIndex = new TransactionSearchIndex();
+        ReflectionTestUtils.setField(searchIndex, "jdbcTemplate", jdbcTemplate);
+    }
+
+    private long insert(long id, long accountId, String title, String description) {
+        jdbcTemplate.update("INSERT INTO transactions (id, amount, date, title, description, type, recurrence, "
+            + "is_recurring_series_parent, account_id, category_id) VALUES (?, 10, ?, ?, ?, 'INCOME', 'NONE', FALSE, ?, 1)",
+            id, LocalDate.of(2025, 6, 1), title, description, accountId);
+        return id;
+    }
+
+    private void index(long id, long accountId, String title, String description) {
+        insert(id, accountId, title, description);
+        BankAccount account = new BankAccount();
+        account.setId(accountId);
+        searchIndex.index(Transaction.builder().id(id).title(title).description(description)
+            .amount(BigDecimal.TEN).account(account).build());
+    }
+
+    private List<Long> search(long accountId, String query) {
+        return searchIndex.search(accountId, query, 20).stream().map(TransactionSearchIndex.Match::transactionId).toList();
+    }
+
+    @Test
+    @DisplayName("SR-1: tokenize - Should lowercase, strip accents and split on punctuation")
+    void shouldNormalizeTerms() {
+        assertEquals(List.of("nomina", "enero", "cafe", "credito"), SearchTerms.tokenize("Nómina ENERO - café/crédito"));
+        assertEquals(List.of("pinguino", "ano"), SearchTerms.tokenize("Pingüino año"));
+        assertTrue(SearchTerms.tokenize("  ¡! ").isEmpty());
+    }
+
+    @Test
+    @DisplayName("SR-2: search - Should match accent-insensitive prefixes")
+    void shouldMatchAccentInsensitivePrefixes() {
+        // Given
+        index(1, 1, "Nómina enero", null);
+        index(2, 1, "Supermercado", "Compra semanal");
+
+        // When / Then
+        assertEquals(List.of(1L), search(1, "nomi"));
+        assertEquals(List.of(1L), search(1, "NÓMINA"));
+        assertEquals(List.of(2L), search(1, "semana"));
+        assertEquals(List.of(), search(1, "mina"));
+    }
+
+    @Test
+    @DisplayName("SR-3: search - Should require every query term and stay within the account")
+    void shouldRequireAllTermsInAccount() {
+        // Given
+        index(1, 1, "Recibo luz", "Enero");
+        index(2, 1, "Recibo agua", "Enero");
+        index(3, 2, "Recibo luz", "Enero");
+
+        // When / Then
+        assertEquals(List.of(1L), search(1, "recibo luz"));
+        assertEquals(List.of(3L), search(2, "luz ene"));
+    }
+
+    @Test
+    @DisplayName("SR-4: search - Should rank by matched weight, exact words counting double, newest first on ties")
+    void shouldOrderByRelevance() {
+        // Given
+        index(1, 1, "Cafetería", "Desayuno");
+        index(2, 1, "Desayuno", "Café con leche");
+        index(3, 1, "Café", "Desayuno");
+
+        // When
+        List<TransactionSearchIndex.Match> matches = searchIndex.search(1L, "cafe", 20);
+
+        // Then - título exacto (2 + 2); descripción exacta (1 + 1) y prefijo en el título (2)
+        // empatan y va primero la más reciente
+        assertEquals(List.of(3L, 2L, 1L), matches.stream().map(TransactionSearchIndex.Match::transactionId).toList());
+        assertEquals(List.of(4, 2, 2), matches.stream().map(TransactionSearchIndex.Match::score).toList());
+    }
+
+    @Test
+    @DisplayName("SR-5: index/remove - Should replace terms on edit and drop them on delete")
+    void shouldReindexAndRemove() {
+        // Given
+        index(1, 1, "Gimnasio", null);
+
+        // When
+        BankAccount account = new BankAccount();
+        account.setId(1L);
+        searchIndex.index(Transaction.builder().id(1L).title("Piscina").amount(BigDecimal.TEN).account(account).build());
+
+        // Then
+        assertEquals(List.of(), search(1, "gimnasio"));
+        assertEquals(List.of(1L), search(1, "piscina"));
+        searchIndex.remove(1L);
+        assertEquals(List.of(), search(1, "piscina"));
+    }
+
+    @Test
+    @DisplayName("SR-6: indexUnindexed - Should index rows inserted without the index only once")
+    void shouldIndexBatchInsertedRows() {
+        // Given - filas insertadas por JDBC como en la importación o el catch-up de recurrentes
+        index(1, 1, "Alquiler", null);
+        insert(2, 1, "Alquiler junio", null);
+        insert(3, 1, "Seguro hogar", null);
+
+        // When
+        int first = searchIndex.indexUnindexed(1L, List.of(LocalDate.of(2025, 6, 1)));
+        int second = searchIndex.indexUnindexed(1L, List.of(LocalDate.of(2025, 6, 1)));
+
+        // Then
+        assertEquals(2, first);
+        assertEquals(0, second);
+        assertEquals(List.of(2L, 1L), search(1, "alquiler"));
+        assertEquals(List.of(3L), search(1, "hogar"));
+    }
+
+    @Test
+    @DisplayName("SR-7: search - Should find exact titles containing one-letter words")
+    void shouldIgnoreOneLetterWordsAmongLongerTerms() {
+        // Given - "y" y "a" no se indexan
+        index(1, 1, "Luz y gas", null);
+        index(2, 1, "Pago a Juan", null);
+        index(3, 1, "Agua", null);
+
+        // When / Then
+        assertEquals(List.of("luz", "gas"), SearchTerms.queryTerms("luz y gas"));
+        assertEquals(List.of(1L), search(1, "luz y gas"));
+        assertEquals(List.of(2L), search(1, "Pago a Juan"));
+        // Sola, una letra sigue valiendo como prefijo
+        assertEquals(List.of(3L), search(1, "a"));
+    }
+}
@@ -12,14 +12,21 @@ import java.util.Optional;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.springframework.context.ApplicationEventPublisher;
 
 import com.smartspend.bankAccount.BankAccount;
 import com.smartspend.bankAccount.BankAccountRepository;
 import com.smartspend.bankAccount.BankAccountService;
 import com.smartspend.bankAccount.dtos.CreateBankAccountDTO;
+import com.smartspend.image.ImageCleanupService;
+import com.smartspend.ledger.LedgerService;
+import com.smartspend.transaction.TransactionChangedEvent;
+import com.smartspend.transaction.TransactionRepository;
+import com.smartspend.transaction.search.TransactionSearchIndex;
 import com.smartspend.user.User;
 import com.smartspend.user.UserRepository;
 
@@ -31,6 +38,21 @@ public class BankAccountServiceTest {
     @Mock
     private UserRepository userRepository;
 
+    @Mock
+    private LedgerService ledgerService;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Mock
+    private TransactionSearchIndex searchIndex;
+
+    @Mock
+    private TransactionRepository transactionRepository;
+
+    @Mock
+    private ImageCleanupService imageCleanupService;
+
     @InjectMocks
     private BankAccountService bankAccountService;
 
@@ -54,11 +76,11 @@ public class BankAccountServiceTest {
         savedAccount.setId(1L);
         
         // When - Configure mocks
-        when(userRepository.findByUserEmail("test@example.com")).thenReturn(Optional.of(testUser));
+        when(userRepository.findById(1L)).thenReturn(Optional.of(testUser));
         when(bankAccountRepository.save(any(BankAccount.class))).thenReturn(savedAccount);
         
         // When - Execute
-        BankAccount result = bankAccountService.createBankAccount(accountDto, "test@example.com");
+        BankAccount result = bankAccountService.createBankAccount(accountDto, 1L);
         
         // Then
         assertNotNull(result);
@@ -83,11 +105,11 @@ public class BankAccountServiceTest {
         savedAccount.setId(1L);
         
         // When - Configure mocks
-        when(userRepository.findByUserEmail("test@example.com")).thenReturn(Optional.of(testUser));
+        when(userRepository.findById(1L)).thenReturn(Optional.of(testUser));
         when(bankAccountRepository.save(any(BankAccount.class))).thenReturn(savedAccount);
         
         // When - Execute
-        BankAccount result = bankAccountService.createBankAccount(accountDto, "test@example.com");
+        BankAccount result = bankAccountService.createBankAccount(accountDto, 1L);
         
         // Then
         assertNotNull(result);
@@ -110,11 +132,10 @@ public class BankAccountServiceTest {
         List<BankAccount> userAccounts = List.of(account1, account2);
         
         // When - Configure mocks
-        when(userRepository.findByUserEmail("test@example.com")).thenReturn(Optional.of(testUser));
         when(bankAccountRepository.findByUser_UserId(1L)).thenReturn(userAccounts);
         
         // When - Execute
-        List<BankAccount> result = bankAccountService.getUserBankAccountsByEmail("test@example.com");
+        List<BankAccount> result = bankAccountService.getUserBankAccounts(1L);
         
         // Then
         assertNotNull(result);
@@ -135,13 +156,12 @@ public class BankAccountServiceTest {
         BankAccount otherUserAccount = new BankAccount(otherUser, "Other Account", BigDecimal.ZERO);
         
         // When - Configure mocks
-        when(userRepository.findByUserEmail("test@example.com")).thenReturn(Optional.of(testUser));
         when(bankAccountRepository.findByIdAndUser_UserId(1L, 1L)).thenReturn(Optional.empty());
         
         // Then - Should throw exception
         RuntimeException exception = assertThrows(
             RuntimeException.class,
-            () -> bankAccountService.getBankAccountByIdAndEmail(1L, "test@example.com")
+            () -> bankAccountService.getBankAccountByIdAndUser(1L, 1L)
         );
         
         assertEquals("Bank account not found", exception.getMessage());
@@ -150,31 +170,36 @@ public class BankAccountServiceTest {
     @Test
     void shouldThrowExceptionWhenUserNotFound() {
         // Given - User doesn't exist
-        when(userRepository.findByUserEmail("nonexistent@example.com")).thenReturn(Optional.empty());
+        when(userRepository.findById(99L)).thenReturn(Optional.empty());
         
         // Then - Should throw exception for createBankAccount
-        RuntimeException exception1 = assertThrows(
+        RuntimeException exception = assertThrows(
             RuntimeException.class,
             () -> bankAccountService.createBankAccount(
                 new CreateBankAccountDTO("Test Account", BigDecimal.ZERO), 
-                "nonexistent@example.com"
+                99L
             )
         );
-        assertEquals("User not found", exception1.getMessage());
+        assertEquals("User not found", exception.getMessage());
+    }
+
+    @Test
+    void shouldReadAccountsWithoutLoadingTheUser() {
+        // Given - The user id comes from the JWT, so reads filter by it directly
+        when(bankAccountRepository.findByUser_UserId(99L)).thenReturn(List.of());
+        when(bankAccountRepository.findByIdAndUser_UserId(1L, 99L)).thenReturn(Optional.empty());
         
-        // Then - Should throw exception for getUserBankAccountsByEmail
-        RuntimeException exception2 = assertThrows(
+        // When
+        List<BankAccount> accounts = bankAccountService.getUserBankAccounts(99L);
+        RuntimeException exception = assertThrows(
             RuntimeException.class,
-            () -> bankAccountService.getUserBankAccountsByEmail("nonexistent@example.com")
+            () -> bankAccountService.getBankAccountByIdAndUser(1L, 99L)
         );
-        assertEquals("User not found", exception2.getMessage());
         
-        // Then - Should throw exception for getBankAccountByIdAndEmail
-        RuntimeException exception3 = assertThrows(
-            RuntimeException.class,
-            () -> bankAccountService.getBankAccountByIdAndEmail(1L, "nonexistent@example.com")
-        );
-        assertEquals("User not found", exception3.getMessage());
+        // Then
+        assertTrue(accounts.isEmpty());
+        assertEquals("Bank account not found", exception.getMessage());
+        verifyNoInteractions(userRepository);
     }
 
     @Test
@@ -188,20 +213,40 @@ public class BankAccountServiceTest {
         
         // Then - Verify account was deleted
         verify(bankAccountRepository).delete(account);
+        verify(ledgerService).deleteAccount(account.getId());
+        verify(eventPublisher).publishEvent(TransactionChangedEvent.allDates(1L));
+    }
+
+    @Test
+    void shouldReleaseTransactionImagesWhenDeletingBankAccount() {
+        // Given
+        BankAccount account = new BankAccount(testUser, "Test Account", BigDecimal.ZERO);
+        account.setId(1L);
+        when(transactionRepository.findImageHashesByAccountId(1L)).thenReturn(List.of("b", "a"));
+        when(imageCleanupService.lock(List.of("b", "a"))).thenReturn(List.of("a", "b"));
+
+        // When
+        bankAccountService.deleteBankAccount(account);
+
+        // Then - blobs bloqueados antes de borrar la cuenta y liberados después
+        InOrder inOrder = inOrder(imageCleanupService, bankAccountRepository);
+        inOrder.verify(imageCleanupService).lock(List.of("b", "a"));
+        inOrder.verify(bankAccountRepository).delete(account);
+        inOrder.verify(imageCleanupService).releaseIfUnused("a");
+        inOrder.verify(imageCleanupService).releaseIfUnused("b");
     }
 
     @Test
-    void shouldGetBankAccountByIdAndEmailSuccessfully() {
+    void shouldGetBankAccountByIdAndUserSuccessfully() {
         // Given
         BankAccount account = new BankAccount(testUser, "Test Account", new BigDecimal("500.00"));
         account.setId(1L);
         
         // When - Configure mocks
-        when(userRepository.findByUserEmail("test@example.com")).thenReturn(Optional.of(testUser));
         when(bankAccountRepository.findByIdAndUser_UserId(1L, 1L)).thenReturn(Optional.of(account));
         
         // When - Execute
-        BankAccount result = bankAccountService.getBankAccountByIdAndEmail(1L, "test@example.com");
+        BankAccount result = bankAccountService.getBankAccountByIdAndUser(1L, 1L);
         
         // Then
         assertNotNull(result);
@@ -221,11 +266,11 @@ public class BankAccountServiceTest {
         savedAccount.setId(1L);
         
         // When - Configure mocks
-        when(userRepository.findByUserEmail("test@example.com")).thenReturn(Optional.of(testUser));
+        when(userRepository.findById(1L)).thenReturn(Optional.of(testUser));
         when(bankAccountRepository.save(any(BankAccount.class))).thenReturn(savedAccount);
         
         // When - Execute
-        BankAccount result = bankAccountService.createBankAccount(accountDto, "test@example.com");
+        BankAccount result = bankAccountService.createBankAccount(accountDto, 1L);
         
         // Then
         assertNotNull(result);
@@ -3,27 +3,29 @@ package com.smartspend.unit.service;
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
 
+import java.time.Duration;
 import java.util.ArrayList;
 import java.util.List;
-import java.util.Optional;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.springframework.test.util.ReflectionTestUtils;
 
 import com.smartspend.category.Category;
+import com.smartspend.category.CategoryCatalog;
+import com.smartspend.category.CategoryChangedEvent;
 import com.smartspend.category.CategoryRepository;
 import com.smartspend.category.CategoryService;
+import com.smartspend.category.dtos.CategoryDto;
 import com.smartspend.transaction.TransactionType;
 import com.smartspend.user.User;
-import com.smartspend.user.UserRepository;
 
-public class CategoryServiceTest {
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 
-    @Mock
-    private UserRepository userRepository;
+public class CategoryServiceTest {
 
     @Mock
     private CategoryRepository categoryRepository;
@@ -31,6 +33,8 @@ public class CategoryServiceTest {
     @InjectMocks
     private CategoryService categoryService;
 
+    private CategoryCatalog categoryCatalog;
+
     private User testUser;
     private Category systemIncomeCategory;
     private Category systemExpenseCategory;
@@ -40,6 +44,11 @@ public class CategoryServiceTest {
     void setUp() {
         MockitoAnnotations.openMocks(this);
         
+        // Real catalog over the mocked repository
+        categoryCatalog = new CategoryCatalog(100, Duration.ofMinutes(10), new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(categoryCatalog, "categoryRepository", categoryRepository);
+        ReflectionTestUtils.setField(categoryService, "categoryCatalog", categoryCatalog);
+        
         testUser = new User("testuser", "test@example.com", "hashedpassword");
         testUser.setUserId(1L);
         
@@ -62,68 +71,55 @@ public class CategoryServiceTest {
         List<Category> userCategories = List.of(userCustomCategory);
         
         // When - Configure mocks
-        when(userRepository.findByUserEmail("test@example.com")).thenReturn(Optional.of(testUser));
         when(categoryRepository.findByIsDefaultTrueAndType(TransactionType.INCOME)).thenReturn(systemCategories);
-        when(categoryRepository.findByUserUserIdAndType(1L, TransactionType.INCOME)).thenReturn(userCategories);
+        when(categoryRepository.findByUserUserId(1L)).thenReturn(userCategories);
         
         // When - Execute
-        List<Category> result = categoryService.getCategoriesForDropdown("test@example.com", TransactionType.INCOME);
+        List<CategoryDto> result = categoryService.getCategoriesForDropdown(1L, TransactionType.INCOME);
         
         // Then
         assertNotNull(result);
         assertEquals(2, result.size());
         
         // Should contain both system and user categories
-        assertTrue(result.contains(systemIncomeCategory));
-        assertTrue(result.contains(userCustomCategory));
+        assertTrue(result.contains(CategoryDto.from(systemIncomeCategory)));
+        assertTrue(result.contains(CategoryDto.from(userCustomCategory)));
         
         // Verify correct repository calls
         verify(categoryRepository).findByIsDefaultTrueAndType(TransactionType.INCOME);
-        verify(categoryRepository).findByUserUserIdAndType(1L, TransactionType.INCOME);
+        verify(categoryRepository).findByUserUserId(1L);
     }
 
     @Test
     void shouldFilterCategoriesByType() {
         // Given
-        List<Category> systemExpenseCategories = List.of(systemExpenseCategory);
-        List<Category> userExpenseCategories = new ArrayList<>(); // No user custom expense categories
-        
-        // When - Configure mocks for EXPENSE type
-        when(userRepository.findByUserEmail("test@example.com")).thenReturn(Optional.of(testUser));
-        when(categoryRepository.findByIsDefaultTrueAndType(TransactionType.EXPENSE)).thenReturn(systemExpenseCategories);
-        when(categoryRepository.findByUserUserIdAndType(1L, TransactionType.EXPENSE)).thenReturn(userExpenseCategories);
+        when(categoryRepository.findByIsDefaultTrueAndType(TransactionType.INCOME)).thenReturn(List.of(systemIncomeCategory));
+        when(categoryRepository.findByIsDefaultTrueAndType(TransactionType.EXPENSE)).thenReturn(List.of(systemExpenseCategory));
+        when(categoryRepository.findByUserUserId(1L)).thenReturn(List.of(userCustomCategory)); // Only an INCOME custom category
         
         // When - Execute
-        List<Category> result = categoryService.getCategoriesForDropdown("test@example.com", TransactionType.EXPENSE);
+        List<CategoryDto> result = categoryService.getCategoriesForDropdown(1L, TransactionType.EXPENSE);
         
         // Then
         assertNotNull(result);
         assertEquals(1, result.size());
-        assertEquals(systemExpenseCategory, result.get(0));
-        assertEquals(TransactionType.EXPENSE, result.get(0).getType());
-        
-        // Verify it only requested EXPENSE categories
-        verify(categoryRepository).findByIsDefaultTrueAndType(TransactionType.EXPENSE);
-        verify(categoryRepository).findByUserUserIdAndType(1L, TransactionType.EXPENSE);
-        verify(categoryRepository, never()).findByIsDefaultTrueAndType(TransactionType.INCOME);
+        assertEquals(CategoryDto.from(systemExpenseCategory), result.get(0));
+        assertEquals(TransactionType.EXPENSE, result.get(0).type());
     }
 
     @Test
-    void shouldThrowExceptionWhenUserNotFound() {
-        // Given - User doesn't exist
-        when(userRepository.findByUserEmail("nonexistent@example.com")).thenReturn(Optional.empty());
+    void shouldReturnOnlySystemCategoriesForUserWithoutCustomOnes() {
+        // Given - The user id comes from the JWT; an id without custom categories gets the system ones
+        when(categoryRepository.findByIsDefaultTrueAndType(TransactionType.INCOME)).thenReturn(List.of(systemIncomeCategory));
+        when(categoryRepository.findByUserUserId(99L)).thenReturn(List.of());
         
-        // Then - Should throw exception
-        RuntimeException exception = assertThrows(
-            RuntimeException.class,
-            () -> categoryService.getCategoriesForDropdown("nonexistent@example.com", TransactionType.INCOME)
-        );
+        // When
+        List<CategoryDto> result = categoryService.getCategoriesForDropdown(99L, TransactionType.INCOME);
         
-        assertEquals("User not found", exception.getMessage());
-        
-        // Verify no category repository calls were made
-        verify(categoryRepository, never()).findByIsDefaultTrueAndType(any());
-        verify(categoryRepository, never()).findByUserUserIdAndType(anyLong(), any());
+        // Then
+        assertEquals(1, result.size());
+        assertEquals(CategoryDto.from(systemIncomeCategory), result.get(0));
+        verify(categoryRepository).findByUserUserId(99L);
     }
 
     @Test
@@ -133,18 +129,17 @@ public class CategoryServiceTest {
         List<Category> emptyUserCategories = new ArrayList<>();
         
         // When - Configure mocks
-        when(userRepository.findByUserEmail("test@example.com")).thenReturn(Optional.of(testUser));
         when(categoryRepository.findByIsDefaultTrueAndType(TransactionType.INCOME)).thenReturn(systemCategories);
-        when(categoryRepository.findByUserUserIdAndType(1L, TransactionType.INCOME)).thenReturn(emptyUserCategories);
+        when(categoryRepository.findByUserUserId(1L)).thenReturn(emptyUserCategories);
         
         // When - Execute
-        List<Category> result = categoryService.getCategoriesForDropdown("test@example.com", TransactionType.INCOME);
+        List<CategoryDto> result = categoryService.getCategoriesForDropdown(1L, TransactionType.INCOME);
         
         // Then
         assertNotNull(result);
         assertEquals(1, result.size());
-        assertEquals(systemIncomeCategory, result.get(0));
-        assertTrue(result.get(0).getIsDefault());
+        assertEquals(CategoryDto.from(systemIncomeCategory), result.get(0));
+        assertTrue(result.get(0).isDefault());
     }
 
     @Test
@@ -154,19 +149,17 @@ public class CategoryServiceTest {
         List<Category> userCategories = List.of(userCustomCategory);
         
         // When - Configure mocks
-        when(userRepository.findByUserEmail("test@example.com")).thenReturn(Optional.of(testUser));
         when(categoryRepository.findByIsDefaultTrueAndType(TransactionType.INCOME)).thenReturn(emptySystemCategories);
-        when(categoryRepository.findByUserUserIdAndType(1L, TransactionType.INCOME)).thenReturn(userCategories);
+        when(categoryRepository.findByUserUserId(1L)).thenReturn(userCategories);
         
         // When - Execute
-        List<Category> result = categoryService.getCategoriesForDropdown("test@example.com", TransactionType.INCOME);
+        List<CategoryDto> result = categoryService.getCategoriesForDropdown(1L, TransactionType.INCOME);
         
         // Then
         assertNotNull(result);
         assertEquals(1, result.size());
-        assertEquals(userCustomCategory, result.get(0));
-        assertFalse(result.get(0).getIsDefault());
-        assertEquals(testUser, result.get(0).getUser());
+        assertEquals(CategoryDto.from(userCustomCategory), result.get(0));
+        assertFalse(result.get(0).isDefault());
     }
 
     @Test
@@ -176,12 +169,11 @@ public class CategoryServiceTest {
         List<Category> emptyUserCategories = new ArrayList<>();
         
         // When - Configure mocks
-        when(userRepository.findByUserEmail("test@example.com")).thenReturn(Optional.of(testUser));
         when(categoryRepository.findByIsDefaultTrueAndType(TransactionType.INCOME)).thenReturn(emptySystemCategories);
-        when(categoryRepository.findByUserUserIdAndType(1L, TransactionType.INCOME)).thenReturn(emptyUserCategories);
+        when(categoryRepository.findByUserUserId(1L)).thenReturn(emptyUserCategories);
         
         // When - Execute
-        List<Category> result = categoryService.getCategoriesForDropdown("test@example.com", TransactionType.INCOME);
+        List<CategoryDto> result = categoryService.getCategoriesForDropdown(1L, TransactionType.INCOME);
         
         // Then
         assertNotNull(result);
@@ -192,27 +184,89 @@ public class CategoryServiceTest {
     void shouldMaintainOrderWithSystemCategoriesFirst() {
         // Given
         Category systemCategory1 = new Category("System 1", "First system category", "#color1", TransactionType.INCOME, "📈");
+        systemCategory1.setId(10L);
         Category systemCategory2 = new Category("System 2", "Second system category", "#color2", TransactionType.INCOME, "💼");
+        systemCategory2.setId(11L);
         Category userCategory1 = new Category("User 1", "First user category", "#color3", TransactionType.INCOME, testUser, "⭐");
+        userCategory1.setId(12L);
         Category userCategory2 = new Category("User 2", "Second user category", "#color4", TransactionType.INCOME, testUser, "🔥");
+        userCategory2.setId(13L);
         
         List<Category> systemCategories = List.of(systemCategory1, systemCategory2);
         List<Category> userCategories = List.of(userCategory1, userCategory2);
         
         // When - Configure mocks
-        when(userRepository.findByUserEmail("test@example.com")).thenReturn(Optional.of(testUser));
         when(categoryRepository.findByIsDefaultTrueAndType(TransactionType.INCOME)).thenReturn(systemCategories);
-        when(categoryRepository.findByUserUserIdAndType(1L, TransactionType.INCOME)).thenReturn(userCategories);
+        when(categoryRepository.findByUserUserId(1L)).thenReturn(userCategories);
         
         // When - Execute
-        List<Category> result = categoryService.getCategoriesForDropdown("test@example.com", TransactionType.INCOME);
+        List<CategoryDto> result = categoryService.getCategoriesForDropdown(1L, TransactionType.INCOME);
         
         // Then - System categories should appear first
         assertNotNull(result);
         assertEquals(4, result.size());
-        assertEquals(systemCategory1, result.get(0));
-        assertEquals(systemCategory2, result.get(1));
-        assertEquals(userCategory1, result.get(2));
-        assertEquals(userCategory2, result.get(3));
+        assertEquals("System 1", result.get(0).name());
+        assertEquals("System 2", result.get(1).name());
+        assertEquals("User 1", result.get(2).name());
+        assertEquals("User 2", result.get(3).name());
+    }
+
+    @Test
+    void shouldServeRepeatedDropdownsFromMemory() {
+        // Given
+        when(categoryRepository.findByIsDefaultTrueAndType(TransactionType.INCOME)).thenReturn(List.of(systemIncomeCategory));
+        when(categoryRepository.findByIsDefaultTrueAndType(TransactionType.EXPENSE)).thenReturn(List.of(systemExpenseCategory));
+        when(categoryRepository.findByUserUserId(1L)).thenReturn(List.of(userCustomCategory));
+        
+        // When - Both dropdowns, several times
+        for (int i = 0; i < 3; i++) {
+            categoryService.getCategoriesForDropdown(1L, TransactionType.INCOME);
+            categoryService.getCategoriesForDropdown(1L, TransactionType.EXPENSE);
+        }
+        
+        // Then - One load of the defaults snapshot and one of the user's categories
+        verify(categoryRepository, times(1)).findByIsDefaultTrueAndType(TransactionType.INCOME);
+        verify(categoryRepository, times(1)).findByIsDefaultTrueAndType(TransactionType.EXPENSE);
+        verify(categoryRepository, times(1)).findByUserUserId(1L);
+    }
+
+    @Test
+    void shouldReloadUserCategoriesAfterChange() {
+        // Given
+        Category newCategory = new Category("Freelance", "New user category", "#8e44ad", TransactionType.INCOME, testUser, "💻");
+        newCategory.setId(4L);
+        when(categoryRepository.findByIsDefaultTrueAndType(TransactionType.INCOME)).thenReturn(List.of(systemIncomeCategory));
+        when(categoryRepository.findByUserUserId(1L))
+            .thenReturn(List.of(userCustomCategory))
+            .thenReturn(List.of(userCustomCategory, newCategory));
+        when(categoryRepository.findByUserUserId(2L)).thenReturn(List.of());
+        categoryService.getCategoriesForDropdown(1L, TransactionType.INCOME);
+        categoryService.getCategoriesForDropdown(2L, TransactionType.INCOME);
+        
+        // When - The entity listener publishes the change after the insert
+        categoryCatalog.onCategoryChanged(new CategoryChangedEvent(4L, 1L));
+        List<CategoryDto> result = categoryService.getCategoriesForDropdown(1L, TransactionType.INCOME);
+        categoryService.getCategoriesForDropdown(2L, TransactionType.INCOME);
+        
+        // Then - Only the owner's entry is reloaded; the defaults snapshot survives
+        assertEquals(3, result.size());
+        assertEquals(CategoryDto.from(newCategory), result.get(2));
+        verify(categoryRepository, times(2)).findByUserUserId(1L);
+        verify(categoryRepository, times(1)).findByUserUserId(2L);
+        verify(categoryRepository, times(1)).findByIsDefaultTrueAndType(TransactionType.INCOME);
+    }
+
+    @Test
+    void shouldNotFindOtherUsersCategories() {
+        // Given
+        when(categoryRepository.findByIsDefaultTrueAndType(TransactionType.INCOME)).thenReturn(List.of(systemIncomeCategory));
+        when(categoryRepository.findByUserUserId(1L)).thenReturn(List.of(userCustomCategory));
+        when(categoryRepository.findByUserUserId(2L)).thenReturn(List.of());
+        
+        // When / Then - Custom categories are only visible to their owner; system ones to everyone
+        assertTrue(categoryCatalog.find(3L, 1L).isPresent());
+        assertTrue(categoryCatalog.find(3L, 2L).isEmpty());
+        assertEquals(CategoryDto.from(systemIncomeCategory), categoryCatalog.find(1L, 2L).orElseThrow());
+        assertTrue(categoryCatalog.find(null, 1L).isEmpty());
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,261 @@
+package com.smartspend.unit.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.BiConsumer;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.convert.ApplicationConversionService;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.convert.ConversionService;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.context.junit.jupiter.SpringJUnitConfig;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.smartspend.bankAccount.BankAccount;
+import com.smartspend.bankAccount.BankAccountRepository;
+import com.smartspend.cache.ChartCacheConfig;
+import com.smartspend.cache.ChartCacheInvalidator;
+import com.smartspend.cache.ChartCacheKey;
+import com.smartspend.cache.SecondLevelCache;
+import com.smartspend.cache.TwoLevelCache;
+import com.smartspend.charts.ChartsService;
+import com.smartspend.ledger.LedgerRepository;
+import com.smartspend.transaction.TransactionChangedEvent;
+import com.smartspend.transaction.TransactionType;
+import com.smartspend.user.User;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+@SpringJUnitConfig(classes = {ChartCacheConfig.class, ChartCacheInvalidator.class, ChartsService.class, ChartCacheTest.TestBeans.class})
+public class ChartCacheTest {
+
+    @Configuration
+    static class TestBeans {
+
+        @Bean
+        static ConversionService conversionService() {
+            return new ApplicationConversionService();
+        }
+
+        @Bean
+        MeterRegistry meterRegistry() {
+            return new SimpleMeterRegistry();
+        }
+    }
+
+    @MockitoBean
+    private BankAccountRepository bankAccountRepository;
+
+    @MockitoBean
+    private LedgerRepository ledgerRepository;
+
+    @Autowired
+    private ChartsService chartsService;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @BeforeEach
+    void setUp() {
+        cacheManager.getCache(ChartCacheConfig.CHARTS).clear();
+
+        User testUser = new User("testuser", "test@example.com", "hashedpassword");
+        testUser.setUserId(1L);
+        BankAccount testAccount = new BankAccount(testUser, "Test Account", new BigDecimal("2000.00"));
+        testAccount.setId(1L);
+
+        when(bankAccountRepository.findByIdAndUser_UserId(1L, 1L)).thenReturn(Optional.of(testAccount));
+        when(ledgerRepository.findTotalByAccountAndDateRangeAndType(eq(1L), any(), any(), any()))
+            .thenReturn(new BigDecimal("100.00"));
+        when(ledgerRepository.findBalanceUpToDate(eq(1L), any())).thenReturn(new BigDecimal("2000.00"));
+        when(ledgerRepository.findDailyTotalsByAccountAndDateRange(eq(1L), any(), any())).thenReturn(List.of());
+    }
+
+    private TwoLevelCache localCache(SecondLevelCache secondLevel) {
+        return new TwoLevelCache("test", Caffeine.newBuilder().recordStats().build(), secondLevel, new SimpleMeterRegistry());
+    }
+
+    private double cacheGets(String result) {
+        return meterRegistry.get("cache.gets").tag("cache", ChartCacheConfig.CHARTS).tag("result", result).functionCounter().count();
+    }
+
+    @Test
+    @DisplayName("CC-1: getBarLineChartByMonth - Should serve repeated requests from the cache and count hits and misses")
+    void shouldServeRepeatedChartFromCache() {
+        // Given - el contexto se comparte entre tests, así que se miden incrementos
+        double hitsBefore = cacheGets("hit");
+        double missesBefore = cacheGets("miss");
+
+        // When
+        chartsService.getBarLineChartByMonth(1L, 1L, 2025, 3);
+        chartsService.getBarLineChartByMonth(1L, 1L, 2025, 3);
+        chartsService.getBarLineChartByMonth(1L, 1L, 2025, 4);
+
+        // Then
+        verify(bankAccountRepository, times(2)).findByIdAndUser_UserId(1L, 1L);
+        assertEquals(1.0, cacheGets("hit") - hitsBefore);
+        assertEquals(2.0, cacheGets("miss") - missesBefore);
+    }
+
+    @Test
+    @DisplayName("CC-2: onTransactionChanged - Should evict only the month of the changed date for period charts")
+    void shouldEvictOnlyAffectedMonth() {
+        // Given
+        chartsService.getBarLineChartByMonth(1L, 1L, 2025, 3);
+        chartsService.getBarLineChartByMonth(1L, 1L, 2025, 4);
+        chartsService.getBarLineChartByYear(1L, 1L, 2025);
+        clearInvocations(bankAccountRepository);
+
+        // When
+        eventPublisher.publishEvent(TransactionChangedEvent.of(1L, LocalDate.of(2025, 3, 10)));
+        chartsService.getBarLineChartByMonth(1L, 1L, 2025, 3);
+        chartsService.getBarLineChartByMonth(1L, 1L, 2025, 4);
+        chartsService.getBarLineChartByYear(1L, 1L, 2025);
+
+        // Then - marzo y el año se recalculan; abril sigue en caché
+        verify(bankAccountRepository, times(2)).findByIdAndUser_UserId(1L, 1L);
+        verify(ledgerRepository, times(2)).findTotalByAccountAndDateRangeAndType(
+            1L, LocalDate.of(2025, 3, 1), LocalDate.of(2025, 3, 31), TransactionType.INCOME);
+        verify(ledgerRepository, times(1)).findTotalByAccountAndDateRangeAndType(
+            1L, LocalDate.of(2025, 4, 1), LocalDate.of(2025, 4, 30), TransactionType.INCOME);
+    }
+
+    @Test
+    @DisplayName("CC-3: onTransactionChanged - Should evict running balance charts of the changed period and later ones")
+    void shouldEvictLaterRunningBalanceCharts() {
+        // Given
+        chartsService.getTimeLineChartByMonth(1L, 1L, 2025, 2);
+        chartsService.getTimeLineChartByMonth(1L, 1L, 2025, 3);
+        chartsService.getTimeLineChartByMonth(1L, 1L, 2025, 4);
+        clearInvocations(ledgerRepository);
+
+        // When
+        eventPublisher.publishEvent(TransactionChangedEvent.of(1L, LocalDate.of(2025, 3, 10)));
+        chartsService.getTimeLineChartByMonth(1L, 1L, 2025, 2);
+        chartsService.getTimeLineChartByMonth(1L, 1L, 2025, 3);
+        chartsService.getTimeLineChartByMonth(1L, 1L, 2025, 4);
+
+        // Then - un cambio en marzo altera el saldo de marzo y abril, no el de febrero
+        verify(ledgerRepository, never()).findBalanceUpToDate(1L, LocalDate.of(2025, 1, 31));
+        verify(ledgerRepository).findBalanceUpToDate(1L, LocalDate.of(2025, 2, 28));
+        verify(ledgerRepository).findBalanceUpToDate(1L, LocalDate.of(2025, 3, 31));
+    }
+
+    @Test
+    @DisplayName("CC-4: evictAffected - Should leave other accounts untouched and drop every key of a deleted account")
+    void shouldScopeEvictionToAccount() {
+        // Given
+        TwoLevelCache cache = localCache(null);
+        ChartCacheKey report = ChartCacheKey.account(1L, 1L, "report", 2024, 1);
+        ChartCacheKey otherAccount = ChartCacheKey.account(1L, 2L, "report", 2024, 1);
+        ChartCacheKey pie = ChartCacheKey.period(1L, 1L, "pie-EXPENSE", 2023, 0);
+        cache.put(report, "report");
+        cache.put(otherAccount, "other");
+        cache.put(pie, "pie");
+
+        // When
+        int removedByChange = cache.evictAffected(TransactionChangedEvent.of(1L, LocalDate.of(2025, 6, 1)));
+        int removedByDelete = cache.evictAffected(TransactionChangedEvent.allDates(1L));
+
+        // Then
+        assertEquals(1, removedByChange);
+        assertEquals(1, removedByDelete);
+        assertNull(cache.get(report));
+        assertNull(cache.get(pie));
+        assertNotNull(cache.get(otherAccount));
+    }
+
+    @Test
+    @DisplayName("CC-5: TwoLevelCache - Should read through to the second level, write to both and evict the account there")
+    void shouldUseSecondLevel() {
+        // Given
+        SecondLevelCache secondLevel = mock(SecondLevelCache.class);
+        TwoLevelCache cache = localCache(secondLevel);
+        ChartCacheKey shared = ChartCacheKey.period(1L, 1L, "bar", 2025, 3);
+        ChartCacheKey fresh = ChartCacheKey.period(1L, 1L, "bar", 2025, 4);
+        when(secondLevel.get("test", shared)).thenReturn("from-l2");
+
+        // When
+        Object first = cache.get(shared).get();
+        Object second = cache.get(shared).get();
+        cache.put(fresh, "computed");
+        cache.evictAffected(TransactionChangedEvent.of(1L, LocalDate.of(2025, 4, 2)));
+
+        // Then
+        assertEquals("from-l2", first);
+        assertEquals("from-l2", second);
+        verify(secondLevel, times(1)).get("test", shared);
+        verify(secondLevel).put("test", fresh, "computed");
+        verify(secondLevel).evictAccount("test", 1L);
+    }
+
+    @Test
+    @DisplayName("CC-6: TwoLevelCache - Should drop a value loaded before its account was invalidated")
+    void shouldDropStalePut() {
+        // Given - la lectura falla en caché y carga datos mientras otra petición hace commit
+        TwoLevelCache cache = localCache(null);
+        ChartCacheKey key = ChartCacheKey.period(1L, 1L, "bar", 2024, 3);
+        ChartCacheKey otherAccount = ChartCacheKey.period(1L, 2L, "bar", 2024, 3);
+        assertNull(cache.get(key));
+
+        // When - la invalidación tras el commit llega antes que el put de la lectura
+        cache.evictAffected(TransactionChangedEvent.of(1L, LocalDate.of(2025, 6, 1)));
+        cache.put(key, "stale");
+        assertNull(cache.get(otherAccount));
+        cache.evictAffected(TransactionChangedEvent.of(1L, LocalDate.of(2025, 6, 2)));
+        cache.put(otherAccount, "other");
+
+        // Then - la siguiente lectura recalcula y ya se guarda; otra cuenta no se ve afectada
+        assertNull(cache.get(key));
+        cache.put(key, "fresh");
+        assertEquals("fresh", cache.get(key).get());
+        assertEquals("other", cache.get(otherAccount).get());
+    }
+
+    @Test
+    @DisplayName("CC-7: TwoLevelCache - Should empty the account from the first level on evictions from other replicas")
+    void shouldApplyRemoteEvictions() {
+        // Given
+        SecondLevelCache secondLevel = mock(SecondLevelCache.class);
+        List<BiConsumer<String, Long>> listeners = new ArrayList<>();
+        doAnswer(invocation -> listeners.add(invocation.getArgument(0))).when(secondLevel).onAccountEvicted(any());
+        TwoLevelCache cache = localCache(secondLevel);
+        ChartCacheKey key = ChartCacheKey.period(1L, 1L, "bar", 2024, 3);
+        ChartCacheKey otherAccount = ChartCacheKey.period(1L, 2L, "bar", 2024, 3);
+        cache.put(key, "cached");
+        cache.put(otherAccount, "other");
+
+        // When
+        listeners.forEach(listener -> listener.accept("another-cache", 1L));
+        Object beforeEviction = cache.get(key).get();
+        listeners.forEach(listener -> listener.accept("test", 1L));
+
+        // Then
+        assertEquals(1, listeners.size());
+        assertEquals("cached", beforeEviction);
+        assertNull(cache.get(key));
+        assertEquals("other", cache.get(otherAccount).get());
+    }
+}
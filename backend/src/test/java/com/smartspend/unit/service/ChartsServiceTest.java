@@ -23,23 +23,20 @@ import com.smartspend.bankAccount.BankAccount;
 import com.smartspend.bankAccount.BankAccountRepository;
 import com.smartspend.charts.ChartsService;
 import com.smartspend.charts.dtos.BarLineChartDto;
+import com.smartspend.charts.dtos.DashboardDto;
 import com.smartspend.charts.dtos.LineChartDto;
 import com.smartspend.charts.dtos.PieChartDto;
-import com.smartspend.transaction.TransactionRepository;
+import com.smartspend.ledger.LedgerRepository;
 import com.smartspend.transaction.TransactionType;
 import com.smartspend.user.User;
-import com.smartspend.user.UserRepository;
 
 public class ChartsServiceTest {
 
-    @Mock
-    private UserRepository userRepository;
-
     @Mock
     private BankAccountRepository bankAccountRepository;
 
     @Mock
-    private TransactionRepository transactionRepository;
+    private LedgerRepository ledgerRepository;
 
     @InjectMocks
     private ChartsService chartsService;
@@ -66,7 +63,6 @@ public class ChartsServiceTest {
     @DisplayName("C-1: getCategoryStadsByMonth - Should return pie chart data for income categories")
     void shouldReturnPieChartDataForIncomeCategories() {
         // Given
-        when(userRepository.findByUserEmail("test@example.com")).thenReturn(Optional.of(testUser));
         when(bankAccountRepository.findByIdAndUser_UserId(1L, 1L)).thenReturn(Optional.of(testAccount));
         
         List<Object[]> categoryResults = List.of(
@@ -74,13 +70,13 @@ public class ChartsServiceTest {
             new Object[]{"Freelance", new BigDecimal("500.00")}
         );
         
-        when(transactionRepository.findCategoryTotalsByAccountAndDateRangeAndType(
+        when(ledgerRepository.findCategoryTotalsByAccountAndDateRangeAndType(
             eq(1L), any(LocalDate.class), any(LocalDate.class), eq(TransactionType.INCOME)))
             .thenReturn(categoryResults);
 
         // When
         PieChartDto result = chartsService.getCategoryStadsByMonth(
-            "test@example.com", 1L, 2025, 2, TransactionType.INCOME);
+            1L, 1L, 2025, 2, TransactionType.INCOME);
 
         // Then
         assertNotNull(result);
@@ -95,7 +91,6 @@ public class ChartsServiceTest {
     @DisplayName("C-2: getCategoryStadsByYear - Should return yearly pie chart data")
     void shouldReturnYearlyPieChartData() {
         // Given
-        when(userRepository.findByUserEmail("test@example.com")).thenReturn(Optional.of(testUser));
         when(bankAccountRepository.findByIdAndUser_UserId(1L, 1L)).thenReturn(Optional.of(testAccount));
         
         List<Object[]> categoryResults = List.of(
@@ -103,13 +98,13 @@ public class ChartsServiceTest {
             new Object[]{"Transport", new BigDecimal("1200.00")}
         );
         
-        when(transactionRepository.findCategoryTotalsByAccountAndDateRangeAndType(
+        when(ledgerRepository.findCategoryTotalsByAccountAndDateRangeAndType(
             eq(1L), any(LocalDate.class), any(LocalDate.class), eq(TransactionType.EXPENSE)))
             .thenReturn(categoryResults);
 
         // When
         PieChartDto result = chartsService.getCategoryStadsByYear(
-            "test@example.com", 1L, 2025, TransactionType.EXPENSE);
+            1L, 1L, 2025, TransactionType.EXPENSE);
 
         // Then
         assertNotNull(result);
@@ -146,18 +141,17 @@ public class ChartsServiceTest {
     @DisplayName("C-4: getBarLineChartByMonth - Should return bar chart data for monthly income vs expense")
     void shouldReturnBarChartDataForMonthly() {
         // Given
-        when(userRepository.findByUserEmail("test@example.com")).thenReturn(Optional.of(testUser));
         when(bankAccountRepository.findByIdAndUser_UserId(1L, 1L)).thenReturn(Optional.of(testAccount));
         
-        when(transactionRepository.findTotalByAccountAndDateRangeAndType(
+        when(ledgerRepository.findTotalByAccountAndDateRangeAndType(
             eq(1L), any(LocalDate.class), any(LocalDate.class), eq(TransactionType.INCOME)))
             .thenReturn(new BigDecimal("2500.00"));
-        when(transactionRepository.findTotalByAccountAndDateRangeAndType(
+        when(ledgerRepository.findTotalByAccountAndDateRangeAndType(
             eq(1L), any(LocalDate.class), any(LocalDate.class), eq(TransactionType.EXPENSE)))
             .thenReturn(new BigDecimal("1200.00"));
 
         // When
-        BarLineChartDto result = chartsService.getBarLineChartByMonth("test@example.com", 1L, 2025, 2);
+        BarLineChartDto result = chartsService.getBarLineChartByMonth(1L, 1L, 2025, 2);
 
         // Then
         assertNotNull(result);
@@ -169,18 +163,17 @@ public class ChartsServiceTest {
     @DisplayName("C-5: getBarLineChartByYear - Should return bar chart data for yearly income vs expense")
     void shouldReturnBarChartDataForYearly() {
         // Given
-        when(userRepository.findByUserEmail("test@example.com")).thenReturn(Optional.of(testUser));
         when(bankAccountRepository.findByIdAndUser_UserId(1L, 1L)).thenReturn(Optional.of(testAccount));
         
-        when(transactionRepository.findTotalByAccountAndDateRangeAndType(
+        when(ledgerRepository.findTotalByAccountAndDateRangeAndType(
             eq(1L), any(LocalDate.class), any(LocalDate.class), eq(TransactionType.INCOME)))
             .thenReturn(new BigDecimal("30000.00"));
-        when(transactionRepository.findTotalByAccountAndDateRangeAndType(
+        when(ledgerRepository.findTotalByAccountAndDateRangeAndType(
             eq(1L), any(LocalDate.class), any(LocalDate.class), eq(TransactionType.EXPENSE)))
             .thenReturn(new BigDecimal("18000.00"));
 
         // When
-        BarLineChartDto result = chartsService.getBarLineChartByYear("test@example.com", 1L, 2025);
+        BarLineChartDto result = chartsService.getBarLineChartByYear(1L, 1L, 2025);
 
         // Then
         assertNotNull(result);
@@ -192,16 +185,15 @@ public class ChartsServiceTest {
     @DisplayName("C-6: getBarLineChartByMonth - Should handle null values correctly")
     void shouldHandleNullValuesInBarChart() {
         // Given
-        when(userRepository.findByUserEmail("test@example.com")).thenReturn(Optional.of(testUser));
         when(bankAccountRepository.findByIdAndUser_UserId(1L, 1L)).thenReturn(Optional.of(testAccount));
         
         // Return null to simulate no data
-        when(transactionRepository.findTotalByAccountAndDateRangeAndType(
+        when(ledgerRepository.findTotalByAccountAndDateRangeAndType(
             eq(1L), any(LocalDate.class), any(LocalDate.class), any(TransactionType.class)))
             .thenReturn(null);
 
         // When
-        BarLineChartDto result = chartsService.getBarLineChartByMonth("test@example.com", 1L, 2025, 2);
+        BarLineChartDto result = chartsService.getBarLineChartByMonth(1L, 1L, 2025, 2);
 
         // Then
         assertNotNull(result);
@@ -217,18 +209,20 @@ public class ChartsServiceTest {
     @DisplayName("C-7: getTimeLineChartByMonth - Should return timeline data for monthly balance evolution")
     void shouldReturnTimelineDataForMonthly() {
         // Given
-        when(userRepository.findByUserEmail("test@example.com")).thenReturn(Optional.of(testUser));
         when(bankAccountRepository.findByIdAndUser_UserId(1L, 1L)).thenReturn(Optional.of(testAccount));
         
         // Mock balance calculation
-        when(transactionRepository.findBalanceUpToDate(eq(1L), any(LocalDate.class)))
+        when(ledgerRepository.findBalanceUpToDate(eq(1L), any(LocalDate.class)))
             .thenReturn(new BigDecimal("2000.00"));
-        when(transactionRepository.findTotalByAccountAndDateRangeAndType(
-            eq(1L), any(LocalDate.class), any(LocalDate.class), any(TransactionType.class)))
-            .thenReturn(new BigDecimal("100.00"));
+        when(ledgerRepository.findDailyTotalsByAccountAndDateRange(
+            eq(1L), any(LocalDate.class), any(LocalDate.class)))
+            .thenReturn(List.<Object[]>of(
+                new Object[]{LocalDate.of(2025, 2, 1), TransactionType.INCOME, new BigDecimal("100.00")},
+                new Object[]{LocalDate.of(2025, 2, 1), TransactionType.EXPENSE, new BigDecimal("100.00")}
+            ));
 
         // When
-        LineChartDto result = chartsService.getTimeLineChartByMonth("test@example.com", 1L, 2025, 2);
+        LineChartDto result = chartsService.getTimeLineChartByMonth(1L, 1L, 2025, 2);
 
         // Then
         assertNotNull(result);
@@ -243,18 +237,19 @@ public class ChartsServiceTest {
     @DisplayName("C-8: getTimeLineChartByYear - Should return timeline data for yearly balance evolution")
     void shouldReturnTimelineDataForYearly() {
         // Given  
-        when(userRepository.findByUserEmail("test@example.com")).thenReturn(Optional.of(testUser));
         when(bankAccountRepository.findByIdAndUser_UserId(1L, 1L)).thenReturn(Optional.of(testAccount));
         
         // Mock balance calculation
-        when(transactionRepository.findBalanceUpToDate(eq(1L), any(LocalDate.class)))
+        when(ledgerRepository.findBalanceUpToDate(eq(1L), any(LocalDate.class)))
             .thenReturn(new BigDecimal("2000.00"));
-        when(transactionRepository.findTotalByAccountAndDateRangeAndType(
-            eq(1L), any(LocalDate.class), any(LocalDate.class), any(TransactionType.class)))
-            .thenReturn(new BigDecimal("500.00"));
+        when(ledgerRepository.findDailyTotalsByAccountAndDateRange(
+            eq(1L), any(LocalDate.class), any(LocalDate.class)))
+            .thenReturn(List.<Object[]>of(
+                new Object[]{LocalDate.of(2025, 3, 10), TransactionType.INCOME, new BigDecimal("500.00")}
+            ));
 
         // When
-        LineChartDto result = chartsService.getTimeLineChartByYear("test@example.com", 1L, 2025);
+        LineChartDto result = chartsService.getTimeLineChartByYear(1L, 1L, 2025);
 
         // Then
         assertNotNull(result);
@@ -265,34 +260,159 @@ public class ChartsServiceTest {
         assertTrue(result.labels().size() > 0);
     }
 
+    @Test
+    @DisplayName("C-12: getTimeLineChartByMonth - Should build cumulative series from a single grouped query")
+    void shouldBuildMonthlyTimelineFromSingleGroupedQuery() {
+        // Given
+        when(bankAccountRepository.findByIdAndUser_UserId(1L, 1L)).thenReturn(Optional.of(testAccount));
+        when(ledgerRepository.findBalanceUpToDate(1L, LocalDate.of(2024, 1, 31)))
+            .thenReturn(new BigDecimal("1000.00"));
+        when(ledgerRepository.findDailyTotalsByAccountAndDateRange(
+            1L, LocalDate.of(2024, 2, 1), LocalDate.of(2024, 2, 29)))
+            .thenReturn(List.<Object[]>of(
+                new Object[]{LocalDate.of(2024, 2, 2), TransactionType.INCOME, new BigDecimal("300.00")},
+                new Object[]{LocalDate.of(2024, 2, 3), TransactionType.EXPENSE, new BigDecimal("50.00")}
+            ));
+
+        // When
+        LineChartDto result = chartsService.getTimeLineChartByMonth(1L, 1L, 2024, 2);
+
+        // Then
+        assertEquals(29, result.labels().size());
+        assertEquals(List.of(1000.0f, 1300.0f, 1250.0f), result.balanceData().subList(0, 3));
+        assertEquals(List.of(0.0f, 300.0f, 300.0f), result.incomesData().subList(0, 3));
+        assertEquals(List.of(0.0f, 0.0f, 50.0f), result.expensesData().subList(0, 3));
+        assertEquals(1250.0f, result.balanceData().get(28));
+        verify(ledgerRepository, never()).findTotalByAccountAndDateRangeAndType(
+            any(), any(LocalDate.class), any(LocalDate.class), any(TransactionType.class));
+    }
+
+    @Test
+    @DisplayName("C-13: getTimeLineChartByYear - Should fold daily totals into monthly cumulative series")
+    void shouldFoldDailyTotalsIntoMonthlyTimeline() {
+        // Given
+        when(bankAccountRepository.findByIdAndUser_UserId(1L, 1L)).thenReturn(Optional.of(testAccount));
+        when(ledgerRepository.findBalanceUpToDate(1L, LocalDate.of(2023, 12, 31)))
+            .thenReturn(new BigDecimal("500.00"));
+        when(ledgerRepository.findDailyTotalsByAccountAndDateRange(
+            1L, LocalDate.of(2024, 1, 1), LocalDate.of(2024, 12, 31)))
+            .thenReturn(List.<Object[]>of(
+                new Object[]{LocalDate.of(2024, 1, 5), TransactionType.INCOME, new BigDecimal("1000.00")},
+                new Object[]{LocalDate.of(2024, 1, 20), TransactionType.EXPENSE, new BigDecimal("200.00")},
+                new Object[]{LocalDate.of(2024, 2, 1), TransactionType.EXPENSE, new BigDecimal("100.00")}
+            ));
+
+        // When
+        LineChartDto result = chartsService.getTimeLineChartByYear(1L, 1L, 2024);
+
+        // Then
+        assertEquals(12, result.labels().size());
+        assertEquals("Enero", result.labels().get(0));
+        assertEquals(List.of(1300.0f, 1200.0f, 1200.0f), result.balanceData().subList(0, 3));
+        assertEquals(List.of(1000.0f, 1000.0f), result.incomesData().subList(0, 2));
+        assertEquals(List.of(200.0f, 300.0f), result.expensesData().subList(0, 2));
+    }
+
+    @Test
+    @DisplayName("C-14: getDashboardByMonth - Should derive every chart from a single grouped query")
+    void shouldBuildDashboardFromSingleDataset() {
+        // Given
+        when(bankAccountRepository.findByIdAndUser_UserId(1L, 1L)).thenReturn(Optional.of(testAccount));
+        when(ledgerRepository.findBalanceUpToDate(1L, LocalDate.of(2024, 1, 31)))
+            .thenReturn(new BigDecimal("1000.00"));
+        when(ledgerRepository.findDailyCategoryTotalsByAccountAndDateRange(
+            1L, LocalDate.of(2024, 2, 1), LocalDate.of(2024, 2, 29)))
+            .thenReturn(List.<Object[]>of(
+                new Object[]{LocalDate.of(2024, 2, 1), TransactionType.INCOME, "Salary", new BigDecimal("2000.00")},
+                new Object[]{LocalDate.of(2024, 2, 1), TransactionType.EXPENSE, "Food", new BigDecimal("100.00")},
+                new Object[]{LocalDate.of(2024, 2, 2), TransactionType.EXPENSE, "Transport", new BigDecimal("50.00")},
+                new Object[]{LocalDate.of(2024, 2, 3), TransactionType.EXPENSE, "Food", new BigDecimal("25.00")}
+            ));
+
+        // When
+        DashboardDto result = chartsService.getDashboardByMonth(1L, 1L, 2024, 2);
+
+        // Then
+        assertEquals(List.of("Salary"), result.incomePieChart().labels());
+        assertEquals(new BigDecimal("2000.00"), result.incomePieChart().totalAmount());
+        assertEquals(List.of("Food", "Transport"), result.expensePieChart().labels());
+        assertEquals(List.of(125.0, 50.0), result.expensePieChart().data());
+        assertEquals(new BigDecimal("175.00"), result.expensePieChart().totalAmount());
+        assertEquals(List.of(2000.0f, 175.0f), result.barLineChart().data());
+        assertEquals(29, result.lineChart().labels().size());
+        assertEquals(List.of(2900.0f, 2850.0f, 2825.0f), result.lineChart().balanceData().subList(0, 3));
+        verify(bankAccountRepository, times(1)).findByIdAndUser_UserId(1L, 1L);
+        verify(ledgerRepository, never()).findCategoryTotalsByAccountAndDateRangeAndType(
+            any(), any(LocalDate.class), any(LocalDate.class), any(TransactionType.class));
+        verify(ledgerRepository, never()).findTotalByAccountAndDateRangeAndType(
+            any(), any(LocalDate.class), any(LocalDate.class), any(TransactionType.class));
+        verify(ledgerRepository, never()).findDailyTotalsByAccountAndDateRange(
+            any(), any(LocalDate.class), any(LocalDate.class));
+    }
+
+    @Test
+    @DisplayName("C-15: getDashboardByMonth - Should return empty charts for a month without movements")
+    void shouldBuildEmptyDashboard() {
+        // Given
+        when(bankAccountRepository.findByIdAndUser_UserId(1L, 1L)).thenReturn(Optional.of(testAccount));
+        when(ledgerRepository.findBalanceUpToDate(1L, LocalDate.of(2023, 12, 31)))
+            .thenReturn(new BigDecimal("300.00"));
+        when(ledgerRepository.findDailyCategoryTotalsByAccountAndDateRange(
+            1L, LocalDate.of(2024, 1, 1), LocalDate.of(2024, 1, 31)))
+            .thenReturn(List.of());
+
+        // When
+        DashboardDto result = chartsService.getDashboardByMonth(1L, 1L, 2024, 1);
+
+        // Then
+        assertTrue(result.incomePieChart().labels().isEmpty());
+        assertEquals(BigDecimal.ZERO, result.expensePieChart().totalAmount());
+        assertEquals(List.of(0.0f, 0.0f), result.barLineChart().data());
+        assertEquals(300.0f, result.lineChart().balanceData().get(30));
+    }
+
+    @Test
+    @DisplayName("C-16: getDashboardByMonth - Should throw exception for an account of another user")
+    void shouldRejectDashboardForForeignAccount() {
+        // Given
+        when(bankAccountRepository.findByIdAndUser_UserId(1L, 2L)).thenReturn(Optional.empty());
+
+        // When
+        RuntimeException exception = assertThrows(RuntimeException.class,
+            () -> chartsService.getDashboardByMonth(2L, 1L, 2024, 2));
+
+        // Then
+        assertEquals("Bank account not found", exception.getMessage());
+        verifyNoInteractions(ledgerRepository);
+    }
+
     // ===============================================
     // TESTS PARA CASOS DE ERROR
     // ===============================================
 
     @Test
-    @DisplayName("C-9: getCategoryStadsByMonth - Should throw exception for non-existent user")
-    void shouldThrowExceptionForNonExistentUser() {
+    @DisplayName("C-9: getCategoryStadsByMonth - Should throw exception for an account of another user")
+    void shouldThrowExceptionForAccountOfAnotherUser() {
         // Given
-        when(userRepository.findByUserEmail("nonexistent@example.com")).thenReturn(Optional.empty());
+        when(bankAccountRepository.findByIdAndUser_UserId(1L, 99L)).thenReturn(Optional.empty());
 
         // When & Then
         RuntimeException exception = assertThrows(RuntimeException.class, () -> {
-            chartsService.getCategoryStadsByMonth("nonexistent@example.com", 1L, 2025, 2, TransactionType.INCOME);
+            chartsService.getCategoryStadsByMonth(99L, 1L, 2025, 2, TransactionType.INCOME);
         });
         
-        assertEquals("User not found", exception.getMessage());
+        assertEquals("Bank account not found", exception.getMessage());
     }
 
     @Test
     @DisplayName("C-10: getBarLineChartByMonth - Should throw exception for non-existent account")
     void shouldThrowExceptionForNonExistentAccount() {
         // Given
-        when(userRepository.findByUserEmail("test@example.com")).thenReturn(Optional.of(testUser));
         when(bankAccountRepository.findByIdAndUser_UserId(999L, 1L)).thenReturn(Optional.empty());
 
         // When & Then
         RuntimeException exception = assertThrows(RuntimeException.class, () -> {
-            chartsService.getBarLineChartByMonth("test@example.com", 999L, 2025, 2);
+            chartsService.getBarLineChartByMonth(1L, 999L, 2025, 2);
         });
         
         assertEquals("Bank account not found", exception.getMessage());
@@ -0,0 +1,103 @@
+package com.smartspend.unit.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import com.smartspend.image.ImageCleanupService;
+import com.smartspend.image.ImageStore;
+import com.smartspend.image.ImageVariantService;
+import com.smartspend.transaction.TransactionRepository;
+
+public class ImageCleanupServiceTest {
+
+    @Mock
+    private ImageStore imageStore;
+
+    @Mock
+    private ImageVariantService imageVariantService;
+
+    @Mock
+    private TransactionRepository transactionRepository;
+
+    @InjectMocks
+    private ImageCleanupService imageCleanupService;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+    }
+
+    @Test
+    @DisplayName("IC-1: lock - Should lock each blob once, in hash order, and return only the existing ones")
+    void shouldLockBlobsInOrder() {
+        // Given
+        when(imageStore.lock("a")).thenReturn(true);
+        when(imageStore.lock("c")).thenReturn(false);
+        when(imageStore.lock("b")).thenReturn(true);
+
+        // When
+        List<String> locked = imageCleanupService.lock(List.of("c", "a", "b", "a"));
+
+        // Then
+        assertEquals(List.of("a", "b"), locked);
+        InOrder inOrder = inOrder(imageStore);
+        inOrder.verify(imageStore).lock("a");
+        inOrder.verify(imageStore).lock("b");
+        inOrder.verify(imageStore).lock("c");
+        verify(imageStore, times(3)).lock(anyString());
+    }
+
+    @Test
+    @DisplayName("IC-2: releaseIfUnused - Should delete the blob and its variants when no transaction uses it")
+    void shouldDeleteUnreferencedBlob() {
+        // Given
+        when(transactionRepository.findIdsByImageHashForUpdate("abc123")).thenReturn(List.of());
+
+        // When
+        imageCleanupService.releaseIfUnused("abc123");
+
+        // Then
+        verify(imageVariantService).deleteVariants("abc123");
+        verify(imageStore).delete("abc123");
+    }
+
+    @Test
+    @DisplayName("IC-3: releaseIfUnused - Should keep a blob that another transaction still uses")
+    void shouldKeepReferencedBlob() {
+        // Given
+        when(transactionRepository.findIdsByImageHashForUpdate("abc123")).thenReturn(List.of(7L));
+
+        // When
+        imageCleanupService.releaseIfUnused("abc123");
+
+        // Then
+        verify(imageVariantService, never()).deleteVariants(anyString());
+        verify(imageStore, never()).delete(anyString());
+    }
+
+    @Test
+    @DisplayName("IC-4: releaseIfUnused - Should keep a blob that is also the thumbnail of another image")
+    void shouldKeepBlobUsedAsVariant() {
+        // Given
+        when(transactionRepository.findIdsByImageHashForUpdate("abc123")).thenReturn(List.of());
+        when(imageVariantService.isVariant("abc123")).thenReturn(true);
+
+        // When
+        imageCleanupService.releaseIfUnused("abc123");
+
+        // Then
+        verify(imageVariantService).deleteVariants("abc123");
+        verify(imageStore, never()).delete(anyString());
+    }
+}
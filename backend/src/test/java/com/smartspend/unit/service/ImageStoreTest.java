@@ -0,0 +1,164 @@
+package com.smartspend.unit.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.contains;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Optional;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import org.springframework.core.io.ByteArrayResource;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.PreparedStatementSetter;
+
+import com.smartspend.image.DatabaseImageStore;
+import com.smartspend.image.ImageBlob;
+import com.smartspend.image.ImageBlobRepository;
+import com.smartspend.image.ImageStore.StoredImage;
+
+public class ImageStoreTest {
+
+    @Mock
+    private ImageBlobRepository imageBlobRepository;
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @InjectMocks
+    private DatabaseImageStore imageStore;
+
+    private final byte[] imageBytes = "fake-png-bytes".getBytes(StandardCharsets.UTF_8);
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+    }
+
+    @Test
+    @DisplayName("I-1: store - Should key the blob by its SHA-256 hash")
+    void shouldKeyBlobByContentHash() {
+        // Given
+        String expectedHash = DatabaseImageStore.sha256(imageBytes);
+        when(jdbcTemplate.queryForList(anyString(), eq(String.class), eq(expectedHash))).thenReturn(List.of());
+
+        // When
+        String hash = imageStore.store(imageBytes, "image/png");
+
+        // Then
+        assertEquals(expectedHash, hash);
+        assertEquals(64, hash.length());
+        ArgumentCaptor<ImageBlob> captor = ArgumentCaptor.forClass(ImageBlob.class);
+        verify(imageBlobRepository).save(captor.capture());
+        assertEquals(expectedHash, captor.getValue().getHash());
+        assertEquals("image/png", captor.getValue().getContentType());
+        assertEquals(imageBytes.length, captor.getValue().getSize());
+    }
+
+    @Test
+    @DisplayName("I-2: store - Should not write the same content twice")
+    void shouldDeduplicateIdenticalContent() {
+        // Given
+        String hash = DatabaseImageStore.sha256(imageBytes);
+        when(jdbcTemplate.queryForList(anyString(), eq(String.class), eq(hash))).thenReturn(List.of(hash));
+
+        // When
+        String storedHash = imageStore.store(imageBytes, "image/png");
+
+        // Then
+        assertEquals(hash, storedHash);
+        verify(imageBlobRepository, never()).save(any());
+    }
+
+    @Test
+    @DisplayName("I-3: load - Should return the stored bytes")
+    void shouldLoadStoredBytes() {
+        // Given
+        String hash = DatabaseImageStore.sha256(imageBytes);
+        when(imageBlobRepository.findById(hash)).thenReturn(Optional.of(new ImageBlob(hash, imageBytes, "image/png")));
+
+        // When
+        Optional<byte[]> loaded = imageStore.load(hash);
+
+        // Then
+        assertTrue(loaded.isPresent());
+        assertArrayEquals(imageBytes, loaded.get());
+    }
+
+    @Test
+    @DisplayName("I-4: store(stream) - Should detect the type from magic bytes and stream the insert")
+    void shouldStreamUploadAndDetectType() throws Exception {
+        // Given
+        byte[] png = {(byte) 0x89, 'P', 'N', 'G', '\r', '\n', 0x1A, '\n', 0, 0, 0, 13, 'I', 'H', 'D', 'R'};
+        String expectedHash = DatabaseImageStore.sha256(png);
+        when(jdbcTemplate.queryForList(anyString(), eq(String.class), eq(expectedHash))).thenReturn(List.of());
+
+        // When
+        StoredImage stored = imageStore.store(new ByteArrayResource(png));
+
+        // Then
+        assertEquals(expectedHash, stored.hash());
+        assertEquals("image/png", stored.contentType());
+        assertEquals(png.length, stored.size());
+        verify(jdbcTemplate).update(anyString(), any(PreparedStatementSetter.class));
+        verify(imageBlobRepository, never()).save(any());
+    }
+
+    @Test
+    @DisplayName("I-5: store(stream) - Should reject content that is not a supported image")
+    void shouldRejectUnknownSignature() {
+        // Given
+        byte[] pdf = "%PDF-1.7 fake".getBytes(StandardCharsets.US_ASCII);
+
+        // When
+        RuntimeException exception = assertThrows(RuntimeException.class,
+            () -> imageStore.store(new ByteArrayResource(pdf)));
+
+        // Then
+        assertEquals("Invalid image file", exception.getMessage());
+        verifyNoInteractions(jdbcTemplate);
+    }
+
+    @Test
+    @DisplayName("I-6: store(stream) - Should skip the insert when the content already exists")
+    void shouldNotStreamExistingContent() throws Exception {
+        // Given
+        byte[] jpeg = {(byte) 0xFF, (byte) 0xD8, (byte) 0xFF, (byte) 0xE0, 0, 16, 'J', 'F', 'I', 'F', 0, 1};
+        when(jdbcTemplate.queryForList(anyString(), eq(String.class), eq(DatabaseImageStore.sha256(jpeg)))).thenReturn(List.of(DatabaseImageStore.sha256(jpeg)));
+
+        // When
+        StoredImage stored = imageStore.store(new ByteArrayResource(jpeg));
+
+        // Then - el blob existente queda bloqueado hasta el commit en lugar de insertarse
+        assertEquals("image/jpeg", stored.contentType());
+        verify(jdbcTemplate).queryForList(contains("FOR UPDATE"), eq(String.class), eq(DatabaseImageStore.sha256(jpeg)));
+        verify(jdbcTemplate, never()).update(anyString(), any(PreparedStatementSetter.class));
+    }
+
+    @Test
+    @DisplayName("I-7: store - Should treat a concurrent insert of the same content as already stored")
+    void shouldTolerateConcurrentInsert() {
+        // Given - otra petición insertó el blob entre la comprobación y el save
+        String hash = DatabaseImageStore.sha256(imageBytes);
+        when(jdbcTemplate.queryForList(anyString(), eq(String.class), eq(hash))).thenReturn(List.of());
+        when(imageBlobRepository.save(any())).thenThrow(new DataIntegrityViolationException("Duplicate entry"));
+
+        // When
+        String storedHash = imageStore.store(imageBytes, "image/png");
+
+        // Then
+        assertEquals(hash, storedHash);
+    }
+}
@@ -0,0 +1,177 @@
+package com.smartspend.unit.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Optional;
+
+import javax.imageio.ImageIO;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.core.task.TaskExecutor;
+
+import com.smartspend.image.BlobResource;
+import com.smartspend.image.ImageBlob;
+import com.smartspend.image.ImageBlobRepository;
+import com.smartspend.image.ImageStore;
+import com.smartspend.image.ImageVariant;
+import com.smartspend.image.ImageVariantRepository;
+import com.smartspend.image.ImageVariantService;
+import com.smartspend.image.ImageVariantSize;
+import com.smartspend.transaction.TransactionRepository;
+
+public class ImageVariantServiceTest {
+
+    @Mock
+    private ImageStore imageStore;
+
+    @Mock
+    private ImageBlobRepository imageBlobRepository;
+
+    @Mock
+    private ImageVariantRepository imageVariantRepository;
+
+    @Mock
+    private TaskExecutor imageTaskExecutor;
+
+    @Mock
+    private TransactionRepository transactionRepository;
+
+    @InjectMocks
+    private ImageVariantService imageVariantService;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+    }
+
+    private static byte[] png(int width, int height) throws IOException {
+        BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        ImageIO.write(image, "png", output);
+        return output.toByteArray();
+    }
+
+    @Test
+    @DisplayName("IV-1: generateVariant - Should store a downscaled JPEG and map it to the original")
+    void shouldGenerateDownscaledVariant() throws IOException {
+        // Given
+        byte[] original = png(600, 300);
+        when(imageVariantRepository.findBySourceHashAndSize("src", ImageVariantSize.THUMB_64)).thenReturn(Optional.empty());
+        when(imageBlobRepository.findById("src")).thenReturn(Optional.of(new ImageBlob("src", original, "image/png")));
+        when(imageStore.store(any(), anyString())).thenReturn("thumb");
+
+        // When
+        Optional<String> variantHash = imageVariantService.generateVariant("src", ImageVariantSize.THUMB_64);
+
+        // Then
+        assertEquals(Optional.of("thumb"), variantHash);
+        ArgumentCaptor<byte[]> data = ArgumentCaptor.forClass(byte[].class);
+        verify(imageStore).store(data.capture(), eq("image/jpeg"));
+        BufferedImage thumbnail = ImageIO.read(new ByteArrayInputStream(data.getValue()));
+        assertEquals(64, thumbnail.getWidth());
+        assertEquals(32, thumbnail.getHeight());
+
+        ArgumentCaptor<ImageVariant> mapping = ArgumentCaptor.forClass(ImageVariant.class);
+        verify(imageVariantRepository).save(mapping.capture());
+        assertEquals("src", mapping.getValue().getSourceHash());
+        assertEquals("thumb", mapping.getValue().getVariantHash());
+    }
+
+    @Test
+    @DisplayName("IV-2: generateVariant - Should fall back to the original when the format cannot be decoded")
+    void shouldFallBackToOriginalForUnreadableFormat() {
+        // Given
+        byte[] webp = "RIFF....WEBPVP8 not-decodable".getBytes(StandardCharsets.US_ASCII);
+        when(imageVariantRepository.findBySourceHashAndSize("src", ImageVariantSize.THUMB_256)).thenReturn(Optional.empty());
+        when(imageBlobRepository.findById("src")).thenReturn(Optional.of(new ImageBlob("src", webp, "image/webp")));
+
+        // When
+        Optional<String> variantHash = imageVariantService.generateVariant("src", ImageVariantSize.THUMB_256);
+
+        // Then
+        assertEquals(Optional.of("src"), variantHash);
+        verify(imageStore, never()).store(any(), anyString());
+        verify(imageVariantRepository).save(any(ImageVariant.class));
+    }
+
+    @Test
+    @DisplayName("IV-3: load - Should reuse an existing variant without decoding the original")
+    void shouldReuseExistingVariant() {
+        // Given
+        BlobResource thumbnail = mock(BlobResource.class);
+        when(imageVariantRepository.findBySourceHashAndSize("src", ImageVariantSize.THUMB_64))
+            .thenReturn(Optional.of(new ImageVariant("src", ImageVariantSize.THUMB_64, "thumb")));
+        when(imageStore.open("thumb")).thenReturn(Optional.of(thumbnail));
+
+        // When
+        Optional<BlobResource> result = imageVariantService.load("src", ImageVariantSize.THUMB_64);
+
+        // Then
+        assertSame(thumbnail, result.get());
+        verify(imageBlobRepository, never()).findById(anyString());
+        verify(imageVariantRepository, never()).save(any());
+    }
+
+    @Test
+    @DisplayName("IV-4: scheduleVariants - Should hand generation to the image worker pool")
+    void shouldScheduleVariantsOnWorkerPool() {
+        // When
+        imageVariantService.scheduleVariants("src");
+
+        // Then
+        verify(imageTaskExecutor).execute(any(Runnable.class));
+        verifyNoInteractions(imageBlobRepository, imageStore);
+    }
+
+    @Test
+    @DisplayName("IV-5: deleteVariants - Should delete thumbnail blobs but never the original")
+    void shouldDeleteVariantBlobs() {
+        // Given
+        List<ImageVariant> variants = List.of(
+            new ImageVariant("src", ImageVariantSize.THUMB_64, "thumb"),
+            new ImageVariant("src", ImageVariantSize.THUMB_256, "src"));
+        when(imageVariantRepository.findBySourceHash("src")).thenReturn(variants);
+        when(imageVariantRepository.existsByVariantHash("thumb")).thenReturn(false);
+
+        // When
+        imageVariantService.deleteVariants("src");
+
+        // Then
+        verify(imageVariantRepository).deleteAll(variants);
+        verify(imageStore).delete("thumb");
+        verify(imageStore, never()).delete("src");
+    }
+
+    @Test
+    @DisplayName("IV-6: deleteVariants - Should keep a thumbnail blob that a transaction uses as its own image")
+    void shouldKeepVariantUsedAsOriginal() {
+        // Given - alguien subió como imagen la miniatura descargada: mismo hash
+        List<ImageVariant> variants = List.of(new ImageVariant("src", ImageVariantSize.THUMB_64, "thumb"));
+        when(imageVariantRepository.findBySourceHash("src")).thenReturn(variants);
+        when(imageVariantRepository.existsByVariantHash("thumb")).thenReturn(false);
+        when(transactionRepository.existsByImageHash("thumb")).thenReturn(true);
+
+        // When
+        imageVariantService.deleteVariants("src");
+
+        // Then
+        verify(imageVariantRepository).deleteAll(variants);
+        verify(imageStore, never()).delete(anyString());
+    }
+}
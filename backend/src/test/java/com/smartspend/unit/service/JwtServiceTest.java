@@ -9,6 +9,7 @@ import org.junit.jupiter.api.Test;
 import org.springframework.test.util.ReflectionTestUtils;
 
 import com.smartspend.auth.JwtService;
+import com.smartspend.security.SmartSpendPrincipal;
 
 import io.jsonwebtoken.Claims;
 import io.jsonwebtoken.Jwts;
@@ -209,4 +210,34 @@ public class JwtServiceTest {
         // Then
         assertEquals(emailWithSpecialChars, extractedEmail);
     }
-}
\ No newline at end of file
+
+    @Test
+    void shouldExtractPrincipalWithUserIdAndEmail() {
+        // Given
+        String token = jwtService.generateToken(42L, "test@example.com");
+        
+        // When
+        SmartSpendPrincipal principal = jwtService.toPrincipal(jwtService.parseClaims(token));
+        
+        // Then
+        assertEquals(42L, principal.userId());
+        assertEquals("test@example.com", principal.email());
+        assertEquals("test@example.com", principal.getName());
+    }
+
+    @Test
+    void shouldRejectTokenWithoutUserIdClaim() {
+        // Given - Signed with the right key but without the userId claim
+        String token = Jwts.builder()
+            .setSubject("test@example.com")
+            .setExpiration(new Date(System.currentTimeMillis() + 60000))
+            .signWith(Keys.hmacShaKeyFor(io.jsonwebtoken.io.Decoders.BASE64.decode(testSecret)), 
+                     io.jsonwebtoken.SignatureAlgorithm.HS256)
+            .compact();
+        
+        // Then
+        assertThrows(Exception.class, () -> {
+            jwtService.toPrincipal(jwtService.parseClaims(token));
+        });
+    }
+}
@@ -0,0 +1,129 @@
+package com.smartspend.unit.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.Optional;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import com.smartspend.bankAccount.BankAccount;
+import com.smartspend.category.Category;
+import com.smartspend.ledger.LedgerEntry;
+import com.smartspend.ledger.LedgerRepository;
+import com.smartspend.ledger.LedgerService;
+import com.smartspend.transaction.Recurrence;
+import com.smartspend.transaction.Transaction;
+import com.smartspend.transaction.TransactionType;
+import com.smartspend.user.User;
+
+public class LedgerServiceTest {
+
+    @Mock
+    private LedgerRepository ledgerRepository;
+
+    @InjectMocks
+    private LedgerService ledgerService;
+
+    private Transaction transaction;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+
+        User testUser = new User("testuser", "test@example.com", "hashedpassword");
+        testUser.setUserId(1L);
+
+        BankAccount testAccount = new BankAccount(testUser, "Test Account", new BigDecimal("1000.00"));
+        testAccount.setId(1L);
+
+        Category testCategory = new Category("Comida", "Supermercado", "#e74c3c", TransactionType.EXPENSE, null);
+        testCategory.setId(5L);
+
+        transaction = new Transaction("Mercadona", "Compra semanal", new BigDecimal("40.00"),
+            LocalDate.of(2025, 3, 10), TransactionType.EXPENSE, testCategory, Recurrence.NONE, testAccount);
+    }
+
+    @Test
+    @DisplayName("L-1: record - Should create a new daily entry when none exists")
+    void shouldCreateEntryWhenMissing() {
+        // Given
+        when(ledgerRepository.findByAccountIdAndEntryDateAndTypeAndCategoryId(
+            1L, LocalDate.of(2025, 3, 10), TransactionType.EXPENSE, 5L)).thenReturn(Optional.empty());
+
+        // When
+        ledgerService.record(transaction);
+
+        // Then
+        ArgumentCaptor<LedgerEntry> captor = ArgumentCaptor.forClass(LedgerEntry.class);
+        verify(ledgerRepository).save(captor.capture());
+        LedgerEntry saved = captor.getValue();
+        assertEquals(1L, saved.getAccountId());
+        assertEquals(5L, saved.getCategoryId());
+        assertEquals(0, new BigDecimal("40.00").compareTo(saved.getTotal()));
+        assertEquals(1L, saved.getTransactionCount());
+    }
+
+    @Test
+    @DisplayName("L-2: record - Should accumulate into the existing daily entry")
+    void shouldAccumulateIntoExistingEntry() {
+        // Given
+        LedgerEntry existing = new LedgerEntry(1L, LocalDate.of(2025, 3, 10), TransactionType.EXPENSE, 5L);
+        existing.setId(7L);
+        existing.setTotal(new BigDecimal("60.00"));
+        existing.setTransactionCount(2L);
+        when(ledgerRepository.findByAccountIdAndEntryDateAndTypeAndCategoryId(
+            1L, LocalDate.of(2025, 3, 10), TransactionType.EXPENSE, 5L)).thenReturn(Optional.of(existing));
+
+        // When
+        ledgerService.record(transaction);
+
+        // Then
+        verify(ledgerRepository).save(existing);
+        assertEquals(0, new BigDecimal("100.00").compareTo(existing.getTotal()));
+        assertEquals(3L, existing.getTransactionCount());
+    }
+
+    @Test
+    @DisplayName("L-3: reverse - Should delete the entry when its last transaction is removed")
+    void shouldDeleteEntryWhenLastTransactionIsReversed() {
+        // Given
+        LedgerEntry existing = new LedgerEntry(1L, LocalDate.of(2025, 3, 10), TransactionType.EXPENSE, 5L);
+        existing.setId(7L);
+        existing.setTotal(new BigDecimal("40.00"));
+        existing.setTransactionCount(1L);
+        when(ledgerRepository.findByAccountIdAndEntryDateAndTypeAndCategoryId(
+            1L, LocalDate.of(2025, 3, 10), TransactionType.EXPENSE, 5L)).thenReturn(Optional.of(existing));
+
+        // When
+        ledgerService.reverse(transaction);
+
+        // Then
+        verify(ledgerRepository).delete(existing);
+        verify(ledgerRepository, never()).save(any());
+    }
+
+    @Test
+    @DisplayName("L-4: rebuild - Should clear the ledger and backfill it from transactions")
+    void shouldRebuildFromTransactions() {
+        // Given
+        when(ledgerRepository.backfillFromTransactions()).thenReturn(12);
+
+        // When
+        int rows = ledgerService.rebuild();
+
+        // Then
+        assertEquals(12, rows);
+        verify(ledgerRepository).deleteAllInBatch();
+        verify(ledgerRepository).backfillFromTransactions();
+    }
+}
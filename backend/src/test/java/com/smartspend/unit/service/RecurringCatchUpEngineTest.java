@@ -0,0 +1,401 @@
+package com.smartspend.unit.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.smartspend.bankAccount.BankAccount;
+import com.smartspend.bankAccount.BankAccountRepository;
+import com.smartspend.category.Category;
+import com.smartspend.ledger.LedgerService;
+import com.smartspend.transaction.Recurrence;
+import com.smartspend.transaction.RecurringCatchUpEngine;
+import com.smartspend.transaction.Transaction;
+import com.smartspend.transaction.TransactionChangedEvent;
+import com.smartspend.transaction.TransactionType;
+import com.smartspend.transaction.search.TransactionSearchIndex;
+import com.smartspend.user.User;
+
+public class RecurringCatchUpEngineTest {
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Mock
+    private BankAccountRepository bankAccountRepository;
+
+    @Mock
+    private LedgerService ledgerService;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Mock
+    private TransactionSearchIndex searchIndex;
+
+    @InjectMocks
+    private RecurringCatchUpEngine catchUpEngine;
+
+    private final LocalDate today = LocalDate.of(2025, 6, 15);
+    private BankAccount testAccount;
+    private Category testCategory;
+    private Transaction parentTransaction;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+
+        User testUser = new User("testuser", "test@example.com", "hashedpassword");
+        testUser.setUserId(1L);
+
+        testAccount = new BankAccount(testUser, "Test Account", new BigDecimal("1000.00"));
+        testAccount.setId(1L);
+
+        testCategory = new Category("Salary", "Income from work", "#27ae60", TransactionType.INCOME, null);
+        testCategory.setId(1L);
+
+        parentTransaction = Transaction.builder()
+            .id(1L)
+            .title("Monthly Salary")
+            .description("Recurring salary payment")
+            .amount(new BigDecimal("2000.00"))
+            .date(today.minusMonths(1))
+            .type(TransactionType.INCOME)
+            .recurrence(Recurrence.MONTHLY)
+            .category(testCategory)
+            .account(testAccount)
+            .isRecurringSeriesParent(true)
+            .nextRecurrenceDate(today)
+            .build();
+
+        // Simula el UPDATE atómico del saldo sobre la fila de la cuenta de prueba
+        when(bankAccountRepository.addToBalance(eq(1L), any(BigDecimal.class))).thenAnswer(invocation -> {
+            testAccount.setCurrentBalance(testAccount.getCurrentBalance().add(invocation.getArgument(1)));
+            return 1;
+        });
+        when(bankAccountRepository.findCurrentBalance(1L)).thenAnswer(invocation -> testAccount.getCurrentBalance());
+        // Cada sentencia del lote afecta a una fila (todos los padres siguen como se leyeron)
+        when(jdbcTemplate.batchUpdate(anyString(), anyList(), any(int[].class))).thenAnswer(invocation -> {
+            int[] counts = new int[invocation.<List<?>>getArgument(1).size()];
+            Arrays.fill(counts, 1);
+            return counts;
+        });
+    }
+
+    private List<Object[]> capturedRows(String sqlPrefix) {
+        ArgumentCaptor<String> sql = ArgumentCaptor.forClass(String.class);
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<Object[]>> rows = ArgumentCaptor.forClass(List.class);
+        verify(jdbcTemplate, atLeast(0)).batchUpdate(sql.capture(), rows.capture(), any(int[].class));
+
+        List<Object[]> result = new ArrayList<>();
+        for (int i = 0; i < sql.getAllValues().size(); i++) {
+            if (sql.getAllValues().get(i).startsWith(sqlPrefix)) {
+                result.addAll(rows.getAllValues().get(i));
+            }
+        }
+        return result;
+    }
+
+    private List<Object[]> insertedChildren() {
+        return capturedRows("INSERT INTO transactions");
+    }
+
+    private LocalDate advancedNextDate() {
+        return (LocalDate) capturedRows("UPDATE transactions").get(0)[0];
+    }
+
+    @Test
+    @DisplayName("S-3: catchUp - Should create child transaction with correct properties")
+    void shouldCreateChildTransactionWithCorrectProperties() {
+        // When
+        int generated = catchUpEngine.catchUp(List.of(parentTransaction), today);
+
+        // Then
+        assertEquals(1, generated);
+        Object[] child = insertedChildren().get(0);
+        assertEquals("Monthly Salary", child[0]);
+        assertEquals("Recurring salary payment", child[1]);
+        assertEquals(new BigDecimal("2000.00"), child[2]);
+        assertEquals(today, child[3]);
+        assertEquals("INCOME", child[4]);
+        assertEquals(1L, child[5]);
+        assertEquals(1L, child[6]);
+        assertEquals(new BigDecimal("1000.00"), child[7]);
+    }
+
+    @Test
+    @DisplayName("S-11: catchUp - Should point child at the parent's image blob")
+    void shouldShareParentImageBlob() {
+        // Given
+        parentTransaction.setImageHash("abc123");
+        parentTransaction.setImageSize(2048L);
+        parentTransaction.setImageType("image/png");
+
+        // When
+        catchUpEngine.catchUp(List.of(parentTransaction), today);
+
+        // Then
+        Object[] child = insertedChildren().get(0);
+        assertEquals("abc123", child[8]);
+        assertEquals(2048L, child[9]);
+        assertEquals("image/png", child[10]);
+    }
+
+    @Test
+    @DisplayName("S-4: catchUp - Should update parent next recurrence date for DAILY")
+    void shouldUpdateParentNextRecurrenceDateForDaily() {
+        // Given
+        parentTransaction.setRecurrence(Recurrence.DAILY);
+
+        // When
+        catchUpEngine.catchUp(List.of(parentTransaction), today);
+
+        // Then
+        assertEquals(today.plusDays(1), advancedNextDate());
+    }
+
+    @Test
+    @DisplayName("S-5: catchUp - Should update parent next recurrence date for WEEKLY")
+    void shouldUpdateParentNextRecurrenceDateForWeekly() {
+        // Given
+        parentTransaction.setRecurrence(Recurrence.WEEKLY);
+
+        // When
+        catchUpEngine.catchUp(List.of(parentTransaction), today);
+
+        // Then
+        assertEquals(today.plusWeeks(1), advancedNextDate());
+    }
+
+    @Test
+    @DisplayName("S-6: catchUp - Should update parent next recurrence date for MONTHLY")
+    void shouldUpdateParentNextRecurrenceDateForMonthly() {
+        // When
+        catchUpEngine.catchUp(List.of(parentTransaction), today);
+
+        // Then
+        assertEquals(today.plusMonths(1), advancedNextDate());
+    }
+
+    @Test
+    @DisplayName("S-7: catchUp - Should update parent next recurrence date for YEARLY")
+    void shouldUpdateParentNextRecurrenceDateForYearly() {
+        // Given
+        parentTransaction.setRecurrence(Recurrence.YEARLY);
+
+        // When
+        catchUpEngine.catchUp(List.of(parentTransaction), today);
+
+        // Then
+        assertEquals(today.plusYears(1), advancedNextDate());
+    }
+
+    @Test
+    @DisplayName("S-10: nextOccurrence - Should return null for NONE recurrence")
+    void shouldReturnNullForNoneRecurrence() throws Exception {
+        // When - Using reflection to access package-private method
+        java.lang.reflect.Method method = RecurringCatchUpEngine.class.getDeclaredMethod(
+            "nextOccurrence", LocalDate.class, Recurrence.class);
+        method.setAccessible(true);
+        LocalDate result = (LocalDate) method.invoke(null, today, Recurrence.NONE);
+
+        // Then
+        assertNull(result);
+    }
+
+    @Test
+    @DisplayName("S-12: catchUp - Should materialize every missed period up to today")
+    void shouldCatchUpAllMissedPeriods() {
+        // Given
+        parentTransaction.setRecurrence(Recurrence.WEEKLY);
+        parentTransaction.setNextRecurrenceDate(today.minusWeeks(3));
+
+        // When
+        int generated = catchUpEngine.catchUp(List.of(parentTransaction), today);
+
+        // Then
+        assertEquals(4, generated);
+        List<Object[]> children = insertedChildren();
+        assertEquals(List.of(today.minusWeeks(3), today.minusWeeks(2), today.minusWeeks(1), today),
+            children.stream().map(row -> (LocalDate) row[3]).toList());
+        assertEquals(today.plusWeeks(1), advancedNextDate());
+    }
+
+    @Test
+    @DisplayName("S-13: catchUp - Should apply one aggregated balance delta per account and chain before balances")
+    void shouldAggregateBalancePerAccount() {
+        // Given
+        Transaction rent = Transaction.builder()
+            .id(2L)
+            .title("Rent")
+            .amount(new BigDecimal("700.00"))
+            .type(TransactionType.EXPENSE)
+            .recurrence(Recurrence.MONTHLY)
+            .category(testCategory)
+            .account(testAccount)
+            .isRecurringSeriesParent(true)
+            .nextRecurrenceDate(today.minusMonths(1).plusDays(1))
+            .build();
+        parentTransaction.setNextRecurrenceDate(today.minusMonths(1));
+
+        // When
+        int generated = catchUpEngine.catchUp(List.of(parentTransaction, rent), today);
+
+        // Then
+        assertEquals(3, generated);
+        List<BigDecimal> beforeBalances = insertedChildren().stream().map(row -> (BigDecimal) row[7]).toList();
+        assertEquals(List.of(new BigDecimal("1000.00"), new BigDecimal("3000.00"), new BigDecimal("2300.00")), beforeBalances);
+        verify(bankAccountRepository, times(1)).addToBalance(any(), any());
+        verify(bankAccountRepository).addToBalance(1L, new BigDecimal("3300.00"));
+    }
+
+    @Test
+    @DisplayName("S-14: catchUp - Should write one ledger entry per day, type and category")
+    void shouldAggregateLedgerEntries() {
+        // Given
+        Transaction bonus = Transaction.builder()
+            .id(2L)
+            .title("Bonus")
+            .amount(new BigDecimal("100.00"))
+            .type(TransactionType.INCOME)
+            .recurrence(Recurrence.MONTHLY)
+            .category(testCategory)
+            .account(testAccount)
+            .isRecurringSeriesParent(true)
+            .nextRecurrenceDate(today)
+            .build();
+
+        // When
+        catchUpEngine.catchUp(List.of(parentTransaction, bonus), today);
+
+        // Then
+        verify(ledgerService, times(1)).apply(any(), any(), any(), any(), any(), anyLong());
+        verify(ledgerService).apply(1L, today, TransactionType.INCOME, 1L, new BigDecimal("2100.00"), 2L);
+    }
+
+    @Test
+    @DisplayName("S-15: catchUp - Should send inserts in JDBC batches of the configured size")
+    void shouldSplitInsertsIntoBatches() {
+        // Given
+        ReflectionTestUtils.setField(catchUpEngine, "batchSize", 10);
+        parentTransaction.setRecurrence(Recurrence.DAILY);
+        parentTransaction.setNextRecurrenceDate(today.minusDays(24));
+
+        // When
+        int generated = catchUpEngine.catchUp(List.of(parentTransaction), today);
+
+        // Then
+        assertEquals(25, generated);
+        verify(jdbcTemplate, times(3)).batchUpdate(startsWith("INSERT INTO transactions"), anyList(), any(int[].class));
+        verify(jdbcTemplate, times(1)).batchUpdate(startsWith("UPDATE transactions"), anyList(), any(int[].class));
+        verify(jdbcTemplate, never()).batchUpdate(anyString(), eq(List.of()), any(int[].class));
+    }
+
+    @Test
+    @DisplayName("S-19: catchUp - Should publish one change event per account with the generated dates")
+    void shouldPublishChangedDatesPerAccount() {
+        // Given
+        parentTransaction.setRecurrence(Recurrence.WEEKLY);
+        parentTransaction.setNextRecurrenceDate(today.minusWeeks(1));
+
+        // When
+        catchUpEngine.catchUp(List.of(parentTransaction), today);
+
+        // Then
+        verify(eventPublisher, times(1)).publishEvent(any(Object.class));
+        verify(eventPublisher).publishEvent(new TransactionChangedEvent(1L, Set.of(today.minusWeeks(1), today)));
+    }
+
+    @Test
+    @DisplayName("S-20: catchUp - Should chain before balances from the locked row, not the loaded parent")
+    void shouldChainFromLockedBalance() {
+        // Given - el padre se cargó con 1000; antes del chunk otra escritura dejó la cuenta en 1500
+        Transaction stale = Transaction.builder()
+            .id(1L)
+            .title("Monthly Salary")
+            .amount(new BigDecimal("2000.00"))
+            .type(TransactionType.INCOME)
+            .recurrence(Recurrence.MONTHLY)
+            .category(testCategory)
+            .account(new BankAccount(testAccount.getUser(), "Test Account", new BigDecimal("1000.00")))
+            .isRecurringSeriesParent(true)
+            .nextRecurrenceDate(today.minusMonths(1))
+            .build();
+        stale.getAccount().setId(1L);
+        testAccount.setCurrentBalance(new BigDecimal("1500.00"));
+
+        // When
+        catchUpEngine.catchUp(List.of(stale), today);
+
+        // Then
+        List<BigDecimal> beforeBalances = insertedChildren().stream().map(row -> (BigDecimal) row[7]).toList();
+        assertEquals(List.of(new BigDecimal("1500.00"), new BigDecimal("3500.00")), beforeBalances);
+        assertEquals(new BigDecimal("5500.00"), testAccount.getCurrentBalance());
+    }
+
+    @Test
+    @DisplayName("S-21: catchUp - Should skip parents that changed since they were read")
+    void shouldSkipParentsChangedSinceRead() {
+        // Given - otro nodo ya avanzó el primer padre (o el usuario lo editó o borró)
+        Transaction other = Transaction.builder()
+            .id(2L)
+            .title("Rent")
+            .amount(new BigDecimal("500.00"))
+            .type(TransactionType.EXPENSE)
+            .recurrence(Recurrence.MONTHLY)
+            .category(testCategory)
+            .account(testAccount)
+            .isRecurringSeriesParent(true)
+            .nextRecurrenceDate(today)
+            .build();
+        when(jdbcTemplate.batchUpdate(startsWith("UPDATE transactions"), anyList(), any(int[].class)))
+            .thenReturn(new int[] {0, 1});
+
+        // When
+        int generated = catchUpEngine.catchUp(List.of(parentTransaction, other), today);
+
+        // Then
+        assertEquals(1, generated);
+        assertEquals("Rent", insertedChildren().get(0)[0]);
+        verify(bankAccountRepository).addToBalance(1L, new BigDecimal("-500.00"));
+        verify(ledgerService, times(1)).apply(any(), any(), any(), any(), any(), anyLong());
+    }
+
+    @Test
+    @DisplayName("S-22: catchUp - Should lock the account and advance the parent only if it is unchanged")
+    void shouldAdvanceParentConditionally() {
+        // When
+        catchUpEngine.catchUp(List.of(parentTransaction), today);
+
+        // Then
+        InOrder inOrder = inOrder(bankAccountRepository, jdbcTemplate);
+        inOrder.verify(bankAccountRepository).findByIdForUpdate(1L);
+        inOrder.verify(jdbcTemplate).batchUpdate(startsWith("UPDATE transactions"), anyList(), any(int[].class));
+        inOrder.verify(bankAccountRepository).addToBalance(eq(1L), any(BigDecimal.class));
+        Object[] update = capturedRows("UPDATE transactions").get(0);
+        assertArrayEquals(new Object[] {today.plusMonths(1), 1L, today, new BigDecimal("2000.00"), "INCOME", 1L, "MONTHLY"}, update);
+    }
+}
@@ -1,9 +1,9 @@
 package com.smartspend.unit.service;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
-import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.mockito.ArgumentMatchers.any;
-import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
 import java.math.BigDecimal;
@@ -19,61 +19,77 @@ import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.mockito.Spy;
+import org.springframework.core.task.SyncTaskExecutor;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import com.smartspend.bankAccount.BankAccount;
-import com.smartspend.bankAccount.BankAccountRepository;
 import com.smartspend.category.Category;
 import com.smartspend.transaction.Recurrence;
+import com.smartspend.transaction.RecurringCatchUpEngine;
 import com.smartspend.transaction.RecurringTransactionScheduler;
 import com.smartspend.transaction.Transaction;
 import com.smartspend.transaction.TransactionRepository;
-import com.smartspend.transaction.TransactionService;
 import com.smartspend.transaction.TransactionType;
 import com.smartspend.user.User;
 
+import net.javacrumbs.shedlock.spring.annotation.SchedulerLock;
+
 public class RecurringTransactionSchedulerTest {
 
     @Mock
     private TransactionRepository transactionRepository;
 
-    @Mock 
-    private BankAccountRepository bankAccountRepository;
+    @Mock
+    private RecurringCatchUpEngine catchUpEngine;
 
     @Mock
-    private TransactionService transactionService;
+    private TransactionTemplate transactionTemplate;
+
+    // Las particiones se ejecutan en el hilo del test para que el orden sea determinista
+    @Spy
+    private TaskExecutor recurringTaskExecutor = new SyncTaskExecutor();
 
     @InjectMocks
     private RecurringTransactionScheduler recurringTransactionScheduler;
 
     private User testUser;
-    private BankAccount testAccount;
     private Category testCategory;
-    private Transaction parentTransaction;
 
     @BeforeEach
     void setUp() {
         MockitoAnnotations.openMocks(this);
-        
+
         testUser = new User("testuser", "test@example.com", "hashedpassword");
         testUser.setUserId(1L);
-        
-        testAccount = new BankAccount(testUser, "Test Account", new BigDecimal("1000.00"));
-        testAccount.setId(1L);
-        
+
         testCategory = new Category("Salary", "Income from work", "#27ae60", TransactionType.INCOME, null);
         testCategory.setId(1L);
-        
-        parentTransaction = Transaction.builder()
-            .id(1L)
+
+        // Ejecuta cada bloque en el hilo del test como si abriera su propia transacción
+        when(transactionTemplate.execute(any())).thenAnswer(invocation ->
+            invocation.<TransactionCallback<?>>getArgument(0).doInTransaction(null));
+    }
+
+    private BankAccount account(Long id) {
+        BankAccount account = new BankAccount(testUser, "Account " + id, new BigDecimal("1000.00"));
+        account.setId(id);
+        return account;
+    }
+
+    private Transaction parent(Long id, BankAccount account) {
+        return Transaction.builder()
+            .id(id)
             .title("Monthly Salary")
-            .description("Recurring salary payment")
             .amount(new BigDecimal("2000.00"))
             .date(LocalDate.now().minusMonths(1))
             .type(TransactionType.INCOME)
             .recurrence(Recurrence.MONTHLY)
             .category(testCategory)
-            .account(testAccount)
-            .beforeBalance(new BigDecimal("1000.00"))
+            .account(account)
             .isRecurringSeriesParent(true)
             .nextRecurrenceDate(LocalDate.now())
             .build();
@@ -84,24 +100,20 @@ public class RecurringTransactionSchedulerTest {
     // ===============================================
 
     @Test
-    @DisplayName("S-1: generateRecurringTransactions - Should process pending recurring transactions")
+    @DisplayName("S-1: generateRecurringTransactions - Should hand pending series to the catch-up engine in a transaction")
     void shouldProcessPendingRecurringTransactions() {
         // Given
-        List<Transaction> pendingTransactions = Arrays.asList(parentTransaction);
-        
+        Transaction parentTransaction = parent(1L, account(1L));
         when(transactionRepository.findPendingRecurringTransactions(any(LocalDate.class)))
-            .thenReturn(pendingTransactions);
-        when(transactionRepository.save(any(Transaction.class)))
-            .thenAnswer(invocation -> invocation.getArgument(0));
+            .thenReturn(Arrays.asList(parentTransaction));
 
         // When
         recurringTransactionScheduler.generateRecurringTransactions();
 
         // Then
         verify(transactionRepository).findPendingRecurringTransactions(LocalDate.now());
-        verify(transactionService).upadateAccountBalance(any(Transaction.class), any(BankAccount.class));
-        verify(bankAccountRepository).save(testAccount);
-        verify(transactionRepository, times(2)).save(any(Transaction.class)); // Child + parent update
+        verify(transactionTemplate).execute(any());
+        verify(catchUpEngine).catchUp(List.of(parentTransaction), LocalDate.now());
     }
 
     @Test
@@ -116,232 +128,112 @@ public class RecurringTransactionSchedulerTest {
 
         // Then
         verify(transactionRepository).findPendingRecurringTransactions(LocalDate.now());
-        verify(transactionService, never()).upadateAccountBalance(any(), any());
-        verify(bankAccountRepository, never()).save(any());
-        verify(transactionRepository, never()).save(any());
+        verifyNoInteractions(catchUpEngine, transactionTemplate);
     }
 
     @Test
-    @DisplayName("S-3: generateRecurringTransactions - Should create child transaction with correct properties")
-    void shouldCreateChildTransactionWithCorrectProperties() {
+    @DisplayName("S-8: generateRecurringTransactions - Should split series into chunks that keep each account whole")
+    @SuppressWarnings("unchecked")
+    void shouldChunkSeriesByAccount() {
         // Given
-        List<Transaction> pendingTransactions = Arrays.asList(parentTransaction);
-        
+        ReflectionTestUtils.setField(recurringTransactionScheduler, "chunkSize", 2);
+        BankAccount first = account(1L);
+        BankAccount second = account(2L);
+        Transaction a1 = parent(1L, first);
+        Transaction b1 = parent(2L, second);
+        Transaction a2 = parent(3L, first);
+        Transaction b2 = parent(4L, second);
         when(transactionRepository.findPendingRecurringTransactions(any(LocalDate.class)))
-            .thenReturn(pendingTransactions);
-        when(transactionRepository.save(any(Transaction.class)))
-            .thenAnswer(invocation -> invocation.getArgument(0));
+            .thenReturn(Arrays.asList(a1, b1, a2, b2));
 
         // When
         recurringTransactionScheduler.generateRecurringTransactions();
 
         // Then
-        ArgumentCaptor<Transaction> savedTransactionCaptor = ArgumentCaptor.forClass(Transaction.class);
-        verify(transactionRepository, times(2)).save(savedTransactionCaptor.capture());
-        
-        List<Transaction> savedTransactions = savedTransactionCaptor.getAllValues();
-        Transaction childTransaction = savedTransactions.stream()
-            .filter(t -> t.getIsRecurringSeriesParent() == false)
-            .findFirst()
-            .orElseThrow();
-
-        // Verify child transaction properties
-        assertEquals(parentTransaction.getTitle(), childTransaction.getTitle());
-        assertEquals(parentTransaction.getDescription(), childTransaction.getDescription());
-        assertEquals(parentTransaction.getAmount(), childTransaction.getAmount());
-        assertEquals(parentTransaction.getType(), childTransaction.getType());
-        assertEquals(parentTransaction.getCategory(), childTransaction.getCategory());
-        assertEquals(parentTransaction.getAccount(), childTransaction.getAccount());
-        assertEquals(Recurrence.NONE, childTransaction.getRecurrence());
-        assertEquals(false, childTransaction.getIsRecurringSeriesParent());
-        assertNull(childTransaction.getNextRecurrenceDate());
-        assertEquals(LocalDate.now(), childTransaction.getDate());
+        ArgumentCaptor<List<Transaction>> chunks = ArgumentCaptor.forClass(List.class);
+        verify(catchUpEngine, times(2)).catchUp(chunks.capture(), eq(LocalDate.now()));
+        assertEquals(List.of(a1, a2), chunks.getAllValues().get(0));
+        assertEquals(List.of(b1, b2), chunks.getAllValues().get(1));
+        verify(transactionTemplate, times(2)).execute(any());
     }
 
     @Test
-    @DisplayName("S-4: generateRecurringTransactions - Should update parent next recurrence date for DAILY")
-    void shouldUpdateParentNextRecurrenceDateForDaily() {
+    @DisplayName("S-9: generateRecurringTransactions - Should keep going when one chunk fails")
+    @SuppressWarnings("unchecked")
+    void shouldHandleExceptionsGracefully() {
         // Given
-        parentTransaction.setRecurrence(Recurrence.DAILY);
-        List<Transaction> pendingTransactions = Arrays.asList(parentTransaction);
-        
+        ReflectionTestUtils.setField(recurringTransactionScheduler, "chunkSize", 1);
+        Transaction failing = parent(1L, account(1L));
+        Transaction healthy = parent(2L, account(2L));
         when(transactionRepository.findPendingRecurringTransactions(any(LocalDate.class)))
-            .thenReturn(pendingTransactions);
-        when(transactionRepository.save(any(Transaction.class)))
-            .thenAnswer(invocation -> invocation.getArgument(0));
+            .thenReturn(Arrays.asList(failing, healthy));
+        when(catchUpEngine.catchUp(eq(List.of(failing)), any(LocalDate.class)))
+            .thenThrow(new RuntimeException("Database error"));
+        when(catchUpEngine.catchUp(eq(List.of(healthy)), any(LocalDate.class))).thenReturn(1);
 
-        // When
+        // When & Then - Should not throw exception
         recurringTransactionScheduler.generateRecurringTransactions();
 
-        // Then
-        ArgumentCaptor<Transaction> savedParentCaptor = ArgumentCaptor.forClass(Transaction.class);
-        verify(transactionRepository, times(2)).save(savedParentCaptor.capture());
-        
-        List<Transaction> savedTransactions = savedParentCaptor.getAllValues();
-        Transaction updatedParent = savedTransactions.stream()
-            .filter(t -> t.getIsRecurringSeriesParent() == true)
-            .findFirst()
-            .orElseThrow();
-
-        LocalDate expectedNextDate = LocalDate.now().plusDays(1);
-        assertEquals(expectedNextDate, updatedParent.getNextRecurrenceDate());
+        ArgumentCaptor<List<Transaction>> chunks = ArgumentCaptor.forClass(List.class);
+        verify(catchUpEngine, times(2)).catchUp(chunks.capture(), any(LocalDate.class));
+        assertEquals(List.of(healthy), chunks.getAllValues().get(1));
     }
 
     @Test
-    @DisplayName("S-5: generateRecurringTransactions - Should update parent next recurrence date for WEEKLY")
-    void shouldUpdateParentNextRecurrenceDateForWeekly() {
+    @DisplayName("S-16: generateRecurringTransactions - Should spread whole accounts across worker partitions by load")
+    @SuppressWarnings("unchecked")
+    void shouldPartitionAccountsAcrossWorkers() {
         // Given
-        parentTransaction.setRecurrence(Recurrence.WEEKLY);
-        List<Transaction> pendingTransactions = Arrays.asList(parentTransaction);
-        
+        ReflectionTestUtils.setField(recurringTransactionScheduler, "workers", 2);
+        BankAccount busy = account(1L);
+        BankAccount quiet = account(2L);
+        BankAccount idle = account(3L);
+        Transaction q1 = parent(1L, quiet);
+        Transaction b1 = parent(2L, busy);
+        Transaction b2 = parent(3L, busy);
+        Transaction i1 = parent(4L, idle);
+        Transaction b3 = parent(5L, busy);
         when(transactionRepository.findPendingRecurringTransactions(any(LocalDate.class)))
-            .thenReturn(pendingTransactions);
-        when(transactionRepository.save(any(Transaction.class)))
-            .thenAnswer(invocation -> invocation.getArgument(0));
+            .thenReturn(Arrays.asList(q1, b1, b2, i1, b3));
 
         // When
         recurringTransactionScheduler.generateRecurringTransactions();
 
         // Then
-        ArgumentCaptor<Transaction> savedParentCaptor = ArgumentCaptor.forClass(Transaction.class);
-        verify(transactionRepository, times(2)).save(savedParentCaptor.capture());
-        
-        List<Transaction> savedTransactions = savedParentCaptor.getAllValues();
-        Transaction updatedParent = savedTransactions.stream()
-            .filter(t -> t.getIsRecurringSeriesParent() == true)
-            .findFirst()
-            .orElseThrow();
-
-        LocalDate expectedNextDate = LocalDate.now().plusWeeks(1);
-        assertEquals(expectedNextDate, updatedParent.getNextRecurrenceDate());
+        verify(recurringTaskExecutor, times(2)).execute(any(Runnable.class));
+        ArgumentCaptor<List<Transaction>> chunks = ArgumentCaptor.forClass(List.class);
+        verify(catchUpEngine, times(2)).catchUp(chunks.capture(), eq(LocalDate.now()));
+        assertEquals(List.of(b1, b2, b3), chunks.getAllValues().get(0));
+        assertEquals(List.of(q1, i1), chunks.getAllValues().get(1));
     }
 
     @Test
-    @DisplayName("S-6: generateRecurringTransactions - Should update parent next recurrence date for MONTHLY")
-    void shouldUpdateParentNextRecurrenceDateForMonthly() {
+    @DisplayName("S-17: generateRecurringTransactions - Should never use more partitions than accounts")
+    void shouldNotCreateEmptyPartitions() {
         // Given
-        parentTransaction.setRecurrence(Recurrence.MONTHLY);
-        List<Transaction> pendingTransactions = Arrays.asList(parentTransaction);
-        
+        ReflectionTestUtils.setField(recurringTransactionScheduler, "workers", 8);
+        BankAccount single = account(1L);
         when(transactionRepository.findPendingRecurringTransactions(any(LocalDate.class)))
-            .thenReturn(pendingTransactions);
-        when(transactionRepository.save(any(Transaction.class)))
-            .thenAnswer(invocation -> invocation.getArgument(0));
+            .thenReturn(Arrays.asList(parent(1L, single), parent(2L, single)));
 
         // When
         recurringTransactionScheduler.generateRecurringTransactions();
 
         // Then
-        ArgumentCaptor<Transaction> savedParentCaptor = ArgumentCaptor.forClass(Transaction.class);
-        verify(transactionRepository, times(2)).save(savedParentCaptor.capture());
-        
-        List<Transaction> savedTransactions = savedParentCaptor.getAllValues();
-        Transaction updatedParent = savedTransactions.stream()
-            .filter(t -> t.getIsRecurringSeriesParent() == true)
-            .findFirst()
-            .orElseThrow();
-
-        LocalDate expectedNextDate = LocalDate.now().plusMonths(1);
-        assertEquals(expectedNextDate, updatedParent.getNextRecurrenceDate());
+        verify(recurringTaskExecutor, times(1)).execute(any(Runnable.class));
+        verify(catchUpEngine, times(1)).catchUp(any(), any(LocalDate.class));
     }
 
     @Test
-    @DisplayName("S-7: generateRecurringTransactions - Should update parent next recurrence date for YEARLY")
-    void shouldUpdateParentNextRecurrenceDateForYearly() {
-        // Given
-        parentTransaction.setRecurrence(Recurrence.YEARLY);
-        List<Transaction> pendingTransactions = Arrays.asList(parentTransaction);
-        
-        when(transactionRepository.findPendingRecurringTransactions(any(LocalDate.class)))
-            .thenReturn(pendingTransactions);
-        when(transactionRepository.save(any(Transaction.class)))
-            .thenAnswer(invocation -> invocation.getArgument(0));
-
+    @DisplayName("S-18: generateRecurringTransactions - Should be guarded by the distributed scheduler lock")
+    void shouldBeGuardedBySchedulerLock() throws Exception {
         // When
-        recurringTransactionScheduler.generateRecurringTransactions();
-
-        // Then
-        ArgumentCaptor<Transaction> savedParentCaptor = ArgumentCaptor.forClass(Transaction.class);
-        verify(transactionRepository, times(2)).save(savedParentCaptor.capture());
-        
-        List<Transaction> savedTransactions = savedParentCaptor.getAllValues();
-        Transaction updatedParent = savedTransactions.stream()
-            .filter(t -> t.getIsRecurringSeriesParent() == true)
-            .findFirst()
-            .orElseThrow();
-
-        LocalDate expectedNextDate = LocalDate.now().plusYears(1);
-        assertEquals(expectedNextDate, updatedParent.getNextRecurrenceDate());
-    }
+        SchedulerLock lock = RecurringTransactionScheduler.class
+            .getMethod("generateRecurringTransactions")
+            .getAnnotation(SchedulerLock.class);
 
-    @Test
-    @DisplayName("S-8: generateRecurringTransactions - Should process multiple pending transactions")
-    void shouldProcessMultiplePendingTransactions() {
-        // Given
-        Transaction secondParentTransaction = Transaction.builder()
-            .id(2L)
-            .title("Weekly Expense")
-            .description("Recurring weekly expense")
-            .amount(new BigDecimal("100.00"))
-            .date(LocalDate.now().minusWeeks(1))
-            .type(TransactionType.EXPENSE)
-            .recurrence(Recurrence.WEEKLY)
-            .category(testCategory)
-            .account(testAccount)
-            .beforeBalance(new BigDecimal("1000.00"))
-            .isRecurringSeriesParent(true)
-            .nextRecurrenceDate(LocalDate.now())
-            .build();
-
-        List<Transaction> pendingTransactions = Arrays.asList(parentTransaction, secondParentTransaction);
-        
-        when(transactionRepository.findPendingRecurringTransactions(any(LocalDate.class)))
-            .thenReturn(pendingTransactions);
-        when(transactionRepository.save(any(Transaction.class)))
-            .thenAnswer(invocation -> invocation.getArgument(0));
-
-        // When
-        recurringTransactionScheduler.generateRecurringTransactions();
-
-        // Then
-        verify(transactionRepository).findPendingRecurringTransactions(LocalDate.now());
-        verify(transactionService, times(2)).upadateAccountBalance(any(Transaction.class), any(BankAccount.class));
-        verify(bankAccountRepository, times(2)).save(testAccount);
-        verify(transactionRepository, times(4)).save(any(Transaction.class)); // 2 children + 2 parent updates
-    }
-
-    @Test
-    @DisplayName("S-9: generateRecurringTransactions - Should handle exceptions gracefully")
-    void shouldHandleExceptionsGracefully() {
-        // Given
-        List<Transaction> pendingTransactions = Arrays.asList(parentTransaction);
-        
-        when(transactionRepository.findPendingRecurringTransactions(any(LocalDate.class)))
-            .thenReturn(pendingTransactions);
-        doThrow(new RuntimeException("Database error"))
-            .when(transactionService).upadateAccountBalance(any(Transaction.class), any(BankAccount.class));
-
-        // When & Then - Should not throw exception
-        recurringTransactionScheduler.generateRecurringTransactions();
-
-        // Verify it tried to process but handled the exception
-        verify(transactionRepository).findPendingRecurringTransactions(LocalDate.now());
-        verify(transactionService).upadateAccountBalance(any(Transaction.class), any(BankAccount.class));
-    }
-
-    @Test 
-    @DisplayName("S-10: calculateNextRecurrenceDate - Should return null for NONE recurrence")
-    void shouldReturnNullForNoneRecurrence() throws Exception {
-        // Given
-        LocalDate currentDate = LocalDate.now();
-        
-        // When - Using reflection to access private method
-        java.lang.reflect.Method method = RecurringTransactionScheduler.class.getDeclaredMethod(
-            "calculateNextRecurrenceDate", LocalDate.class, Recurrence.class);
-        method.setAccessible(true);
-        LocalDate result = (LocalDate) method.invoke(recurringTransactionScheduler, currentDate, Recurrence.NONE);
-        
         // Then
-        assertNull(result);
+        assertNotNull(lock);
+        assertEquals("recurringTransactions", lock.name());
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,169 @@
+package com.smartspend.unit.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+import java.io.ByteArrayOutputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import com.smartspend.bankAccount.BankAccount;
+import com.smartspend.bankAccount.BankAccountRepository;
+import com.smartspend.report.ReportExportService;
+import com.smartspend.report.dtos.ReportExportScope;
+import com.smartspend.report.dtos.TransactionExportRow;
+import com.smartspend.transaction.TransactionRepository;
+import com.smartspend.transaction.TransactionType;
+import com.smartspend.user.User;
+
+public class ReportExportServiceTest {
+
+    @Mock
+    private BankAccountRepository bankAccountRepository;
+
+    @Mock
+    private TransactionRepository transactionRepository;
+
+    @InjectMocks
+    private ReportExportService reportExportService;
+
+    private BankAccount testAccount;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+
+        User testUser = new User("testuser", "test@example.com", "hashedpassword");
+        testUser.setUserId(1L);
+
+        testAccount = new BankAccount(testUser, "Test Account", new BigDecimal("2000.00"));
+        testAccount.setId(1L);
+    }
+
+    @Test
+    @DisplayName("EX-1: prepareExport - Should cover the whole month of the user's account")
+    void shouldPrepareMonthlyExport() {
+        // Given
+        when(bankAccountRepository.findByIdAndUser_UserId(1L, 1L)).thenReturn(Optional.of(testAccount));
+
+        // When
+        ReportExportScope scope = reportExportService.prepareExport(1L, 1L, 2024, 2);
+
+        // Then
+        assertEquals(LocalDate.of(2024, 2, 1), scope.dateFrom());
+        assertEquals(LocalDate.of(2024, 2, 29), scope.dateTo());
+        assertEquals("Test Account", scope.accountLabel());
+        assertEquals("smartspend-1-2024-02", scope.fileName());
+    }
+
+    @Test
+    @DisplayName("EX-2: prepareExport - Should export every account for the whole year when both are omitted")
+    void shouldPrepareYearlyExportForAllAccounts() {
+        // When
+        ReportExportScope scope = reportExportService.prepareExport(1L, null, 2024, null);
+
+        // Then
+        assertNull(scope.accountId());
+        assertEquals(LocalDate.of(2024, 1, 1), scope.dateFrom());
+        assertEquals(LocalDate.of(2024, 12, 31), scope.dateTo());
+        assertEquals("smartspend-all-2024", scope.fileName());
+        verifyNoInteractions(bankAccountRepository);
+    }
+
+    @Test
+    @DisplayName("EX-3: prepareExport - Should throw exception for an account of another user")
+    void shouldRejectForeignAccount() {
+        // Given
+        when(bankAccountRepository.findByIdAndUser_UserId(1L, 2L)).thenReturn(Optional.empty());
+
+        // When
+        RuntimeException exception = assertThrows(RuntimeException.class,
+            () -> reportExportService.prepareExport(2L, 1L, 2024, 2));
+
+        // Then
+        assertEquals("Bank account not found", exception.getMessage());
+        verifyNoInteractions(transactionRepository);
+    }
+
+    @Test
+    @DisplayName("EX-4: writeCsv - Should write one escaped line per streamed row and close the cursor")
+    void shouldStreamCsvRows() throws Exception {
+        // Given
+        ReportExportScope scope = new ReportExportScope(1L, 1L, "Test Account",
+            LocalDate.of(2024, 2, 1), LocalDate.of(2024, 2, 29), "smartspend-1-2024-02");
+        AtomicBoolean closed = new AtomicBoolean(false);
+        when(transactionRepository.streamExportRows(1L, 1L, scope.dateFrom(), scope.dateTo()))
+            .thenReturn(Stream.of(
+                new TransactionExportRow(LocalDate.of(2024, 2, 1), "Test Account", TransactionType.INCOME,
+                    "Nómina", "Salary", null, new BigDecimal("2000.00")),
+                new TransactionExportRow(LocalDate.of(2024, 2, 2), "Test Account", TransactionType.EXPENSE,
+                    "Comida", "Cena, \"especial\"", "línea 1\nlínea 2", new BigDecimal("45.50"))
+            ).onClose(() -> closed.set(true)));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        // When
+        reportExportService.writeCsv(scope, out);
+
+        // Then
+        String[] lines = out.toString(StandardCharsets.UTF_8).split("\n", 2);
+        assertEquals("date,account,type,category,title,description,amount", lines[0]);
+        assertEquals("2024-02-01,Test Account,INCOME,Nómina,Salary,,2000.00\n"
+            + "2024-02-02,Test Account,EXPENSE,Comida,\"Cena, \"\"especial\"\"\",\"línea 1\nlínea 2\",45.50\n", lines[1]);
+        assertTrue(closed.get());
+    }
+
+    @Test
+    @DisplayName("EX-5: writePdf - Should render a PDF across several table flushes")
+    void shouldStreamPdfRows() {
+        // Given
+        ReportExportScope scope = new ReportExportScope(1L, null, "Todas las cuentas",
+            LocalDate.of(2024, 1, 1), LocalDate.of(2024, 12, 31), "smartspend-all-2024");
+        when(transactionRepository.streamExportRows(1L, null, scope.dateFrom(), scope.dateTo()))
+            .thenReturn(IntStream.range(0, 450).mapToObj(i -> new TransactionExportRow(
+                LocalDate.of(2024, 1, 1).plusDays(i % 365), "Test Account",
+                i % 2 == 0 ? TransactionType.INCOME : TransactionType.EXPENSE,
+                "Comida", "Movimiento " + i, null, new BigDecimal("10.00"))));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        // When
+        reportExportService.writePdf(scope, out);
+
+        // Then
+        String pdf = out.toString(StandardCharsets.ISO_8859_1);
+        assertTrue(pdf.startsWith("%PDF-"));
+        assertTrue(pdf.stripTrailing().endsWith("%%EOF"));
+    }
+
+    @Test
+    @DisplayName("EX-6: writeCsv - Should neutralize values that a spreadsheet would run as formulas")
+    void shouldNeutralizeCsvFormulas() throws Exception {
+        // Given
+        ReportExportScope scope = new ReportExportScope(1L, 1L, "Test Account",
+            LocalDate.of(2024, 2, 1), LocalDate.of(2024, 2, 29), "smartspend-1-2024-02");
+        when(transactionRepository.streamExportRows(1L, 1L, scope.dateFrom(), scope.dateTo()))
+            .thenReturn(Stream.of(
+                new TransactionExportRow(LocalDate.of(2024, 2, 1), "@cuenta", TransactionType.EXPENSE,
+                    "+Comida", "=HYPERLINK(\"http://x\",\"y\")", "-2+3", new BigDecimal("10.00"))));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        // When
+        reportExportService.writeCsv(scope, out);
+
+        // Then
+        String[] lines = out.toString(StandardCharsets.UTF_8).split("\n", 2);
+        assertEquals("2024-02-01,'@cuenta,EXPENSE,'+Comida,\"'=HYPERLINK(\"\"http://x\"\",\"\"y\"\")\",'-2+3,10.00\n",
+            lines[1]);
+    }
+}
@@ -0,0 +1,152 @@
+package com.smartspend.unit.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import com.smartspend.bankAccount.BankAccountRepository;
+import com.smartspend.ledger.LedgerRepository;
+import com.smartspend.report.ReportService;
+import com.smartspend.report.dtos.ReportAccountDto;
+import com.smartspend.report.dtos.ReportResponseDTO;
+import com.smartspend.report.dtos.ReportTransactionRow;
+import com.smartspend.transaction.TransactionRepository;
+import com.smartspend.transaction.TransactionType;
+
+public class ReportServiceTest {
+
+    @Mock
+    private BankAccountRepository bankAccountRepository;
+
+    @Mock
+    private TransactionRepository transactionRepository;
+
+    @Mock
+    private LedgerRepository ledgerRepository;
+
+    @InjectMocks
+    private ReportService reportService;
+
+    private ReportAccountDto testAccount;
+    private long nextId = 1;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+
+        testAccount = new ReportAccountDto(1L, "Test Account", new BigDecimal("2000.00"));
+    }
+
+    private ReportTransactionRow row(TransactionType type, String category, String amount, LocalDate date) {
+        return new ReportTransactionRow(nextId++, "t", null, new BigDecimal(amount), date, type, category, "#6c757d", null);
+    }
+
+    @Test
+    @DisplayName("RP-1: getResponseData - Should fill lists, statistics and charts from one scan of the month")
+    void shouldBuildReportFromSingleScan() {
+        // Given
+        ReportTransactionRow income = row(TransactionType.INCOME, "Salary", "2000.00", LocalDate.of(2024, 2, 1));
+        ReportTransactionRow lunch = row(TransactionType.EXPENSE, "Food", "100.00", LocalDate.of(2024, 2, 1));
+        ReportTransactionRow bus = row(TransactionType.EXPENSE, "Transport", "50.00", LocalDate.of(2024, 2, 2));
+        ReportTransactionRow dinner = row(TransactionType.EXPENSE, "Food", "25.00", LocalDate.of(2024, 2, 3));
+
+        when(bankAccountRepository.findReportAccount(1L, 1L)).thenReturn(Optional.of(testAccount));
+        when(ledgerRepository.findBalanceUpToDate(1L, LocalDate.of(2024, 1, 31))).thenReturn(new BigDecimal("1000.00"));
+        when(transactionRepository.findReportRows(
+            1L, LocalDate.of(2024, 2, 1), LocalDate.of(2024, 2, 29)))
+            .thenReturn(List.of(income, lunch, bus, dinner));
+
+        // When
+        ReportResponseDTO result = reportService.getResponseData(1L, 1L, 2024, 2);
+
+        // Then
+        assertEquals(testAccount, result.bankAccount());
+        assertEquals(List.of(income), result.incomesList());
+        assertEquals(List.of(lunch, bus, dinner), result.expensesList());
+        assertEquals(2000.0f, result.stadistics().totalIncomes());
+        assertEquals(175.0f, result.stadistics().totalExpenses());
+        assertEquals(1825.0f, result.stadistics().balance());
+        assertEquals(List.of(2000.0f, 175.0f), result.barLineChart().data());
+        assertEquals(List.of("Food", "Transport"), result.expensePieChart().labels());
+        assertEquals(List.of(125.0, 50.0), result.expensePieChart().data());
+        assertEquals(List.of("Salary"), result.incomePieChart().labels());
+        assertEquals(29, result.lineChart().labels().size());
+        assertEquals(List.of(2900.0f, 2850.0f, 2825.0f), result.lineChart().balanceData().subList(0, 3));
+        verify(transactionRepository, times(1)).findReportRows(any(), any(), any());
+        verify(transactionRepository, never()).findByAccountAndDateRangeAndType(any(), any(), any(), any());
+        verify(ledgerRepository, never()).findTotalByAccountAndDateRangeAndType(any(), any(), any(), any());
+    }
+
+    @Test
+    @DisplayName("RP-2: getResponseData - Should return an empty report for a month without transactions")
+    void shouldBuildEmptyReport() {
+        // Given
+        when(bankAccountRepository.findReportAccount(1L, 1L)).thenReturn(Optional.of(testAccount));
+        when(ledgerRepository.findBalanceUpToDate(1L, LocalDate.of(2023, 12, 31))).thenReturn(new BigDecimal("300.00"));
+        when(transactionRepository.findReportRows(
+            1L, LocalDate.of(2024, 1, 1), LocalDate.of(2024, 1, 31)))
+            .thenReturn(List.of());
+
+        // When
+        ReportResponseDTO result = reportService.getResponseData(1L, 1L, 2024, 1);
+
+        // Then
+        assertTrue(result.incomesList().isEmpty());
+        assertTrue(result.expensesList().isEmpty());
+        assertEquals(0.0f, result.stadistics().balance());
+        assertTrue(result.expensePieChart().labels().isEmpty());
+        assertEquals(31, result.lineChart().balanceData().size());
+        assertEquals(300.0f, result.lineChart().balanceData().get(30));
+    }
+
+    @Test
+    @DisplayName("RP-3: getResponseData - Should throw exception for an account of another user")
+    void shouldRejectForeignAccount() {
+        // Given
+        when(bankAccountRepository.findReportAccount(1L, 2L)).thenReturn(Optional.empty());
+
+        // When
+        RuntimeException exception = assertThrows(RuntimeException.class,
+            () -> reportService.getResponseData(1L, 2L, 2024, 2));
+
+        // Then
+        assertEquals("Bank account not found", exception.getMessage());
+        verifyNoInteractions(transactionRepository, ledgerRepository);
+    }
+
+    @Test
+    @DisplayName("RP-4: getResponseData - Should serialize flat rows without user, password or image data")
+    void shouldSerializeFlatReport() throws Exception {
+        // Given
+        when(bankAccountRepository.findReportAccount(1L, 1L)).thenReturn(Optional.of(testAccount));
+        when(ledgerRepository.findBalanceUpToDate(any(), any())).thenReturn(BigDecimal.ZERO);
+        when(transactionRepository.findReportRows(any(), any(), any()))
+            .thenReturn(List.of(row(TransactionType.EXPENSE, "Food", "12.00", LocalDate.of(2024, 2, 1))));
+
+        // When
+        String json = new ObjectMapper().findAndRegisterModules()
+            .writeValueAsString(reportService.getResponseData(1L, 1L, 2024, 2));
+
+        // Then
+        assertTrue(json.contains("\"accountName\":\"Test Account\""));
+        assertTrue(json.contains("\"categoryName\":\"Food\""));
+        assertFalse(json.contains("password"));
+        assertFalse(json.contains("\"user\""));
+        assertFalse(json.contains("image"));
+        assertFalse(json.contains("accountTransactions"));
+    }
+}
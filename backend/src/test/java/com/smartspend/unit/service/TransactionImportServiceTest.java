@@ -0,0 +1,385 @@
+package com.smartspend.unit.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.smartspend.bankAccount.BankAccount;
+import com.smartspend.bankAccount.BankAccountRepository;
+import com.smartspend.category.Category;
+import com.smartspend.category.CategoryCatalog;
+import com.smartspend.category.CategoryRepository;
+import com.smartspend.ledger.LedgerService;
+import com.smartspend.transaction.TransactionChangedEvent;
+import com.smartspend.transaction.TransactionType;
+import com.smartspend.transaction.dtos.ImportResultDto;
+import com.smartspend.transaction.imports.ImportFormat;
+import com.smartspend.transaction.imports.TransactionImportService;
+import com.smartspend.transaction.search.TransactionSearchIndex;
+import com.smartspend.user.User;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+public class TransactionImportServiceTest {
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Mock
+    private BankAccountRepository bankAccountRepository;
+
+    @Mock
+    private CategoryRepository categoryRepository;
+
+    @Mock
+    private LedgerService ledgerService;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Mock
+    private TransactionSearchIndex searchIndex;
+
+    @InjectMocks
+    private TransactionImportService importService;
+
+    private BankAccount testAccount;
+    private Category food;
+    private Category salary;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+
+        User testUser = new User("testuser", "test@example.com", "hashedpassword");
+        testUser.setUserId(1L);
+
+        testAccount = new BankAccount(testUser, "Test Account", new BigDecimal("1000.00"));
+        testAccount.setId(1L);
+
+        food = new Category("Comida", "Supermercado", "#e74c3c", TransactionType.EXPENSE, "x");
+        food.setId(6L);
+        food.setIsDefault(true);
+        salary = new Category("Nómina", "Trabajo", "#27ae60", TransactionType.INCOME, "x");
+        salary.setId(1L);
+        salary.setIsDefault(true);
+
+        when(bankAccountRepository.findByIdForUpdate(1L)).thenReturn(Optional.of(testAccount));
+        when(categoryRepository.findByUserUserId(1L)).thenReturn(List.of());
+        when(categoryRepository.findByIsDefaultTrueAndType(TransactionType.INCOME)).thenReturn(List.of(salary));
+        when(categoryRepository.findByIsDefaultTrueAndType(TransactionType.EXPENSE)).thenReturn(List.of(food));
+
+        CategoryCatalog categoryCatalog = new CategoryCatalog(100, Duration.ofMinutes(10), new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(categoryCatalog, "categoryRepository", categoryRepository);
+        ReflectionTestUtils.setField(importService, "categoryCatalog", categoryCatalog);
+
+        // Simula el UPDATE atómico del saldo sobre la fila de la cuenta
+        when(bankAccountRepository.addToBalance(eq(1L), any(BigDecimal.class))).thenAnswer(invocation -> {
+            testAccount.setCurrentBalance(testAccount.getCurrentBalance().add(invocation.getArgument(1)));
+            return 1;
+        });
+        when(bankAccountRepository.findCurrentBalance(1L)).thenAnswer(invocation -> testAccount.getCurrentBalance());
+    }
+
+    private static InputStream content(String text) {
+        return new ByteArrayInputStream(text.getBytes(StandardCharsets.UTF_8));
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<Object[]> insertedRows() {
+        ArgumentCaptor<List<Object[]>> batches = ArgumentCaptor.forClass(List.class);
+        verify(jdbcTemplate, atLeast(0)).batchUpdate(anyString(), batches.capture(), any(int[].class));
+        List<Object[]> rows = new ArrayList<>();
+        batches.getAllValues().forEach(rows::addAll);
+        return rows;
+    }
+
+    @Test
+    @DisplayName("IM-1: importTransactions - Should insert valid CSV rows and report the invalid ones by row number")
+    void shouldImportCsvAndReportRowErrors() throws Exception {
+        // Given
+        String csv = """
+            date,account,type,category,title,description,amount
+            2025-06-01,Test Account,INCOME,Nómina,Salary,June,2000.00
+            2025-06-02,Test Account,EXPENSE,Comida,Groceries,,45.50
+            not-a-date,Test Account,EXPENSE,Comida,Broken,,10
+            2025-06-03,Test Account,EXPENSE,Unknown,Mystery,,10
+            2025-06-04,Test Account,EXPENSE,Comida,Free,,0
+            """;
+
+        // When
+        ImportResultDto result = importService.importTransactions(1L, 1L, null, ImportFormat.CSV, content(csv));
+
+        // Then
+        assertEquals(5, result.totalRows());
+        assertEquals(2, result.imported());
+        assertEquals(new BigDecimal("1954.50"), result.balanceDelta());
+        assertEquals(List.of(3, 4, 5), result.errors().stream().map(error -> error.row()).toList());
+        assertEquals("Invalid date 'not-a-date'", result.errors().get(0).message());
+        assertEquals("Category 'Unknown' not found", result.errors().get(1).message());
+        assertEquals("Amount must not be zero", result.errors().get(2).message());
+
+        List<Object[]> rows = insertedRows();
+        assertEquals(2, rows.size());
+        assertEquals("Salary", rows.get(0)[0]);
+        assertEquals(LocalDate.of(2025, 6, 1), rows.get(0)[3]);
+        assertEquals("INCOME", rows.get(0)[4]);
+        assertEquals(1L, rows.get(0)[6]);
+        assertNull(rows.get(1)[1]);
+        assertEquals(6L, rows.get(1)[6]);
+    }
+
+    @Test
+    @DisplayName("IM-2: importTransactions - Should apply one balance delta and chain before balances in file order")
+    void shouldApplySingleBalanceDeltaAndChainBeforeBalances() throws Exception {
+        // Given
+        String csv = """
+            date,title,amount,category
+            2025-06-01,Salary,2000,1
+            2025-06-02,Groceries,-45.50,6
+            2025-06-02,Bus,-4.50,6
+            """;
+
+        // When
+        importService.importTransactions(1L, 1L, null, ImportFormat.CSV, content(csv));
+
+        // Then
+        verify(bankAccountRepository, times(1)).addToBalance(any(), any());
+        verify(bankAccountRepository).addToBalance(1L, new BigDecimal("1950.00"));
+        assertEquals(List.of(new BigDecimal("1000.00"), new BigDecimal("3000.00"), new BigDecimal("2954.50")),
+            insertedRows().stream().map(row -> (BigDecimal) row[7]).toList());
+        assertEquals(new BigDecimal("45.50"), insertedRows().get(1)[2]);
+    }
+
+    @Test
+    @DisplayName("IM-3: importTransactions - Should write one ledger entry per day, type and category")
+    void shouldAggregateLedgerEntries() throws Exception {
+        // Given
+        String csv = """
+            date,title,amount,category
+            2025-06-02,Groceries,-45.50,Comida
+            2025-06-02,Bakery,-4.50,comida
+            2025-06-03,Groceries,-10,Comida
+            """;
+
+        // When
+        importService.importTransactions(1L, 1L, null, ImportFormat.CSV, content(csv));
+
+        // Then
+        verify(ledgerService, times(2)).apply(anyLong(), any(), any(), any(), any(), anyLong());
+        verify(ledgerService).apply(1L, LocalDate.of(2025, 6, 2), TransactionType.EXPENSE, 6L, new BigDecimal("50.00"), 2L);
+        verify(ledgerService).apply(1L, LocalDate.of(2025, 6, 3), TransactionType.EXPENSE, 6L, new BigDecimal("10"), 1L);
+        verify(eventPublisher).publishEvent(new TransactionChangedEvent(1L, Set.of(LocalDate.of(2025, 6, 2), LocalDate.of(2025, 6, 3))));
+    }
+
+    @Test
+    @DisplayName("IM-4: importTransactions - Should resolve categories from the in-memory catalog")
+    void shouldCacheCategoryLookups() throws Exception {
+        // Given
+        String json = """
+            [
+              {"date": "2025-06-01", "title": "A", "amount": -1, "categoryId": 6},
+              {"date": "2025-06-02", "title": "B", "amount": -2, "categoryId": 6},
+              {"date": "2025-06-03", "title": "C", "amount": -3, "category": "Comida"},
+              {"date": "2025-06-04", "title": "D", "amount": 4, "category": "Nómina"}
+            ]
+            """;
+
+        // When
+        ImportResultDto result = importService.importTransactions(1L, 1L, null, ImportFormat.JSON, content(json));
+
+        // Then
+        assertEquals(4, result.imported());
+        verify(categoryRepository, never()).findById(anyLong());
+        verify(categoryRepository, times(1)).findByUserUserId(1L);
+        assertEquals(List.of(6L, 6L, 6L, 1L), insertedRows().stream().map(row -> (Long) row[6]).toList());
+    }
+
+    @Test
+    @DisplayName("IM-5: importTransactions - Should take type from the sign and the default category for OFX statements")
+    void shouldImportOfxStatement() throws Exception {
+        // Given
+        String ofx = """
+            OFXHEADER:100
+            DATA:OFXSGML
+
+            <OFX><BANKMSGSRSV1><STMTTRNRS><STMTRS><BANKTRANLIST>
+            <STMTTRN>
+            <TRNTYPE>DEBIT
+            <DTPOSTED>20250602120000[+1:CET]
+            <TRNAMT>-45.50
+            <NAME>MERCADONA &amp; CO
+            <MEMO>Compra tarjeta
+            </STMTTRN>
+            <STMTTRN>
+            <TRNTYPE>CREDIT
+            <DTPOSTED>20250605
+            <TRNAMT>120.00
+            <NAME>Refund
+            </STMTTRN>
+            </BANKTRANLIST></STMTRS></STMTTRNRS></BANKMSGSRSV1></OFX>
+            """;
+
+        // When
+        ImportResultDto result = importService.importTransactions(1L, 1L, 6L, ImportFormat.OFX, content(ofx));
+
+        // Then
+        assertEquals(2, result.imported());
+        List<Object[]> rows = insertedRows();
+        assertEquals("MERCADONA & CO", rows.get(0)[0]);
+        assertEquals("Compra tarjeta", rows.get(0)[1]);
+        assertEquals(LocalDate.of(2025, 6, 2), rows.get(0)[3]);
+        assertEquals("EXPENSE", rows.get(0)[4]);
+        assertEquals("INCOME", rows.get(1)[4]);
+        assertEquals(6L, rows.get(1)[6]);
+    }
+
+    @Test
+    @DisplayName("IM-6: importTransactions - Should parse semicolon CSV with quoted fields and European amounts")
+    void shouldParseSemicolonCsv() throws Exception {
+        // Given
+        // Con BOM y fin de línea de Windows, como lo guarda Excel
+        String csv = "\uFEFFdate;title;amount;category;description\r\n"
+            + "01/06/2025;\"Rent; June\";-1.234,56;Comida;\"said \"\"hi\"\"\"\r\n";
+
+        // When
+        ImportResultDto result = importService.importTransactions(1L, 1L, null, ImportFormat.CSV, content(csv));
+
+        // Then
+        assertEquals(1, result.imported());
+        Object[] row = insertedRows().get(0);
+        assertEquals("Rent; June", row[0]);
+        assertEquals("said \"hi\"", row[1]);
+        assertEquals(new BigDecimal("1234.56"), row[2]);
+        assertEquals(LocalDate.of(2025, 6, 1), row[3]);
+    }
+
+    @Test
+    @DisplayName("IM-7: importTransactions - Should send inserts in JDBC batches of the configured size")
+    void shouldSplitInsertsIntoBatches() throws Exception {
+        // Given
+        ReflectionTestUtils.setField(importService, "batchSize", 10);
+        StringBuilder csv = new StringBuilder("date,title,amount,category\n");
+        for (int i = 0; i < 25; i++) {
+            csv.append("2025-06-01,Row ").append(i).append(",-1,6\n");
+        }
+
+        // When
+        importService.importTransactions(1L, 1L, null, ImportFormat.CSV, content(csv.toString()));
+
+        // Then
+        verify(jdbcTemplate, times(3)).batchUpdate(anyString(), anyList(), any(int[].class));
+        assertEquals(25, insertedRows().size());
+    }
+
+    @Test
+    @DisplayName("IM-8: importTransactions - Should reject accounts of other users without writing")
+    void shouldRejectForeignAccount() {
+        // When
+        RuntimeException exception = assertThrows(RuntimeException.class,
+            () -> importService.importTransactions(2L, 1L, null, ImportFormat.CSV, content("date,title,amount\n")));
+
+        // Then
+        assertEquals("Unauthorized to import into this account", exception.getMessage());
+        verifyNoInteractions(jdbcTemplate, ledgerService);
+        verify(bankAccountRepository, never()).addToBalance(any(), any());
+    }
+
+    @Test
+    @DisplayName("IM-9: importTransactions - Should abort without writing when the file exceeds the row limit")
+    void shouldRejectOversizedImport() {
+        // Given
+        ReflectionTestUtils.setField(importService, "maxRows", 2);
+        String csv = "date,title,amount,category\n2025-06-01,A,-1,6\n2025-06-01,B,-1,6\n2025-06-01,C,-1,6\n";
+
+        // When & Then
+        assertThrows(IllegalArgumentException.class,
+            () -> importService.importTransactions(1L, 1L, null, ImportFormat.CSV, content(csv)));
+        verifyNoInteractions(jdbcTemplate, ledgerService);
+    }
+
+    @Test
+    @DisplayName("IM-10: importTransactions - Should reject malformed JSON and CSV without a required column")
+    void shouldRejectMalformedFiles() {
+        // When & Then
+        assertThrows(IllegalArgumentException.class,
+            () -> importService.importTransactions(1L, 1L, null, ImportFormat.JSON, content("{\"date\": 1}")));
+        assertThrows(IllegalArgumentException.class,
+            () -> importService.importTransactions(1L, 1L, null, ImportFormat.CSV, content("date,title\n2025-06-01,A\n")));
+        verifyNoInteractions(jdbcTemplate);
+    }
+
+    @Test
+    @DisplayName("IM-11: resolve - Should pick the format from the parameter, file extension or content type")
+    void shouldResolveImportFormat() {
+        assertEquals(Optional.of(ImportFormat.OFX), ImportFormat.resolve("ofx", "statement.csv", null));
+        assertEquals(Optional.of(ImportFormat.CSV), ImportFormat.resolve(null, "Statement.CSV", null));
+        assertEquals(Optional.of(ImportFormat.JSON), ImportFormat.resolve(null, null, "application/json;charset=UTF-8"));
+        assertEquals(Optional.empty(), ImportFormat.resolve("xls", null, null));
+    }
+
+    @Test
+    @DisplayName("IM-12: importTransactions - Should read a lone separator before three digits as thousands")
+    void shouldReadThousandsSeparators() throws Exception {
+        // Given
+        String csv = "date;title;amount;category\n"
+            + "01/06/2025;A;1.000;Comida\n"
+            + "02/06/2025;B;-1.000,00;Comida\n"
+            + "03/06/2025;C;1,234;Comida\n"
+            + "04/06/2025;D;2.500;Comida\n"
+            + "05/06/2025;E;1.000.000;Comida\n"
+            + "06/06/2025;F;0,500;Comida\n"
+            + "07/06/2025;G;12,5;Comida\n";
+
+        // When
+        ImportResultDto result = importService.importTransactions(1L, 1L, null, ImportFormat.CSV, content(csv));
+
+        // Then
+        assertEquals(7, result.imported());
+        assertEquals(List.of("1000", "1000", "1234", "2500", "1000000", "0.5", "12.5"), insertedRows().stream()
+            .map(row -> ((BigDecimal) row[2]).stripTrailingZeros().toPlainString())
+            .toList());
+    }
+
+    @Test
+    @DisplayName("IM-13: importTransactions - Should insert batches while reading and leave balance and ledger untouched if the file is later rejected")
+    void shouldFlushBatchesWhileReading() {
+        // Given
+        ReflectionTestUtils.setField(importService, "batchSize", 1);
+        ReflectionTestUtils.setField(importService, "maxRows", 2);
+        String csv = "date,title,amount,category\n2025-06-01,A,-1,6\n2025-06-01,B,-1,6\n2025-06-01,C,-1,6\n";
+
+        // When & Then - los lotes ya enviados los deshace el rollback de la transacción
+        assertThrows(IllegalArgumentException.class,
+            () -> importService.importTransactions(1L, 1L, null, ImportFormat.CSV, content(csv)));
+        verify(jdbcTemplate, times(2)).batchUpdate(anyString(), anyList(), any(int[].class));
+        verify(bankAccountRepository, never()).addToBalance(any(), any());
+        verifyNoInteractions(ledgerService);
+    }
+}
@@ -0,0 +1,100 @@
+package com.smartspend.unit.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+import java.util.List;
+import java.util.Optional;
+
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.Signature;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.mockito.Spy;
+import org.springframework.data.domain.PageImpl;
+
+import com.smartspend.transaction.TransactionRepositoryMetrics;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+public class TransactionRepositoryMetricsTest {
+
+    @Spy
+    private MeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Mock
+    private ProceedingJoinPoint joinPoint;
+
+    @Mock
+    private Signature signature;
+
+    @InjectMocks
+    private TransactionRepositoryMetrics repositoryMetrics;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        when(joinPoint.getSignature()).thenReturn(signature);
+    }
+
+    @Test
+    @DisplayName("RM-1: countRows - Should record the size of list and page results per method")
+    void shouldRecordRowsOfListsAndPages() throws Throwable {
+        // Given
+        when(signature.getName()).thenReturn("findAll");
+        when(joinPoint.proceed()).thenReturn(List.of("a", "b", "c"), new PageImpl<>(List.of("d", "e")));
+
+        // When
+        Object first = repositoryMetrics.countRows(joinPoint);
+        repositoryMetrics.countRows(joinPoint);
+
+        // Then
+        assertEquals(List.of("a", "b", "c"), first);
+        DistributionSummary rows = meterRegistry.get(TransactionRepositoryMetrics.ROWS_METRIC)
+            .tag("repository", "TransactionRepository")
+            .tag("method", "findAll")
+            .summary();
+        assertEquals(2, rows.count());
+        assertEquals(5.0, rows.totalAmount());
+    }
+
+    @Test
+    @DisplayName("RM-2: countRows - Should count an Optional as zero or one row")
+    void shouldCountOptionalResults() throws Throwable {
+        // Given
+        when(signature.getName()).thenReturn("findById");
+        when(joinPoint.proceed()).thenReturn(Optional.of("tx"), Optional.empty());
+
+        // When
+        repositoryMetrics.countRows(joinPoint);
+        repositoryMetrics.countRows(joinPoint);
+
+        // Then
+        DistributionSummary rows = meterRegistry.get(TransactionRepositoryMetrics.ROWS_METRIC)
+            .tag("method", "findById")
+            .summary();
+        assertEquals(2, rows.count());
+        assertEquals(1.0, rows.totalAmount());
+    }
+
+    @Test
+    @DisplayName("RM-3: countRows - Should not record anything for writes and scalar results")
+    void shouldIgnoreScalarResults() throws Throwable {
+        // Given
+        when(signature.getName()).thenReturn("count");
+        when(joinPoint.proceed()).thenReturn(42L);
+
+        // When
+        Object result = repositoryMetrics.countRows(joinPoint);
+
+        // Then
+        assertEquals(42L, result);
+        assertNull(meterRegistry.find(TransactionRepositoryMetrics.ROWS_METRIC).summary());
+    }
+}
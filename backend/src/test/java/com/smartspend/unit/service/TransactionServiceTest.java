@@ -2,48 +2,78 @@ package com.smartspend.unit.service;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.when;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.atLeastOnce;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.inOrder;
 
 import java.math.BigDecimal;
+import java.time.Duration;
 import java.time.LocalDate;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.mockito.Spy;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.test.util.ReflectionTestUtils;
 
 import com.smartspend.category.Category;
+import com.smartspend.category.CategoryCatalog;
+import com.smartspend.category.dtos.CategoryDto;
+import com.smartspend.ledger.LedgerService;
 import com.smartspend.category.CategoryRepository;
 import com.smartspend.transaction.Recurrence;
 import com.smartspend.transaction.Transaction;
+import com.smartspend.transaction.TotalCount;
+import com.smartspend.transaction.TransactionChangedEvent;
+import com.smartspend.transaction.TransactionCountCache;
+import com.smartspend.transaction.TransactionCursor;
 import com.smartspend.transaction.TransactionMapper;
 import com.smartspend.transaction.TransactionRepository;
 import com.smartspend.transaction.TransactionService;
 import com.smartspend.transaction.TransactionType;
 import com.smartspend.transaction.dtos.CreateTransactionDto;
 import com.smartspend.transaction.dtos.TransactionResponseDto;
+import com.smartspend.transaction.dtos.TransactionSliceDto;
+import com.smartspend.transaction.search.TransactionSearchIndex;
 import com.smartspend.user.User;
-import com.smartspend.user.UserRepository;
 import com.smartspend.bankAccount.BankAccount;
 import com.smartspend.bankAccount.BankAccountRepository;
 import com.smartspend.config.ImageUtils;
+import com.smartspend.image.ImageCleanupService;
+import com.smartspend.image.ImageStore;
+import com.smartspend.image.ImageVariantService;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 
 public class TransactionServiceTest {
     
     @Mock 
     private TransactionRepository transactionRepository;
     
-    @Mock
-    private UserRepository userRepository;
-    
     @Mock
     private BankAccountRepository bankAccountRepository;
     
@@ -56,6 +86,27 @@ public class TransactionServiceTest {
     @Mock
     private TransactionMapper transactionMapper;
 
+    @Mock
+    private LedgerService ledgerService;
+
+    @Mock
+    private ImageStore imageStore;
+
+    @Mock
+    private ImageVariantService imageVariantService;
+
+    @Mock
+    private ImageCleanupService imageCleanupService;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Mock
+    private TransactionSearchIndex searchIndex;
+
+    @Spy
+    private TransactionCountCache countCache = new TransactionCountCache(100, Duration.ofMinutes(10), new SimpleMeterRegistry());
+
     @InjectMocks
     private TransactionService transactionService;
 
@@ -75,6 +126,20 @@ public class TransactionServiceTest {
         
         testCategory = new Category("Salary", "Income from work", "#27ae60", TransactionType.INCOME, null);
         testCategory.setId(1L);
+
+        // Catálogo real sobre el repositorio simulado: la categoría se valida en memoria
+        CategoryCatalog categoryCatalog = new CategoryCatalog(100, Duration.ofMinutes(10), new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(categoryCatalog, "categoryRepository", categoryRepository);
+        ReflectionTestUtils.setField(transactionService, "categoryCatalog", categoryCatalog);
+        when(categoryRepository.findByIsDefaultTrueAndType(TransactionType.INCOME)).thenReturn(List.of(testCategory));
+        when(categoryRepository.getReferenceById(1L)).thenReturn(testCategory);
+
+        // Simula el UPDATE atómico del saldo sobre la fila de la cuenta de prueba
+        when(bankAccountRepository.addToBalance(eq(1L), any(BigDecimal.class))).thenAnswer(invocation -> {
+            testAccount.setCurrentBalance(testAccount.getCurrentBalance().add(invocation.getArgument(1)));
+            return 1;
+        });
+        when(bankAccountRepository.findCurrentBalance(1L)).thenAnswer(invocation -> testAccount.getCurrentBalance());
     }
 
     @Test
@@ -99,9 +164,7 @@ public class TransactionServiceTest {
         );
         
         // When
-        when(userRepository.findByUserEmail("test@example.com")).thenReturn(Optional.of(testUser));
         when(bankAccountRepository.findById(1L)).thenReturn(Optional.of(testAccount));
-        when(categoryRepository.findById(1L)).thenReturn(Optional.of(testCategory));
         
         Transaction savedTransaction = Transaction.builder()
             .id(1L)
@@ -120,22 +183,20 @@ public class TransactionServiceTest {
         TransactionResponseDto responseDto = new TransactionResponseDto(
             1L, "Salary Payment", "Monthly salary", transactionAmount,
             LocalDate.now(), TransactionType.INCOME, Recurrence.NONE,
-            1L, "Test Account", testCategory, false, null, null, null
+            1L, "Test Account", CategoryDto.from(testCategory), false, null, null, null, null, null
         );
         when(transactionMapper.toResponseDto(any(Transaction.class))).thenReturn(responseDto);
         
-        TransactionResponseDto result = transactionService.saveTransaction(transactionDto, "test@example.com");
+        TransactionResponseDto result = transactionService.saveTransaction(transactionDto, 1L);
         
         // Then
         assertNotNull(result);
         assertEquals("Salary Payment", result.title());
         assertEquals(TransactionType.INCOME, result.type());
         
-        ArgumentCaptor<BankAccount> accountCaptor = ArgumentCaptor.forClass(BankAccount.class);
-        verify(bankAccountRepository).save(accountCaptor.capture());
-        
-        BankAccount savedAccount = accountCaptor.getValue();
-        assertEquals(0, expectedBalance.compareTo(savedAccount.getCurrentBalance()),
+        verify(bankAccountRepository).addToBalance(1L, transactionAmount);
+        verify(bankAccountRepository, never()).save(any(BankAccount.class));
+        assertEquals(0, expectedBalance.compareTo(testAccount.getCurrentBalance()),
             "Balance should be increased by transaction amount for INCOME transaction");
     }
 
@@ -161,9 +222,7 @@ public class TransactionServiceTest {
         );
         
         // When
-        when(userRepository.findByUserEmail("test@example.com")).thenReturn(Optional.of(testUser));
         when(bankAccountRepository.findById(1L)).thenReturn(Optional.of(testAccount));
-        when(categoryRepository.findById(1L)).thenReturn(Optional.of(testCategory));
 
         Transaction savedTransaction = Transaction.builder()
             .id(1L)
@@ -182,22 +241,20 @@ public class TransactionServiceTest {
         TransactionResponseDto responseDto = new TransactionResponseDto(
             1L, "Grocery Shopping", "Weekly groceries", transactionAmount,
             LocalDate.now(), TransactionType.EXPENSE, Recurrence.NONE,
-            1L, "Test Account", testCategory, false, null, null, null
+            1L, "Test Account", CategoryDto.from(testCategory), false, null, null, null, null, null
         );
         when(transactionMapper.toResponseDto(any(Transaction.class))).thenReturn(responseDto);
 
-        TransactionResponseDto result = transactionService.saveTransaction(transactionDto, "test@example.com");
+        TransactionResponseDto result = transactionService.saveTransaction(transactionDto, 1L);
         
         // Then
         assertNotNull(result);
         assertEquals("Grocery Shopping", result.title());
         assertEquals(TransactionType.EXPENSE, result.type());
         
-        ArgumentCaptor<BankAccount> accountCaptor = ArgumentCaptor.forClass(BankAccount.class);
-        verify(bankAccountRepository).save(accountCaptor.capture());
-        
-        BankAccount savedAccount = accountCaptor.getValue();
-        assertEquals(0, expectedBalance.compareTo(savedAccount.getCurrentBalance()),
+        verify(bankAccountRepository).addToBalance(1L, transactionAmount.negate());
+        verify(bankAccountRepository, never()).save(any(BankAccount.class));
+        assertEquals(0, expectedBalance.compareTo(testAccount.getCurrentBalance()),
             "Balance should be decreased by transaction amount for EXPENSE transaction");
     }
 
@@ -220,17 +277,17 @@ public class TransactionServiceTest {
             .build();
         
         // When
-        when(userRepository.findByUserEmail("test@example.com")).thenReturn(Optional.of(testUser));
-        when(transactionRepository.findById(1L)).thenReturn(Optional.of(existingTransaction));
+        when(transactionRepository.findAccountIdById(1L)).thenReturn(Optional.of(existingTransaction.getAccount().getId()));
+        when(bankAccountRepository.findByIdForUpdate(existingTransaction.getAccount().getId())).thenReturn(Optional.of(existingTransaction.getAccount()));
+        when(transactionRepository.findByIdForUpdate(1L)).thenReturn(Optional.of(existingTransaction));
         
-        transactionService.deleteTransaction(1L, "test@example.com");
+        transactionService.deleteTransaction(1L, 1L);
         
         // Then
-        ArgumentCaptor<BankAccount> accountCaptor = ArgumentCaptor.forClass(BankAccount.class);
-        verify(bankAccountRepository).save(accountCaptor.capture());
-        
-        BankAccount savedAccount = accountCaptor.getValue();
-        assertEquals(0, expectedBalance.compareTo(savedAccount.getCurrentBalance()),
+        verify(bankAccountRepository).addToBalance(1L, transactionAmount.negate());
+        verify(bankAccountRepository, never()).save(any(BankAccount.class));
+        verify(searchIndex).remove(1L);
+        assertEquals(0, expectedBalance.compareTo(testAccount.getCurrentBalance()),
             "Balance should be decreased when deleting INCOME transaction");
     }
 
@@ -253,17 +310,16 @@ public class TransactionServiceTest {
             .build();
         
         // When
-        when(userRepository.findByUserEmail("test@example.com")).thenReturn(Optional.of(testUser));
-        when(transactionRepository.findById(1L)).thenReturn(Optional.of(existingTransaction));
+        when(transactionRepository.findAccountIdById(1L)).thenReturn(Optional.of(existingTransaction.getAccount().getId()));
+        when(bankAccountRepository.findByIdForUpdate(existingTransaction.getAccount().getId())).thenReturn(Optional.of(existingTransaction.getAccount()));
+        when(transactionRepository.findByIdForUpdate(1L)).thenReturn(Optional.of(existingTransaction));
         
-        transactionService.deleteTransaction(1L, "test@example.com");
+        transactionService.deleteTransaction(1L, 1L);
         
         // Then
-        ArgumentCaptor<BankAccount> accountCaptor = ArgumentCaptor.forClass(BankAccount.class);
-        verify(bankAccountRepository).save(accountCaptor.capture());
-        
-        BankAccount savedAccount = accountCaptor.getValue();
-        assertEquals(0, expectedBalance.compareTo(savedAccount.getCurrentBalance()),
+        verify(bankAccountRepository).addToBalance(1L, transactionAmount);
+        verify(bankAccountRepository, never()).save(any(BankAccount.class));
+        assertEquals(0, expectedBalance.compareTo(testAccount.getCurrentBalance()),
             "Balance should be increased when deleting EXPENSE transaction");
     }
 
@@ -286,13 +342,14 @@ public class TransactionServiceTest {
             .build();
         
         // When
-        when(userRepository.findByUserEmail("test@example.com")).thenReturn(Optional.of(testUser));
-        when(transactionRepository.findById(1L)).thenReturn(Optional.of(existingTransaction));
+        when(transactionRepository.findAccountIdById(1L)).thenReturn(Optional.of(existingTransaction.getAccount().getId()));
+        when(bankAccountRepository.findByIdForUpdate(existingTransaction.getAccount().getId())).thenReturn(Optional.of(existingTransaction.getAccount()));
+        when(transactionRepository.findByIdForUpdate(1L)).thenReturn(Optional.of(existingTransaction));
         
         // Then
         RuntimeException exception = org.junit.jupiter.api.Assertions.assertThrows(
             RuntimeException.class,
-            () -> transactionService.deleteTransaction(1L, "test@example.com")
+            () -> transactionService.deleteTransaction(1L, 1L)
         );
         
         assertEquals("Unauthorized to delete this transaction", exception.getMessage());
@@ -302,18 +359,122 @@ public class TransactionServiceTest {
     @DisplayName("TS-1.6 - Should throw exception when transaction not found")
     void shouldThrowExceptionWhenTransactionNotFound() {
         // Given
-        when(userRepository.findByUserEmail("test@example.com")).thenReturn(Optional.of(testUser));
-        when(transactionRepository.findById(999L)).thenReturn(Optional.empty());
+        when(transactionRepository.findAccountIdById(999L)).thenReturn(Optional.empty());
         
         // Then
         RuntimeException exception = org.junit.jupiter.api.Assertions.assertThrows(
             RuntimeException.class,
-            () -> transactionService.deleteTransaction(999L, "test@example.com")
+            () -> transactionService.deleteTransaction(999L, 1L)
         );
         
         assertEquals("Transaction not found", exception.getMessage());
     }
 
+    @Test
+    @DisplayName("TS-1.13 - Should release the image blob after deleting the transaction")
+    void shouldReleaseImageOnDelete() {
+        // Given
+        Transaction existingTransaction = Transaction.builder()
+            .id(1L)
+            .title("Ticket")
+            .amount(new BigDecimal("20.00"))
+            .type(TransactionType.EXPENSE)
+            .account(testAccount)
+            .imageHash("abc123")
+            .build();
+
+        when(transactionRepository.findAccountIdById(1L)).thenReturn(Optional.of(existingTransaction.getAccount().getId()));
+        when(transactionRepository.findImageHashById(1L)).thenReturn(Optional.of("abc123"));
+        when(imageCleanupService.lock(List.of("abc123"))).thenReturn(List.of("abc123"));
+        when(bankAccountRepository.findByIdForUpdate(existingTransaction.getAccount().getId())).thenReturn(Optional.of(existingTransaction.getAccount()));
+        when(transactionRepository.findByIdForUpdate(1L)).thenReturn(Optional.of(existingTransaction));
+
+        // When
+        transactionService.deleteTransaction(1L, 1L);
+
+        // Then
+        InOrder inOrder = inOrder(transactionRepository, imageCleanupService);
+        inOrder.verify(transactionRepository).delete(existingTransaction);
+        inOrder.verify(imageCleanupService).releaseIfUnused("abc123");
+    }
+
+    @Test
+    @DisplayName("TS-1.14 - Should lock the image blob before the account, in the same order as an upload")
+    void shouldLockImageBeforeAccountOnDelete() {
+        // Given
+        Transaction existingTransaction = Transaction.builder()
+            .id(1L)
+            .title("Ticket")
+            .amount(new BigDecimal("20.00"))
+            .type(TransactionType.EXPENSE)
+            .account(testAccount)
+            .imageHash("abc123")
+            .build();
+
+        when(transactionRepository.findAccountIdById(1L)).thenReturn(Optional.of(existingTransaction.getAccount().getId()));
+        when(transactionRepository.findImageHashById(1L)).thenReturn(Optional.of("abc123"));
+        when(imageCleanupService.lock(List.of("abc123"))).thenReturn(List.of());
+        when(bankAccountRepository.findByIdForUpdate(existingTransaction.getAccount().getId())).thenReturn(Optional.of(existingTransaction.getAccount()));
+        when(transactionRepository.findByIdForUpdate(1L)).thenReturn(Optional.of(existingTransaction));
+
+        // When
+        transactionService.deleteTransaction(1L, 1L);
+
+        // Then - el blob ya no existía: no hay nada que liberar
+        InOrder inOrder = inOrder(imageCleanupService, bankAccountRepository);
+        inOrder.verify(imageCleanupService).lock(List.of("abc123"));
+        inOrder.verify(bankAccountRepository).findByIdForUpdate(1L);
+        verify(imageCleanupService, never()).releaseIfUnused(any());
+    }
+
+    @Test
+    @DisplayName("TS-1.15 - Should return owned transaction image metadata without loading bytes")
+    void shouldReturnOwnedTransactionWithImage() {
+        // Given
+        Transaction existingTransaction = Transaction.builder()
+            .id(1L)
+            .title("Ticket")
+            .amount(new BigDecimal("20.00"))
+            .type(TransactionType.EXPENSE)
+            .account(testAccount)
+            .imageHash("abc123")
+            .build();
+
+        when(transactionRepository.findById(1L)).thenReturn(Optional.of(existingTransaction));
+
+        // When
+        Optional<Transaction> result = transactionService.getTransactionWithImage(1L, 1L);
+
+        // Then
+        assertTrue(result.isPresent());
+        assertEquals("abc123", result.get().getImageHash());
+        verify(imageStore, never()).load(any());
+    }
+
+    @Test
+    @DisplayName("TS-1.16 - Should hide images of transactions owned by other users")
+    void shouldHideImageOfOtherUser() {
+        // Given
+        User otherUser = new User("other", "other@example.com", "hashedpassword");
+        otherUser.setUserId(2L);
+        Transaction existingTransaction = Transaction.builder()
+            .id(1L)
+            .title("Ticket")
+            .amount(new BigDecimal("20.00"))
+            .type(TransactionType.EXPENSE)
+            .account(testAccount)
+            .imageHash("abc123")
+            .build();
+
+        when(transactionRepository.findById(1L)).thenReturn(Optional.of(existingTransaction));
+
+        // When
+        Optional<Transaction> result = transactionService.getTransactionWithImage(1L, otherUser.getUserId());
+
+        // Then
+        assertTrue(result.isEmpty());
+    }
+
     @Test
     @DisplayName("TS-1.7 - Should use current date when date is null")
     void shouldUseCurrentDateWhenDateIsNull() {
@@ -330,9 +491,7 @@ public class TransactionServiceTest {
         );
         
         // When
-        when(userRepository.findByUserEmail("test@example.com")).thenReturn(Optional.of(testUser));
         when(bankAccountRepository.findById(1L)).thenReturn(Optional.of(testAccount));
-        when(categoryRepository.findById(1L)).thenReturn(Optional.of(testCategory));
         
         LocalDate today = LocalDate.now();
         Transaction savedTransaction = Transaction.builder()
@@ -350,11 +509,11 @@ public class TransactionServiceTest {
         TransactionResponseDto responseDto = new TransactionResponseDto(
             1L, "Test Transaction", "Test description", new BigDecimal("100.00"),
             today, TransactionType.EXPENSE, Recurrence.NONE,
-            1L, "Test Account", testCategory, false, null, null, null
+            1L, "Test Account", CategoryDto.from(testCategory), false, null, null, null, null, null
         );
         when(transactionMapper.toResponseDto(any(Transaction.class))).thenReturn(responseDto);
         
-        TransactionResponseDto result = transactionService.saveTransaction(transactionDto, "test@example.com");
+        TransactionResponseDto result = transactionService.saveTransaction(transactionDto, 1L);
         
         // Then
         assertEquals(today, result.date());
@@ -382,13 +541,12 @@ public class TransactionServiceTest {
         );
         
         // When
-        when(userRepository.findByUserEmail("test@example.com")).thenReturn(Optional.of(testUser));
         when(bankAccountRepository.findById(2L)).thenReturn(Optional.of(otherAccount));
         
         // Then
         RuntimeException exception = org.junit.jupiter.api.Assertions.assertThrows(
             RuntimeException.class,
-            () -> transactionService.saveTransaction(transactionDto, "test@example.com")
+            () -> transactionService.saveTransaction(transactionDto, 1L)
         );
         
         assertEquals("Unauthorized to add transaction to this account", exception.getMessage());
@@ -410,13 +568,12 @@ public class TransactionServiceTest {
         );
         
         // When
-        when(userRepository.findByUserEmail("test@example.com")).thenReturn(Optional.of(testUser));
         when(bankAccountRepository.findById(999L)).thenReturn(Optional.empty());
         
         // Then
         RuntimeException exception = org.junit.jupiter.api.Assertions.assertThrows(
             RuntimeException.class,
-            () -> transactionService.saveTransaction(transactionDto, "test@example.com")
+            () -> transactionService.saveTransaction(transactionDto, 1L)
         );
         
         assertEquals("Bank account not found", exception.getMessage());
@@ -438,14 +595,12 @@ public class TransactionServiceTest {
         );
         
         // When
-        when(userRepository.findByUserEmail("test@example.com")).thenReturn(Optional.of(testUser));
         when(bankAccountRepository.findById(1L)).thenReturn(Optional.of(testAccount));
-        when(categoryRepository.findById(999L)).thenReturn(Optional.empty());
         
         // Then
         RuntimeException exception = org.junit.jupiter.api.Assertions.assertThrows(
             RuntimeException.class,
-            () -> transactionService.saveTransaction(transactionDto, "test@example.com")
+            () -> transactionService.saveTransaction(transactionDto, 1L)
         );
         
         assertEquals("Category not found", exception.getMessage());
@@ -494,7 +649,7 @@ public class TransactionServiceTest {
         // Then
         RuntimeException exception = org.junit.jupiter.api.Assertions.assertThrows(
             RuntimeException.class,
-            () -> transactionService.saveTransactionWithImage(transactionDto, "test@example.com")
+            () -> transactionService.saveTransactionWithImage(transactionDto, 1L)
         );
         
         assertEquals("Invalid image file", exception.getMessage());
@@ -519,20 +674,18 @@ public class TransactionServiceTest {
             TransactionType.INCOME, LocalDate.now().plusDays(1), Recurrence.MONTHLY, 1L, 1L
         );
 
-        when(userRepository.findByUserEmail("test@example.com")).thenReturn(Optional.of(testUser));
-        when(bankAccountRepository.findById(1L)).thenReturn(Optional.of(testAccount));
-        when(transactionRepository.findById(1L)).thenReturn(Optional.of(originalTransaction));
-        when(categoryRepository.findById(1L)).thenReturn(Optional.of(testCategory));
+        when(bankAccountRepository.findByIdForUpdate(1L)).thenReturn(Optional.of(testAccount));
+        when(transactionRepository.findByIdForUpdate(1L)).thenReturn(Optional.of(originalTransaction));
         when(transactionRepository.save(any(Transaction.class))).thenReturn(originalTransaction);
         
         TransactionResponseDto responseDto = new TransactionResponseDto(
             1L, "Updated Income", "Updated description", new BigDecimal("80"),
             LocalDate.now().plusDays(1), TransactionType.INCOME, Recurrence.MONTHLY, 
-            1L, "Test Account", testCategory, false, null, null, null
+            1L, "Test Account", CategoryDto.from(testCategory), false, null, null, null, null, null
         );
         when(transactionMapper.toResponseDto(any(Transaction.class))).thenReturn(responseDto);
 
-        Optional<TransactionResponseDto> result = transactionService.updateTransaction(1L, dto, "test@example.com");
+        Optional<TransactionResponseDto> result = transactionService.updateTransaction(1L, dto, 1L);
 
         // Balance should be: 100 - 50 (remove old) + 80 (add new) = 130
         assertEquals(new BigDecimal("130"), testAccount.getCurrentBalance());
@@ -578,20 +731,18 @@ public class TransactionServiceTest {
             TransactionType.EXPENSE, LocalDate.now(), Recurrence.WEEKLY, 1L, 1L
         );
 
-        when(userRepository.findByUserEmail("test@example.com")).thenReturn(Optional.of(testUser));
-        when(bankAccountRepository.findById(1L)).thenReturn(Optional.of(testAccount));
-        when(transactionRepository.findById(2L)).thenReturn(Optional.of(originalTransaction));
-        when(categoryRepository.findById(1L)).thenReturn(Optional.of(testCategory));
+        when(bankAccountRepository.findByIdForUpdate(1L)).thenReturn(Optional.of(testAccount));
+        when(transactionRepository.findByIdForUpdate(2L)).thenReturn(Optional.of(originalTransaction));
         when(transactionRepository.save(any(Transaction.class))).thenReturn(originalTransaction);
         
         TransactionResponseDto responseDto = new TransactionResponseDto(
             2L, "Updated Expense", "Updated expense description", new BigDecimal("10"),
             LocalDate.now(), TransactionType.EXPENSE, Recurrence.WEEKLY,
-            1L, "Test Account", testCategory, false, null, null, null
+            1L, "Test Account", CategoryDto.from(testCategory), false, null, null, null, null, null
         );
         when(transactionMapper.toResponseDto(any(Transaction.class))).thenReturn(responseDto);
 
-        Optional<TransactionResponseDto> result = transactionService.updateTransaction(2L, dto, "test@example.com");
+        Optional<TransactionResponseDto> result = transactionService.updateTransaction(2L, dto, 1L);
 
         // Balance should be: 100 + 30 (restore old) - 10 (subtract new) = 120
         assertEquals(new BigDecimal("120"), testAccount.getCurrentBalance());
@@ -636,20 +787,18 @@ public class TransactionServiceTest {
             TransactionType.EXPENSE, LocalDate.now(), Recurrence.NONE, 1L, 1L
         );
 
-        when(userRepository.findByUserEmail("test@example.com")).thenReturn(Optional.of(testUser));
-        when(bankAccountRepository.findById(1L)).thenReturn(Optional.of(testAccount));
-        when(transactionRepository.findById(3L)).thenReturn(Optional.of(originalTransaction));
-        when(categoryRepository.findById(1L)).thenReturn(Optional.of(testCategory));
+        when(bankAccountRepository.findByIdForUpdate(1L)).thenReturn(Optional.of(testAccount));
+        when(transactionRepository.findByIdForUpdate(3L)).thenReturn(Optional.of(originalTransaction));
         when(transactionRepository.save(any(Transaction.class))).thenReturn(originalTransaction);
         
         TransactionResponseDto responseDto = new TransactionResponseDto(
             3L, "Now Expense", "Changed to expense", new BigDecimal("30"),
             LocalDate.now(), TransactionType.EXPENSE, Recurrence.NONE,
-            1L, "Test Account", testCategory, false, null, null, null
+            1L, "Test Account", CategoryDto.from(testCategory), false, null, null, null, null, null
         );
         when(transactionMapper.toResponseDto(any(Transaction.class))).thenReturn(responseDto);
 
-        transactionService.updateTransaction(3L, dto, "test@example.com");
+        transactionService.updateTransaction(3L, dto, 1L);
 
         // Balance should be: 100 - 50 (remove old income) - 30 (subtract new expense) = 20
         assertEquals(new BigDecimal("20"), testAccount.getCurrentBalance());
@@ -682,20 +831,18 @@ public class TransactionServiceTest {
             TransactionType.INCOME, LocalDate.now(), Recurrence.NONE, 1L, 1L
         );
 
-        when(userRepository.findByUserEmail("test@example.com")).thenReturn(Optional.of(testUser));
-        when(bankAccountRepository.findById(1L)).thenReturn(Optional.of(testAccount));
-        when(transactionRepository.findById(4L)).thenReturn(Optional.of(originalTransaction));
-        when(categoryRepository.findById(1L)).thenReturn(Optional.of(testCategory));
+        when(bankAccountRepository.findByIdForUpdate(1L)).thenReturn(Optional.of(testAccount));
+        when(transactionRepository.findByIdForUpdate(4L)).thenReturn(Optional.of(originalTransaction));
         when(transactionRepository.save(any(Transaction.class))).thenReturn(originalTransaction);
         
         TransactionResponseDto responseDto = new TransactionResponseDto(
             4L, "Now Income", "Changed to income", new BigDecimal("60"),
             LocalDate.now(), TransactionType.INCOME, Recurrence.NONE,
-            1L, "Test Account", testCategory, false, null, null, null
+            1L, "Test Account", CategoryDto.from(testCategory), false, null, null, null, null, null
         );
         when(transactionMapper.toResponseDto(any(Transaction.class))).thenReturn(responseDto);
 
-        transactionService.updateTransaction(4L, dto, "test@example.com");
+        transactionService.updateTransaction(4L, dto, 1L);
 
         // Balance should be: 100 + 40 (restore old expense) + 60 (add new income) = 200
         assertEquals(new BigDecimal("200"), testAccount.getCurrentBalance());
@@ -709,6 +856,155 @@ public class TransactionServiceTest {
         assertEquals("Now Income", savedTransaction.getTitle());
     }
 
+    @Test
+    @DisplayName("TS-2.5 - Should reject updates on an account owned by another user")
+    void updateTransactionShouldRejectAccountOfAnotherUser() {
+        // Given
+        CreateTransactionDto dto = new CreateTransactionDto(
+            "Hijack", "Not my account", new BigDecimal("10"),
+            TransactionType.EXPENSE, LocalDate.now(), Recurrence.NONE, 1L, 1L
+        );
+        when(bankAccountRepository.findByIdForUpdate(1L)).thenReturn(Optional.of(testAccount));
+
+        // When
+        RuntimeException exception = org.junit.jupiter.api.Assertions.assertThrows(
+            RuntimeException.class,
+            () -> transactionService.updateTransaction(1L, dto, 2L)
+        );
+
+        // Then
+        assertEquals("Unauthorized to update transaction in this account", exception.getMessage());
+        verify(transactionRepository, never()).save(any(Transaction.class));
+        verify(ledgerService, never()).reverse(any(Transaction.class));
+    }
+
+    @Test
+    @DisplayName("TS-2.9 - Should not update a transaction of another account passed with the caller's own account")
+    void updateTransactionShouldRejectTransactionOfAnotherAccount() {
+        // Given - la cuenta del DTO es del usuario, pero la transacción es de otra cuenta ajena
+        User otherUser = new User("other", "other@example.com", "password");
+        otherUser.setUserId(2L);
+        BankAccount otherAccount = new BankAccount(otherUser, "Other Account", BigDecimal.ZERO);
+        otherAccount.setId(2L);
+        Transaction foreignTransaction = Transaction.builder()
+            .id(7L)
+            .title("Not mine")
+            .amount(new BigDecimal("100.00"))
+            .type(TransactionType.EXPENSE)
+            .account(otherAccount)
+            .build();
+        CreateTransactionDto dto = new CreateTransactionDto(
+            "Hijack", null, new BigDecimal("1"),
+            TransactionType.INCOME, LocalDate.now(), Recurrence.NONE, 1L, 1L
+        );
+        when(bankAccountRepository.findByIdForUpdate(1L)).thenReturn(Optional.of(testAccount));
+        when(transactionRepository.findByIdForUpdate(7L)).thenReturn(Optional.of(foreignTransaction));
+
+        // When
+        Optional<TransactionResponseDto> result = transactionService.updateTransaction(7L, dto, 1L);
+
+        // Then
+        assertTrue(result.isEmpty());
+        verify(bankAccountRepository, never()).addToBalance(any(), any());
+        verify(ledgerService, never()).reverse(any(Transaction.class));
+        verify(transactionRepository, never()).save(any(Transaction.class));
+        assertEquals("Not mine", foreignTransaction.getTitle());
+    }
+
+    @Test
+    @DisplayName("TS-2.6 - Should apply a single net balance delta when editing a transaction")
+    void updateTransactionShouldApplySingleNetDelta() {
+        // Given
+        Transaction originalTransaction = Transaction.builder()
+            .id(5L)
+            .title("Income Transaction")
+            .amount(new BigDecimal("50"))
+            .type(TransactionType.INCOME)
+            .account(testAccount)
+            .category(testCategory)
+            .build();
+        CreateTransactionDto dto = new CreateTransactionDto(
+            "Now Expense", null, new BigDecimal("30"),
+            TransactionType.EXPENSE, LocalDate.now(), Recurrence.NONE, 1L, 1L
+        );
+        when(bankAccountRepository.findByIdForUpdate(1L)).thenReturn(Optional.of(testAccount));
+        when(transactionRepository.findByIdForUpdate(5L)).thenReturn(Optional.of(originalTransaction));
+        when(transactionRepository.save(any(Transaction.class))).thenReturn(originalTransaction);
+        when(transactionMapper.toResponseDto(any(Transaction.class))).thenReturn(new TransactionResponseDto(
+            5L, "Now Expense", null, new BigDecimal("30"),
+            LocalDate.now(), TransactionType.EXPENSE, Recurrence.NONE,
+            1L, "Test Account", CategoryDto.from(testCategory), false, null, null, null, null, null
+        ));
+
+        // When
+        transactionService.updateTransaction(5L, dto, 1L);
+
+        // Then
+        verify(bankAccountRepository, times(1)).addToBalance(any(), any());
+        verify(bankAccountRepository).addToBalance(1L, new BigDecimal("-80"));
+        verify(bankAccountRepository, never()).save(any(BankAccount.class));
+    }
+
+    @Test
+    @DisplayName("TS-2.7 - Should take before balance from the account row, not from the loaded entity")
+    void saveTransactionShouldReadBeforeBalanceFromRow() {
+        // Given - otra transacción ya ha sumado 250 en la fila; la entidad cargada sigue en 1000
+        BankAccount staleAccount = new BankAccount(testUser, "Test Account", new BigDecimal("1000.00"));
+        staleAccount.setId(1L);
+        testAccount.setCurrentBalance(new BigDecimal("1250.00"));
+        CreateTransactionDto dto = new CreateTransactionDto(
+            "Coffee", null, new BigDecimal("5.00"),
+            TransactionType.EXPENSE, LocalDate.now(), Recurrence.NONE, 1L, 1L
+        );
+        when(bankAccountRepository.findById(1L)).thenReturn(Optional.of(staleAccount));
+        when(transactionRepository.save(any(Transaction.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        // When
+        transactionService.saveTransaction(dto, 1L);
+
+        // Then
+        ArgumentCaptor<Transaction> transactionCaptor = ArgumentCaptor.forClass(Transaction.class);
+        verify(transactionRepository).save(transactionCaptor.capture());
+        assertEquals(new BigDecimal("1250.00"), transactionCaptor.getValue().getBeforeBalance());
+        assertEquals(new BigDecimal("1245.00"), testAccount.getCurrentBalance());
+        assertEquals(new BigDecimal("1000.00"), staleAccount.getCurrentBalance());
+    }
+
+    @Test
+    @DisplayName("TS-2.8 - Should publish a change event with the old and new dates when editing a transaction")
+    void updateTransactionShouldPublishOldAndNewDates() {
+        // Given
+        LocalDate oldDate = LocalDate.of(2025, 3, 31);
+        LocalDate newDate = LocalDate.of(2025, 4, 2);
+        Transaction originalTransaction = Transaction.builder()
+            .id(5L)
+            .title("Groceries")
+            .amount(new BigDecimal("50"))
+            .date(oldDate)
+            .type(TransactionType.EXPENSE)
+            .account(testAccount)
+            .category(testCategory)
+            .build();
+        CreateTransactionDto dto = new CreateTransactionDto(
+            "Groceries", null, new BigDecimal("50"),
+            TransactionType.EXPENSE, newDate, Recurrence.NONE, 1L, 1L
+        );
+        when(bankAccountRepository.findByIdForUpdate(1L)).thenReturn(Optional.of(testAccount));
+        when(transactionRepository.findByIdForUpdate(5L)).thenReturn(Optional.of(originalTransaction));
+        when(transactionRepository.save(any(Transaction.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        when(transactionMapper.toResponseDto(any(Transaction.class))).thenReturn(new TransactionResponseDto(
+            5L, "Groceries", null, new BigDecimal("50"),
+            newDate, TransactionType.EXPENSE, Recurrence.NONE,
+            1L, "Test Account", CategoryDto.from(testCategory), false, null, null, null, null, null
+        ));
+
+        // When
+        transactionService.updateTransaction(5L, dto, 1L);
+
+        // Then
+        verify(eventPublisher).publishEvent(new TransactionChangedEvent(1L, Set.of(oldDate, newDate)));
+    }
+
     // ===============================================
     // TESTS PARA FUNCIONALIDAD DE RECURRENCIA
     // ===============================================
@@ -808,18 +1104,16 @@ public class TransactionServiceTest {
             1L
         );
 
-        when(userRepository.findByUserEmail("test@example.com")).thenReturn(Optional.of(testUser));
         when(bankAccountRepository.findById(1L)).thenReturn(Optional.of(testAccount));
-        when(categoryRepository.findById(1L)).thenReturn(Optional.of(testCategory));
         when(transactionRepository.save(any(Transaction.class))).thenAnswer(invocation -> invocation.getArgument(0));
         when(transactionMapper.toResponseDto(any(Transaction.class))).thenReturn(
             new TransactionResponseDto(1L, "Monthly Salary", "Recurring salary payment",
             new BigDecimal("2000.00"), LocalDate.now(), TransactionType.INCOME, Recurrence.MONTHLY,
-            1L, "Test Account", testCategory, true, null, null, null)
+            1L, "Test Account", CategoryDto.from(testCategory), true, null, null, null, null, null)
         );
 
         // When  
-        TransactionResponseDto response = transactionService.saveTransaction(recurringTransactionDto, "test@example.com");
+        TransactionResponseDto response = transactionService.saveTransaction(recurringTransactionDto, 1L);
 
         // Then
         ArgumentCaptor<Transaction> transactionCaptor = ArgumentCaptor.forClass(Transaction.class);
@@ -846,18 +1140,16 @@ public class TransactionServiceTest {
             1L
         );
 
-        when(userRepository.findByUserEmail("test@example.com")).thenReturn(Optional.of(testUser));
         when(bankAccountRepository.findById(1L)).thenReturn(Optional.of(testAccount));
-        when(categoryRepository.findById(1L)).thenReturn(Optional.of(testCategory));
         when(transactionRepository.save(any(Transaction.class))).thenAnswer(invocation -> invocation.getArgument(0));
         when(transactionMapper.toResponseDto(any(Transaction.class))).thenReturn(
             new TransactionResponseDto(1L, "One-time expense", "Single payment",
             new BigDecimal("50.00"), LocalDate.now(), TransactionType.EXPENSE, Recurrence.NONE,
-            1L, "Test Account", testCategory, false, null, null, null)
+            1L, "Test Account", CategoryDto.from(testCategory), false, null, null, null, null, null)
         );
 
         // When  
-        TransactionResponseDto response = transactionService.saveTransaction(nonRecurringTransactionDto, "test@example.com");
+        TransactionResponseDto response = transactionService.saveTransaction(nonRecurringTransactionDto, 1L);
 
         // Then
         ArgumentCaptor<Transaction> transactionCaptor = ArgumentCaptor.forClass(Transaction.class);
@@ -900,18 +1192,16 @@ public class TransactionServiceTest {
             1L
         );
 
-        when(userRepository.findByUserEmail("test@example.com")).thenReturn(Optional.of(testUser));
         when(bankAccountRepository.findById(1L)).thenReturn(Optional.of(testAccount));
-        when(categoryRepository.findById(1L)).thenReturn(Optional.of(testCategory));
         when(transactionRepository.save(any(Transaction.class))).thenAnswer(invocation -> invocation.getArgument(0));
         when(transactionMapper.toResponseDto(any(Transaction.class))).thenReturn(
             new TransactionResponseDto(1L, "Recurring Transaction", "Test recurrence",
             new BigDecimal("100.00"), transactionDate, TransactionType.INCOME, recurrence,
-            1L, "Test Account", testCategory, true, null, null, null)
+            1L, "Test Account", CategoryDto.from(testCategory), true, null, null, null, null, null)
         );
 
         // When  
-        TransactionResponseDto response = transactionService.saveTransaction(recurringTransactionDto, "test@example.com");
+        TransactionResponseDto response = transactionService.saveTransaction(recurringTransactionDto, 1L);
 
         // Then
         ArgumentCaptor<Transaction> transactionCaptor = ArgumentCaptor.forClass(Transaction.class);
@@ -920,4 +1210,187 @@ public class TransactionServiceTest {
         Transaction savedTransaction = transactionCaptor.getValue();
         assertEquals(expectedNextDate, savedTransaction.getNextRecurrenceDate());
     }
+
+    // Matcher tipado: anySpecification() es una conversión sin comprobar
+    private static Specification<Transaction> anySpecification() {
+        return any();
+    }
+
+    private Transaction keysetRow(long id, LocalDate date) {
+        return Transaction.builder()
+            .id(id)
+            .title("T" + id)
+            .amount(new BigDecimal("10.00"))
+            .date(date)
+            .type(TransactionType.EXPENSE)
+            .account(testAccount)
+            .build();
+    }
+
+    @Test
+    @DisplayName("TS-3.1 - Keyset page should fetch one extra row and return a cursor at the last element")
+    void shouldReturnCursorWhenMoreRowsExist() {
+        // Given
+        List<Transaction> rows = List.of(
+            keysetRow(9L, LocalDate.of(2025, 3, 10)),
+            keysetRow(8L, LocalDate.of(2025, 3, 10)),
+            keysetRow(5L, LocalDate.of(2025, 3, 9)));
+        when(bankAccountRepository.findById(1L)).thenReturn(Optional.of(testAccount));
+        doReturn(rows).when(transactionRepository).findBy(anySpecification(), any());
+
+        // When
+        TransactionSliceDto slice = transactionService.getTransactionsByAccountAfter(
+            1L, 1L, null, 2, null, null, null, null, null, null, null);
+
+        // Then
+        assertTrue(slice.hasNext());
+        assertEquals(2, slice.size());
+        assertEquals(new TransactionCursor(LocalDate.of(2025, 3, 10), 8L), TransactionCursor.decode(slice.nextCursor()));
+        verify(transactionRepository, never()).count(anySpecification());
+    }
+
+    @Test
+    @DisplayName("TS-3.2 - Keyset last page should not return a cursor")
+    void shouldNotReturnCursorOnLastPage() {
+        // Given
+        String cursor = new TransactionCursor(LocalDate.of(2025, 3, 10), 8L).encode();
+        when(bankAccountRepository.findById(1L)).thenReturn(Optional.of(testAccount));
+        doReturn(List.of(keysetRow(5L, LocalDate.of(2025, 3, 9)))).when(transactionRepository).findBy(anySpecification(), any());
+
+        // When
+        TransactionSliceDto slice = transactionService.getTransactionsByAccountAfter(
+            1L, 1L, cursor, 2, null, "EXPENSE", null, null, null, null, null);
+
+        // Then
+        assertFalse(slice.hasNext());
+        assertNull(slice.nextCursor());
+        assertEquals(1, slice.content().size());
+    }
+
+    @Test
+    @DisplayName("TS-3.3 - Keyset listing should reject a tampered cursor")
+    void shouldRejectInvalidCursor() {
+        // Given
+        when(bankAccountRepository.findById(1L)).thenReturn(Optional.of(testAccount));
+
+        // When / Then
+        org.junit.jupiter.api.Assertions.assertThrows(IllegalArgumentException.class,
+            () -> transactionService.getTransactionsByAccountAfter(
+                1L, 1L, "not-a-cursor", 2, null, null, null, null, null, null, null));
+    }
+
+    @Test
+    @DisplayName("TS-3.4 - Text search should return transactions in relevance order")
+    void shouldKeepRelevanceOrderInSearch() {
+        // Given - el repositorio devuelve las filas en orden de id, no en el de la búsqueda
+        when(bankAccountRepository.findById(1L)).thenReturn(Optional.of(testAccount));
+        when(searchIndex.search(1L, "nomina", 10)).thenReturn(List.of(
+            new TransactionSearchIndex.Match(8L, 6),
+            new TransactionSearchIndex.Match(3L, 4),
+            new TransactionSearchIndex.Match(5L, 2)));
+        when(transactionRepository.findAllById(List.of(8L, 3L, 5L))).thenReturn(List.of(
+            keysetRow(3L, LocalDate.of(2025, 1, 31)),
+            keysetRow(5L, LocalDate.of(2025, 2, 28)),
+            keysetRow(8L, LocalDate.of(2025, 3, 31))));
+        when(transactionMapper.toResponseDto(any(Transaction.class))).thenAnswer(invocation -> {
+            Transaction transaction = invocation.getArgument(0);
+            return new TransactionResponseDto(
+                transaction.getId(), transaction.getTitle(), null, transaction.getAmount(),
+                transaction.getDate(), transaction.getType(), Recurrence.NONE,
+                1L, "Test Account", CategoryDto.from(testCategory), false, null, null, null, null, null);
+        });
+
+        // When
+        List<TransactionResponseDto> result = transactionService.searchTransactions(1L, 1L, "nomina", 10);
+
+        // Then
+        assertEquals(List.of(8L, 3L, 5L), result.stream().map(TransactionResponseDto::id).toList());
+    }
+
+    @Test
+    @DisplayName("TS-3.5 - Paginated listing without total should return a slice and never count")
+    void shouldReturnSliceWithoutCount() {
+        // Given
+        Pageable pageable = PageRequest.of(0, 2);
+        when(bankAccountRepository.findById(1L)).thenReturn(Optional.of(testAccount));
+        doReturn(new SliceImpl<>(List.of(keysetRow(9L, LocalDate.of(2025, 3, 10)), keysetRow(8L, LocalDate.of(2025, 3, 10))), pageable, true))
+            .when(transactionRepository).findBy(anySpecification(), any());
+
+        // When
+        Slice<TransactionResponseDto> slice = transactionService.getTransactionsByAccount(
+            1L, 1L, null, null, null, null, null, null, null, pageable, TotalCount.NONE);
+
+        // Then
+        assertTrue(slice.hasNext());
+        assertFalse(slice instanceof Page);
+        assertEquals(2, slice.getNumberOfElements());
+        verify(transactionRepository, never()).count(anySpecification());
+        verify(transactionRepository, never()).findAll(anySpecification(), any(Pageable.class));
+    }
+
+    @Test
+    @DisplayName("TS-3.6 - Paginated listing with cached total should count once per account and filters")
+    void shouldReuseCachedTotal() {
+        // Given
+        when(bankAccountRepository.findById(1L)).thenReturn(Optional.of(testAccount));
+        doReturn(new SliceImpl<>(List.of(keysetRow(9L, LocalDate.of(2025, 3, 10))), PageRequest.of(0, 1), true))
+            .when(transactionRepository).findBy(anySpecification(), any());
+        when(transactionRepository.count(anySpecification())).thenReturn(42L);
+
+        // When - misma búsqueda escrita de otra forma, otra página
+        Slice<TransactionResponseDto> first = transactionService.getTransactionsByAccount(
+            1L, 1L, "Nómina", "INCOME", null, null, new BigDecimal("10.00"), null, null, PageRequest.of(0, 1), TotalCount.CACHED);
+        Slice<TransactionResponseDto> second = transactionService.getTransactionsByAccount(
+            1L, 1L, " nomina", "INCOME", "", null, new BigDecimal("10"), null, null, PageRequest.of(1, 1), TotalCount.CACHED);
+
+        // Then
+        assertEquals(42L, ((Page<TransactionResponseDto>) first).getTotalElements());
+        assertEquals(42L, ((Page<TransactionResponseDto>) second).getTotalElements());
+        verify(transactionRepository, times(1)).count(anySpecification());
+    }
+
+    @Test
+    @DisplayName("TS-3.7 - Cached total should be recounted after a change in the same account only")
+    void shouldRecountAfterAccountChange() {
+        // Given
+        Pageable pageable = PageRequest.of(0, 1);
+        when(bankAccountRepository.findById(1L)).thenReturn(Optional.of(testAccount));
+        doReturn(new SliceImpl<>(List.of(keysetRow(9L, LocalDate.of(2025, 3, 10))), pageable, true))
+            .when(transactionRepository).findBy(anySpecification(), any());
+        when(transactionRepository.count(anySpecification())).thenReturn(42L, 43L);
+        transactionService.getTransactionsByAccount(1L, 1L, null, null, null, null, null, null, null, pageable, TotalCount.CACHED);
+
+        // When
+        countCache.onTransactionChanged(TransactionChangedEvent.of(2L, LocalDate.of(2025, 3, 10)));
+        Slice<TransactionResponseDto> otherAccountChanged = transactionService.getTransactionsByAccount(
+            1L, 1L, null, null, null, null, null, null, null, pageable, TotalCount.CACHED);
+        countCache.onTransactionChanged(TransactionChangedEvent.of(1L, LocalDate.of(2025, 3, 10)));
+        Slice<TransactionResponseDto> sameAccountChanged = transactionService.getTransactionsByAccount(
+            1L, 1L, null, null, null, null, null, null, null, pageable, TotalCount.CACHED);
+
+        // Then
+        assertEquals(42L, ((Page<TransactionResponseDto>) otherAccountChanged).getTotalElements());
+        assertEquals(43L, ((Page<TransactionResponseDto>) sameAccountChanged).getTotalElements());
+        verify(transactionRepository, times(2)).count(anySpecification());
+    }
+
+    @Test
+    @DisplayName("TS-3.8 - A count that overlaps an invalidation of its account should not be cached")
+    void shouldNotCacheCountOverlappingInvalidation() {
+        // Given - el count(*) leyó la foto anterior al commit y la invalidación llega mientras cuenta
+        TransactionCountCache.Key key = TransactionCountCache.Key.of(1L, null, null, null, null, null, null, null);
+        long stale = countCache.countFor(key, () -> {
+            countCache.onTransactionChanged(TransactionChangedEvent.of(1L, LocalDate.of(2025, 3, 10)));
+            return 42L;
+        });
+
+        // When
+        long recounted = countCache.countFor(key, () -> 43L);
+        long cached = countCache.countFor(key, () -> 44L);
+
+        // Then
+        assertEquals(42L, stale);
+        assertEquals(43L, recounted);
+        assertEquals(43L, cached);
+    }
 }
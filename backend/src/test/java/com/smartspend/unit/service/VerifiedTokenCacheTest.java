@@ -0,0 +1,100 @@
+package com.smartspend.unit.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+import java.util.Date;
+import java.util.Map;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.smartspend.auth.JwtService;
+import com.smartspend.security.SmartSpendPrincipal;
+import com.smartspend.security.VerifiedTokenCache;
+
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.SignatureAlgorithm;
+import io.jsonwebtoken.io.Decoders;
+import io.jsonwebtoken.security.Keys;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+public class VerifiedTokenCacheTest {
+
+    private final String testSecret = "dGhpcyBpcyBhIHRlc3Qgc2VjcmV0IGtleSBmb3IgSldUIHRva2VuIGdlbmVyYXRpb24gYW5kIHZhbGlkYXRpb24=";
+
+    private JwtService jwtService;
+    private MeterRegistry meterRegistry;
+    private VerifiedTokenCache verifiedTokenCache;
+
+    @BeforeEach
+    void setUp() {
+        jwtService = spy(new JwtService(testSecret));
+        meterRegistry = new SimpleMeterRegistry();
+        verifiedTokenCache = new VerifiedTokenCache(100, meterRegistry);
+        ReflectionTestUtils.setField(verifiedTokenCache, "jwtService", jwtService);
+    }
+
+    @Test
+    @DisplayName("JC-1: principalFor - Should verify a token once and serve repeated requests from the cache")
+    void shouldVerifyTokenOnlyOnce() {
+        // Given
+        String token = jwtService.generateToken(7L, "test@example.com");
+
+        // When
+        SmartSpendPrincipal first = verifiedTokenCache.principalFor(token);
+        SmartSpendPrincipal second = verifiedTokenCache.principalFor(token);
+
+        // Then
+        assertEquals(new SmartSpendPrincipal(7L, "test@example.com"), first);
+        assertEquals(first, second);
+        verify(jwtService, times(1)).parseClaims(token);
+        assertEquals(1.0, cacheGets("hit"));
+        assertEquals(1.0, cacheGets("miss"));
+    }
+
+    @Test
+    @DisplayName("JC-2: principalFor - Should not cache invalid tokens")
+    void shouldNotCacheInvalidTokens() {
+        // Given
+        String token = jwtService.generateToken(7L, "test@example.com");
+        String tampered = token.substring(0, token.lastIndexOf('.') + 1) + "tampered_signature";
+
+        // When & Then
+        assertThrows(Exception.class, () -> verifiedTokenCache.principalFor(tampered));
+        assertThrows(Exception.class, () -> verifiedTokenCache.principalFor(tampered));
+        verify(jwtService, times(2)).parseClaims(anyString());
+    }
+
+    @Test
+    @DisplayName("JC-3: principalFor - Should stop serving a token once it reaches its exp")
+    void shouldEvictTokenAtExpiration() throws InterruptedException {
+        // Given - Token valid for about one second
+        String token = Jwts.builder()
+            .setSubject("test@example.com")
+            .setExpiration(new Date(System.currentTimeMillis() + 1000))
+            .addClaims(Map.of("userId", 7L))
+            .signWith(Keys.hmacShaKeyFor(Decoders.BASE64.decode(testSecret)), SignatureAlgorithm.HS256)
+            .compact();
+        assertNotNull(verifiedTokenCache.principalFor(token));
+
+        // When
+        Thread.sleep(2100);
+
+        // Then - The entry is gone and the expired token is verified again (and rejected)
+        assertThrows(Exception.class, () -> verifiedTokenCache.principalFor(token));
+        verify(jwtService, times(2)).parseClaims(token);
+    }
+
+    private double cacheGets(String result) {
+        return meterRegistry.get("cache.gets")
+            .tag("cache", VerifiedTokenCache.CACHE_NAME)
+            .tag("result", result)
+            .functionCounter()
+            .count();
+    }
+}
@@ -0,0 +1,75 @@
+package com.smartspend.benchmarks;
+
+import java.time.LocalDate;
+
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import com.smartspend.BackendApplication;
+
+/**
+ * Arranca la aplicación completa con el perfil "bench" y siembra la base de datos una vez
+ * por trial. El tamaño del conjunto de datos se controla con los @Param (se pueden
+ * sobrescribir desde la línea de comandos con -p accounts=10,transactionsPerAccount=5000).
+ */
+@State(Scope.Benchmark)
+public class BenchmarkContext {
+
+    // Mes y año que consultan las suites; el seeder reparte las fechas por BenchmarkSeeder.FIRST_DAY..LAST_DAY
+    public static final int YEAR = 2025;
+    public static final int MONTH = 6;
+
+    @Param({"5"})
+    public int accounts;
+
+    @Param({"2000"})
+    public int transactionsPerAccount;
+
+    // Proporción de transacciones con imagen adjunta (0..1)
+    @Param({"0.2"})
+    public double imageRatio;
+
+    private ConfigurableApplicationContext context;
+    private BenchmarkSeeder.Dataset dataset;
+
+    @Setup(Level.Trial)
+    public void start() {
+        SpringApplication application = new SpringApplication(BackendApplication.class);
+        context = application.run("--spring.profiles.active=bench");
+
+        dataset = context.getBean(BenchmarkSeeder.class)
+            .seed(accounts, transactionsPerAccount, imageRatio);
+    }
+
+    @TearDown(Level.Trial)
+    public void stop() {
+        if (context != null) {
+            context.close();
+        }
+    }
+
+    public <T> T bean(Class<T> type) {
+        return context.getBean(type);
+    }
+
+    public Long userId() {
+        return dataset.userId();
+    }
+
+    /**
+     * Cuenta sobre la que se miden las consultas; todas tienen el mismo volumen
+     */
+    public Long accountId() {
+        return dataset.accountIds().get(0);
+    }
+
+    public LocalDate periodStart() {
+        return LocalDate.of(YEAR, MONTH, 1);
+    }
+}
@@ -0,0 +1,159 @@
+package com.smartspend.benchmarks;
+
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import javax.imageio.ImageIO;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Component;
+
+import com.smartspend.bankAccount.BankAccount;
+import com.smartspend.bankAccount.BankAccountRepository;
+import com.smartspend.category.Category;
+import com.smartspend.category.CategoryRepository;
+import com.smartspend.image.ImageStore;
+import com.smartspend.ledger.LedgerService;
+import com.smartspend.transaction.Recurrence;
+import com.smartspend.transaction.Transaction;
+import com.smartspend.transaction.TransactionRepository;
+import com.smartspend.transaction.TransactionType;
+import com.smartspend.user.User;
+import com.smartspend.user.UserRepository;
+
+/**
+ * Genera el conjunto de datos de los benchmarks con las mismas entidades que DataLoader:
+ * un usuario con N cuentas y M transacciones por cuenta repartidas entre FIRST_DAY y LAST_DAY
+ * sobre las categorías por defecto. La semilla es fija para que dos ejecuciones midan
+ * exactamente los mismos datos.
+ */
+@Component
+public class BenchmarkSeeder {
+
+    public static final String USER_EMAIL = "benchmark@smartspend.com";
+    public static final LocalDate FIRST_DAY = LocalDate.of(2024, 1, 1);
+    public static final LocalDate LAST_DAY = LocalDate.of(2025, 12, 31);
+
+    private static final int BATCH_SIZE = 500;
+    private static final long SEED = 42L;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private BankAccountRepository bankAccountRepository;
+
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    @Autowired
+    private TransactionRepository transactionRepository;
+
+    @Autowired
+    private ImageStore imageStore;
+
+    @Autowired
+    private LedgerService ledgerService;
+
+    @Autowired
+    private PasswordEncoder passwordEncoder;
+
+    public record Dataset(Long userId, List<Long> accountIds) {}
+
+    public Dataset seed(int accounts, int transactionsPerAccount, double imageRatio) {
+        Random random = new Random(SEED);
+
+        List<Category> incomeCategories = categoryRepository.findByIsDefaultTrueAndType(TransactionType.INCOME);
+        List<Category> expenseCategories = categoryRepository.findByIsDefaultTrueAndType(TransactionType.EXPENSE);
+
+        // Todas las transacciones con imagen comparten el mismo blob: el almacén deduplica por hash
+        byte[] receipt = receiptImage();
+        String imageHash = imageStore.store(receipt, "image/png");
+
+        User user = new User();
+        user.setUserName("benchmark");
+        user.setUserEmail(USER_EMAIL);
+        user.setUserHashedPassword(passwordEncoder.encode("benchmark"));
+        user = userRepository.save(user);
+
+        long days = ChronoUnit.DAYS.between(FIRST_DAY, LAST_DAY) + 1;
+        List<Long> accountIds = new ArrayList<>();
+
+        for (int a = 0; a < accounts; a++) {
+            BankAccount account = bankAccountRepository.save(
+                new BankAccount(user, "Cuenta " + (a + 1), new BigDecimal("1000.00")));
+            accountIds.add(account.getId());
+
+            List<Transaction> batch = new ArrayList<>(BATCH_SIZE);
+            for (int t = 0; t < transactionsPerAccount; t++) {
+                // Una de cada cinco es un ingreso, como en los datos de ejemplo
+                boolean income = random.nextInt(5) == 0;
+                List<Category> categories = income ? incomeCategories : expenseCategories;
+
+                Transaction transaction = Transaction.builder()
+                    .title((income ? "Ingreso " : "Gasto ") + t)
+                    .description("Transacción de benchmark")
+                    .amount(BigDecimal.valueOf(1 + random.nextDouble() * (income ? 2500 : 150)).setScale(2, RoundingMode.HALF_UP))
+                    .date(FIRST_DAY.plusDays(random.nextLong(days)))
+                    .type(income ? TransactionType.INCOME : TransactionType.EXPENSE)
+                    .recurrence(Recurrence.NONE)
+                    .category(categories.get(random.nextInt(categories.size())))
+                    .account(account)
+                    .isRecurringSeriesParent(false)
+                    .nextRecurrenceDate(null)
+                    .build();
+
+                if (random.nextDouble() < imageRatio) {
+                    transaction.setImageHash(imageHash);
+                    transaction.setImageSize((long) receipt.length);
+                    transaction.setImageType("image/png");
+                    transaction.setImageName("ticket-" + t + ".png");
+                }
+
+                batch.add(transaction);
+                if (batch.size() == BATCH_SIZE) {
+                    transactionRepository.saveAll(batch);
+                    batch.clear();
+                }
+            }
+            transactionRepository.saveAll(batch);
+        }
+
+        // Las gráficas y el informe leen del libro diario: se reconstruye de una vez
+        ledgerService.rebuild();
+
+        System.out.println("📊 Benchmark: " + accounts + " cuentas x " + transactionsPerAccount + " transacciones");
+        return new Dataset(user.getUserId(), accountIds);
+    }
+
+    private static byte[] receiptImage() {
+        BufferedImage image = new BufferedImage(320, 480, BufferedImage.TYPE_INT_RGB);
+        Graphics2D graphics = image.createGraphics();
+        graphics.setColor(Color.WHITE);
+        graphics.fillRect(0, 0, image.getWidth(), image.getHeight());
+        graphics.setColor(Color.DARK_GRAY);
+        for (int y = 20; y < image.getHeight(); y += 24) {
+            graphics.fillRect(20, y, 280, 8);
+        }
+        graphics.dispose();
+
+        try (ByteArrayOutputStream out = new ByteArrayOutputStream()) {
+            ImageIO.write(image, "png", out);
+            return out.toByteArray();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,71 @@
+package com.smartspend.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.smartspend.charts.ChartsService;
+import com.smartspend.charts.dtos.BarLineChartDto;
+import com.smartspend.charts.dtos.DashboardDto;
+import com.smartspend.charts.dtos.LineChartDto;
+import com.smartspend.charts.dtos.PieChartDto;
+import com.smartspend.transaction.TransactionType;
+
+/**
+ * Una medida por cada gráfica que expone ChartsService, con el mes y el año de BenchmarkContext
+ */
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ChartsBenchmark {
+
+    @Benchmark
+    public PieChartDto categoryStatsByMonth(BenchmarkContext ctx) {
+        return ctx.bean(ChartsService.class).getCategoryStadsByMonth(
+            ctx.userId(), ctx.accountId(), BenchmarkContext.YEAR, BenchmarkContext.MONTH, TransactionType.EXPENSE);
+    }
+
+    @Benchmark
+    public PieChartDto categoryStatsByYear(BenchmarkContext ctx) {
+        return ctx.bean(ChartsService.class).getCategoryStadsByYear(
+            ctx.userId(), ctx.accountId(), BenchmarkContext.YEAR, TransactionType.EXPENSE);
+    }
+
+    @Benchmark
+    public BarLineChartDto barLineChartByMonth(BenchmarkContext ctx) {
+        return ctx.bean(ChartsService.class).getBarLineChartByMonth(
+            ctx.userId(), ctx.accountId(), BenchmarkContext.YEAR, BenchmarkContext.MONTH);
+    }
+
+    @Benchmark
+    public BarLineChartDto barLineChartByYear(BenchmarkContext ctx) {
+        return ctx.bean(ChartsService.class).getBarLineChartByYear(
+            ctx.userId(), ctx.accountId(), BenchmarkContext.YEAR);
+    }
+
+    @Benchmark
+    public LineChartDto timeLineChartByMonth(BenchmarkContext ctx) {
+        return ctx.bean(ChartsService.class).getTimeLineChartByMonth(
+            ctx.userId(), ctx.accountId(), BenchmarkContext.YEAR, BenchmarkContext.MONTH);
+    }
+
+    @Benchmark
+    public LineChartDto timeLineChartByYear(BenchmarkContext ctx) {
+        return ctx.bean(ChartsService.class).getTimeLineChartByYear(
+            ctx.userId(), ctx.accountId(), BenchmarkContext.YEAR);
+    }
+
+    @Benchmark
+    public DashboardDto dashboardByMonth(BenchmarkContext ctx) {
+        return ctx.bean(ChartsService.class).getDashboardByMonth(
+            ctx.userId(), ctx.accountId(), BenchmarkContext.YEAR, BenchmarkContext.MONTH);
+    }
+}
@@ -0,0 +1,28 @@
+package com.smartspend.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.smartspend.report.ReportService;
+import com.smartspend.report.dtos.ReportResponseDTO;
+
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ReportBenchmark {
+
+    @Benchmark
+    public ReportResponseDTO responseData(BenchmarkContext ctx) {
+        return ctx.bean(ReportService.class).getResponseData(
+            ctx.accountId(), ctx.userId(), BenchmarkContext.YEAR, BenchmarkContext.MONTH);
+    }
+}
@@ -0,0 +1,86 @@
+package com.smartspend.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+
+import com.smartspend.transaction.TransactionCursor;
+import com.smartspend.transaction.TransactionService;
+import com.smartspend.transaction.dtos.TransactionResponseDto;
+import com.smartspend.transaction.dtos.TransactionSliceDto;
+
+/**
+ * Listado de transacciones de una cuenta: primera página y página a mitad del listado,
+ * tanto por offset (Page con count) como por cursor (keyset)
+ */
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TransactionListingBenchmark {
+
+    private static final int PAGE_SIZE = 20;
+
+    @State(Scope.Benchmark)
+    public static class Listing {
+        Pageable firstPage;
+        Pageable deepPage;
+        String deepCursor;
+
+        @Setup(Level.Trial)
+        public void prepare(BenchmarkContext ctx) {
+            // Mismo orden por defecto que el controlador (date DESC) más id para que sea estable
+            Sort order = Sort.by(Sort.Direction.DESC, "date").and(Sort.by(Sort.Direction.DESC, "id"));
+            int middle = Math.max(ctx.transactionsPerAccount / PAGE_SIZE / 2, 1);
+
+            firstPage = PageRequest.of(0, PAGE_SIZE, order);
+            deepPage = PageRequest.of(middle, PAGE_SIZE, order);
+
+            // El cursor equivalente a deepPage es la última fila de la página anterior
+            Page<TransactionResponseDto> previous = ctx.bean(TransactionService.class).getTransactionsByAccount(
+                ctx.accountId(), ctx.userId(), null, null, null, null, null, null, null,
+                PageRequest.of(middle - 1, PAGE_SIZE, order));
+            TransactionResponseDto last = previous.getContent().get(previous.getContent().size() - 1);
+            deepCursor = new TransactionCursor(last.date(), last.id()).encode();
+        }
+    }
+
+    @Benchmark
+    public Page<TransactionResponseDto> offsetFirstPage(BenchmarkContext ctx, Listing listing) {
+        return ctx.bean(TransactionService.class).getTransactionsByAccount(
+            ctx.accountId(), ctx.userId(), null, null, null, null, null, null, null, listing.firstPage);
+    }
+
+    @Benchmark
+    public Page<TransactionResponseDto> offsetDeepPage(BenchmarkContext ctx, Listing listing) {
+        return ctx.bean(TransactionService.class).getTransactionsByAccount(
+            ctx.accountId(), ctx.userId(), null, null, null, null, null, null, null, listing.deepPage);
+    }
+
+    @Benchmark
+    public TransactionSliceDto keysetFirstPage(BenchmarkContext ctx) {
+        return ctx.bean(TransactionService.class).getTransactionsByAccountAfter(
+            ctx.accountId(), ctx.userId(), null, PAGE_SIZE, null, null, null, null, null, null, null);
+    }
+
+    @Benchmark
+    public TransactionSliceDto keysetDeepPage(BenchmarkContext ctx, Listing listing) {
+        return ctx.bean(TransactionService.class).getTransactionsByAccountAfter(
+            ctx.accountId(), ctx.userId(), listing.deepCursor, PAGE_SIZE, null, null, null, null, null, null, null);
+    }
+}
@@ -0,0 +1,62 @@
+package com.smartspend.benchmarks;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.smartspend.transaction.Transaction;
+import com.smartspend.transaction.TransactionMapper;
+import com.smartspend.transaction.TransactionRepository;
+import com.smartspend.transaction.dtos.TransactionResponseDto;
+
+/**
+ * Coste de convertir una página de entidades a DTO, con y sin imagen adjunta. Las entidades
+ * se cargan una vez en el setup para medir solo el mapeo: con la cuenta por entity graph (es
+ * LAZY y el mapeo ocurre fuera de sesión) y las categorías ya en CategoryReferenceCache.
+ */
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TransactionMapperBenchmark {
+
+    private static final int PAGE_SIZE = 100;
+
+    @State(Scope.Benchmark)
+    public static class Entities {
+        TransactionMapper mapper;
+        List<Transaction> withImage;
+        List<Transaction> withoutImage;
+
+        @Setup(Level.Trial)
+        public void load(BenchmarkContext ctx) {
+            mapper = ctx.bean(TransactionMapper.class);
+            List<Transaction> all = ctx.bean(TransactionRepository.class).findByAccount_User_UserIdOrderByDateDesc(ctx.userId());
+            mapper.prefetchCategories(all);
+            withImage = all.stream().filter(Transaction::hasImage).limit(PAGE_SIZE).toList();
+            withoutImage = all.stream().filter(t -> !t.hasImage()).limit(PAGE_SIZE).toList();
+        }
+    }
+
+    @Benchmark
+    public List<TransactionResponseDto> mapWithImages(Entities entities) {
+        return entities.withImage.stream().map(entities.mapper::toResponseDto).toList();
+    }
+
+    @Benchmark
+    public List<TransactionResponseDto> mapWithoutImages(Entities entities) {
+        return entities.withoutImage.stream().map(entities.mapper::toResponseDto).toList();
+    }
+}
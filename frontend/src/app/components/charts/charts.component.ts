@@ -7,7 +7,7 @@ import { Chart, ChartConfiguration, registerables } from 'chart.js';
 import { ChartsService } from '../../services/charts.service';
 import { ReportService } from '../../services/report.service';
 import { BankAccountServiceService, BankAccount } from '../../services/bankAccount/bank-account-service.service';
-import { PieChartDto, BarLineChartDto, TimelineChartDto, TransactionType } from '../../interfaces/chart.interface';
+import { PieChartDto, BarLineChartDto, TimelineChartDto, DashboardDto, TransactionType } from '../../interfaces/chart.interface';
 
 // Registrar todos los componentes de Chart.js
 Chart.register(...registerables);
@@ -39,6 +39,7 @@ export class ChartsComponent implements OnInit {
   loadingBarChart = false;
   loadingTimelineChart = false;
   generatingPdf = false; // Nueva propiedad para el estado del PDF
+  exportingCsv = false;
   
   // Datos para los gráficos
   pieIncomesData: ChartConfiguration<'pie'>['data'] | null = null;
@@ -167,6 +168,12 @@ export class ChartsComponent implements OnInit {
 
   loadCharts() {
     if (!this.selectedAccountId) return;
+
+    // La vista mensual se resuelve con una única petición al endpoint del panel
+    if (this.viewType === 'monthly') {
+      this.loadMonthlyDashboard();
+      return;
+    }
     
     this.loadPieChart(TransactionType.INCOME);
     this.loadPieChart(TransactionType.EXPENSE);
@@ -178,6 +185,50 @@ export class ChartsComponent implements OnInit {
     this.loadCharts();
   }
 
+  private loadMonthlyDashboard() {
+    if (!this.selectedAccountId) return;
+
+    this.loadingPieIncomes = true;
+    this.loadingPieExpenses = true;
+    this.loadingBarChart = true;
+    this.loadingTimelineChart = true;
+
+    this.chartsService.getDashboardByMonth(
+      this.selectedAccountId,
+      this.selectedYear,
+      this.selectedMonth
+    ).subscribe({
+      next: (data: DashboardDto) => {
+        this.pieIncomesData = this.createPieChartData(data.incomePieChart, TransactionType.INCOME);
+        this.pieExpensesData = this.createPieChartData(data.expensePieChart, TransactionType.EXPENSE);
+        this.incomeTotal = data.incomePieChart.totalAmount;
+        this.expenseTotal = data.expensePieChart.totalAmount;
+        this.balance = this.incomeTotal - this.expenseTotal;
+        this.barChartData = this.createBarChartData(data.barLineChart);
+        this.timelineChartData = this.createTimelineChartData(data.lineChart);
+        this.setDashboardLoading(false);
+      },
+      error: (error) => {
+        console.error('Error al cargar el panel mensual:', error);
+        this.pieIncomesData = null;
+        this.pieExpensesData = null;
+        this.barChartData = null;
+        this.timelineChartData = null;
+        this.incomeTotal = 0;
+        this.expenseTotal = 0;
+        this.balance = 0;
+        this.setDashboardLoading(false);
+      }
+    });
+  }
+
+  private setDashboardLoading(loading: boolean) {
+    this.loadingPieIncomes = loading;
+    this.loadingPieExpenses = loading;
+    this.loadingBarChart = loading;
+    this.loadingTimelineChart = loading;
+  }
+
   private loadPieChart(type: TransactionType) {
     if (!this.selectedAccountId) return;
     
@@ -400,6 +451,32 @@ export class ChartsComponent implements OnInit {
     };
   }
 
+  exportCsv() {
+    if (!this.selectedAccountId || this.exportingCsv) return;
+
+    this.exportingCsv = true;
+    const month = this.viewType === 'monthly' ? this.selectedMonth : undefined;
+
+    this.reportService.exportCsv(this.selectedAccountId, this.selectedYear, month)
+      .subscribe({
+        next: (blob) => {
+          const period = month ? `${this.selectedYear}-${String(month).padStart(2, '0')}` : `${this.selectedYear}`;
+          const url = URL.createObjectURL(blob);
+          const link = document.createElement('a');
+          link.href = url;
+          link.download = `smartspend-${this.selectedAccountId}-${period}.csv`;
+          link.click();
+          URL.revokeObjectURL(url);
+          this.exportingCsv = false;
+        },
+        error: (error) => {
+          console.error('Error exportando CSV:', error);
+          this.exportingCsv = false;
+          alert('Error al exportar los movimientos');
+        }
+      });
+  }
+
   generateMonthlyPdf() {
     if (!this.selectedAccountId || this.generatingPdf) return;
 
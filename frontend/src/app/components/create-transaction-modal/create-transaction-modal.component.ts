@@ -91,8 +91,21 @@ export class CreateTransactionModalComponent implements OnInit {
       };
       
       // Manejar imagen existente
-      if (this.transactionToEdit.hasImage && this.transactionToEdit.imageBase64) {
-        this.imagePreview = `data:${this.transactionToEdit.imageType};base64,${this.transactionToEdit.imageBase64}`;
+      if (this.transactionToEdit.hasImage) {
+        const transactionId = this.transactionToEdit.id;
+        this.transactionService.getTransactionImage(transactionId, 256).subscribe({
+          next: (blob: Blob) => {
+            // Se lee como data URL para no tener que liberar object URLs al cerrar el modal
+            const reader = new FileReader();
+            reader.onload = () => {
+              if (this.transactionToEdit?.id === transactionId) {
+                this.imagePreview = reader.result as string;
+              }
+            };
+            reader.readAsDataURL(blob);
+          },
+          error: (err) => console.error('Error loading transaction image:', err)
+        });
       } else {
         this.clearImage();
       }
@@ -1,4 +1,4 @@
-import { Component, OnInit } from '@angular/core';
+import { Component, OnDestroy, OnInit } from '@angular/core';
 import { Transaction } from '../../interfaces/transaction.interface';
 import { ActivatedRoute, Router } from '@angular/router';
 import { TransactionService } from '../../services/transaction/transaction.service';
@@ -12,11 +12,12 @@ import { CreateTransactionModalComponent } from '../create-transaction-modal/cre
   templateUrl: './transaction-detail.component.html',
   styleUrl: './transaction-detail.component.css'
 })
-export class TransactionDetailComponent implements OnInit {
+export class TransactionDetailComponent implements OnInit, OnDestroy {
 
   transactionId: number | null = null;
   transaction: Transaction | null = null;
   error: string | null = null;
+  imageObjectUrl: string | null = null;
   
   // Variables para modales
   showConfirmModal: boolean = false;
@@ -38,6 +39,7 @@ export class TransactionDetailComponent implements OnInit {
           next: (data: Transaction) => {
             this.transaction = data;
             this.error = null;
+            this.loadImage();
           },
           error: (err) => {
             this.error = 'Error fetching transaction details: ' + err.message;
@@ -51,6 +53,31 @@ export class TransactionDetailComponent implements OnInit {
     });
   }
 
+  ngOnDestroy(): void {
+    this.releaseImage();
+  }
+
+  loadImage(): void {
+    this.releaseImage();
+    if (!this.transaction?.hasImage) return;
+
+    this.transactionService.getTransactionImage(this.transaction.id).subscribe({
+      next: (blob: Blob) => {
+        this.imageObjectUrl = URL.createObjectURL(blob);
+      },
+      error: (err) => {
+        console.error('Error loading transaction image:', err);
+      }
+    });
+  }
+
+  private releaseImage(): void {
+    if (this.imageObjectUrl) {
+      URL.revokeObjectURL(this.imageObjectUrl);
+      this.imageObjectUrl = null;
+    }
+  }
+
   getRecurrenceText(recurrence: string): string {
     const recurrenceMap: { [key: string]: string } = {
       'NONE': 'Sin recurrencia',
@@ -110,6 +137,7 @@ export class TransactionDetailComponent implements OnInit {
 
   onTransactionUpdated(updatedTransaction: Transaction): void {
     this.transaction = updatedTransaction; // Actualizar los datos locales
+    this.loadImage();
     this.showEditModal = false;
     console.log('Transacción actualizada:', updatedTransaction);
   }
@@ -25,6 +25,14 @@ export interface TimelineChartDto {
   expensesData: number[];
 }
 
+// Todos los gráficos mensuales del panel en una sola respuesta
+export interface DashboardDto {
+  incomePieChart: PieChartDto;
+  expensePieChart: PieChartDto;
+  barLineChart: BarLineChartDto;
+  lineChart: TimelineChartDto;
+}
+
 export enum TransactionType {
   INCOME = 'INCOME',
   EXPENSE = 'EXPENSE'
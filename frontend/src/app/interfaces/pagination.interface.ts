@@ -18,4 +18,12 @@ export interface PaginatedResponse<T> {
   size: number;
   number: number;
   first: boolean;
-}
\ No newline at end of file
+}
+
+// Respuesta del listado por cursor (sin totales): nextCursor se reenvía para pedir la siguiente página
+export interface CursorPage<T> {
+  content: T[];
+  size: number;
+  hasNext: boolean;
+  nextCursor: string | null;
+}
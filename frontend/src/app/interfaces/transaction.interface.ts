@@ -13,7 +13,9 @@ export interface Transaction {
   category: Category; // Objeto Category completo
   // Nuevos campos para imagen
   hasImage: boolean;
-  imageBase64?: string | null;
+  imageUrl?: string | null;   // la imagen se descarga aparte con TransactionService.getTransactionImage
+  imageETag?: string | null;
+  imageSize?: number | null;
   imageName?: string | null;
   imageType?: string | null;
 }
\ No newline at end of file
@@ -3,7 +3,7 @@ import { HttpClient, HttpParams } from '@angular/common/http';
 import { Observable, throwError } from 'rxjs';
 import { catchError } from 'rxjs/operators';
 import { environment } from '../environments/environment';
-import { PieChartDto, BarLineChartDto, ComparisonChartDto, TimelineChartDto, TransactionType } from '../interfaces/chart.interface';
+import { PieChartDto, BarLineChartDto, ComparisonChartDto, TimelineChartDto, DashboardDto, TransactionType } from '../interfaces/chart.interface';
 
 @Injectable({
   providedIn: 'root'
@@ -125,6 +125,26 @@ export class ChartsService {
       );
   }
 
+  /**
+   * Obtiene en una sola llamada todos los gráficos mensuales del panel
+   * (tartas de ingresos y gastos, barras y timeline)
+   */
+  getDashboardByMonth(
+    accountId: number,
+    year: number,
+    month: number
+  ): Observable<DashboardDto> {
+    const params = new HttpParams()
+      .set('accountId', accountId.toString())
+      .set('year', year.toString())
+      .set('month', month.toString());
+
+    return this.http.get<DashboardDto>(`${this.baseUrl}/dashboard`, { params })
+      .pipe(
+        catchError(this.handleError)
+      );
+  }
+
   /**
    * Manejo de errores
    */
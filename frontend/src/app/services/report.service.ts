@@ -5,10 +5,29 @@ import { environment } from '../environments/environment';
 import jsPDF from 'jspdf';
 import html2canvas from 'html2canvas';
 
+export interface ReportAccount {
+  id: number;
+  accountName: string;
+  currentBalance: number;
+}
+
+// Fila plana del informe (sin entidades anidadas)
+export interface ReportTransactionRow {
+  id: number;
+  title: string;
+  description: string | null;
+  amount: number;
+  date: string;
+  type: 'INCOME' | 'EXPENSE';
+  categoryName: string;
+  categoryColor: string;
+  categoryIcon: string | null;
+}
+
 export interface ReportData {
-  bankAccount: any;
-  incomesList: any[];
-  expensesList: any[];
+  bankAccount: ReportAccount;
+  incomesList: ReportTransactionRow[];
+  expensesList: ReportTransactionRow[];
   stadistics: {
     incomesTotal: number;
     expensesTotal: number;
@@ -42,6 +61,22 @@ export class ReportService {
     return this.http.get<ReportData>(`${this.apiUrl}/report-data`, { params });
   }
 
+  /**
+   * Descarga los movimientos en CSV generados en el servidor.
+   * Sin mes se exporta el año completo
+   */
+  exportCsv(bankAccountId: number, year: number, month?: number): Observable<Blob> {
+    const params: Record<string, string> = {
+      bankAccountId: bankAccountId.toString(),
+      year: year.toString()
+    };
+    if (month) {
+      params['month'] = month.toString();
+    }
+
+    return this.http.get(`${this.apiUrl}/export/csv`, { params, responseType: 'blob' });
+  }
+
   /**
    * Genera PDF usando jsPDF en el frontend con gráficos
    */
@@ -422,9 +457,9 @@ export class ReportService {
             }
           }
           
-          const categoryName = transaction?.category?.name?.length > 10 ? 
-            transaction.category.name.substring(0, 10) + '...' : 
-            (transaction?.category?.name || 'N/A');
+          const categoryName = transaction?.categoryName?.length > 10 ? 
+            transaction.categoryName.substring(0, 10) + '...' : 
+            (transaction?.categoryName || 'N/A');
 
           // Texto de las celdas
           doc.setFontSize(10);
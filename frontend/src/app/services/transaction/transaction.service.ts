@@ -1,7 +1,7 @@
 import { Observable } from 'rxjs';
 import { CreateTransactionDto } from '../../interfaces/create-transaction.interface';
 import { Transaction } from '../../interfaces/transaction.interface';
-import { PaginatedResponse, TransactionFilters } from '../../interfaces/pagination.interface';
+import { CursorPage, PaginatedResponse, TransactionFilters } from '../../interfaces/pagination.interface';
 import { HttpClient, HttpParams } from '@angular/common/http';
 import { environment } from '../../environments/environment';
 import { Injectable } from '@angular/core';
@@ -27,6 +27,13 @@ export class TransactionService {
     return this.http.get<Transaction>(`${this.apiUrl}/transactions/${transactionId}`);
   }
 
+  // La imagen se pide como blob para que el interceptor añada el token (un <img src> no lo haría).
+  // Con size (64 o 256) se obtiene la miniatura generada en el servidor
+  getTransactionImage(transactionId: number, size?: 64 | 256): Observable<Blob> {
+    const params = size ? `?size=${size}` : '';
+    return this.http.get(`${this.apiUrl}/transactions/${transactionId}/image${params}`, { responseType: 'blob' });
+  }
+
   createTransaction(transaction: CreateTransactionDto): Observable<Transaction> {
     return this.http.post<Transaction>(`${this.apiUrl}/transactions`, transaction);
   }
@@ -98,9 +105,11 @@ export class TransactionService {
     size: number = 10,
     filters: TransactionFilters
   ): Observable<PaginatedResponse<Transaction>> {
+    // El total se cuenta una vez por filtro y el backend lo reutiliza al cambiar de página
     let params = new HttpParams()
       .set('page', page.toString())
-      .set('size', size.toString());
+      .set('size', size.toString())
+      .set('total', 'CACHED');
 
     // Aplicar filtros si existen
     if (filters.search) params = params.set('search', filters.search);
@@ -116,5 +125,29 @@ export class TransactionService {
       { params }
     );
   }
+
+  // Listado por cursor: coste constante en páginas profundas, sin total de elementos
+  getTransactionsScroll(
+    accountId: number,
+    cursor: string | null,
+    size: number = 20,
+    filters: TransactionFilters
+  ): Observable<CursorPage<Transaction>> {
+    let params = new HttpParams().set('size', size.toString());
+    if (cursor) params = params.set('cursor', cursor);
+
+    if (filters.search) params = params.set('search', filters.search);
+    if (filters.type) params = params.set('type', filters.type);
+    if (filters.dateFrom) params = params.set('dateFrom', filters.dateFrom);
+    if (filters.dateTo) params = params.set('dateTo', filters.dateTo);
+    if (filters.minAmount) params = params.set('minAmount', filters.minAmount.toString());
+    if (filters.maxAmount) params = params.set('maxAmount', filters.maxAmount.toString());
+    if (filters.categoryId) params = params.set('categoryId', filters.categoryId);
+
+    return this.http.get<CursorPage<Transaction>>(
+      `${this.apiUrl}/transactions/account/${accountId}/scroll`,
+      { params }
+    );
+  }
   
 }
\ No newline at end of file